@@ -50,7 +50,9 @@ public class JwtAuthInterceptor implements HandlerInterceptor {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                Claims claims = jwtUtil.getClaimsFromToken(token);
+                // 优先使用 JwtAuthFilter 已解析的结果，避免重复验签
+                Object parsed = request.getAttribute(JwtUtil.CLAIMS_ATTRIBUTE);
+                Claims claims = parsed instanceof Claims ? (Claims) parsed : jwtUtil.getClaimsFromToken(token);
                 String role = (String) claims.get("role");  // 直接使用token中的role
                 String uri = request.getRequestURI();
                 
@@ -0,0 +1,41 @@
+package com.example.hello.cache;
+
+import java.util.BitSet;
+
+/**
+ * 时段位图编解码器
+ * 位图按 long 数组逐字变长写入，高位的空字不写，一天按5分钟粒度的288个时段最多约50字节
+ */
+public class BitSetCodec implements ValueCodec {
+
+    public static final int TAG = 3;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        return value instanceof BitSet;
+    }
+
+    @Override
+    public void write(Object value, CompactOutput output) {
+        long[] words = ((BitSet) value).toLongArray();
+        output.writeVarInt(words.length);
+        for (long word : words) {
+            output.writeVarLong(word);
+        }
+    }
+
+    @Override
+    public Object read(CompactInput input) {
+        int length = input.readVarInt();
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) {
+            words[i] = input.readVarLong();
+        }
+        return BitSet.valueOf(words);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.hello.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.hello.model.entity.BookingPolicy;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.repository.BookingPolicyRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 预约规则的内存快照
+ *
+ * 全部规则记录加载后编译为不可变快照，按"自习室 -> 用户组"两级索引，计算某次预约适用的规则只需几次哈希查找，
+ * 不访问数据库。规则按以下顺序逐项取第一个有值的配置：
+ * 自习室+用户组 > 自习室 > 自习室表的 max_advance_days > 用户组 > 全局 > {@link BookingRules#DEFAULTS}。
+ *
+ * 本实例修改规则后在事务提交后重新加载；每30秒比较一次规则数量和最后修改时间，
+ * 其他实例修改的规则最迟在下一次比较时生效，不需要重新部署。
+ */
+@Component
+public class BookingPolicyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingPolicyRegistry.class);
+
+    /**
+     * 表示"所有自习室"或"所有用户组"的索引键
+     */
+    private static final String ANY = "";
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @Autowired
+    private BookingPolicyRepository bookingPolicyRepository;
+
+    /**
+     * 全量加载规则
+     */
+    @PostConstruct
+    public void reload() {
+        try {
+            long count = bookingPolicyRepository.count();
+            Long latestUpdatedAt = bookingPolicyRepository.findLatestUpdatedAt();
+            snapshot = Snapshot.of(bookingPolicyRepository.findAll(), count, latestUpdatedAt);
+            logger.info("预约规则已加载: {} 条", count);
+        } catch (Exception e) {
+            logger.error("加载预约规则失败，沿用当前规则", e);
+        }
+    }
+
+    /**
+     * 规则数量或最后修改时间变化时重新加载
+     */
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void reloadIfChanged() {
+        try {
+            Snapshot current = snapshot;
+            if (bookingPolicyRepository.count() != current.count
+                    || !Objects.equals(bookingPolicyRepository.findLatestUpdatedAt(), current.latestUpdatedAt)) {
+                reload();
+            }
+        } catch (Exception e) {
+            logger.warn("检查预约规则版本失败，等待下次检查: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 规则变化后调用：当前事务提交后重新加载，没有事务时立即加载
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * 用户在指定自习室预约时适用的规则
+     *
+     * @param room 自习室
+     * @param userGroup 用户组，可为空
+     */
+    public BookingRules rulesFor(StudyRoom room, String userGroup) {
+        Snapshot current = snapshot;
+        return current.layer(room.getId(), userGroup)
+            .orElse(current.layer(room.getId(), null))
+            .orElse(Layer.advanceDays(room.getMaxAdvanceDays()))
+            .orElse(current.layer(null, userGroup))
+            .orElse(current.layer(null, null))
+            .toRules();
+    }
+
+    /**
+     * 与自习室无关的规则（签到次数、黑名单），只按用户组匹配
+     *
+     * @param userGroup 用户组，可为空
+     */
+    public BookingRules rulesFor(String userGroup) {
+        Snapshot current = snapshot;
+        return current.layer(null, userGroup)
+            .orElse(current.layer(null, null))
+            .toRules();
+    }
+
+    /**
+     * 某一适用范围配置的规则，字段为空表示未配置
+     */
+    private record Layer(Integer maxAdvanceDays, Integer maxDailyReservations, Boolean allowMultipleSeats,
+                         Integer checkInWindowMinutes, Integer noShowThreshold, Integer blacklistDays) {
+
+        static final Layer EMPTY = new Layer(null, null, null, null, null, null);
+
+        static Layer of(BookingPolicy policy) {
+            return new Layer(policy.getMaxAdvanceDays(), policy.getMaxDailyReservations(),
+                policy.getAllowMultipleSeats(), policy.getCheckInWindowMinutes(),
+                policy.getNoShowThreshold(), policy.getBlacklistDays());
+        }
+
+        static Layer advanceDays(Integer maxAdvanceDays) {
+            return maxAdvanceDays == null ? EMPTY : new Layer(maxAdvanceDays, null, null, null, null, null);
+        }
+
+        /**
+         * 本层未配置的字段取 fallback 的配置
+         */
+        Layer orElse(Layer fallback) {
+            if (fallback == EMPTY) {
+                return this;
+            }
+            if (this == EMPTY) {
+                return fallback;
+            }
+            return new Layer(
+                maxAdvanceDays != null ? maxAdvanceDays : fallback.maxAdvanceDays,
+                maxDailyReservations != null ? maxDailyReservations : fallback.maxDailyReservations,
+                allowMultipleSeats != null ? allowMultipleSeats : fallback.allowMultipleSeats,
+                checkInWindowMinutes != null ? checkInWindowMinutes : fallback.checkInWindowMinutes,
+                noShowThreshold != null ? noShowThreshold : fallback.noShowThreshold,
+                blacklistDays != null ? blacklistDays : fallback.blacklistDays);
+        }
+
+        BookingRules toRules() {
+            BookingRules defaults = BookingRules.DEFAULTS;
+            return new BookingRules(
+                maxAdvanceDays != null ? maxAdvanceDays : defaults.maxAdvanceDays(),
+                maxDailyReservations != null ? maxDailyReservations : defaults.maxDailyReservations(),
+                allowMultipleSeats != null ? allowMultipleSeats : defaults.allowMultipleSeats(),
+                checkInWindowMinutes != null ? checkInWindowMinutes : defaults.checkInWindowMinutes(),
+                noShowThreshold != null ? noShowThreshold : defaults.noShowThreshold(),
+                blacklistDays != null ? blacklistDays : defaults.blacklistDays());
+        }
+    }
+
+    /**
+     * 某一时刻全部规则的不可变快照，自习室ID -> 用户组 -> 规则
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), -1, null);
+
+        private final Map<String, Map<String, Layer>> layers;
+        private final long count;
+        private final Long latestUpdatedAt;
+
+        private Snapshot(Map<String, Map<String, Layer>> layers, long count, Long latestUpdatedAt) {
+            this.layers = layers;
+            this.count = count;
+            this.latestUpdatedAt = latestUpdatedAt;
+        }
+
+        static Snapshot of(List<BookingPolicy> policies, long count, Long latestUpdatedAt) {
+            Map<String, Map<String, Layer>> byRoom = new HashMap<>();
+            for (BookingPolicy policy : policies) {
+                byRoom.computeIfAbsent(keyOf(policy.getStudyRoomId()), key -> new HashMap<>())
+                    .put(keyOf(policy.getUserGroup()), Layer.of(policy));
+            }
+            Map<String, Map<String, Layer>> layers = new HashMap<>();
+            byRoom.forEach((room, byGroup) -> layers.put(room, Map.copyOf(byGroup)));
+            return new Snapshot(Map.copyOf(layers), count, latestUpdatedAt);
+        }
+
+        Layer layer(String studyRoomId, String userGroup) {
+            Map<String, Layer> byGroup = layers.get(keyOf(studyRoomId));
+            if (byGroup == null) {
+                return Layer.EMPTY;
+            }
+            return byGroup.getOrDefault(keyOf(userGroup), Layer.EMPTY);
+        }
+
+        private static String keyOf(String value) {
+            return value == null ? ANY : value;
+        }
+    }
+}
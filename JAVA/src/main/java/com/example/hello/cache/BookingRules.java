@@ -0,0 +1,58 @@
+package com.example.hello.cache;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 解析后的预约规则，不可变
+ *
+ * @param maxAdvanceDays 最多可提前预约的天数
+ * @param maxDailyReservations 每天最多预约次数，0表示不限制
+ * @param allowMultipleSeats 是否允许同一时段预约多个座位
+ * @param checkInWindowMinutes 预约开始前多少分钟可以签到
+ * @param noShowThreshold 未签到多少次加入黑名单
+ * @param blacklistDays 黑名单持续天数
+ */
+public record BookingRules(int maxAdvanceDays, int maxDailyReservations, boolean allowMultipleSeats,
+                           int checkInWindowMinutes, int noShowThreshold, int blacklistDays) {
+
+    /**
+     * 没有任何规则记录时使用的默认值，与原来写死的限制一致
+     */
+    public static final BookingRules DEFAULTS = new BookingRules(7, 3, false, 15, 3, 2);
+
+    /**
+     * 可预约的最晚日期
+     */
+    public LocalDate latestBookableDate(LocalDate today) {
+        return today.plusDays(maxAdvanceDays);
+    }
+
+    /**
+     * 当天已有的预约次数是否已达上限
+     */
+    public boolean dailyQuotaReached(long reservationsToday) {
+        return maxDailyReservations > 0 && reservationsToday >= maxDailyReservations;
+    }
+
+    /**
+     * 允许签到的最早时间
+     */
+    public LocalDateTime earliestCheckIn(LocalDateTime startTime) {
+        return startTime.minusMinutes(checkInWindowMinutes);
+    }
+
+    /**
+     * 未签到次数是否达到加入黑名单的次数
+     */
+    public boolean noShowThresholdReached(int noShowCount) {
+        return noShowCount >= noShowThreshold;
+    }
+
+    /**
+     * 黑名单解除时间
+     */
+    public LocalDateTime blacklistEnd(LocalDateTime blacklistStartTime) {
+        return blacklistStartTime.plusDays(blacklistDays);
+    }
+}
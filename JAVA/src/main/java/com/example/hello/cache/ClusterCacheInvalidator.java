@@ -0,0 +1,220 @@
+package com.example.hello.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.util.CircuitBreakers;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 二级缓存集群失效
+ *
+ * 二级缓存在每个实例本地，本实例的修改由Hibernate自己维护缓存一致；
+ * 一个事务中修改的实体名和ID合并为一条消息，事务提交后发布到Redis频道，其他实例收到后清除对应实体，
+ * 每条消息只清除一次查询缓存。新增的实体只影响查询缓存，不携带ID。
+ * 通过JPQL批量更新（绕过实体事件）修改座位或自习室时，需要调用 {@link #publishRegionEviction} 通知其他实例。
+ */
+@Component
+public class ClusterCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener, MessageListener {
+
+    public static final String CHANNEL = "l2cache:invalidate";
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheInvalidator.class);
+    private static final String ALL = "*";
+    private static final Set<Class<?>> CACHED_ENTITIES = Set.of(StudyRoom.class, Seat.class);
+
+    /**
+     * 一条消息中每类实体最多携带的ID数，超过时改为整类清除
+     */
+    private static final int MAX_IDS_PER_ENTITY = 1000;
+
+    /**
+     * 实例标识，用于忽略自己发出的通知
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * 当前事务待发布批次的事务资源键
+     */
+    private final Object batchKey = new Object();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private CircuitBreaker redisCircuitBreaker;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    @PostConstruct
+    public void registerListeners() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return CACHED_ENTITIES.contains(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // 新实体不在其他实例的实体缓存中，只影响查询缓存
+        record(event.getPersister().getEntityName(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getPersister().getEntityName(), String.valueOf(event.getId()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getPersister().getEntityName(), String.valueOf(event.getId()));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    /**
+     * 通知其他实例清除某类实体的全部缓存
+     * 在事务中调用时与本事务的其他修改合并，等事务提交后再发布，避免其他实例在提交前重新加载到旧数据；没有事务时立即发布
+     */
+    public void publishRegionEviction(Class<?> entityClass) {
+        record(entityClass.getName(), ALL);
+    }
+
+    /**
+     * 记录一次实体修改，id 为空表示只影响查询缓存，为 {@link #ALL} 表示整类实体
+     * 事务中的修改合并到绑定在事务上的批次中，事务提交后发布一条消息；没有事务时立即发布
+     */
+    @SuppressWarnings("unchecked")
+    private void record(String entityName, String id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<String, Set<String>> single = new LinkedHashMap<>();
+            add(single, entityName, id);
+            publish(single);
+            return;
+        }
+        Map<String, Set<String>> batch = (Map<String, Set<String>>) TransactionSynchronizationManager.getResource(batchKey);
+        if (batch == null) {
+            Map<String, Set<String>> newBatch = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(batchKey, newBatch);
+            // 实体事件在提交过程中触发，此时注册的回调仍会在提交完成后执行
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(newBatch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(batchKey);
+                }
+            });
+            batch = newBatch;
+        }
+        add(batch, entityName, id);
+    }
+
+    private static void add(Map<String, Set<String>> batch, String entityName, String id) {
+        Set<String> ids = batch.computeIfAbsent(entityName, name -> new LinkedHashSet<>());
+        if (ids.contains(ALL) || id == null) {
+            return;
+        }
+        if (ALL.equals(id) || ids.size() >= MAX_IDS_PER_ENTITY) {
+            // 修改过多时整类清除，消息大小和接收方的清除次数都有上限
+            ids.clear();
+            ids.add(ALL);
+            return;
+        }
+        ids.add(id);
+    }
+
+    /**
+     * 消息格式：实例ID|实体名:ID1,ID2|实体名:*|实体名:
+     * ID为空表示只清除查询缓存，* 表示清除整类实体
+     */
+    private void publish(Map<String, Set<String>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(instanceId);
+        batch.forEach((entityName, ids) -> message.append('|').append(entityName).append(':')
+            .append(String.join(",", ids)));
+        if (!CircuitBreakers.run(redisCircuitBreaker, () -> stringRedisTemplate.convertAndSend(CHANNEL, message.toString()))) {
+            logger.warn("二级缓存失效通知发送失败，其他实例依赖缓存过期: {}", batch.keySet());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        for (int i = 1; i < parts.length; i++) {
+            int separator = parts[i].lastIndexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String entityName = parts[i].substring(0, separator);
+            String ids = parts[i].substring(separator + 1);
+            if (ALL.equals(ids)) {
+                sessionFactory.getCache().evictEntityData(entityName);
+            } else if (!ids.isEmpty()) {
+                for (String id : ids.split(",")) {
+                    sessionFactory.getCache().evictEntityData(entityName, id);
+                }
+            }
+        }
+        // 实体增删会影响按自习室查询座位的结果，一条消息只清除一次
+        sessionFactory.getCache().evictQueryRegions();
+        logger.debug("收到二级缓存失效通知: {}", parts.length - 1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.hello.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 紧凑二进制读取器，与 {@link CompactOutput} 的编码一一对应
+ */
+public class CompactInput {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final byte[] buffer;
+    private int position;
+    private final List<String> strings = new ArrayList<>();
+
+    public CompactInput(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public int readByte() {
+        if (position >= buffer.length) {
+            throw new SerializationException("缓存数据不完整");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public byte[] readBytes(int length) {
+        if (position + length > buffer.length) {
+            throw new SerializationException("缓存数据不完整");
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new SerializationException("变长整数格式错误");
+    }
+
+    public int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    public long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        int marker = readVarInt();
+        if (marker == 0) {
+            return null;
+        }
+        if (marker == 1) {
+            int length = readVarInt();
+            if (position + length > buffer.length) {
+                throw new SerializationException("缓存数据不完整");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            strings.add(value);
+            return value;
+        }
+        int index = marker - 2;
+        if (index >= strings.size()) {
+            throw new SerializationException("字符串引用越界: " + index);
+        }
+        return strings.get(index);
+    }
+
+    public String readId() {
+        if (readByte() == 0) {
+            return readString();
+        }
+        char[] chars = new char[32];
+        for (int i = 0; i < 16; i++) {
+            int b = readByte();
+            chars[i * 2] = HEX[b >>> 4];
+            chars[i * 2 + 1] = HEX[b & 0x0F];
+        }
+        return new String(chars);
+    }
+}
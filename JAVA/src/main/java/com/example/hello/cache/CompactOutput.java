@@ -0,0 +1,126 @@
+package com.example.hello.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 紧凑二进制写入缓冲区
+ * 整数使用变长编码；字符串在同一个值内去重，重复出现的字符串（自习室ID、状态、Map键等）只写一次，之后写引用序号
+ */
+public class CompactOutput {
+
+    private byte[] buffer;
+    private int position;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    public CompactOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * 无符号变长整数，每字节7位
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 有符号变长整数（ZigZag编码），小的负数也只占很少字节
+     */
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeDouble(double value) {
+        long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int i = 7; i >= 0; i--) {
+            buffer[position++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    /**
+     * 写入可去重的字符串：0表示null，1表示新字符串（随后是UTF-8长度和内容），n+2表示引用第n个已写入的字符串
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+            return;
+        }
+        strings.put(value, strings.size());
+        writeVarInt(1);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        writeBytes(bytes);
+    }
+
+    /**
+     * 写入ID：32位小写十六进制ID（UUID去掉连字符）压缩为16字节，其他格式按字符串写入
+     */
+    public void writeId(String id) {
+        if (isHexId(id)) {
+            writeByte(1);
+            ensureCapacity(16);
+            for (int i = 0; i < 32; i += 2) {
+                buffer[position++] = (byte) ((Character.digit(id.charAt(i), 16) << 4) | Character.digit(id.charAt(i + 1), 16));
+            }
+        } else {
+            writeByte(0);
+            writeString(id);
+        }
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private static boolean isHexId(String id) {
+        if (id == null || id.length() != 32) {
+            return false;
+        }
+        for (int i = 0; i < 32; i++) {
+            char c = id.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.hello.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * 紧凑二进制Redis序列化器
+ *
+ * 格式：魔数(1字节) + 版本(1字节) + 编解码器标记(1字节) + 标志位(1字节) + 内容；
+ * 标志位表示内容经过LZ4压缩时，内容前先写原始长度。超过阈值且压缩后更小才压缩。
+ * 没有编解码器能处理的值回退为原来的Jackson JSON（标记为0），
+ * 读取时不以魔数开头的数据按旧格式JSON解析，因此切换序列化器不需要清空Redis。
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 魔数取一个不可能出现在JSON开头的字节
+     */
+    static final int MAGIC = 0xC5;
+    static final int VERSION = 1;
+    static final int JSON_TAG = 0;
+    static final int FLAG_LZ4 = 0x01;
+
+    private static final int HEADER_SIZE = 4;
+
+    private final ValueCodec[] codecsByTag = new ValueCodec[128];
+    private final List<ValueCodec> codecs;
+    private final RedisSerializer<Object> jsonSerializer;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * @param codecs 按顺序匹配的编解码器
+     * @param jsonSerializer 兜底及旧数据使用的JSON序列化器
+     * @param compressionThreshold 内容超过该字节数时尝试压缩，小于等于0表示不压缩
+     */
+    public CompactRedisSerializer(List<ValueCodec> codecs, RedisSerializer<Object> jsonSerializer,
+                                  int compressionThreshold) {
+        for (ValueCodec codec : codecs) {
+            if (codec.tag() <= JSON_TAG || codec.tag() >= codecsByTag.length || codecsByTag[codec.tag()] != null) {
+                throw new IllegalArgumentException("编解码器标记无效或重复: " + codec.tag());
+            }
+            codecsByTag[codec.tag()] = codec;
+        }
+        this.codecs = List.copyOf(codecs);
+        this.jsonSerializer = jsonSerializer;
+        this.compressionThreshold = compressionThreshold;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    /**
+     * 默认配置：座位列表、通用结构和时段位图
+     */
+    public static CompactRedisSerializer withDefaultCodecs(RedisSerializer<Object> jsonSerializer,
+                                                           int compressionThreshold) {
+        return new CompactRedisSerializer(
+            List.of(new SeatListCodec(), new TaggedValueCodec(), new BitSetCodec()),
+            jsonSerializer, compressionThreshold);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        for (ValueCodec codec : codecs) {
+            if (codec.supports(value)) {
+                try {
+                    CompactOutput output = new CompactOutput(256);
+                    codec.write(value, output);
+                    return frame(codec.tag(), output.toByteArray());
+                } catch (ValueCodec.UnsupportedValueException e) {
+                    break;
+                }
+            }
+        }
+        return frame(JSON_TAG, jsonSerializer.serialize(value));
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) != MAGIC) {
+            // 旧格式：Jackson JSON
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("缓存数据头不完整");
+        }
+        int version = bytes[1] & 0xFF;
+        if (version != VERSION) {
+            throw new SerializationException("不支持的缓存格式版本: " + version);
+        }
+        int tag = bytes[2] & 0xFF;
+        int flags = bytes[3] & 0xFF;
+
+        byte[] payload;
+        int offset;
+        if ((flags & FLAG_LZ4) != 0) {
+            CompactInput lengthInput = new CompactInput(bytes, HEADER_SIZE);
+            int originalLength = lengthInput.readVarInt();
+            int compressedOffset = HEADER_SIZE + varIntSize(originalLength);
+            payload = new byte[originalLength];
+            decompressor.decompress(bytes, compressedOffset, payload, 0, originalLength);
+            offset = 0;
+        } else {
+            payload = bytes;
+            offset = HEADER_SIZE;
+        }
+
+        if (tag == JSON_TAG) {
+            byte[] json = offset == 0 ? payload : Arrays.copyOfRange(payload, offset, payload.length);
+            return jsonSerializer.deserialize(json);
+        }
+        ValueCodec codec = tag < codecsByTag.length ? codecsByTag[tag] : null;
+        if (codec == null) {
+            throw new SerializationException("未知的编解码器标记: " + tag);
+        }
+        return codec.read(new CompactInput(payload, offset));
+    }
+
+    private byte[] frame(int tag, byte[] payload) {
+        if (compressionThreshold > 0 && payload.length > compressionThreshold) {
+            byte[] compressed = new byte[compressor.maxCompressedLength(payload.length)];
+            int compressedLength = compressor.compress(payload, 0, payload.length, compressed, 0, compressed.length);
+            int lengthSize = varIntSize(payload.length);
+            if (compressedLength + lengthSize < payload.length) {
+                CompactOutput output = new CompactOutput(HEADER_SIZE + lengthSize + compressedLength);
+                writeHeader(output, tag, FLAG_LZ4);
+                output.writeVarInt(payload.length);
+                output.writeBytes(Arrays.copyOf(compressed, compressedLength));
+                return output.toByteArray();
+            }
+        }
+        CompactOutput output = new CompactOutput(HEADER_SIZE + payload.length);
+        writeHeader(output, tag, 0);
+        output.writeBytes(payload);
+        return output.toByteArray();
+    }
+
+    private static void writeHeader(CompactOutput output, int tag, int flags) {
+        output.writeByte(MAGIC);
+        output.writeByte(VERSION);
+        output.writeByte(tag);
+        output.writeByte(flags);
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        long remaining = value & 0xFFFFFFFFL;
+        while ((remaining & ~0x7FL) != 0) {
+            remaining >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.hello.cache;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomSchedule;
+import com.example.hello.util.TimeFormats;
+
+/**
+ * 编译后的自习室开放时间
+ *
+ * 自习室默认开放时间、每周安排和特殊日期安排在构建时一次性解析为 {@link Hours}，
+ * 之后按日期查询只是数组下标或一次哈希查找，不再解析字符串。对象不可变，可在线程间共享。
+ */
+public final class CompiledSchedule {
+
+    private final String sourceOpenTime;
+    private final String sourceCloseTime;
+    private final Hours[] weekly = new Hours[7];
+    private final Map<LocalDate, Hours> specialDates;
+
+    private CompiledSchedule(StudyRoom room, Collection<StudyRoomSchedule> schedules) {
+        this.sourceOpenTime = room.getOpenTime();
+        this.sourceCloseTime = room.getCloseTime();
+        Hours defaults = Hours.parse(room.getOpenTime(), room.getCloseTime());
+        for (int i = 0; i < weekly.length; i++) {
+            weekly[i] = defaults;
+        }
+        Map<LocalDate, Hours> dates = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        for (StudyRoomSchedule schedule : schedules) {
+            Hours hours = Hours.parse(schedule.getOpenTime(), schedule.getCloseTime());
+            if (schedule.getScheduleDate() != null) {
+                // 已过去的特殊日期不再需要
+                if (!schedule.getScheduleDate().isBefore(today)) {
+                    dates.put(schedule.getScheduleDate(), hours);
+                }
+            } else if (schedule.getDayOfWeek() != null) {
+                weekly[schedule.getDayOfWeek() - 1] = hours;
+            }
+        }
+        this.specialDates = Map.copyOf(dates);
+    }
+
+    /**
+     * 编译自习室的开放时间
+     *
+     * @param room 自习室，提供默认开放时间
+     * @param schedules 该自习室的每周安排和特殊日期安排
+     */
+    public static CompiledSchedule compile(StudyRoom room, Collection<StudyRoomSchedule> schedules) {
+        return new CompiledSchedule(room, schedules);
+    }
+
+    /**
+     * 指定日期的开放时间，特殊日期优先，其次是每周安排，最后是自习室默认开放时间
+     */
+    public Hours hoursOn(LocalDate date) {
+        Hours hours = specialDates.get(date);
+        return hours != null ? hours : weekly[date.getDayOfWeek().getValue() - 1];
+    }
+
+    /**
+     * 指定星期几的每周开放时间
+     */
+    public Hours hoursOn(DayOfWeek dayOfWeek) {
+        return weekly[dayOfWeek.getValue() - 1];
+    }
+
+    /**
+     * 编译时使用的默认开放时间是否仍与自习室一致，不一致说明自习室已被修改，需要重新编译
+     */
+    public boolean matches(StudyRoom room) {
+        return Objects.equals(sourceOpenTime, room.getOpenTime())
+            && Objects.equals(sourceCloseTime, room.getCloseTime());
+    }
+
+    /**
+     * 一天的开放时间，格式化后的文本在构建时生成，供响应直接使用
+     */
+    public static final class Hours {
+
+        /**
+         * 当天不开放
+         */
+        public static final Hours CLOSED = new Hours(null, null);
+
+        private final LocalTime open;
+        private final LocalTime close;
+        private final String openText;
+        private final String closeText;
+
+        private Hours(LocalTime open, LocalTime close) {
+            this.open = open;
+            this.close = close;
+            this.openText = open == null ? null : open.format(TimeFormats.HH_MM);
+            this.closeText = close == null ? null : close.format(TimeFormats.HH_MM);
+        }
+
+        /**
+         * 解析开放、关闭时间，任一为空或关闭时间不晚于开放时间时视为当天不开放
+         *
+         * @throws java.time.format.DateTimeParseException 时间格式不正确
+         */
+        public static Hours parse(String openTime, String closeTime) {
+            if (openTime == null || closeTime == null) {
+                return CLOSED;
+            }
+            LocalTime open = LocalTime.parse(openTime);
+            LocalTime close = LocalTime.parse(closeTime);
+            return close.isAfter(open) ? new Hours(open, close) : CLOSED;
+        }
+
+        public boolean isOpen() {
+            return open != null;
+        }
+
+        /**
+         * 时间段是否完全落在开放时间内
+         */
+        public boolean covers(LocalTime startTime, LocalTime endTime) {
+            return open != null && !startTime.isBefore(open) && !endTime.isAfter(close);
+        }
+
+        public LocalTime getOpen() {
+            return open;
+        }
+
+        public LocalTime getClose() {
+            return close;
+        }
+
+        /**
+         * 开放时间文本（HH:mm），不开放时为 null
+         */
+        public String getOpenText() {
+            return openText;
+        }
+
+        /**
+         * 关闭时间文本（HH:mm），不开放时为 null
+         */
+        public String getCloseText() {
+            return closeText;
+        }
+
+        /**
+         * 用于提示信息，例如 "08:00 - 22:00"，不开放时为 "当天不开放"
+         */
+        public String describe() {
+            return open == null ? "当天不开放" : openText + " - " + closeText;
+        }
+    }
+}
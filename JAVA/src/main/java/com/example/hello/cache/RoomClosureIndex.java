@@ -0,0 +1,257 @@
+package com.example.hello.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.hello.model.entity.StudyRoomStatus;
+import com.example.hello.repository.StudyRoomStatusRepository;
+import com.example.hello.util.CircuitBreakers;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 自习室关闭时段的内存索引
+ *
+ * 每个自习室一份不可变的区间索引：整个自习室的时段一份，每个有时段的座位各一份，
+ * 所有自习室的索引组成一份不可变快照，重建时整体替换。
+ * 区间按开始时间排序并记录前缀最大结束时间，判断某个时间段是否落在关闭时段内只需一次二分查找，
+ * 预约和状态查询不再为关闭时段访问数据库。
+ *
+ * 时段变化时在事务提交后重建对应自习室的索引，并通过Redis频道通知其他实例重建；
+ * 每分钟全量重建一次，清掉已结束的时段，也兜底错过的通知。
+ */
+@Component
+public class RoomClosureIndex implements MessageListener {
+
+    public static final String CHANNEL = "closure:changed";
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomClosureIndex.class);
+
+    /**
+     * 实例标识，用于忽略自己发出的通知
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * 不可变快照，重建时整体替换；写操作串行执行，读操作不加锁
+     */
+    private volatile Map<String, RoomClosures> rooms = Map.of();
+
+    @Autowired
+    private StudyRoomStatusRepository studyRoomStatusRepository;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private CircuitBreaker redisCircuitBreaker;
+
+    /**
+     * 全量加载尚未结束的关闭时段，构建新索引后整体替换
+     * 与单个自习室的重建串行执行，查询在锁内进行，较早的全量查询结果不会覆盖较新的单个重建
+     */
+    @PostConstruct
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public synchronized void reloadAll() {
+        try {
+            Map<String, List<StudyRoomStatus>> byRoom = studyRoomStatusRepository
+                .findByEndTimeAfter(LocalDateTime.now()).stream()
+                .collect(Collectors.groupingBy(StudyRoomStatus::getStudyRoomId));
+            Map<String, RoomClosures> next = new HashMap<>();
+            byRoom.forEach((studyRoomId, windows) -> next.put(studyRoomId, RoomClosures.of(windows)));
+            rooms = Map.copyOf(next);
+        } catch (Exception e) {
+            logger.error("加载自习室关闭时段失败，沿用当前索引", e);
+        }
+    }
+
+    /**
+     * 重新加载一个自习室的关闭时段，复制当前快照后替换该自习室的索引
+     */
+    public synchronized void reload(String studyRoomId) {
+        List<StudyRoomStatus> windows = studyRoomStatusRepository
+            .findByStudyRoomIdAndEndTimeAfterOrderByStartTime(studyRoomId, LocalDateTime.now());
+        Map<String, RoomClosures> next = new HashMap<>(rooms);
+        if (windows.isEmpty()) {
+            next.remove(studyRoomId);
+        } else {
+            next.put(studyRoomId, RoomClosures.of(windows));
+        }
+        rooms = Map.copyOf(next);
+    }
+
+    /**
+     * 关闭时段变化后调用：当前事务提交后重建本实例索引并通知其他实例，没有事务时立即执行
+     */
+    public void refreshAfterCommit(String studyRoomId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshAndPublish(studyRoomId);
+                }
+            });
+        } else {
+            refreshAndPublish(studyRoomId);
+        }
+    }
+
+    private void refreshAndPublish(String studyRoomId) {
+        reload(studyRoomId);
+        String message = instanceId + "|" + studyRoomId;
+        if (!CircuitBreakers.run(redisCircuitBreaker, () -> stringRedisTemplate.convertAndSend(CHANNEL, message))) {
+            logger.warn("关闭时段变更通知发送失败，其他实例将在定时刷新时更新: {}", studyRoomId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            reload(parts[1]);
+        } catch (Exception e) {
+            logger.warn("重建自习室关闭时段索引失败，等待定时刷新: {}", parts[1], e);
+        }
+    }
+
+    /**
+     * 自习室是否有尚未结束的关闭时段，状态查询可据此跳过逐个座位的检查
+     */
+    public boolean hasClosures(String studyRoomId) {
+        return rooms.containsKey(studyRoomId);
+    }
+
+    /**
+     * 查找与指定时间段重叠的整个自习室的关闭时段
+     */
+    public Optional<StudyRoomStatus> findRoomClosure(String studyRoomId, LocalDate date,
+                                                     LocalTime startTime, LocalTime endTime) {
+        RoomClosures closures = rooms.get(studyRoomId);
+        if (closures == null) {
+            return Optional.empty();
+        }
+        return closures.roomWide.findOverlap(LocalDateTime.of(date, startTime), LocalDateTime.of(date, endTime));
+    }
+
+    /**
+     * 查找与指定时间段重叠的关闭时段，整个自习室的时段优先，其次是该座位的时段
+     */
+    public Optional<StudyRoomStatus> findSeatClosure(String studyRoomId, String seatId, LocalDate date,
+                                                     LocalTime startTime, LocalTime endTime) {
+        RoomClosures closures = rooms.get(studyRoomId);
+        if (closures == null) {
+            return Optional.empty();
+        }
+        LocalDateTime start = LocalDateTime.of(date, startTime);
+        LocalDateTime end = LocalDateTime.of(date, endTime);
+        Optional<StudyRoomStatus> roomClosure = closures.roomWide.findOverlap(start, end);
+        if (roomClosure.isPresent()) {
+            return roomClosure;
+        }
+        Intervals seatIntervals = closures.bySeat.get(seatId);
+        return seatIntervals == null ? Optional.empty() : seatIntervals.findOverlap(start, end);
+    }
+
+    /**
+     * 生成关闭时段的提示信息
+     */
+    public static String describe(StudyRoomStatus closure) {
+        String message = ("MAINTENANCE".equals(closure.getStatus()) ? "该时段维护中" : "该时段暂停开放")
+            + "（" + closure.getStartTime() + " 至 " + closure.getEndTime() + "）";
+        return closure.getDescription() == null ? message : message + "：" + closure.getDescription();
+    }
+
+    /**
+     * 一个自习室的关闭时段索引
+     */
+    private static final class RoomClosures {
+        private final Intervals roomWide;
+        private final Map<String, Intervals> bySeat;
+
+        private RoomClosures(Intervals roomWide, Map<String, Intervals> bySeat) {
+            this.roomWide = roomWide;
+            this.bySeat = bySeat;
+        }
+
+        static RoomClosures of(List<StudyRoomStatus> windows) {
+            List<StudyRoomStatus> roomWide = new ArrayList<>();
+            Map<String, List<StudyRoomStatus>> bySeat = new HashMap<>();
+            for (StudyRoomStatus window : windows) {
+                if (window.getSeatId() == null) {
+                    roomWide.add(window);
+                } else {
+                    bySeat.computeIfAbsent(window.getSeatId(), id -> new ArrayList<>()).add(window);
+                }
+            }
+            Map<String, Intervals> seatIntervals = new HashMap<>();
+            bySeat.forEach((seatId, seatWindows) -> seatIntervals.put(seatId, new Intervals(seatWindows)));
+            return new RoomClosures(new Intervals(roomWide), Map.copyOf(seatIntervals));
+        }
+    }
+
+    /**
+     * 静态区间索引：按开始时间排序，argMax[i] 为前 i+1 个区间中结束时间最晚的区间下标。
+     * 与 [start, end) 重叠等价于：在开始时间早于 end 的区间中，存在结束时间晚于 start 的区间，
+     * 二分找到最后一个开始时间早于 end 的位置后，结束时间最晚的区间即可判断并直接返回，整体 O(log n)。
+     */
+    static final class Intervals {
+        private final StudyRoomStatus[] windows;
+        private final int[] argMax;
+
+        Intervals(List<StudyRoomStatus> source) {
+            windows = source.stream()
+                .sorted(Comparator.comparing(StudyRoomStatus::getStartTime))
+                .toArray(StudyRoomStatus[]::new);
+            argMax = new int[windows.length];
+            for (int i = 0; i < windows.length; i++) {
+                argMax[i] = i == 0 || windows[i].getEndTime().isAfter(windows[argMax[i - 1]].getEndTime())
+                    ? i : argMax[i - 1];
+            }
+        }
+
+        Optional<StudyRoomStatus> findOverlap(LocalDateTime start, LocalDateTime end) {
+            int low = 0;
+            int high = windows.length - 1;
+            int last = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (windows[mid].getStartTime().isBefore(end)) {
+                    last = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (last < 0) {
+                return Optional.empty();
+            }
+            StudyRoomStatus latest = windows[argMax[last]];
+            return latest.getEndTime().isAfter(start) ? Optional.of(latest) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.hello.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomSchedule;
+import com.example.hello.repository.StudyRoomScheduleRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * 自习室开放时间的本地缓存
+ *
+ * 每个自习室缓存一份 {@link CompiledSchedule}。自习室默认开放时间被修改后，
+ * 缓存的编译结果与传入的自习室不一致，会立即重新编译；本实例修改安排时主动失效，
+ * 其他实例修改的安排最迟在缓存过期（1分钟）后生效。
+ */
+@Component
+public class RoomScheduleCache {
+
+    private final Cache<String, CompiledSchedule> schedules = Caffeine.newBuilder()
+        .maximumSize(1000)
+        .expireAfterWrite(1, TimeUnit.MINUTES)
+        .build();
+
+    @Autowired
+    private StudyRoomScheduleRepository studyRoomScheduleRepository;
+
+    /**
+     * 获取自习室编译后的开放时间
+     */
+    public CompiledSchedule get(StudyRoom room) {
+        CompiledSchedule schedule = schedules.getIfPresent(room.getId());
+        if (schedule == null || !schedule.matches(room)) {
+            schedule = CompiledSchedule.compile(room, studyRoomScheduleRepository.findByStudyRoomId(room.getId()));
+            schedules.put(room.getId(), schedule);
+        }
+        return schedule;
+    }
+
+    /**
+     * 批量获取多个自习室编译后的开放时间，未缓存的自习室用一条查询加载安排
+     *
+     * @return 自习室ID到开放时间的映射
+     */
+    public Map<String, CompiledSchedule> getAll(Collection<StudyRoom> rooms) {
+        Map<String, CompiledSchedule> result = new HashMap<>();
+        Map<String, StudyRoom> missing = new HashMap<>();
+        for (StudyRoom room : rooms) {
+            CompiledSchedule schedule = schedules.getIfPresent(room.getId());
+            if (schedule != null && schedule.matches(room)) {
+                result.put(room.getId(), schedule);
+            } else {
+                missing.put(room.getId(), room);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, List<StudyRoomSchedule>> byRoom = studyRoomScheduleRepository
+                .findByStudyRoomIdIn(missing.keySet()).stream()
+                .collect(Collectors.groupingBy(StudyRoomSchedule::getStudyRoomId));
+            missing.forEach((studyRoomId, room) -> {
+                CompiledSchedule schedule = CompiledSchedule.compile(room, byRoom.getOrDefault(studyRoomId, List.of()));
+                schedules.put(studyRoomId, schedule);
+                result.put(studyRoomId, schedule);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 自习室或其开放时间安排变化后调用：立即失效，并在当前事务结束后再失效一次，避免事务提交前被其他请求用旧数据重新加载
+     */
+    public void invalidate(String studyRoomId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    schedules.invalidate(studyRoomId);
+                }
+            });
+        }
+        schedules.invalidate(studyRoomId);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.hello.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.hello.model.entity.Seat;
+
+/**
+ * 座位列表编解码器（自习室座位列表缓存）
+ * 按Seat字段顺序直接写入，不带字段名和类名；同一自习室的ID和状态只写一次
+ */
+public class SeatListCodec implements ValueCodec {
+
+    public static final int TAG = 1;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof Seat)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void write(Object value, CompactOutput output) {
+        List<?> seats = (List<?>) value;
+        output.writeVarInt(seats.size());
+        for (Object seat : seats) {
+            writeSeat((Seat) seat, output);
+        }
+    }
+
+    @Override
+    public Object read(CompactInput input) {
+        int size = input.readVarInt();
+        List<Seat> seats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            seats.add(readSeat(input));
+        }
+        return seats;
+    }
+
+    static void writeSeat(Seat seat, CompactOutput output) {
+        output.writeId(seat.getId());
+        output.writeString(seat.getSeatNumber());
+        output.writeString(seat.getStudyRoomId());
+        output.writeString(seat.getStatus());
+        if (seat.getCreatedAt() == null) {
+            output.writeByte(0);
+        } else {
+            output.writeByte(1);
+            output.writeVarLong(seat.getCreatedAt());
+        }
+    }
+
+    static Seat readSeat(CompactInput input) {
+        Seat seat = new Seat();
+        seat.setId(input.readId());
+        seat.setSeatNumber(input.readString());
+        seat.setStudyRoomId(input.readString());
+        seat.setStatus(input.readString());
+        if (input.readByte() == 1) {
+            seat.setCreatedAt(input.readVarLong());
+        }
+        return seat;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.hello.cache;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 相同请求合并执行（single-flight）
+ *
+ * 同一个键同一时刻只有一个计算在执行，其余并发调用等待它完成并共享结果；
+ * 结果在 fresh 时间内直接复用，过期后的 stale 时间内仍先返回旧结果，同时在后台刷新一次，
+ * 因此缓存过期不会让大量请求同时落到数据库。
+ */
+public class SingleFlight<V> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String name;
+    private final long freshNanos;
+    private final long staleNanos;
+    private final Predicate<V> cacheable;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Result<V>> results;
+    private final ThreadPoolExecutor refreshExecutor;
+
+    /**
+     * @param name 名称，用于指标和后台刷新线程名
+     * @param freshMillis 结果直接复用的时间，0表示只合并并发请求、不复用结果
+     * @param staleMillis 过期后仍可返回旧结果并后台刷新的时间，0表示不启用
+     * @param maximumSize 最多保留的结果数
+     * @param cacheable 判断结果是否可以复用，例如只复用成功的响应
+     */
+    public SingleFlight(String name, long freshMillis, long staleMillis, long maximumSize,
+                        Predicate<V> cacheable, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.freshNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, freshMillis));
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, staleMillis));
+        this.cacheable = cacheable;
+        this.meterRegistry = meterRegistry;
+        this.results = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Math.max(1, freshNanos + staleNanos), TimeUnit.NANOSECONDS)
+            .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(64),
+            runnable -> {
+                Thread thread = new Thread(runnable, "single-flight-" + name + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 获取键对应的结果，必要时调用 loader 计算
+     */
+    public V get(String key, Supplier<V> loader) {
+        Result<V> result = results.getIfPresent(key);
+        if (result != null) {
+            long age = System.nanoTime() - result.loadedAt;
+            if (age < freshNanos) {
+                count("fresh");
+                return result.value;
+            }
+            if (age < freshNanos + staleNanos) {
+                count("stale");
+                refreshInBackground(key, loader, result.value);
+                return result.value;
+            }
+        }
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            count("coalesced");
+            return await(existing);
+        }
+        count("loaded");
+        return load(key, loader, mine);
+    }
+
+    private V load(String key, Supplier<V> loader, CompletableFuture<V> future) {
+        try {
+            V value = loader.get();
+            if (value != null && cacheable.test(value)) {
+                results.put(key, new Result<>(value, System.nanoTime()));
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private void refreshInBackground(String key, Supplier<V> loader, V staleValue) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, mine) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, loader, mine);
+                } catch (RuntimeException e) {
+                    logger.warn("{} 后台刷新失败: key={}, {}", name, key, e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 刷新线程忙时本次不刷新，等待中的调用拿到旧结果
+            inFlight.remove(key, mine);
+            mine.complete(staleValue);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待合并请求结果时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    private void count(String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("single_flight.requests", "name", name, "outcome", outcome).increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private record Result<V>(V value, long loadedAt) {
+    }
+}
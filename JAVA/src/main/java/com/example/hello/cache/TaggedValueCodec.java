@@ -0,0 +1,150 @@
+package com.example.hello.cache;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.example.hello.model.entity.Seat;
+
+/**
+ * 通用结构编解码器（座位状态Map、状态列表等）
+ * 每个值前写一个字节的类型标记，支持null、布尔、Integer、Long、Double、字符串、日期时间、Seat以及由它们组成的List和Map；
+ * Map的键和字符串值在同一个缓存值内去重
+ */
+public class TaggedValueCodec implements ValueCodec {
+
+    public static final int TAG = 2;
+
+    private static final int NULL = 0;
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int LIST = 7;
+    private static final int MAP = 8;
+    private static final int LOCAL_DATE = 9;
+    private static final int LOCAL_TIME = 10;
+    private static final int LOCAL_DATE_TIME = 11;
+    private static final int SEAT = 12;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        return value instanceof Map || value instanceof List || value instanceof Seat
+            || value instanceof String || value instanceof Number || value instanceof Boolean;
+    }
+
+    @Override
+    public void write(Object value, CompactOutput output) {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof Boolean b) {
+            output.writeByte(b ? TRUE : FALSE);
+        } else if (value instanceof Integer i) {
+            output.writeByte(INT);
+            output.writeSignedVarLong(i);
+        } else if (value instanceof Long l) {
+            output.writeByte(LONG);
+            output.writeSignedVarLong(l);
+        } else if (value instanceof Double d) {
+            output.writeByte(DOUBLE);
+            output.writeDouble(d);
+        } else if (value instanceof String s) {
+            output.writeByte(STRING);
+            output.writeString(s);
+        } else if (value instanceof List<?> list) {
+            output.writeByte(LIST);
+            output.writeVarInt(list.size());
+            for (Object element : list) {
+                write(element, output);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            output.writeByte(MAP);
+            output.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new UnsupportedValueException(entry.getKey());
+                }
+                output.writeString(key);
+                write(entry.getValue(), output);
+            }
+        } else if (value instanceof LocalDate date) {
+            output.writeByte(LOCAL_DATE);
+            output.writeSignedVarLong(date.toEpochDay());
+        } else if (value instanceof LocalTime time) {
+            output.writeByte(LOCAL_TIME);
+            output.writeVarLong(time.toNanoOfDay());
+        } else if (value instanceof LocalDateTime dateTime) {
+            output.writeByte(LOCAL_DATE_TIME);
+            output.writeSignedVarLong(dateTime.toLocalDate().toEpochDay());
+            output.writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+        } else if (value instanceof Seat seat) {
+            output.writeByte(SEAT);
+            SeatListCodec.writeSeat(seat, output);
+        } else {
+            throw new UnsupportedValueException(value);
+        }
+    }
+
+    @Override
+    public Object read(CompactInput input) {
+        int type = input.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) input.readSignedVarLong();
+            case LONG:
+                return input.readSignedVarLong();
+            case DOUBLE:
+                return input.readDouble();
+            case STRING:
+                return input.readString();
+            case LIST: {
+                int size = input.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(input));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = input.readVarInt();
+                Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) {
+                    String key = input.readString();
+                    map.put(key, read(input));
+                }
+                return map;
+            }
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(input.readSignedVarLong());
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(input.readVarLong());
+            case LOCAL_DATE_TIME: {
+                LocalDate date = LocalDate.ofEpochDay(input.readSignedVarLong());
+                return LocalDateTime.of(date, LocalTime.ofNanoOfDay(input.readVarLong()));
+            }
+            case SEAT:
+                return SeatListCodec.readSeat(input);
+            default:
+                throw new SerializationException("未知的值类型标记: " + type);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.hello.cache;
+
+/**
+ * 紧凑序列化的值编解码器
+ * 每个编解码器有唯一的类型标记，写入格式头中，新增缓存值类型时实现该接口并注册到 {@link CompactRedisSerializer}
+ */
+public interface ValueCodec {
+
+    /**
+     * 类型标记，1-127，一经使用不可更改
+     */
+    int tag();
+
+    boolean supports(Object value);
+
+    /**
+     * 编码值；遇到无法编码的内容抛出 {@link UnsupportedValueException}，由序列化器回退为JSON
+     */
+    void write(Object value, CompactOutput output);
+
+    Object read(CompactInput input);
+
+    /**
+     * 值中包含编解码器不支持的类型
+     */
+    class UnsupportedValueException extends RuntimeException {
+        public UnsupportedValueException(Object value) {
+            super("不支持的缓存值类型: " + (value == null ? "null" : value.getClass().getName()), null, false, false);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.hello.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 启动缓存预热配置
+ * 预热在启动阶段同步执行，完成（或超时）之前实例的就绪探针不会返回 UP
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache-warm-up")
+public class CacheWarmUpProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 同时预热的自习室数量
+     */
+    private int parallelism = 4;
+
+    /**
+     * 预热最长时间，超时后放弃剩余部分，实例照常就绪
+     */
+    private long timeoutSeconds = 60;
+
+    /**
+     * 预热的座位状态时间段长度，按整点对齐
+     */
+    private int windowMinutes = 60;
+
+    /**
+     * 预热的最大天数（含今天之后的天数），实际取自习室可提前预约天数与该值的较小者
+     */
+    private int maxDays = 7;
+
+    /**
+     * 预热写入的座位状态存活时间
+     */
+    private long statusTtlSeconds = 600;
+}
@@ -0,0 +1,149 @@
+package com.example.hello.config;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.example.hello.util.CircuitBreakers;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+/**
+ * 带熔断的缓存管理器
+ * 所有缓存读写都经过Redis熔断器，熔断打开时读写本地兜底缓存，本地未命中则视为缓存未命中（直接查库）；
+ * 熔断期间未能执行的清除操作在熔断器恢复关闭后补做，避免恢复后读到旧数据
+ */
+public class CircuitBreakingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> fallbackCache;
+    private final Set<String> pendingClears = ConcurrentHashMap.newKeySet();
+
+    public CircuitBreakingCacheManager(CacheManager delegate, CircuitBreaker circuitBreaker,
+                                       com.github.benmanes.caffeine.cache.Cache<String, Object> fallbackCache) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackCache = fallbackCache;
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                replayPendingClears();
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        return cache == null ? null : new CircuitBreakingCache(cache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private void replayPendingClears() {
+        for (String name : Set.copyOf(pendingClears)) {
+            Cache cache = delegate.getCache(name);
+            if (cache == null || CircuitBreakers.run(circuitBreaker, cache::clear)) {
+                pendingClears.remove(name);
+            }
+        }
+    }
+
+    private class CircuitBreakingCache implements Cache {
+        private final Cache cache;
+
+        CircuitBreakingCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public String getName() {
+            return cache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return cache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            String localKey = localKey(key);
+            return CircuitBreakers.call(circuitBreaker, () -> {
+                ValueWrapper wrapper = cache.get(key);
+                if (wrapper != null && wrapper.get() != null) {
+                    fallbackCache.put(localKey, wrapper.get());
+                }
+                return wrapper;
+            }, () -> {
+                Object local = fallbackCache.getIfPresent(localKey);
+                return local == null ? null : new SimpleValueWrapper(local);
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper wrapper = get(key);
+            Object value = wrapper == null ? null : wrapper.get();
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("缓存值类型不匹配: " + type.getName());
+            }
+            return (T) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper wrapper = get(key);
+            if (wrapper != null) {
+                return (T) wrapper.get();
+            }
+            try {
+                T value = valueLoader.call();
+                put(key, value);
+                return value;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            if (value != null) {
+                fallbackCache.put(localKey(key), value);
+            }
+            CircuitBreakers.run(circuitBreaker, () -> cache.put(key, value));
+        }
+
+        @Override
+        public void evict(Object key) {
+            fallbackCache.invalidate(localKey(key));
+            if (!CircuitBreakers.run(circuitBreaker, () -> cache.evict(key))) {
+                // 无法逐条补删，恢复后清空整个缓存
+                pendingClears.add(getName());
+            }
+        }
+
+        @Override
+        public void clear() {
+            String prefix = getName() + "::";
+            fallbackCache.asMap().keySet().removeIf(localKey -> localKey.startsWith(prefix));
+            if (!CircuitBreakers.run(circuitBreaker, cache::clear)) {
+                pendingClears.add(getName());
+            }
+        }
+
+        private String localKey(Object key) {
+            return getName() + "::" + key;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.hello.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.hello.service.ConcurrencyLimitService;
+import com.example.hello.service.ConcurrencyLimitService.Priority;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 自适应并发限制过滤器
+ * 按路由确定请求优先级，未获得并发名额的请求直接返回503，并把处理耗时反馈给限流器
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimitProperties properties;
+    private final ConcurrencyLimitService concurrencyLimitService;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ConcurrencyLimitService concurrencyLimitService) {
+        this.properties = properties;
+        this.concurrencyLimitService = concurrencyLimitService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !properties.isEnabled()
+            || "OPTIONS".equalsIgnoreCase(request.getMethod())
+            || uri.startsWith("/actuator/")
+            || uri.startsWith("/uploads/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!concurrencyLimitService.tryAcquire(classify(request))) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"message\":\"服务繁忙，请稍后再试\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            concurrencyLimitService.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private Priority classify(HttpServletRequest request) {
+        if (matches(properties.getCritical(), request)) {
+            return Priority.CRITICAL;
+        }
+        if (matches(properties.getHigh(), request)) {
+            return Priority.HIGH;
+        }
+        if (matches(properties.getLow(), request)) {
+            return Priority.LOW;
+        }
+        return Priority.MEDIUM;
+    }
+
+    private boolean matches(List<String> rules, HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        for (String rule : rules) {
+            int space = rule.indexOf(' ');
+            String pattern = space > 0 ? rule.substring(space + 1).trim() : rule.trim();
+            if (space > 0 && !rule.substring(0, space).equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (pathMatcher.match(pattern, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
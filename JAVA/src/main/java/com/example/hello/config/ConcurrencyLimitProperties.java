@@ -0,0 +1,44 @@
+package com.example.hello.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 自适应并发限制配置
+ * 路由规则格式为 "METHOD /path/**" 或 "/path/**"（不限方法），依次匹配 critical、high、low，
+ * 未匹配的请求（如管理端列表）按 MEDIUM 处理
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 100;
+    private int minLimit = 20;
+    private int maxLimit = 400;
+
+    /**
+     * 短期平均延迟超过基准延迟的倍数时认为出现排队，按 backoffRatio 收缩并发上限
+     */
+    private double tolerance = 2.0;
+    private double backoffRatio = 0.9;
+
+    /**
+     * 各优先级可占用的并发上限比例，优先级越低越早被拒绝
+     */
+    private double criticalShare = 1.0;
+    private double highShare = 0.85;
+    private double mediumShare = 0.65;
+    private double lowShare = 0.4;
+
+    private List<String> critical = new ArrayList<>();
+    private List<String> high = new ArrayList<>();
+    private List<String> low = new ArrayList<>();
+}
@@ -33,6 +33,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             try {
                 Claims claims = jwtUtil.getClaimsFromToken(token);
+                // 保存解析结果，后续拦截器和控制器直接使用，同一请求只验签一次
+                request.setAttribute(JwtUtil.CLAIMS_ATTRIBUTE, claims);
                 String username = claims.getSubject();
                 String role = (String) claims.get("role");
                 
@@ -0,0 +1,52 @@
+package com.example.hello.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.hello.service.LoginThrottleService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 登录接口按IP限流
+ * 在进入控制器之前拦截，超出限制直接返回429，不占用密码哈希线程
+ * 部署在反向代理之后时需开启 server.forward-headers-strategy，使 getRemoteAddr 返回真实客户端IP
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottleService loginThrottleService;
+
+    public LoginThrottleFilter(LoginThrottleService loginThrottleService) {
+        this.loginThrottleService = loginThrottleService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !"POST".equalsIgnoreCase(request.getMethod())
+            || !(uri.equals("/api/users/login") || uri.equals("/api/admins/login"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long retryAfter = loginThrottleService.acquireForIp(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"message\":\"登录请求过于频繁，请稍后再试\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.hello.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.hello.service.RateLimitService;
+import com.example.hello.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 按用户和路由限流
+ * 放在JwtAuthFilter之后，调用者取自JWT中的userId，未登录请求按IP限流，超出限制返回429
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final RateLimitService rateLimitService;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimitService rateLimitService) {
+        this.properties = properties;
+        this.rateLimitService = rateLimitService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitProperties.Route route = matchRoute(request);
+        if (route != null) {
+            long retryAfter = rateLimitService.tryAcquire(route, resolveCaller(request));
+            if (retryAfter > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.getWriter().write("{\"message\":\"请求过于频繁，请稍后再试\"}");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitProperties.Route matchRoute(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if (!route.getMethods().isEmpty()
+                    && route.getMethods().stream().noneMatch(method -> method.equalsIgnoreCase(request.getMethod()))) {
+                continue;
+            }
+            for (String pattern : route.getPatterns()) {
+                if (pathMatcher.match(pattern, uri)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String resolveCaller(HttpServletRequest request) {
+        Object claims = request.getAttribute(JwtUtil.CLAIMS_ATTRIBUTE);
+        if (claims instanceof Claims && ((Claims) claims).get("userId") != null) {
+            return "user:" + ((Claims) claims).get("userId");
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.hello.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 接口限流配置
+ * 路由按配置顺序匹配，第一个匹配的路由生效；未匹配任何路由的请求不限流
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 每次从Redis领取的共享额度数量，越大访问Redis越少，但节点间分配越不均匀
+     */
+    private int sharedLeaseSize = 5;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        /** 路由名称，用于限流键和指标标签 */
+        private String name;
+        /** Ant风格路径 */
+        private List<String> patterns = new ArrayList<>();
+        /** 限定的HTTP方法，为空表示所有方法 */
+        private List<String> methods = new ArrayList<>();
+        /** 本地令牌桶容量（允许的突发请求数） */
+        private int capacity = 10;
+        /** 本地令牌桶每秒补充的令牌数 */
+        private double refillPerSecond = 1;
+        /** 所有节点共享的每分钟额度，0表示只做本地限流 */
+        private int sharedLimitPerMinute = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.hello.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.example.hello.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 记录最近写入过数据的用户
+ * 从库有复制延迟，用户刚预约完立即查询时可能看不到自己的预约，这段时间内该用户的只读请求改走主库。
+ * 记录只保存在本实例内存中，多实例部署时其他实例依赖复制延迟检查
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    @Autowired
+    private ReplicaRoutingProperties properties;
+
+    private Cache<String, Boolean> recentWriters;
+
+    @PostConstruct
+    public void init() {
+        recentWriters = Caffeine.newBuilder()
+            .maximumSize(100000)
+            .expireAfterWrite(Math.max(1, properties.getReadYourWritesSeconds()), TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * 用户写入数据后调用
+     */
+    public void markWrite(String userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 当前请求的用户是否刚写入过数据
+     */
+    public boolean isCurrentUserRecentWriter() {
+        String userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    private static String currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object claims = attributes.getAttribute(JwtUtil.CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (claims instanceof Claims && ((Claims) claims).get("userId") != null) {
+            return String.valueOf(((Claims) claims).get("userId"));
+        }
+        return null;
+    }
+}
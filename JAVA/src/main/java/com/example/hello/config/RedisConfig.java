@@ -1,35 +1,62 @@
 package com.example.hello.config;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.example.hello.cache.ClusterCacheInvalidator;
+import com.example.hello.cache.CompactRedisSerializer;
+import com.example.hello.cache.RoomClosureIndex;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Redis配置类
  */
 @Configuration
 public class RedisConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
+    /**
+     * @param serializerType compact 使用紧凑二进制格式，json 使用原来的Jackson格式；两种格式都能读取旧的JSON数据
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
+    public RedisTemplate<String, Object> redisTemplate(
+            RedisConnectionFactory factory,
+            @Value("${redis.serializer.type:compact}") String serializerType,
+            @Value("${redis.serializer.compression-threshold:512}") int compressionThreshold) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
 
-        // 配置ObjectMapper
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-
-        // 使用Jackson2JsonRedisSerializer来序列化和反序列化redis的value值
-        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(mapper, Object.class);
+        RedisSerializer<Object> serializer = "json".equalsIgnoreCase(serializerType)
+            ? valueSerializer()
+            : compactValueSerializer(compressionThreshold);
 
         // 设置key和value的序列化规则
         template.setKeySerializer(new StringRedisSerializer());
@@ -40,4 +67,107 @@ public class RedisConfig {
 
         return template;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 创建Redis value的序列化器
+     * 单独提供静态方法，便于基准测试直接使用与线上一致的序列化配置
+     */
+    public static Jackson2JsonRedisSerializer<Object> valueSerializer() {
+        // 配置ObjectMapper
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+
+        // 使用Jackson2JsonRedisSerializer来序列化和反序列化redis的value值
+        return new Jackson2JsonRedisSerializer<>(mapper, Object.class);
+    }
+
+    /**
+     * 创建紧凑二进制格式的序列化器，不支持的类型回退为 {@link #valueSerializer()} 的JSON格式
+     * @param compressionThreshold 超过该字节数的值尝试LZ4压缩，小于等于0表示不压缩
+     */
+    public static CompactRedisSerializer compactValueSerializer(int compressionThreshold) {
+        return CompactRedisSerializer.withDefaultCodecs(valueSerializer(), compressionThreshold);
+    }
+
+    /**
+     * Redis消息监听容器，接收其他实例发出的二级缓存失效通知和关闭时段变更通知
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory,
+                                                                      ClusterCacheInvalidator clusterCacheInvalidator,
+                                                                      RoomClosureIndex roomClosureIndex) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(clusterCacheInvalidator, new ChannelTopic(ClusterCacheInvalidator.CHANNEL));
+        container.addMessageListener(roomClosureIndex, new ChannelTopic(RoomClosureIndex.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Redis访问的熔断器
+     * 连续出错或响应变慢时快速打开，打开期间不再访问Redis，等待一段时间后进入半开状态放行少量探测请求
+     */
+    @Bean
+    public CircuitBreaker redisCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${redis.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${redis.circuit-breaker.slow-call-threshold-ms:200}") long slowCallThresholdMillis,
+            @Value("${redis.circuit-breaker.open-duration-ms:10000}") long openDurationMillis) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(20)
+            .minimumNumberOfCalls(5)
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallDurationThreshold(Duration.ofMillis(slowCallThresholdMillis))
+            .slowCallRateThreshold(failureRateThreshold)
+            .waitDurationInOpenState(Duration.ofMillis(openDurationMillis))
+            .permittedNumberOfCallsInHalfOpenState(3)
+            .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker("redis");
+
+        // 状态、失败率等指标：resilience4j.circuitbreaker.*
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            meterRegistry.counter("redis.circuit_breaker.transitions",
+                "from", event.getStateTransition().getFromState().name(),
+                "to", event.getStateTransition().getToState().name()).increment();
+            logger.warn("Redis熔断器状态变化: {}", event.getStateTransition());
+        });
+        return circuitBreaker;
+    }
+
+    /**
+     * Redis熔断期间使用的本地兜底缓存，容量和存活时间有限，只保证短时间内的可用性
+     */
+    @Bean
+    public Cache<String, Object> redisFallbackCache(
+            @Value("${redis.fallback-cache.maximum-size:10000}") long maximumSize,
+            @Value("${redis.fallback-cache.expire-seconds:300}") long expireSeconds) {
+        return Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * 为Spring缓存管理器套上同一个熔断器
+     * 目前应用未开启 @EnableCaching，容器中没有 CacheManager 时该处理器不做任何事
+     */
+    @Bean
+    public static BeanPostProcessor circuitBreakingCacheManagerPostProcessor(
+            ObjectProvider<CircuitBreaker> redisCircuitBreaker,
+            ObjectProvider<Cache<String, Object>> redisFallbackCache) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof CircuitBreakingCacheManager)) {
+                    return new CircuitBreakingCacheManager(cacheManager,
+                        redisCircuitBreaker.getObject(), redisFallbackCache.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
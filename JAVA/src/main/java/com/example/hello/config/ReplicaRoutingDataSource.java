@@ -0,0 +1,182 @@
+package com.example.hello.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * 按事务类型路由的数据源
+ *
+ * 只读事务轮询读复制延迟正常的从库；写事务、非事务访问、刚写入过数据的用户以及没有可用从库时都走主库。
+ * 需要包在 LazyConnectionDataSourceProxy 中使用，这样取连接时事务的只读标记已经设置好。
+ * 复制延迟定时检查，未知或超过阈值的从库暂停使用，检查恢复后自动加入。
+ * 事务路由到从库时在事务中做标记，读到的数据可能落后于主库，调用方据此避免把结果写入共享缓存。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    static final String PRIMARY = "primary";
+
+    /**
+     * 当前事务已路由到从库的标记，绑定为事务资源，事务结束时解绑
+     */
+    private static final Object REPLICA_TRANSACTION_KEY = new Object();
+
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final ReplicaRoutingProperties properties;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 各从库最近一次检查到的复制延迟（秒），-1表示未知或不可用
+     */
+    private final Map<String, AtomicLong> replicaLag = new HashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile List<String> healthyReplicas = List.of();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, Map<String, HikariDataSource> replicas,
+                                    ReplicaRoutingProperties properties, ReadYourWritesTracker readYourWritesTracker,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.properties = properties;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.meterRegistry = meterRegistry;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.putAll(replicas);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        for (String name : replicas.keySet()) {
+            AtomicLong lag = new AtomicLong(-1);
+            replicaLag.put(name, lag);
+            meterRegistry.gauge("datasource.replica.lag_seconds", Tags.of("pool", name), lag);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return route(PRIMARY, "write");
+        }
+        if (readYourWritesTracker.isCurrentUserRecentWriter()) {
+            return route(PRIMARY, "read_your_writes");
+        }
+        List<String> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            return route(PRIMARY, "no_replica");
+        }
+        int index = Math.floorMod(nextReplica.getAndIncrement(), candidates.size());
+        markReplicaTransaction();
+        return route(candidates.get(index), "read");
+    }
+
+    /**
+     * 当前事务的读是否来自从库；读写分离未开启或没有事务时为 false
+     */
+    public static boolean isCurrentTransactionOnReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION_KEY);
+    }
+
+    private static void markReplicaTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_TRANSACTION_KEY);
+            }
+        });
+    }
+
+    private String route(String target, String reason) {
+        meterRegistry.counter("datasource.routing", "target", target, "reason", reason).increment();
+        return target;
+    }
+
+    /**
+     * 检查各从库复制延迟，更新可用从库列表
+     */
+    @Scheduled(fixedDelayString = "${datasource-routing.lag-check-interval-ms:2000}")
+    public void checkReplicationLag() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, HikariDataSource> entry : replicas.entrySet()) {
+            long lag = queryLag(entry.getKey(), entry.getValue());
+            replicaLag.get(entry.getKey()).set(lag);
+            if (lag >= 0 && lag <= properties.getMaxLagSeconds()) {
+                healthy.add(entry.getKey());
+            }
+        }
+        if (!healthy.equals(healthyReplicas)) {
+            logger.warn("可用从库变化: {} -> {}", healthyReplicas, healthy);
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    /**
+     * 查询从库复制延迟（秒）
+     * 复制中断、连接失败或没有复制状态（复制被重置或从未配置）返回-1；
+     * 本地测试用的独立实例需开启 allow-standalone-replicas，没有复制状态时才视为没有延迟
+     */
+    private long queryLag(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+                return readLag(rs, "Seconds_Behind_Source", name);
+            } catch (SQLException e) {
+                // MySQL 8.0.22 之前的版本
+                try (ResultSet rs = statement.executeQuery("SHOW SLAVE STATUS")) {
+                    return readLag(rs, "Seconds_Behind_Master", name);
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("从库 {} 复制状态检查失败: {}", name, e.getMessage());
+            return -1;
+        }
+    }
+
+    private long readLag(ResultSet rs, String column, String name) throws SQLException {
+        if (!rs.next()) {
+            if (properties.isAllowStandaloneReplicas()) {
+                return 0;
+            }
+            logger.warn("从库 {} 没有复制状态，暂停读该从库", name);
+            return -1;
+        }
+        long lag = rs.getLong(column);
+        return rs.wasNull() ? -1 : lag;
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.hello.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 读写分离配置
+ * 开启后 @Transactional(readOnly = true) 的方法读从库，其余访问（写操作、预约冲突检查）走 spring.datasource 配置的主库
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource-routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * 从库复制延迟超过该秒数时暂停读该从库
+     */
+    private long maxLagSeconds = 5;
+
+    /**
+     * 用户自己预约、取消或签到后，该时间内这个用户的读请求走主库，保证能读到自己刚写入的数据
+     */
+    private long readYourWritesSeconds = 10;
+
+    /**
+     * 是否允许没有复制状态的从库（本地测试用的独立实例）提供读服务；
+     * 生产环境保持关闭，复制被重置或从未配置的从库会暂停使用，避免读到任意旧的数据
+     */
+    private boolean allowStandaloneReplicas = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.hello.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,6 +15,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.example.hello.service.ConcurrencyLimitService;
+import com.example.hello.service.LoginThrottleService;
+import com.example.hello.service.RateLimitService;
 import com.example.hello.util.JwtUtil;
 
 @Configuration
@@ -21,9 +25,22 @@ import com.example.hello.util.JwtUtil;
 public class SecurityConfig {
 
     private final JwtUtil jwtUtil;
+    private final LoginThrottleService loginThrottleService;
+    private final RateLimitProperties rateLimitProperties;
+    private final RateLimitService rateLimitService;
+    private final ConcurrencyLimitProperties concurrencyLimitProperties;
+    private final ConcurrencyLimitService concurrencyLimitService;
 
-    public SecurityConfig(JwtUtil jwtUtil) {
+    public SecurityConfig(JwtUtil jwtUtil, LoginThrottleService loginThrottleService,
+                          RateLimitProperties rateLimitProperties, RateLimitService rateLimitService,
+                          ConcurrencyLimitProperties concurrencyLimitProperties,
+                          ConcurrencyLimitService concurrencyLimitService) {
         this.jwtUtil = jwtUtil;
+        this.loginThrottleService = loginThrottleService;
+        this.rateLimitProperties = rateLimitProperties;
+        this.rateLimitService = rateLimitService;
+        this.concurrencyLimitProperties = concurrencyLimitProperties;
+        this.concurrencyLimitService = concurrencyLimitService;
     }
 
     @Bean
@@ -40,11 +57,16 @@ public class SecurityConfig {
                 .requestMatchers("/api/users/register").permitAll()  // 允许用户注册
                 .requestMatchers("/uploads/**").permitAll()  // 允许访问上传的文件
                 .requestMatchers("/error").permitAll()  // 允许错误页面访问
+                .requestMatchers("/actuator/health/**").permitAll()  // 健康检查
+                .requestMatchers("/actuator/**").hasRole("ADMIN")  // 其他监控端点需要管理员权限
                 .requestMatchers("/api/reservations/**").authenticated()  // 预约相关接口需要登录
                 .requestMatchers("/api/admins/**").hasRole("ADMIN")  // 管理员接口需要管理员权限
                 .anyRequest().authenticated()  // 其他请求需要认证
             )
-            .addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class);  // 添加JWT认证过滤器
+            .addFilterBefore(loginThrottleFilter(), UsernamePasswordAuthenticationFilter.class)  // 登录接口按IP限流
+            .addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class)  // 添加JWT认证过滤器
+            .addFilterAfter(rateLimitFilter(), JwtAuthFilter.class)  // 按用户和路由限流
+            .addFilterAfter(concurrencyLimitFilter(), RateLimitFilter.class);  // 自适应并发限制，过载时按优先级拒绝
             
         return http.build();
     }
@@ -64,13 +86,36 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * BCrypt 在专用的有界线程池中执行，避免登录高峰占满请求线程
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${password-hashing.threads:0}") int threads,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${password-hashing.timeout-ms:3000}") long timeoutMillis,
+            @Value("${password-hashing.retry-after-seconds:2}") long retryAfterSeconds) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity,
+            timeoutMillis, retryAfterSeconds);
     }
 
     @Bean
     public JwtAuthFilter jwtAuthFilter() {
         return new JwtAuthFilter(jwtUtil);
     }
+
+    @Bean
+    public LoginThrottleFilter loginThrottleFilter() {
+        return new LoginThrottleFilter(loginThrottleService);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter(rateLimitProperties, rateLimitService);
+    }
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter() {
+        return new ConcurrencyLimitFilter(concurrencyLimitProperties, concurrencyLimitService);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.example.hello.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+
+import com.example.hello.cache.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 热点查询合并配置类
+ * 整点抢座时大量客户端同时查询同一自习室、日期和时间段，相同查询只计算一次，只复用成功的响应
+ */
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<ResponseEntity<?>> studyRoomsStatusSingleFlight(SingleFlightProperties properties,
+                                                                        MeterRegistry meterRegistry) {
+        return create("study_rooms_status", properties, meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<ResponseEntity<?>> availableSlotsSingleFlight(SingleFlightProperties properties,
+                                                                      MeterRegistry meterRegistry) {
+        return create("available_slots", properties, meterRegistry);
+    }
+
+    private static SingleFlight<ResponseEntity<?>> create(String name, SingleFlightProperties properties,
+                                                          MeterRegistry meterRegistry) {
+        return new SingleFlight<>(name, properties.getFreshMillis(), properties.getStaleMillis(),
+            properties.getMaximumSize(), response -> response.getStatusCode().is2xxSuccessful(), meterRegistry);
+    }
+}
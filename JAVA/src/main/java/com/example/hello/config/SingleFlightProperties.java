@@ -0,0 +1,22 @@
+package com.example.hello.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 热点查询合并配置
+ * freshMillis 内相同查询直接复用结果，之后 staleMillis 内先返回旧结果并在后台刷新
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "single-flight")
+public class SingleFlightProperties {
+
+    private boolean enabled = true;
+
+    private long freshMillis = 1000;
+    private long staleMillis = 2000;
+    private long maximumSize = 10000;
+}
@@ -70,6 +70,17 @@ public class AdminController {
         return userService.adminChangeUserPassword(changePasswordRequest);
     }
 
+    /**
+     * 管理员设置用户所属的用户组
+     * @param id 用户ID
+     * @param request 包含用户组(userGroup)的请求，为空表示移出用户组
+     * @return 修改结果
+     */
+    @PutMapping("/users/{id}/group")
+    public ResponseEntity<?> updateUserGroup(@PathVariable String id, @RequestBody Map<String, String> request) {
+        return userService.updateUserGroup(id, request.get("userGroup"));
+    }
+
     /**
      * 管理员获取所有用户信息
      * @return 所有用户信息列表
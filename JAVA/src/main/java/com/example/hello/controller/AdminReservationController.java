@@ -1,11 +1,17 @@
 package com.example.hello.controller;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,8 +22,11 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.hello.dto.AdminReservationDTO;
+import com.example.hello.dto.ReservationSearchCriteria;
+import com.example.hello.exception.BusinessException;
 import com.example.hello.exception.ResourceNotFoundException;
 import com.example.hello.model.ReservationStatus;
 import com.example.hello.model.entity.Reservation;
@@ -46,19 +55,82 @@ public class AdminReservationController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String seatId,
             @RequestParam(required = false) String studyRoomId,
-            @RequestParam(defaultValue = "date,desc") String sort) {
+            @RequestParam(defaultValue = "date,desc") String sort,
+            @RequestParam(defaultValue = "page") String mode) {
+        
+        if (!"page".equalsIgnoreCase(mode) && !"slice".equalsIgnoreCase(mode) && !"approx".equalsIgnoreCase(mode)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "不支持的查询模式，仅支持 page、slice 或 approx"));
+        }
         
         String[] sortParams = sort.split(",");
-        String sortField = sortParams[0];
-        Sort.Direction direction = sortParams.length > 1 && "desc".equalsIgnoreCase(sortParams[1]) 
+        String sortField = sortParams[0].trim();
+        Sort.Direction direction = sortParams.length > 1 && "desc".equalsIgnoreCase(sortParams[1].trim()) 
             ? Sort.Direction.DESC 
             : Sort.Direction.ASC;
             
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortField));
-        Page<AdminReservationDTO> reservations = adminReservationService.getReservations(
-            userId, startDate, endDate, status, seatId, studyRoomId, pageRequest);
+        try {
+            ReservationSearchCriteria criteria = toCriteria(userId, startDate, endDate, status, seatId, studyRoomId);
             
-        return ResponseEntity.ok(reservations);
+            PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortField));
+            Slice<AdminReservationDTO> reservations = adminReservationService.searchReservations(
+                criteria, pageRequest, mode);
+                
+            return ResponseEntity.ok(reservations);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "日期格式无效，请使用yyyy-MM-dd格式"));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * 导出预约记录
+     * 与分页查询使用相同的筛选条件，一次性流式输出全部结果，不做分页和计数
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportReservations(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String seatId,
+            @RequestParam(required = false) String studyRoomId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "不支持的导出格式，仅支持 ndjson 或 csv"));
+        }
+        
+        // 开始输出后响应头已发出，参数错误只能在此之前返回400
+        ReservationSearchCriteria criteria;
+        try {
+            criteria = toCriteria(userId, startDate, endDate, status, seatId, studyRoomId);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "日期格式无效，请使用yyyy-MM-dd格式"));
+        }
+        
+        String fileName = "reservations-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE)
+                + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : (csv ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                       : MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"));
+        
+        StreamingResponseBody body = outputStream -> adminReservationService.exportReservations(
+                criteria, format, gzip, outputStream);
+        
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
     }
     
     /**
@@ -107,4 +179,24 @@ public class AdminReservationController {
             return ResponseEntity.notFound().build();
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 构建查询条件，日期格式无效时抛出 DateTimeParseException
+     */
+    private ReservationSearchCriteria toCriteria(
+            String userId,
+            String startDate,
+            String endDate,
+            String status,
+            String seatId,
+            String studyRoomId) {
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria();
+        criteria.setUserId(userId);
+        criteria.setStartDate(startDate != null && !startDate.isEmpty() ? LocalDate.parse(startDate) : null);
+        criteria.setEndDate(endDate != null && !endDate.isEmpty() ? LocalDate.parse(endDate) : null);
+        criteria.setStatus(status);
+        criteria.setSeatId(seatId);
+        criteria.setStudyRoomId(studyRoomId);
+        return criteria;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.hello.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.hello.model.entity.BookingPolicy;
+import com.example.hello.service.BookingPolicyService;
+
+/**
+ * 预约规则控制器
+ * 管理员按自习室和用户组配置提前预约天数、每日次数、签到时间和黑名单规则
+ */
+@RestController
+@RequestMapping("/api/admins/booking-policies")
+public class BookingPolicyController {
+    
+    @Autowired
+    private BookingPolicyService bookingPolicyService;
+    
+    /**
+     * 获取全部预约规则
+     */
+    @GetMapping
+    public ResponseEntity<?> getPolicies() {
+        return bookingPolicyService.getPolicies();
+    }
+    
+    /**
+     * 查看某个自习室、用户组组合最终生效的规则
+     */
+    @GetMapping("/effective")
+    public ResponseEntity<?> getEffectiveRules(@RequestParam(required = false) String studyRoomId,
+                                               @RequestParam(required = false) String userGroup) {
+        return bookingPolicyService.getEffectiveRules(studyRoomId, userGroup);
+    }
+    
+    /**
+     * 创建预约规则
+     */
+    @PostMapping
+    public ResponseEntity<?> createPolicy(@RequestBody BookingPolicy policy) {
+        return bookingPolicyService.createPolicy(policy);
+    }
+    
+    /**
+     * 修改预约规则
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updatePolicy(@PathVariable String id, @RequestBody BookingPolicy policy) {
+        return bookingPolicyService.updatePolicy(id, policy);
+    }
+    
+    /**
+     * 删除预约规则
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deletePolicy(@PathVariable String id) {
+        return bookingPolicyService.deletePolicy(id);
+    }
+}
@@ -2,10 +2,13 @@ package com.example.hello.controller;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -20,6 +23,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.hello.cache.BookingRules;
+import com.example.hello.cache.SingleFlight;
+import com.example.hello.config.ReadYourWritesTracker;
+import com.example.hello.config.SingleFlightProperties;
 import com.example.hello.exception.CheckInTimeException;
 import com.example.hello.exception.ResourceNotFoundException;
 import com.example.hello.exception.UnauthorizedException;
@@ -27,8 +34,11 @@ import com.example.hello.exception.UserBlacklistedException;
 import com.example.hello.model.ReservationStatus;
 import com.example.hello.model.entity.Reservation;
 import com.example.hello.repository.ReservationRepository;
+import com.example.hello.service.BookingPolicyService;
 import com.example.hello.service.ReservationService;
+import com.example.hello.service.SeatStatusCacheService;
 import com.example.hello.service.UserService;
+import com.example.hello.util.TimeFormats;
 
 /**
  * 预约控制器
@@ -47,6 +57,24 @@ public class ReservationController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private BookingPolicyService bookingPolicyService;
+    
+    @Autowired
+    private SeatStatusCacheService seatStatusCacheService;
+    
+    @Autowired
+    private SingleFlightProperties singleFlightProperties;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    @Autowired
+    private SingleFlight<ResponseEntity<?>> studyRoomsStatusSingleFlight;
+    
+    @Autowired
+    private SingleFlight<ResponseEntity<?>> availableSlotsSingleFlight;
+    
     /**
      * 创建预约
      */
@@ -154,7 +182,8 @@ public class ReservationController {
             @RequestParam String dateStr) {
         try {
             LocalDate date = LocalDate.parse(dateStr, DateTimeFormatter.ISO_DATE);
-            return reservationService.getAvailableTimeSlots(studyRoomId, date);
+            return coalesce(availableSlotsSingleFlight, studyRoomId + "|" + date,
+                () -> reservationService.getAvailableTimeSlots(studyRoomId, date));
         } catch (DateTimeParseException e) {
             return ResponseEntity.badRequest()
                 .body(java.util.Map.of("message", "日期格式无效，请使用yyyy-MM-dd格式"));
@@ -205,7 +234,7 @@ public class ReservationController {
 
     /**
      * 获取所有自习室在指定时间段的状态
-     * 如果未指定时间，则使用当前时间
+     * 如果未指定时间，则使用当前时间（精确到分钟，同一分钟内的相同查询合并计算）
      */
     @GetMapping("/study-rooms/status")
     public ResponseEntity<?> getStudyRoomsStatus(
@@ -216,7 +245,12 @@ public class ReservationController {
             LocalDate date = dateStr != null ? 
                 LocalDate.parse(dateStr, DateTimeFormatter.ISO_DATE) : 
                 LocalDate.now();
-            return reservationService.getStudyRoomsStatus(date, startTime, endTime);
+            String start = startTime != null ?
+                normalizeTime(startTime) :
+                LocalTime.now().truncatedTo(ChronoUnit.MINUTES).toString();
+            String end = endTime != null ? normalizeTime(endTime) : null;
+            return coalesce(studyRoomsStatusSingleFlight, date + "|" + start + "|" + end,
+                () -> reservationService.getStudyRoomsStatus(date, start, end));
         } catch (DateTimeParseException e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("message", "日期格式无效，请使用yyyy-MM-dd格式"));
@@ -272,8 +306,10 @@ public class ReservationController {
                     .atZone(beijingZone)
                     .toLocalDateTime();
             
-            // 计算允许的最早签到时间（提前15分钟）
-            LocalDateTime earliestCheckInTime = startTime.minusMinutes(15);
+            // 计算允许的最早签到时间（提前时间由自习室和用户组的预约规则决定）
+            String userGroup = (String) blacklistStatus.get("userGroup");
+            BookingRules rules = bookingPolicyService.resolveRules(reservation.getStudyRoomId(), userGroup);
+            LocalDateTime earliestCheckInTime = rules.earliestCheckIn(startTime);
             
             // 添加调试日志
             System.out.println("当前时间(北京时间): " + now);
@@ -282,18 +318,21 @@ public class ReservationController {
             System.out.println("预约结束时间: " + endTime);
             
             if (now.isBefore(earliestCheckInTime)) {
-                throw new CheckInTimeException("签到时间过早，请在预约开始时间前15分钟内签到（最早签到时间：" + 
-                    earliestCheckInTime.format(DateTimeFormatter.ofPattern("HH:mm")) + "）");
+                throw new CheckInTimeException("签到时间过早，请在预约开始时间前" + rules.checkInWindowMinutes()
+                    + "分钟内签到（最早签到时间：" + 
+                    earliestCheckInTime.format(TimeFormats.HH_MM) + "）");
             }
             
             if (now.isAfter(endTime)) {
                 throw new CheckInTimeException("签到时间已过，预约结束时间为 " + 
-                    reservation.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm")));
+                    reservation.getEndTime().format(TimeFormats.HH_MM));
             }
             
             // 4. 更新预约状态为已签到
             reservation.setStatus(ReservationStatus.CHECKED_IN.name());
             reservationRepository.save(reservation);
+            seatStatusCacheService.invalidateSeatStatus(reservation.getSeatId(), reservation.getDate());
+            readYourWritesTracker.markWrite(reservation.getUserId());
             
             return ResponseEntity.ok(Map.of("message", "签到成功"));
         } catch (CheckInTimeException e) {
@@ -313,4 +352,27 @@ public class ReservationController {
                     .body(Map.of("message", "签到失败：" + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 相同查询合并执行，关闭时直接查询
+     * 刚预约或取消的用户不合并：进行中的查询可能在其提交前就已开始，合并后会看不到自己的修改
+     */
+    private ResponseEntity<?> coalesce(SingleFlight<ResponseEntity<?>> singleFlight, String key,
+                                       Supplier<ResponseEntity<?>> loader) {
+        if (!singleFlightProperties.isEnabled() || readYourWritesTracker.isCurrentUserRecentWriter()) {
+            return loader.get();
+        }
+        return singleFlight.get(key, loader);
+    }
+
+    /**
+     * 统一时间写法（如 "08:00" 与 "08:00:00"），使相同的查询得到相同的合并键；无法解析时原样交给业务层校验
+     */
+    private static String normalizeTime(String time) {
+        try {
+            return LocalTime.parse(time).toString();
+        } catch (DateTimeParseException e) {
+            return time;
+        }
+    }
+}
@@ -130,6 +130,18 @@ public class SeatController {
         }
     }
     
+    /**
+     * 批量更新座位状态
+     * 座位停用时，其上尚未结束的预约会迁移到同一自习室的空闲座位或被取消
+     * 
+     * @param request 包含座位ID列表、新状态和预约处理方式的请求参数
+     * @return 更新结果，包括迁移和取消的预约数量
+     */
+    @PutMapping("/batch/status")
+    public ResponseEntity<?> updateSeatStatusInBatch(@RequestBody Map<String, Object> request) {
+        return seatService.updateSeatStatusInBatch(request);
+    }
+    
     /**
      * 删除座位
      * 
@@ -9,6 +9,7 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -26,9 +27,12 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomSchedule;
 import com.example.hello.repository.ReservationRepository;
 import com.example.hello.repository.SeatRepository;
 import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.service.StudyRoomClosureService;
+import com.example.hello.service.StudyRoomScheduleService;
 import com.example.hello.service.StudyRoomService;
 
 /**
@@ -42,6 +46,12 @@ public class StudyRoomController {
     @Autowired
     private StudyRoomService studyRoomService;
     
+    @Autowired
+    private StudyRoomClosureService studyRoomClosureService;
+    
+    @Autowired
+    private StudyRoomScheduleService studyRoomScheduleService;
+    
     @Autowired
     private SeatRepository seatRepository;
     
@@ -91,6 +101,55 @@ public class StudyRoomController {
         return studyRoomService.updateStudyRoomStatus(id, status);
     }
     
+    /**
+     * 关闭自习室，尚未结束的预约迁移到其他自习室或取消
+     */
+    @PostMapping("/{id}/close")
+    public ResponseEntity<?> closeStudyRoom(@PathVariable String id,
+                                            @RequestBody(required = false) Map<String, String> request) {
+        return studyRoomService.closeStudyRoom(id, request == null ? Map.of() : request);
+    }
+    
+    /**
+     * 获取自习室尚未结束的关闭时段
+     */
+    @GetMapping("/{id}/closures")
+    public ResponseEntity<?> getClosures(@PathVariable String id) {
+        return studyRoomClosureService.getClosures(id);
+    }
+    
+    /**
+     * 创建自习室或座位的关闭、维护时段，时段内已有的预约迁移或取消
+     */
+    @PostMapping("/{id}/closures")
+    public ResponseEntity<?> createClosure(@PathVariable String id, @RequestBody Map<String, String> request) {
+        return studyRoomClosureService.createClosure(id, request);
+    }
+    
+    /**
+     * 删除关闭时段
+     */
+    @DeleteMapping("/{id}/closures/{closureId}")
+    public ResponseEntity<?> deleteClosure(@PathVariable String id, @PathVariable String closureId) {
+        return studyRoomClosureService.deleteClosure(id, closureId);
+    }
+    
+    /**
+     * 获取自习室的开放时间安排
+     */
+    @GetMapping("/{id}/schedules")
+    public ResponseEntity<?> getSchedules(@PathVariable String id) {
+        return studyRoomScheduleService.getSchedules(id);
+    }
+    
+    /**
+     * 整体替换自习室按星期和特殊日期的开放时间安排
+     */
+    @PutMapping("/{id}/schedules")
+    public ResponseEntity<?> updateSchedules(@PathVariable String id, @RequestBody List<StudyRoomSchedule> schedules) {
+        return studyRoomScheduleService.updateSchedules(id, schedules);
+    }
+    
     /**
      * 专门用于上传自习室图片的接口
      * 返回图片URL，前端需要将此URL保存到自习室对象中
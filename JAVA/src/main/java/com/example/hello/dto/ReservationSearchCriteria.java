@@ -0,0 +1,19 @@
+package com.example.hello.dto;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+/**
+ * 管理员预约查询条件
+ * 字段为空表示不按该条件过滤
+ */
+@Data
+public class ReservationSearchCriteria {
+    private String userId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status;
+    private String seatId;
+    private String studyRoomId;
+}
@@ -0,0 +1,19 @@
+package com.example.hello.exception;
+
+/**
+ * 服务过载异常
+ * 受限资源（如密码哈希线程池）已饱和时抛出，由全局异常处理返回503和Retry-After
+ * 调用方不要用 catch (Exception) 吞掉该异常，只捕获自己能处理的异常（如数据访问异常）
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
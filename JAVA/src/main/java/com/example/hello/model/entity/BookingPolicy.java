@@ -0,0 +1,98 @@
+package com.example.hello.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * 预约规则实体类
+ * 一条记录对应一个适用范围（自习室、用户组或两者组合），为空的规则字段沿用更通用一级的配置
+ */
+@Data
+@Entity
+@Table(name = "booking_policies")
+public class BookingPolicy {
+    
+    /**
+     * 规则ID，主键
+     */
+    @Id
+    @Column(length = 32)
+    private String id;
+    
+    /**
+     * 适用的自习室ID，为空表示所有自习室
+     */
+    @Column(name = "study_room_id", length = 32)
+    private String studyRoomId;
+    
+    /**
+     * 适用的用户组，为空表示所有用户组
+     */
+    @Column(name = "user_group", length = 32)
+    private String userGroup;
+    
+    /**
+     * 最多可提前预约的天数
+     */
+    @Column(name = "max_advance_days")
+    private Integer maxAdvanceDays;
+    
+    /**
+     * 每天最多预约次数，0表示不限制
+     */
+    @Column(name = "max_daily_reservations")
+    private Integer maxDailyReservations;
+    
+    /**
+     * 是否允许同一时段预约多个座位
+     */
+    @Column(name = "allow_multiple_seats")
+    private Boolean allowMultipleSeats;
+    
+    /**
+     * 预约开始前多少分钟可以签到
+     */
+    @Column(name = "check_in_window_minutes")
+    private Integer checkInWindowMinutes;
+    
+    /**
+     * 未签到多少次加入黑名单
+     */
+    @Column(name = "no_show_threshold")
+    private Integer noShowThreshold;
+    
+    /**
+     * 黑名单持续天数
+     */
+    @Column(name = "blacklist_days")
+    private Integer blacklistDays;
+    
+    /**
+     * 说明
+     */
+    private String description;
+    
+    /**
+     * 最后修改时间，用于判断规则是否需要重新加载
+     */
+    @Column(name = "updated_at")
+    private Long updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (id == null) {
+            id = java.util.UUID.randomUUID().toString().replace("-", "");
+        }
+        updatedAt = System.currentTimeMillis();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = System.currentTimeMillis();
+    }
+}
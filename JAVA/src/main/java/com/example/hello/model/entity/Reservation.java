@@ -99,7 +99,8 @@ public class Reservation {
     /**
      * 软删除相关字段
      */
-    private Boolean isDeleted;
+    @Column(name = "is_deleted", nullable = false)
+    private Boolean isDeleted = false;
     private String deletedBy;
     private LocalDate deletedAt;
     
@@ -123,6 +124,9 @@ public class Reservation {
         if (createdAt == null) {
             this.createdAt = LocalDateTime.now();
         }
+        if (isDeleted == null) {
+            this.isDeleted = false;
+        }
         this.updatedAt = LocalDateTime.now();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.hello.model.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * 自习室开放时间安排实体类
+ * 每条记录是某个星期几的固定开放时间，或某个特殊日期（节假日等）的开放时间
+ */
+@Data
+@Entity
+@Table(name = "study_room_schedules")
+public class StudyRoomSchedule {
+    
+    /**
+     * 安排ID，主键
+     */
+    @Id
+    @Column(length = 32)
+    private String id;
+    
+    /**
+     * 关联的自习室ID
+     */
+    @Column(name = "study_room_id", nullable = false, length = 32)
+    private String studyRoomId;
+    
+    /**
+     * 星期几，1=周一 ... 7=周日
+     * 与 scheduleDate 二选一
+     */
+    @Column(name = "day_of_week")
+    private Integer dayOfWeek;
+    
+    /**
+     * 特殊日期，优先于星期安排
+     */
+    @Column(name = "schedule_date")
+    private LocalDate scheduleDate;
+    
+    /**
+     * 开放时间，格式 HH:mm
+     * 与 closeTime 均为空表示当天不开放
+     */
+    @Column(name = "open_time", length = 5)
+    private String openTime;
+    
+    /**
+     * 关闭时间，格式 HH:mm
+     */
+    @Column(name = "close_time", length = 5)
+    private String closeTime;
+    
+    /**
+     * 说明，例如节假日名称
+     */
+    private String description;
+    
+    /**
+     * 创建时间
+     */
+    private Long createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (id == null) {
+            id = java.util.UUID.randomUUID().toString().replace("-", "");
+        }
+        createdAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.hello.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * 自习室关闭时段实体类
+ * 记录自习室或单个座位在一段时间内的定时关闭、维护安排
+ */
+@Data
+@Entity
+@Table(name = "study_room_status")
+public class StudyRoomStatus {
+    
+    /**
+     * 时段ID，主键
+     */
+    @Id
+    @Column(length = 32)
+    private String id;
+    
+    /**
+     * 关联的自习室ID
+     */
+    @Column(name = "study_room_id", nullable = false)
+    private String studyRoomId;
+    
+    /**
+     * 关联的座位ID
+     * 为空表示整个自习室关闭
+     */
+    @Column(name = "seat_id", length = 32)
+    private String seatId;
+    
+    /**
+     * 时段类型
+     * 可选值：CLOSED(定时关闭), MAINTENANCE(维护)
+     */
+    @Column(nullable = false, length = 20)
+    private String status;
+    
+    /**
+     * 开始时间（含）
+     */
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+    
+    /**
+     * 结束时间（不含）
+     */
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+    
+    /**
+     * 说明，例如关闭原因
+     */
+    private String description;
+    
+    /**
+     * 创建时间
+     */
+    private Long createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (id == null) {
+            id = java.util.UUID.randomUUID().toString().replace("-", "");
+        }
+        createdAt = System.currentTimeMillis();
+    }
+}
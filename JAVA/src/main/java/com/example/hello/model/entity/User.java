@@ -29,6 +29,9 @@ public class User {
     @Column
     private Boolean isBlacklisted;  // 是否在黑名单中
     
+    @Column(name = "user_group", length = 32)
+    private String userGroup;  // 用户组，用于匹配预约规则
+    
     @PrePersist
     protected void onCreate() {
         createdAt = System.currentTimeMillis();
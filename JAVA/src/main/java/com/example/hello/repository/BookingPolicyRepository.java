@@ -0,0 +1,38 @@
+package com.example.hello.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.hello.model.entity.BookingPolicy;
+
+/**
+ * 预约规则数据访问接口
+ */
+@Repository
+public interface BookingPolicyRepository extends JpaRepository<BookingPolicy, String> {
+    
+    /**
+     * 查询规则的最后修改时间，与规则数量一起判断内存中的规则是否过期
+     * 
+     * @return 最后修改时间，没有规则时为 null
+     */
+    @Query("SELECT MAX(p.updatedAt) FROM BookingPolicy p")
+    Long findLatestUpdatedAt();
+    
+    /**
+     * 是否已有相同适用范围的规则
+     * 
+     * @param studyRoomId 自习室ID，可为空
+     * @param userGroup 用户组，可为空
+     * @param excludedId 排除的规则ID（修改时排除自身），可为空
+     * @return 是否存在
+     */
+    @Query("SELECT COUNT(p) > 0 FROM BookingPolicy p WHERE " +
+           "((:studyRoomId IS NULL AND p.studyRoomId IS NULL) OR p.studyRoomId = :studyRoomId) AND " +
+           "((:userGroup IS NULL AND p.userGroup IS NULL) OR p.userGroup = :userGroup) AND " +
+           "(:excludedId IS NULL OR p.id <> :excludedId)")
+    boolean existsByScope(@Param("studyRoomId") String studyRoomId, @Param("userGroup") String userGroup,
+                          @Param("excludedId") String excludedId);
+}
@@ -1,24 +1,24 @@
 package com.example.hello.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.example.hello.dto.AdminReservationDTO;
 import com.example.hello.model.entity.Reservation;
 
 /**
  * 预约数据访问接口
  */
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, String> {
+public interface ReservationRepository extends JpaRepository<Reservation, String>, ReservationRepositoryCustom {
     
     /**
      * 根据用户ID查询预约列表
@@ -26,7 +26,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param userId 用户ID
      * @return 预约列表
      */
-    @Query("SELECT r FROM Reservation r WHERE r.userId = :userId AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.userId = :userId AND r.isDeleted = false")
     List<Reservation> findByUserId(@Param("userId") String userId);
     
     /**
@@ -35,7 +35,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param seatId 座位ID
      * @return 预约列表
      */
-    @Query("SELECT r FROM Reservation r WHERE r.seatId = :seatId AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.seatId = :seatId AND r.isDeleted = false")
     List<Reservation> findBySeatId(@Param("seatId") String seatId);
     
     /**
@@ -44,7 +44,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param studyRoomId 自习室ID
      * @return 预约列表
      */
-    @Query("SELECT r FROM Reservation r WHERE r.studyRoomId = :studyRoomId AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.studyRoomId = :studyRoomId AND r.isDeleted = false")
     List<Reservation> findByStudyRoomId(@Param("studyRoomId") String studyRoomId);
     
     /**
@@ -54,7 +54,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param status 预约状态
      * @return 预约列表
      */
-    @Query("SELECT r FROM Reservation r WHERE r.userId = :userId AND r.status = :status AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.userId = :userId AND r.status = :status AND r.isDeleted = false")
     List<Reservation> findByUserIdAndStatus(@Param("userId") String userId, @Param("status") String status);
     
     /**
@@ -63,7 +63,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param date 预约日期
      * @return 预约列表
      */
-    @Query("SELECT r FROM Reservation r WHERE r.date = :date AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.date = :date AND r.isDeleted = false")
     List<Reservation> findByDate(@Param("date") LocalDate date);
     
     /**
@@ -73,7 +73,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param date 预约日期
      * @return 预约列表
      */
-    @Query("SELECT r FROM Reservation r WHERE r.seatId = :seatId AND r.date = :date AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.seatId = :seatId AND r.date = :date AND r.isDeleted = false")
     List<Reservation> findBySeatIdAndDate(@Param("seatId") String seatId, @Param("date") LocalDate date);
     
     /**
@@ -82,7 +82,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     @Query("SELECT r FROM Reservation r WHERE r.seatId = :seatId " +
            "AND r.date = :date " +
            "AND r.status = 'CONFIRMED' " +
-           "AND (r.isDeleted IS NULL OR r.isDeleted = false) " +
+           "AND r.isDeleted = false " +
            "AND ((r.startTime <= :startTime AND r.endTime > :startTime) " +
            "OR (r.startTime < :endTime AND r.endTime >= :endTime) " +
            "OR (r.startTime >= :startTime AND r.endTime <= :endTime))")
@@ -100,13 +100,13 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param status 排除的状态（如'CANCELLED'）
      * @return 预约次数
      */
-    @Query("SELECT COUNT(r) FROM Reservation r WHERE r.userId = :userId AND r.date = :date AND r.status != :status AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT COUNT(r) FROM Reservation r WHERE r.userId = :userId AND r.date = :date AND r.status != :status AND r.isDeleted = false")
     long countByUserIdAndDateAndStatusNot(@Param("userId") String userId, @Param("date") LocalDate date, @Param("status") String status);
 
     /**
      * 获取特定自习室在特定日期的所有预约
      */
-    @Query("SELECT r FROM Reservation r WHERE r.studyRoomId = :studyRoomId AND r.date = :date AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.studyRoomId = :studyRoomId AND r.date = :date AND r.isDeleted = false")
     List<Reservation> findByStudyRoomIdAndDate(@Param("studyRoomId") String studyRoomId, @Param("date") LocalDate date);
 
     /**
@@ -115,7 +115,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     @Query("SELECT r FROM Reservation r WHERE r.studyRoomId = :studyRoomId " +
            "AND r.date = :date " +
            "AND r.status != 'CANCELLED' " +
-           "AND (r.isDeleted IS NULL OR r.isDeleted = false) " +
+           "AND r.isDeleted = false " +
            "AND ((r.startTime < :endTime AND r.endTime > :startTime))")
     List<Reservation> findByStudyRoomIdAndTimeRange(
         @Param("studyRoomId") String studyRoomId,
@@ -123,6 +123,18 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
         @Param("startTime") LocalTime startTime,
         @Param("endTime") LocalTime endTime);
 
+    /**
+     * 查询自习室在日期范围内未取消的预约，用于缓存预热时一次加载整个预约周期
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.studyRoomId = :studyRoomId " +
+           "AND r.date BETWEEN :startDate AND :endDate " +
+           "AND r.status != 'CANCELLED' " +
+           "AND r.isDeleted = false")
+    List<Reservation> findActiveByStudyRoomIdAndDateRange(
+        @Param("studyRoomId") String studyRoomId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate);
+
     boolean existsBySeatId(String seatId);
 
     /**
@@ -131,6 +143,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     @Query("SELECT COUNT(r) > 0 FROM Reservation r WHERE r.seatId = :seatId " +
            "AND r.date = :date " +
            "AND r.status = 'CONFIRMED' " +
+           "AND r.isDeleted = false " +
            "AND ((r.startTime <= :startTime AND r.endTime > :startTime) " +
            "OR (r.startTime < :endTime AND r.endTime >= :endTime) " +
            "OR (r.startTime >= :startTime AND r.endTime <= :endTime))")
@@ -146,31 +159,6 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
         List<String> statuses
     );
 
-    @Query("SELECT new com.example.hello.dto.AdminReservationDTO(" +
-           "r.id, r.userId, u.username, r.seatId, s.seatNumber, " +
-           "r.studyRoomId, sr.name, r.date, r.startTime, r.endTime, " +
-           "r.status, r.isDeleted, r.deletedBy, r.deletedAt, " +
-           "r.adjustedBy, r.adjustedAt) " +
-           "FROM Reservation r " +
-           "LEFT JOIN User u ON r.userId = u.id " +
-           "LEFT JOIN Seat s ON r.seatId = s.id " +
-           "LEFT JOIN StudyRoom sr ON r.studyRoomId = sr.id " +
-           "WHERE (:userId IS NULL OR r.userId = :userId) AND " +
-           "(:startDate IS NULL OR r.date >= :startDate) AND " +
-           "(:endDate IS NULL OR r.date <= :endDate) AND " +
-           "(:status IS NULL OR r.status = :status) AND " +
-           "(:seatId IS NULL OR r.seatId = :seatId) AND " +
-           "(:studyRoomId IS NULL OR r.studyRoomId = :studyRoomId) AND " +
-           "(r.isDeleted IS NULL OR r.isDeleted = false)")
-    Page<AdminReservationDTO> findByConditions(
-        @Param("userId") String userId,
-        @Param("startDate") LocalDate startDate,
-        @Param("endDate") LocalDate endDate,
-        @Param("status") String status,
-        @Param("seatId") String seatId,
-        @Param("studyRoomId") String studyRoomId,
-        Pageable pageable);
-        
     @Query("DELETE FROM Reservation r WHERE r.isDeleted = true AND r.deletedAt < :date")
     void deleteByIsDeletedTrueAndDeletedAtBefore(@Param("date") LocalDate date);
 
@@ -180,7 +168,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
     @Query("SELECT r FROM Reservation r WHERE r.userId = :userId " +
            "AND r.date = :date " +
            "AND r.status = 'CONFIRMED' " +
-           "AND (r.isDeleted IS NULL OR r.isDeleted = false) " +
+           "AND r.isDeleted = false " +
            "AND ((r.startTime <= :startTime AND r.endTime > :startTime) " +
            "OR (r.startTime < :endTime AND r.endTime >= :endTime) " +
            "OR (r.startTime >= :startTime AND r.endTime <= :endTime))")
@@ -197,7 +185,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
      * @param date 预约日期
      * @return 预约列表
      */
-    @Query("SELECT r FROM Reservation r WHERE r.userId = :userId AND r.date = :date AND (r.isDeleted IS NULL OR r.isDeleted = false)")
+    @Query("SELECT r FROM Reservation r WHERE r.userId = :userId AND r.date = :date AND r.isDeleted = false")
     List<Reservation> findByUserIdAndDate(@Param("userId") String userId, @Param("date") LocalDate date);
 
     @Query("SELECT r FROM Reservation r WHERE " +
@@ -206,9 +194,60 @@ public interface ReservationRepository extends JpaRepository<Reservation, String
        "   (r.date = :date AND r.endTime <= :endTime)" +  // 日期等于今天且结束时间小于等于当前时间
        ") AND " +
        "r.status IN :statuses AND " +  // 状态匹配
-       "(r.isDeleted IS NULL OR r.isDeleted = false)")  // 未删除的预约
+       "r.isDeleted = false")  // 未删除的预约
 List<Reservation> findExpiredReservations(
     @Param("date") LocalDate date,
     @Param("endTime") LocalTime endTime,
     @Param("statuses") List<String> statuses);
-} 
\ No newline at end of file
+
+    /**
+     * 查询指定座位上尚未结束的已确认预约（座位停用时需要迁移或取消的预约）
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.seatId IN :seatIds " +
+           "AND (r.date > :date OR (r.date = :date AND r.endTime > :time)) " +
+           "AND r.status = 'CONFIRMED' " +
+           "AND r.isDeleted = false " +
+           "ORDER BY r.date, r.startTime")
+    List<Reservation> findUpcomingConfirmedBySeatIds(
+        @Param("seatIds") Collection<String> seatIds,
+        @Param("date") LocalDate date,
+        @Param("time") LocalTime time);
+
+    /**
+     * 查询自习室中尚未结束的已确认预约（自习室关闭时需要迁移或取消的预约）
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.studyRoomId = :studyRoomId " +
+           "AND (r.date > :date OR (r.date = :date AND r.endTime > :time)) " +
+           "AND r.status = 'CONFIRMED' " +
+           "AND r.isDeleted = false " +
+           "ORDER BY r.date, r.startTime")
+    List<Reservation> findUpcomingConfirmedByStudyRoomId(
+        @Param("studyRoomId") String studyRoomId,
+        @Param("date") LocalDate date,
+        @Param("time") LocalTime time);
+
+    /**
+     * 查询多个自习室在指定日期占用座位的预约（已确认或已签到），用于在内存中计算空闲座位
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.studyRoomId IN :studyRoomIds " +
+           "AND r.date IN :dates " +
+           "AND r.status IN ('CONFIRMED', 'CHECKED_IN') " +
+           "AND r.isDeleted = false")
+    List<Reservation> findOccupyingByStudyRoomIdsAndDates(
+        @Param("studyRoomIds") Collection<String> studyRoomIds,
+        @Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * 批量取消预约，只取消仍处于已确认状态的预约
+     * 执行前先刷新持久化上下文中未提交的修改，执行后清空上下文，避免实体状态与数据库不一致
+     *
+     * @return 取消的预约数量
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = 'CANCELLED', r.remarks = :remarks, r.updatedAt = :updatedAt " +
+           "WHERE r.id IN :ids AND r.status = 'CONFIRMED'")
+    int cancelConfirmedByIds(
+        @Param("ids") Collection<String> ids,
+        @Param("remarks") String remarks,
+        @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,38 @@
+package com.example.hello.repository;
+
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import com.example.hello.dto.AdminReservationDTO;
+import com.example.hello.dto.ReservationSearchCriteria;
+
+/**
+ * 预约动态查询接口
+ * 只为实际传入的筛选条件生成谓词，排序字段限定在白名单内
+ */
+public interface ReservationRepositoryCustom {
+    
+    /**
+     * 分页查询，附带精确总数
+     */
+    Page<AdminReservationDTO> searchPage(ReservationSearchCriteria criteria, Pageable pageable);
+    
+    /**
+     * 分页查询，不执行COUNT，只判断是否存在下一页
+     */
+    Slice<AdminReservationDTO> searchSlice(ReservationSearchCriteria criteria, Pageable pageable);
+    
+    /**
+     * 分页查询，总数最多统计到 countLimit 条
+     * 返回的总数等于 countLimit 时表示实际数量不少于该值
+     */
+    Page<AdminReservationDTO> searchApproximate(ReservationSearchCriteria criteria, Pageable pageable, long countLimit);
+    
+    /**
+     * 流式读取全部符合条件的记录，调用方必须在只读事务内消费并关闭Stream
+     */
+    Stream<AdminReservationDTO> streamSearch(ReservationSearchCriteria criteria);
+}
@@ -0,0 +1,204 @@
+package com.example.hello.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.example.hello.dto.AdminReservationDTO;
+import com.example.hello.dto.ReservationSearchCriteria;
+import com.example.hello.exception.BusinessException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * 预约动态查询实现
+ */
+public class ReservationRepositoryImpl implements ReservationRepositoryCustom {
+    
+    private static final String SELECT_DTO =
+        "SELECT new com.example.hello.dto.AdminReservationDTO(" +
+        "r.id, r.userId, u.username, r.seatId, s.seatNumber, " +
+        "r.studyRoomId, sr.name, r.date, r.startTime, r.endTime, " +
+        "r.status, r.isDeleted, r.deletedBy, r.deletedAt, " +
+        "r.adjustedBy, r.adjustedAt) " +
+        "FROM Reservation r " +
+        "LEFT JOIN User u ON r.userId = u.id " +
+        "LEFT JOIN Seat s ON r.seatId = s.id " +
+        "LEFT JOIN StudyRoom sr ON r.studyRoomId = sr.id ";
+    
+    /**
+     * 允许排序的字段，值为对应的JPQL路径
+     * 按日期排序时附带开始时间，与 (date, start_time) 索引顺序一致
+     */
+    private static final Map<String, List<String>> SORTABLE_FIELDS = new LinkedHashMap<>();
+    
+    static {
+        SORTABLE_FIELDS.put("date", List.of("r.date", "r.startTime"));
+        SORTABLE_FIELDS.put("startTime", List.of("r.startTime"));
+        SORTABLE_FIELDS.put("endTime", List.of("r.endTime"));
+        SORTABLE_FIELDS.put("status", List.of("r.status"));
+        SORTABLE_FIELDS.put("createdAt", List.of("r.createdAt"));
+    }
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Page<AdminReservationDTO> searchPage(ReservationSearchCriteria criteria, Pageable pageable) {
+        Conditions conditions = Conditions.of(criteria);
+        List<AdminReservationDTO> content = fetch(conditions, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(conditions));
+    }
+    
+    @Override
+    public Slice<AdminReservationDTO> searchSlice(ReservationSearchCriteria criteria, Pageable pageable) {
+        Conditions conditions = Conditions.of(criteria);
+        // 多取一条用于判断是否还有下一页
+        List<AdminReservationDTO> content = fetch(conditions, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+    
+    @Override
+    public Page<AdminReservationDTO> searchApproximate(ReservationSearchCriteria criteria, Pageable pageable, long countLimit) {
+        Conditions conditions = Conditions.of(criteria);
+        List<AdminReservationDTO> content = fetch(conditions, pageable, pageable.getPageSize());
+        long total = Math.max(countCapped(conditions, countLimit), pageable.getOffset() + content.size());
+        return new PageImpl<>(content, pageable, total);
+    }
+    
+    @Override
+    public Stream<AdminReservationDTO> streamSearch(ReservationSearchCriteria criteria) {
+        Conditions conditions = Conditions.of(criteria);
+        TypedQuery<AdminReservationDTO> query = entityManager.createQuery(
+            SELECT_DTO + conditions.jpqlWhere() + " ORDER BY r.date, r.startTime, r.id",
+            AdminReservationDTO.class);
+        conditions.bind(query);
+        // MySQL驱动在fetchSize为Integer.MIN_VALUE时逐行读取结果集
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+    
+    private List<AdminReservationDTO> fetch(Conditions conditions, Pageable pageable, int maxResults) {
+        TypedQuery<AdminReservationDTO> query = entityManager.createQuery(
+            SELECT_DTO + conditions.jpqlWhere() + orderBy(pageable.getSort()),
+            AdminReservationDTO.class);
+        conditions.bind(query);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(maxResults);
+        }
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultList();
+    }
+    
+    /**
+     * 精确计数，只查询预约表，不做关联
+     */
+    private long count(Conditions conditions) {
+        TypedQuery<Long> query = entityManager.createQuery(
+            "SELECT COUNT(r) FROM Reservation r " + conditions.jpqlWhere(), Long.class);
+        conditions.bind(query);
+        return query.getSingleResult();
+    }
+    
+    /**
+     * 限量计数，扫描到 countLimit 行即停止
+     */
+    private long countCapped(Conditions conditions, long countLimit) {
+        Query query = entityManager.createNativeQuery(
+            "SELECT COUNT(*) FROM (SELECT 1 FROM reservations r " + conditions.sqlWhere() +
+            " LIMIT " + countLimit + ") t");
+        conditions.bind(query);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+    
+    private String orderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        String direction = "DESC";
+        for (Sort.Order order : sort) {
+            List<String> paths = SORTABLE_FIELDS.get(order.getProperty());
+            if (paths == null) {
+                throw new BusinessException("不支持的排序字段: " + order.getProperty()
+                    + "，可选值: " + String.join(", ", SORTABLE_FIELDS.keySet()));
+            }
+            direction = order.isAscending() ? "ASC" : "DESC";
+            for (String path : paths) {
+                if (!orders.contains(path + " ASC") && !orders.contains(path + " DESC")) {
+                    orders.add(path + " " + direction);
+                }
+            }
+        }
+        if (orders.isEmpty()) {
+            orders.add("r.date DESC");
+            orders.add("r.startTime DESC");
+        }
+        // 以主键作为最终排序，保证分页结果稳定
+        orders.add("r.id " + direction);
+        return " ORDER BY " + String.join(", ", orders);
+    }
+    
+    /**
+     * 根据查询条件生成的谓词和参数
+     */
+    private static final class Conditions {
+        private final List<String> jpql = new ArrayList<>();
+        private final List<String> sql = new ArrayList<>();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+        
+        static Conditions of(ReservationSearchCriteria criteria) {
+            Conditions conditions = new Conditions();
+            conditions.jpql.add("r.isDeleted = false");
+            conditions.sql.add("r.is_deleted = 0");
+            if (criteria == null) {
+                return conditions;
+            }
+            conditions.add("r.userId = :userId", "r.user_id = :userId", "userId", criteria.getUserId());
+            conditions.add("r.studyRoomId = :studyRoomId", "r.study_room_id = :studyRoomId", "studyRoomId", criteria.getStudyRoomId());
+            conditions.add("r.seatId = :seatId", "r.seat_id = :seatId", "seatId", criteria.getSeatId());
+            conditions.add("r.date >= :startDate", "r.date >= :startDate", "startDate", criteria.getStartDate());
+            conditions.add("r.date <= :endDate", "r.date <= :endDate", "endDate", criteria.getEndDate());
+            conditions.add("r.status = :status", "r.status = :status", "status", criteria.getStatus());
+            return conditions;
+        }
+        
+        private void add(String jpqlPredicate, String sqlPredicate, String name, Object value) {
+            if (value == null || (value instanceof String text && text.isEmpty())) {
+                return;
+            }
+            jpql.add(jpqlPredicate);
+            sql.add(sqlPredicate);
+            parameters.put(name, value);
+        }
+        
+        String jpqlWhere() {
+            return "WHERE " + String.join(" AND ", jpql);
+        }
+        
+        String sqlWhere() {
+            return "WHERE " + String.join(" AND ", sql);
+        }
+        
+        void bind(Query query) {
+            parameters.forEach(query::setParameter);
+        }
+    }
+}
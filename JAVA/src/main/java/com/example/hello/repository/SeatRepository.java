@@ -1,10 +1,14 @@
 package com.example.hello.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
@@ -12,6 +16,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.example.hello.model.entity.Seat;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * 座位数据访问接口
  */
@@ -20,11 +26,16 @@ public interface SeatRepository extends JpaRepository<Seat, String> {
     
     /**
      * 根据自习室ID查询座位列表
+     * 结果进入查询缓存，座位实体本身在二级缓存中，重复查询不访问数据库
      * 
      * @param studyRoomId 自习室ID
      * @return 座位列表
      */
     @NonNull
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "seatsByStudyRoom")
+    })
     List<Seat> findByStudyRoomId(@NonNull String studyRoomId);
     
     /**
@@ -36,6 +47,15 @@ public interface SeatRepository extends JpaRepository<Seat, String> {
      */
     Seat findByStudyRoomIdAndSeatNumber(@NonNull String studyRoomId, @NonNull String seatNumber);
     
+    /**
+     * 查询自习室已有的全部座位号，批量创建座位时一次查出用于去重
+     * 
+     * @param studyRoomId 自习室ID
+     * @return 座位号列表
+     */
+    @Query("SELECT s.seatNumber FROM Seat s WHERE s.studyRoomId = :studyRoomId")
+    List<String> findSeatNumbersByStudyRoomId(@Param("studyRoomId") @NonNull String studyRoomId);
+    
     /**
      * 根据自习室ID和座位号查询座位
      * 
@@ -88,6 +108,71 @@ public interface SeatRepository extends JpaRepository<Seat, String> {
     @Query("UPDATE Seat s SET s.status = :status WHERE s.studyRoomId = :studyRoomId")
     int updateAllSeatStatusByStudyRoom(@Param("studyRoomId") @NonNull String studyRoomId, @Param("status") @NonNull String status);
 
+    /**
+     * 批量更新多个座位的状态
+     * 
+     * @param ids 座位ID列表
+     * @param status 新状态
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query("UPDATE Seat s SET s.status = :status WHERE s.id IN :ids")
+    int updateSeatStatusByIds(@Param("ids") @NonNull Collection<String> ids, @Param("status") @NonNull String status);
+    
+    /**
+     * 查询多个自习室中指定状态的座位，按自习室和座位号排序
+     * 
+     * @param studyRoomIds 自习室ID列表
+     * @param status 座位状态
+     * @return 座位列表
+     */
+    @Query("SELECT s FROM Seat s WHERE s.studyRoomId IN :studyRoomIds AND s.status = :status " +
+           "ORDER BY s.studyRoomId, s.seatNumber")
+    List<Seat> findByStudyRoomIdsAndStatus(
+        @Param("studyRoomIds") @NonNull Collection<String> studyRoomIds,
+        @Param("status") @NonNull String status);
+
+    /**
+     * 查询自习室中座位号大于指定值的座位ID（缩减容量时要删除的座位）
+     * 
+     * @param studyRoomId 自习室ID
+     * @param seatNumber 座位号下界（不含）
+     * @return 座位ID列表
+     */
+    @Query("SELECT s.id FROM Seat s WHERE s.studyRoomId = :studyRoomId AND s.seatNumber > :seatNumber")
+    List<String> findIdsByStudyRoomIdAndSeatNumberGreaterThan(
+        @Param("studyRoomId") @NonNull String studyRoomId,
+        @Param("seatNumber") @NonNull String seatNumber);
+    
+    /**
+     * 查询自习室中座位号大于指定值且有预约记录的座位号，一条半连接查询完成检查
+     * 座位号下界传空字符串时检查整个自习室
+     * 
+     * @param studyRoomId 自习室ID
+     * @param seatNumber 座位号下界（不含）
+     * @return 有预约记录的座位号列表
+     */
+    @Query("SELECT s.seatNumber FROM Seat s WHERE s.studyRoomId = :studyRoomId AND s.seatNumber > :seatNumber " +
+           "AND EXISTS (SELECT 1 FROM Reservation r WHERE r.seatId = s.id) ORDER BY s.seatNumber")
+    List<String> findReservedSeatNumbers(
+        @Param("studyRoomId") @NonNull String studyRoomId,
+        @Param("seatNumber") @NonNull String seatNumber);
+    
+    /**
+     * 批量删除自习室中座位号大于指定值且没有预约记录的座位
+     * 删除条件中再次排除有预约的座位，检查和删除之间新产生的预约不会被破坏，调用方可通过影响行数判断
+     * 
+     * @param studyRoomId 自习室ID
+     * @param seatNumber 座位号下界（不含），传空字符串时删除整个自习室的座位
+     * @return 删除的行数
+     */
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.studyRoomId = :studyRoomId AND s.seatNumber > :seatNumber " +
+           "AND NOT EXISTS (SELECT 1 FROM Reservation r WHERE r.seatId = s.id)")
+    int deleteUnreservedSeats(
+        @Param("studyRoomId") @NonNull String studyRoomId,
+        @Param("seatNumber") @NonNull String seatNumber);
+    
     /**
      * 查找所有空闲的座位
      * 
@@ -95,4 +180,26 @@ public interface SeatRepository extends JpaRepository<Seat, String> {
      */
     @Query("SELECT s FROM Seat s WHERE s.status = '空闲'")
     List<Seat> findAvailableSeats();
-} 
\ No newline at end of file
+    
+    /**
+     * 按ID顺序分批查询没有对应自习室的座位ID（反连接，不加载实体）
+     * 
+     * @param afterId 上一批最后一个座位ID，从头开始时传空字符串
+     * @param limit 每批数量
+     * @return 座位ID列表
+     */
+    @Query("SELECT s.id FROM Seat s WHERE s.id > :afterId " +
+           "AND NOT EXISTS (SELECT 1 FROM StudyRoom r WHERE r.id = s.studyRoomId) ORDER BY s.id")
+    List<String> findOrphanedSeatIds(@Param("afterId") @NonNull String afterId, Limit limit);
+    
+    /**
+     * 删除指定ID中没有对应自习室的座位
+     * 
+     * @param ids 座位ID列表
+     * @return 删除的行数
+     */
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.id IN :ids " +
+           "AND NOT EXISTS (SELECT 1 FROM StudyRoom r WHERE r.id = s.studyRoomId)")
+    int deleteOrphanedSeats(@Param("ids") @NonNull Collection<String> ids);
+}
@@ -0,0 +1,45 @@
+package com.example.hello.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.hello.model.entity.StudyRoomSchedule;
+
+/**
+ * 自习室开放时间安排数据访问接口
+ */
+@Repository
+public interface StudyRoomScheduleRepository extends JpaRepository<StudyRoomSchedule, String> {
+    
+    /**
+     * 查询自习室的全部开放时间安排
+     * 
+     * @param studyRoomId 自习室ID
+     * @return 安排列表
+     */
+    List<StudyRoomSchedule> findByStudyRoomId(String studyRoomId);
+    
+    /**
+     * 批量查询多个自习室的开放时间安排
+     * 
+     * @param studyRoomIds 自习室ID集合
+     * @return 安排列表
+     */
+    List<StudyRoomSchedule> findByStudyRoomIdIn(Collection<String> studyRoomIds);
+    
+    /**
+     * 删除自习室的全部开放时间安排
+     * 
+     * @param studyRoomId 自习室ID
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Query("DELETE FROM StudyRoomSchedule s WHERE s.studyRoomId = :studyRoomId")
+    int deleteByStudyRoomId(@Param("studyRoomId") String studyRoomId);
+}
@@ -0,0 +1,33 @@
+package com.example.hello.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.hello.model.entity.StudyRoomStatus;
+
+/**
+ * 自习室关闭时段数据访问接口
+ */
+@Repository
+public interface StudyRoomStatusRepository extends JpaRepository<StudyRoomStatus, String> {
+    
+    /**
+     * 查询所有尚未结束的关闭时段
+     * 
+     * @param time 当前时间
+     * @return 关闭时段列表
+     */
+    List<StudyRoomStatus> findByEndTimeAfter(LocalDateTime time);
+    
+    /**
+     * 查询自习室尚未结束的关闭时段（包括座位级时段），按开始时间排序
+     * 
+     * @param studyRoomId 自习室ID
+     * @param time 当前时间
+     * @return 关闭时段列表
+     */
+    List<StudyRoomStatus> findByStudyRoomIdAndEndTimeAfterOrderByStartTime(String studyRoomId, LocalDateTime time);
+}
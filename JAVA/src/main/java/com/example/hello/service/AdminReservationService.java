@@ -1,9 +1,14 @@
 package com.example.hello.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.example.hello.dto.AdminReservationDTO;
+import com.example.hello.dto.ReservationSearchCriteria;
 
 public interface AdminReservationService {
     /**
@@ -17,6 +22,26 @@ public interface AdminReservationService {
         String seatId,
         String studyRoomId,
         Pageable pageable);
+    
+    /**
+     * 按条件查询预约记录
+     * mode 为 page 时返回精确总数，slice 时不执行COUNT，approx 时总数最多统计到一万条
+     */
+    Slice<AdminReservationDTO> searchReservations(
+        ReservationSearchCriteria criteria,
+        Pageable pageable,
+        String mode);
+    
+    /**
+     * 按条件导出预约记录
+     * 以流式方式逐行写出，format 支持 ndjson / csv，gzip 为 true 时边写边压缩。
+     * 调用时响应头可能已经发出，筛选条件需由调用方预先解析校验
+     */
+    void exportReservations(
+        ReservationSearchCriteria criteria,
+        String format,
+        boolean gzip,
+        OutputStream outputStream) throws IOException;
         
     /**
      * 删除预约记录
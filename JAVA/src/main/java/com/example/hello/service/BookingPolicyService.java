@@ -0,0 +1,63 @@
+package com.example.hello.service;
+
+import org.springframework.http.ResponseEntity;
+
+import com.example.hello.cache.BookingRules;
+import com.example.hello.model.entity.BookingPolicy;
+
+/**
+ * 预约规则服务接口
+ * 管理按自习室和用户组配置的预约规则，修改后无需重新部署即可生效
+ */
+public interface BookingPolicyService {
+    
+    /**
+     * 获取全部预约规则
+     * 
+     * @return 规则列表
+     */
+    ResponseEntity<?> getPolicies();
+    
+    /**
+     * 创建预约规则，同一适用范围（自习室+用户组）只能有一条
+     * 
+     * @param policy 规则，studyRoomId、userGroup 为空表示所有自习室、所有用户组
+     * @return 创建的规则
+     */
+    ResponseEntity<?> createPolicy(BookingPolicy policy);
+    
+    /**
+     * 修改预约规则，整体替换规则字段
+     * 
+     * @param id 规则ID
+     * @param policy 新的规则内容
+     * @return 修改后的规则
+     */
+    ResponseEntity<?> updatePolicy(String id, BookingPolicy policy);
+    
+    /**
+     * 删除预约规则
+     * 
+     * @param id 规则ID
+     * @return 删除结果
+     */
+    ResponseEntity<?> deletePolicy(String id);
+    
+    /**
+     * 查看某个自习室、用户组组合最终生效的规则
+     * 
+     * @param studyRoomId 自习室ID，为空时只按用户组匹配
+     * @param userGroup 用户组，可为空
+     * @return 生效的规则
+     */
+    ResponseEntity<?> getEffectiveRules(String studyRoomId, String userGroup);
+    
+    /**
+     * 计算用户在某个自习室适用的规则，供业务流程直接使用
+     * 
+     * @param studyRoomId 自习室ID，自习室不存在时只按用户组匹配
+     * @param userGroup 用户组，可为空
+     * @return 生效的规则
+     */
+    BookingRules resolveRules(String studyRoomId, String userGroup);
+}
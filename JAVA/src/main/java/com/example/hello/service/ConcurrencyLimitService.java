@@ -0,0 +1,32 @@
+package com.example.hello.service;
+
+/**
+ * 自适应并发限制服务
+ * 根据请求延迟动态调整允许同时处理的请求数，过载时按优先级从低到高拒绝请求
+ */
+public interface ConcurrencyLimitService {
+
+    enum Priority {
+        /** 签到、预约写操作 */
+        CRITICAL,
+        /** 预约相关查询 */
+        HIGH,
+        /** 管理端列表等 */
+        MEDIUM,
+        /** 反馈等可延后的请求 */
+        LOW
+    }
+
+    /**
+     * 申请一个并发名额
+     * @return 获得名额返回true，调用方处理完成后必须调用 {@link #release}
+     */
+    boolean tryAcquire(Priority priority);
+
+    /**
+     * 归还名额并上报本次请求的处理耗时
+     * @param latencyNanos 请求处理耗时
+     * @param failed 请求是否以服务端错误结束
+     */
+    void release(long latencyNanos, boolean failed);
+}
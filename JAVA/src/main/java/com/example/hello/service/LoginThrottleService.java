@@ -0,0 +1,20 @@
+package com.example.hello.service;
+
+/**
+ * 登录限流服务
+ * 分别按客户端IP和用户名统计登录尝试次数，防止登录洪峰或撞库拖垮其他接口
+ */
+public interface LoginThrottleService {
+
+    /**
+     * 登记一次来自该IP的登录请求
+     * @return 0表示放行，否则为建议的重试等待秒数
+     */
+    long acquireForIp(String ip);
+
+    /**
+     * 登记一次针对该用户名的登录请求
+     * @return 0表示放行，否则为建议的重试等待秒数
+     */
+    long acquireForUsername(String username);
+}
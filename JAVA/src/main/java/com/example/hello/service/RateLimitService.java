@@ -0,0 +1,18 @@
+package com.example.hello.service;
+
+import com.example.hello.config.RateLimitProperties;
+
+/**
+ * 接口限流服务
+ * 先用本地令牌桶快速判断，再按需从Redis领取跨节点共享的额度
+ */
+public interface RateLimitService {
+
+    /**
+     * 为调用者在指定路由上申请一次请求
+     * @param route 匹配到的路由配置
+     * @param caller 调用者标识（用户ID，未登录时为IP）
+     * @return 0表示放行，否则为建议的重试等待秒数
+     */
+    long tryAcquire(RateLimitProperties.Route route, String caller);
+}
@@ -0,0 +1,222 @@
+package com.example.hello.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomClosureIndex;
+import com.example.hello.cache.RoomScheduleCache;
+import com.example.hello.model.entity.Reservation;
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.repository.ReservationRepository;
+import com.example.hello.repository.SeatRepository;
+import com.example.hello.repository.StudyRoomRepository;
+
+/**
+ * 预约迁移服务
+ * 座位停用或自习室关闭时，把受影响的预约批量迁移到同一时段的空闲座位，无法迁移的批量取消
+ *
+ * 候选自习室的座位和相关日期的占用预约各用一条查询加载到内存，按"座位+日期"建立已占用时段，
+ * 为每个预约寻找空闲座位时只在内存中比较（包括各日期的开放时间和关闭时段），不按预约逐条查库。优先迁移到原自习室，其次依次尝试其他候选自习室。
+ * 缓存清除由调用方根据返回的座位ID统一完成。
+ */
+@Service
+public class ReservationRelocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationRelocationService.class);
+
+    /**
+     * 批量取消时每条UPDATE包含的预约ID数量上限
+     */
+    private static final int CANCEL_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+
+    @Autowired
+    private RoomClosureIndex roomClosureIndex;
+    
+    @Autowired
+    private RoomScheduleCache roomScheduleCache;
+
+    /**
+     * 迁移结果
+     *
+     * @param movedReservationIds 已迁移的预约ID
+     * @param cancelledReservationIds 已取消的预约ID
+     * @param affectedSeatIds 预约变化涉及的座位ID（原座位和迁入座位），用于清除座位状态缓存
+     */
+    public record Result(List<String> movedReservationIds, List<String> cancelledReservationIds,
+                         Set<String> affectedSeatIds) {
+    }
+
+    /**
+     * 迁移或取消一批预约，需要在调用方的事务中执行
+     *
+     * @param affected 受影响的预约
+     * @param candidateStudyRoomIds 可迁入的自习室ID，为空时全部取消
+     * @param excludedSeatIds 不能迁入的座位ID（例如正在停用的座位）
+     * @param reason 写入预约备注的原因
+     * @return 迁移结果
+     */
+    @Transactional
+    public Result relocateOrCancel(List<Reservation> affected, Collection<String> candidateStudyRoomIds,
+                                   Set<String> excludedSeatIds, String reason) {
+        Set<String> affectedSeatIds = new HashSet<>();
+        List<Reservation> moved = new ArrayList<>();
+        List<String> cancelledIds = new ArrayList<>();
+        if (affected.isEmpty()) {
+            return new Result(List.of(), cancelledIds, affectedSeatIds);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Availability availability = candidateStudyRoomIds.isEmpty() ? null
+            : loadAvailability(candidateStudyRoomIds, excludedSeatIds,
+                affected.stream().map(Reservation::getDate).collect(Collectors.toSet()));
+
+        List<Reservation> ordered = new ArrayList<>(affected);
+        ordered.sort(Comparator.comparing(Reservation::getDate).thenComparing(Reservation::getStartTime));
+        for (Reservation reservation : ordered) {
+            affectedSeatIds.add(reservation.getSeatId());
+            Seat target = availability == null ? null : availability.claim(reservation);
+            if (target == null) {
+                cancelledIds.add(reservation.getId());
+                continue;
+            }
+            reservation.setSeatId(target.getId());
+            reservation.setStudyRoomId(target.getStudyRoomId());
+            reservation.setRemarks(reason + "，已调整至座位 " + target.getSeatNumber());
+            reservation.setUpdatedAt(now);
+            affectedSeatIds.add(target.getId());
+            moved.add(reservation);
+        }
+
+        if (!moved.isEmpty()) {
+            reservationRepository.saveAll(moved);
+        }
+        int cancelled = 0;
+        for (int from = 0; from < cancelledIds.size(); from += CANCEL_CHUNK_SIZE) {
+            List<String> chunk = cancelledIds.subList(from, Math.min(from + CANCEL_CHUNK_SIZE, cancelledIds.size()));
+            cancelled += reservationRepository.cancelConfirmedByIds(chunk, reason + "，预约已取消", now);
+        }
+        logger.info("预约迁移完成 - 原因: {}, 迁移: {}, 取消: {}", reason, moved.size(), cancelled);
+
+        return new Result(moved.stream().map(Reservation::getId).collect(Collectors.toList()),
+            cancelledIds, affectedSeatIds);
+    }
+
+    private Availability loadAvailability(Collection<String> studyRoomIds, Set<String> excludedSeatIds,
+                                          Set<LocalDate> dates) {
+        Map<String, StudyRoom> rooms = new LinkedHashMap<>();
+        studyRoomRepository.findAllById(studyRoomIds).stream()
+            .filter(room -> "AVAILABLE".equals(room.getStatus()))
+            .forEach(room -> rooms.put(room.getId(), room));
+
+        Map<String, List<Seat>> seatsByRoom = new LinkedHashMap<>();
+        if (!rooms.isEmpty()) {
+            for (Seat seat : seatRepository.findByStudyRoomIdsAndStatus(rooms.keySet(), "AVAILABLE")) {
+                if (!excludedSeatIds.contains(seat.getId())) {
+                    seatsByRoom.computeIfAbsent(seat.getStudyRoomId(), id -> new ArrayList<>()).add(seat);
+                }
+            }
+        }
+
+        Map<String, List<LocalTime[]>> busy = new HashMap<>();
+        if (!seatsByRoom.isEmpty()) {
+            for (Reservation reservation : reservationRepository.findOccupyingByStudyRoomIdsAndDates(
+                    seatsByRoom.keySet(), dates)) {
+                busy.computeIfAbsent(slotKey(reservation.getSeatId(), reservation.getDate()), key -> new ArrayList<>())
+                    .add(new LocalTime[] { reservation.getStartTime(), reservation.getEndTime() });
+            }
+        }
+        return new Availability(roomScheduleCache.getAll(rooms.values()), seatsByRoom, busy, roomClosureIndex);
+    }
+
+    private static String slotKey(String seatId, LocalDate date) {
+        return seatId + "|" + date;
+    }
+
+    /**
+     * 候选座位在各日期的占用情况，迁入一个预约后立即登记，后续预约不会被分到同一时段
+     */
+    private static final class Availability {
+        private final Map<String, CompiledSchedule> schedules;
+        private final Map<String, List<Seat>> seatsByRoom;
+        private final Map<String, List<LocalTime[]>> busy;
+        private final RoomClosureIndex closures;
+
+        Availability(Map<String, CompiledSchedule> schedules, Map<String, List<Seat>> seatsByRoom,
+                     Map<String, List<LocalTime[]>> busy, RoomClosureIndex closures) {
+            this.schedules = schedules;
+            this.seatsByRoom = seatsByRoom;
+            this.busy = busy;
+            this.closures = closures;
+        }
+
+        Seat claim(Reservation reservation) {
+            Seat seat = claimIn(reservation.getStudyRoomId(), reservation);
+            if (seat != null) {
+                return seat;
+            }
+            for (String studyRoomId : seatsByRoom.keySet()) {
+                if (!studyRoomId.equals(reservation.getStudyRoomId())) {
+                    seat = claimIn(studyRoomId, reservation);
+                    if (seat != null) {
+                        return seat;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private Seat claimIn(String studyRoomId, Reservation reservation) {
+            List<Seat> seats = seatsByRoom.get(studyRoomId);
+            if (seats == null
+                    || !schedules.get(studyRoomId).hoursOn(reservation.getDate())
+                        .covers(reservation.getStartTime(), reservation.getEndTime())
+                    || closures.findRoomClosure(studyRoomId, reservation.getDate(),
+                        reservation.getStartTime(), reservation.getEndTime()).isPresent()) {
+                return null;
+            }
+            for (Seat seat : seats) {
+                if (closures.findSeatClosure(studyRoomId, seat.getId(), reservation.getDate(),
+                        reservation.getStartTime(), reservation.getEndTime()).isPresent()) {
+                    continue;
+                }
+                String key = slotKey(seat.getId(), reservation.getDate());
+                boolean free = busy.getOrDefault(key, List.of()).stream().noneMatch(interval ->
+                    interval[0].isBefore(reservation.getEndTime()) && reservation.getStartTime().isBefore(interval[1]));
+                if (free) {
+                    busy.computeIfAbsent(key, k -> new ArrayList<>())
+                        .add(new LocalTime[] { reservation.getStartTime(), reservation.getEndTime() });
+                    return seat;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -65,6 +65,14 @@ public interface SeatService {
      */
     ResponseEntity<?> updateSeatStatus(String id, Map<String, String> status);
     
+    /**
+     * 批量更新座位状态，并处理这些座位上尚未结束的预约
+     * 
+     * @param request 包含座位ID列表(seatIds)、新状态(status)和预约处理方式(reservationAction: RELOCATE/CANCEL)
+     * @return 更新结果的ResponseEntity对象
+     */
+    ResponseEntity<?> updateSeatStatusInBatch(Map<String, Object> request);
+    
     /**
      * 删除座位
      * 
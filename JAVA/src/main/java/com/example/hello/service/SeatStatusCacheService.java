@@ -2,43 +2,103 @@ package com.example.hello.service;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.example.hello.model.entity.Reservation;
 import com.example.hello.model.entity.Seat;
 import com.example.hello.repository.SeatRepository;
+import com.example.hello.util.CircuitBreakers;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 
 /**
  * 座位状态缓存服务
  * 用于缓存和管理座位状态信息
+ *
+ * Redis访问经过熔断器：Redis出错或变慢时熔断器打开，期间只读写本地兜底缓存，
+ * 本地未命中返回null由调用方查库；熔断期间未能执行的Redis清除操作在熔断器关闭后补做
+ *
+ * 座位状态支持按自习室批量读写：读取用一次MGET，写入用一次管道，300个座位也只有一次网络往返。
+ * 座位状态随预约变化，写入时同时把键登记到"座位+日期"的索引集合中，预约变化时按索引删除，不需要扫描键空间；
+ * 每个座位另有一个集合登记它各日期的索引集合，清除座位全部日期的状态时沿这两级索引删除，不使用KEYS
+ *
+ * 清除操作在事务中调用时等事务提交后执行：提交前并发的状态查询仍读到旧数据，提前清除会被它立即写回
  */
 @Service
 public class SeatStatusCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(SeatStatusCacheService.class);
     private static final String SEAT_STATUS_KEY_PREFIX = "seat:status:";
+    private static final String SEAT_STATUS_INDEX_KEY_PREFIX = "seat:status_index:";
+    private static final String SEAT_STATUS_DATES_KEY_PREFIX = "seat:status_dates:";
     private static final String STUDY_ROOM_SEATS_KEY_PREFIX = "study_room:seats:";
     private static final long CACHE_EXPIRE_HOURS = 24; // 缓存过期时间（小时）
+    /**
+     * 索引集合的存活时间，也是座位状态键存活时间的上限。
+     * 索引集合被不同存活时间的写入共用（例如预热写入10分钟、普通写入1分钟），
+     * 存活时间固定且不短于任何成员，后写入的短存活时间不会让索引先于其中的状态键过期
+     */
+    private static final long INDEX_TTL_SECONDS = TimeUnit.HOURS.toSeconds(CACHE_EXPIRE_HOURS);
+    private static final int DELETE_BATCH_SIZE = 500;
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final SeatRepository seatRepository;
     private final ObjectMapper objectMapper;
+    private final CircuitBreaker circuitBreaker;
+    private final Cache<String, Object> fallbackCache;
+    private final long seatStatusTtlSeconds;
+
+    /**
+     * 熔断期间未能在Redis中删除的键
+     */
+    private final Set<String> pendingInvalidations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 熔断期间未能在Redis中清除状态缓存的座位
+     */
+    private final Set<String> pendingSeatInvalidations = ConcurrentHashMap.newKeySet();
 
     @Autowired
     public SeatStatusCacheService(RedisTemplate<String, Object> redisTemplate,
                                 SeatRepository seatRepository,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                CircuitBreaker redisCircuitBreaker,
+                                Cache<String, Object> redisFallbackCache,
+                                @Value("${seat-status-cache.ttl-seconds:60}") long seatStatusTtlSeconds) {
         this.redisTemplate = redisTemplate;
         this.seatRepository = seatRepository;
         this.objectMapper = objectMapper;
+        this.circuitBreaker = redisCircuitBreaker;
+        this.fallbackCache = redisFallbackCache;
+        this.seatStatusTtlSeconds = seatStatusTtlSeconds;
+        redisCircuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                replayPendingInvalidations();
+            }
+        });
     }
 
     /**
@@ -48,6 +108,20 @@ public class SeatStatusCacheService {
         return SEAT_STATUS_KEY_PREFIX + seatId + ":" + date + ":" + startTime + ":" + endTime;
     }
 
+    /**
+     * 获取座位某日状态键的索引集合键
+     */
+    private String getSeatStatusIndexKey(String seatId, LocalDate date) {
+        return SEAT_STATUS_INDEX_KEY_PREFIX + seatId + ":" + date;
+    }
+
+    /**
+     * 获取座位各日期索引集合的登记集合键
+     */
+    private String getSeatStatusDatesKey(String seatId) {
+        return SEAT_STATUS_DATES_KEY_PREFIX + seatId;
+    }
+
     /**
      * 获取自习室座位列表缓存键
      */
@@ -63,37 +137,148 @@ public class SeatStatusCacheService {
             logger.warn("缓存座位状态失败: 参数为空");
             return;
         }
-        try {
-            String key = getSeatStatusKey(seatId, date, startTime, endTime);
-            redisTemplate.opsForValue().set(key, status, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-            logger.debug("缓存座位状态成功: key={}", key);
-        } catch (Exception e) {
-            logger.error("缓存座位状态失败: seatId={}, date={}, startTime={}, endTime={}", 
-                seatId, date, startTime, endTime, e);
+        cacheSeatStatuses(Map.of(seatId, status), date, startTime, endTime);
+    }
+
+    /**
+     * 批量缓存多个座位在同一时间段的状态，所有写入在一次管道中完成
+     *
+     * @param statuses 座位ID到状态的映射
+     */
+    public void cacheSeatStatuses(Map<String, Map<String, Object>> statuses, LocalDate date,
+                                  LocalTime startTime, LocalTime endTime) {
+        cacheSeatStatuses(statuses, date, startTime, endTime, seatStatusTtlSeconds);
+    }
+
+    /**
+     * 批量缓存座位状态并指定存活时间（秒），用于启动预热等需要较长存活时间的场景，
+     * 存活时间不超过索引集合的存活时间
+     */
+    public void cacheSeatStatuses(Map<String, Map<String, Object>> statuses, LocalDate date,
+                                  LocalTime startTime, LocalTime endTime, long ttlSeconds) {
+        if (statuses == null || date == null || startTime == null || endTime == null) {
+            logger.warn("批量缓存座位状态失败: 参数为空");
+            return;
+        }
+        if (statuses.isEmpty()) {
+            return;
+        }
+        statuses.forEach((seatId, status) -> fallbackCache.put(getSeatStatusKey(seatId, date, startTime, endTime), status));
+        long statusTtlSeconds = Math.min(ttlSeconds, INDEX_TTL_SECONDS);
+        if (CircuitBreakers.run(circuitBreaker, () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    statuses.forEach((seatId, status) -> {
+                        String key = getSeatStatusKey(seatId, date, startTime, endTime);
+                        String indexKey = getSeatStatusIndexKey(seatId, date);
+                        String datesKey = getSeatStatusDatesKey(seatId);
+                        ops.opsForValue().set(key, status, statusTtlSeconds, TimeUnit.SECONDS);
+                        ops.opsForSet().add(indexKey, key);
+                        ops.expire(indexKey, INDEX_TTL_SECONDS, TimeUnit.SECONDS);
+                        ops.opsForSet().add(datesKey, indexKey);
+                        ops.expire(datesKey, INDEX_TTL_SECONDS, TimeUnit.SECONDS);
+                    });
+                    return null;
+                }
+            }))) {
+            logger.debug("批量缓存座位状态成功: date={}, {}-{}, seats={}", date, startTime, endTime, statuses.size());
         }
     }
 
     /**
      * 获取缓存的座位状态
      */
+    @SuppressWarnings("unchecked")
     public Map<String, Object> getCachedSeatStatus(String seatId, LocalDate date, LocalTime startTime, LocalTime endTime) {
         if (seatId == null || date == null || startTime == null || endTime == null) {
             logger.warn("获取缓存座位状态失败: 参数为空");
             return null;
         }
-        try {
-            String key = getSeatStatusKey(seatId, date, startTime, endTime);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> result = (Map<String, Object>) redisTemplate.opsForValue().get(key);
+        String key = getSeatStatusKey(seatId, date, startTime, endTime);
+        Map<String, Object> result = (Map<String, Object>) get(key);
+        if (result != null) {
+            logger.debug("从缓存获取座位状态成功: key={}", key);
+        }
+        return result;
+    }
+
+    /**
+     * 根据座位物理状态和时间段内的预约构建单个座位的状态
+     *
+     * @param reservations 该时间段内未取消的预约
+     */
+    public Map<String, Object> buildSeatStatus(Seat seat, List<Reservation> reservations) {
+        Map<String, Object> seatStatus = new HashMap<>();
+        seatStatus.put("seatId", seat.getId());
+        seatStatus.put("seatNumber", seat.getSeatNumber());
+
+        // 首先检查座位物理状态，如果不可用，直接返回物理状态
+        if (!"AVAILABLE".equals(seat.getStatus())) {
+            seatStatus.put("status", seat.getStatus());
+            seatStatus.put("reservationId", null);
+            return seatStatus;
+        }
+
+        // 查找该座位的预约
+        Optional<Reservation> reservation = reservations.stream()
+            .filter(r -> r.getSeatId().equals(seat.getId()))
+            .findFirst();
+
+        seatStatus.put("status", reservation.map(Reservation::getStatus).orElse("AVAILABLE"));
+        seatStatus.put("reservationId", reservation.map(Reservation::getId).orElse(null));
+        return seatStatus;
+    }
+
+    /**
+     * 批量获取多个座位在同一时间段的缓存状态，一次MGET完成
+     *
+     * @return 命中的座位ID到状态的映射，未命中的座位不在结果中
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<String, Object>> getCachedSeatStatuses(Collection<String> seatIds, LocalDate date,
+                                                                LocalTime startTime, LocalTime endTime) {
+        if (seatIds == null || date == null || startTime == null || endTime == null) {
+            logger.warn("批量获取缓存座位状态失败: 参数为空");
+            return Map.of();
+        }
+        if (seatIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> ids = new ArrayList<>(seatIds);
+        List<String> keys = new ArrayList<>(ids.size());
+        for (String seatId : ids) {
+            keys.add(getSeatStatusKey(seatId, date, startTime, endTime));
+        }
+        List<Object> values = CircuitBreakers.call(circuitBreaker, () -> {
+            List<Object> result = redisTemplate.opsForValue().multiGet(keys);
             if (result != null) {
-                logger.debug("从缓存获取座位状态成功: key={}", key);
+                for (int i = 0; i < result.size(); i++) {
+                    if (result.get(i) != null) {
+                        fallbackCache.put(keys.get(i), result.get(i));
+                    }
+                }
             }
             return result;
-        } catch (Exception e) {
-            logger.error("获取缓存座位状态失败: seatId={}, date={}, startTime={}, endTime={}", 
-                seatId, date, startTime, endTime, e);
-            return null;
+        }, () -> {
+            List<Object> result = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                result.add(fallbackCache.getIfPresent(key));
+            }
+            return result;
+        });
+
+        Map<String, Map<String, Object>> statuses = new HashMap<>(ids.size() * 4 / 3 + 1);
+        if (values != null) {
+            for (int i = 0; i < ids.size() && i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    statuses.put(ids.get(i), (Map<String, Object>) values.get(i));
+                }
+            }
         }
+        logger.debug("批量获取缓存座位状态: date={}, {}-{}, hit={}/{}", date, startTime, endTime, statuses.size(), ids.size());
+        return statuses;
     }
 
     /**
@@ -104,35 +289,29 @@ public class SeatStatusCacheService {
             logger.warn("缓存自习室座位列表失败: 参数为空");
             return;
         }
-        try {
-            String key = getStudyRoomSeatsKey(studyRoomId);
-            redisTemplate.opsForValue().set(key, seats, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        String key = getStudyRoomSeatsKey(studyRoomId);
+        fallbackCache.put(key, seats);
+        if (CircuitBreakers.run(circuitBreaker,
+                () -> redisTemplate.opsForValue().set(key, seats, CACHE_EXPIRE_HOURS, TimeUnit.HOURS))) {
             logger.debug("缓存自习室座位列表成功: key={}, seats={}", key, seats.size());
-        } catch (Exception e) {
-            logger.error("缓存自习室座位列表失败: studyRoomId={}", studyRoomId, e);
         }
     }
 
     /**
      * 获取缓存的自习室座位列表
      */
+    @SuppressWarnings("unchecked")
     public List<Seat> getCachedStudyRoomSeats(String studyRoomId) {
         if (studyRoomId == null) {
             logger.warn("获取缓存自习室座位列表失败: 参数为空");
             return null;
         }
-        try {
-            String key = getStudyRoomSeatsKey(studyRoomId);
-            @SuppressWarnings("unchecked")
-            List<Seat> result = (List<Seat>) redisTemplate.opsForValue().get(key);
-            if (result != null) {
-                logger.debug("从缓存获取自习室座位列表成功: key={}, seats={}", key, result.size());
-            }
-            return result;
-        } catch (Exception e) {
-            logger.error("获取缓存自习室座位列表失败: studyRoomId={}", studyRoomId, e);
-            return null;
+        String key = getStudyRoomSeatsKey(studyRoomId);
+        List<Seat> result = (List<Seat>) get(key);
+        if (result != null) {
+            logger.debug("从缓存获取自习室座位列表成功: key={}, seats={}", key, result.size());
         }
+        return result;
     }
 
     /**
@@ -143,15 +322,64 @@ public class SeatStatusCacheService {
             logger.warn("清除座位状态缓存失败: 参数为空");
             return;
         }
-        try {
-            String pattern = SEAT_STATUS_KEY_PREFIX + seatId + ":*";
-            var keys = redisTemplate.keys(pattern);
-            if (keys != null && !keys.isEmpty()) {
+        afterCommit(() -> doInvalidateSeatStatus(seatId));
+    }
+
+    private void doInvalidateSeatStatus(String seatId) {
+        String localPrefix = SEAT_STATUS_KEY_PREFIX + seatId + ":";
+        fallbackCache.asMap().keySet().removeIf(key -> key.startsWith(localPrefix));
+        if (!CircuitBreakers.run(circuitBreaker, () -> deleteSeatStatuses(List.of(seatId)))) {
+            pendingSeatInvalidations.add(seatId);
+        }
+    }
+
+    /**
+     * 座位在某一天的预约发生变化时，清除该座位当天各时间段的状态缓存
+     */
+    public void invalidateSeatStatus(String seatId, LocalDate date) {
+        if (seatId == null || date == null) {
+            logger.warn("清除座位状态缓存失败: 参数为空");
+            return;
+        }
+        afterCommit(() -> doInvalidateSeatStatus(seatId, date));
+    }
+
+    private void doInvalidateSeatStatus(String seatId, LocalDate date) {
+        String localPrefix = SEAT_STATUS_KEY_PREFIX + seatId + ":" + date + ":";
+        fallbackCache.asMap().keySet().removeIf(key -> key.startsWith(localPrefix));
+        String indexKey = getSeatStatusIndexKey(seatId, date);
+        if (!CircuitBreakers.run(circuitBreaker, () -> {
+                Set<Object> members = redisTemplate.opsForSet().members(indexKey);
+                Set<String> keys = new HashSet<>();
+                keys.add(indexKey);
+                if (members != null) {
+                    members.forEach(member -> keys.add(String.valueOf(member)));
+                }
                 redisTemplate.delete(keys);
-                logger.debug("清除座位状态缓存成功: seatId={}, keys={}", seatId, keys.size());
-            }
-        } catch (Exception e) {
-            logger.error("清除座位状态缓存失败: seatId={}", seatId, e);
+            })) {
+            pendingSeatInvalidations.add(seatId);
+        }
+    }
+
+    /**
+     * 批量清除多个座位的状态缓存（例如缩减容量或删除自习室时）
+     * 沿座位索引删除，不扫描键空间，耗时只与座位数有关
+     */
+    public void invalidateSeatStatuses(Collection<String> seatIds) {
+        if (seatIds == null || seatIds.isEmpty()) {
+            return;
+        }
+        Set<String> ids = new HashSet<>(seatIds);
+        afterCommit(() -> doInvalidateSeatStatuses(ids));
+    }
+
+    private void doInvalidateSeatStatuses(Set<String> ids) {
+        fallbackCache.asMap().keySet().removeIf(key -> key.startsWith(SEAT_STATUS_KEY_PREFIX)
+            && ids.contains(seatIdOf(key, SEAT_STATUS_KEY_PREFIX)));
+        if (CircuitBreakers.run(circuitBreaker, () -> deleteSeatStatuses(ids))) {
+            logger.debug("批量清除座位状态缓存成功: seats={}", ids.size());
+        } else {
+            pendingSeatInvalidations.addAll(ids);
         }
     }
 
@@ -163,12 +391,101 @@ public class SeatStatusCacheService {
             logger.warn("清除自习室座位列表缓存失败: 参数为空");
             return;
         }
-        try {
-            String key = getStudyRoomSeatsKey(studyRoomId);
-            redisTemplate.delete(key);
+        afterCommit(() -> doInvalidateStudyRoomSeats(studyRoomId));
+    }
+
+    private void doInvalidateStudyRoomSeats(String studyRoomId) {
+        String key = getStudyRoomSeatsKey(studyRoomId);
+        fallbackCache.invalidate(key);
+        if (CircuitBreakers.run(circuitBreaker, () -> redisTemplate.delete(key))) {
             logger.debug("清除自习室座位列表缓存成功: key={}", key);
-        } catch (Exception e) {
-            logger.error("清除自习室座位列表缓存失败: studyRoomId={}", studyRoomId, e);
+        } else {
+            pendingInvalidations.add(key);
+        }
+    }
+
+    /**
+     * 当前事务提交后执行，没有事务时立即执行；事务回滚时数据未变，不需要清除
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 读取缓存：先读Redis，成功后同步到本地兜底缓存；熔断或Redis异常时读本地兜底缓存
+     */
+    private Object get(String key) {
+        return CircuitBreakers.call(circuitBreaker, () -> {
+            Object value = redisTemplate.opsForValue().get(key);
+            if (value != null) {
+                fallbackCache.put(key, value);
+            }
+            return value;
+        }, () -> fallbackCache.getIfPresent(key));
+    }
+
+    /**
+     * 从 "前缀 + 座位ID + :..." 格式的键中取出座位ID
+     */
+    private static String seatIdOf(String key, String prefix) {
+        int end = key.indexOf(':', prefix.length());
+        return end < 0 ? key.substring(prefix.length()) : key.substring(prefix.length(), end);
+    }
+
+    /**
+     * 沿"座位 -> 日期索引 -> 状态键"两级索引删除座位全部日期的状态缓存，
+     * 每批座位两次SUNION加删除，往返次数只与座位数有关，与缓存总量无关
+     */
+    private void deleteSeatStatuses(Collection<String> seatIds) {
+        List<String> ids = new ArrayList<>(seatIds);
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+            List<String> datesKeys = new ArrayList<>();
+            for (String seatId : ids.subList(from, Math.min(from + DELETE_BATCH_SIZE, ids.size()))) {
+                datesKeys.add(getSeatStatusDatesKey(seatId));
+            }
+            List<String> keys = new ArrayList<>(datesKeys);
+            List<String> indexKeys = toKeys(redisTemplate.opsForSet().union(datesKeys));
+            if (!indexKeys.isEmpty()) {
+                keys.addAll(indexKeys);
+                keys.addAll(toKeys(redisTemplate.opsForSet().union(indexKeys)));
+            }
+            for (int i = 0; i < keys.size(); i += DELETE_BATCH_SIZE) {
+                redisTemplate.delete(keys.subList(i, Math.min(i + DELETE_BATCH_SIZE, keys.size())));
+            }
+        }
+    }
+
+    private static List<String> toKeys(Set<Object> members) {
+        List<String> keys = new ArrayList<>();
+        if (members != null) {
+            members.forEach(member -> keys.add(String.valueOf(member)));
+        }
+        return keys;
+    }
+
+    /**
+     * 熔断器恢复后补做熔断期间遗漏的清除操作
+     */
+    private void replayPendingInvalidations() {
+        for (String key : Set.copyOf(pendingInvalidations)) {
+            if (CircuitBreakers.run(circuitBreaker, () -> redisTemplate.delete(key))) {
+                pendingInvalidations.remove(key);
+            }
+        }
+        Set<String> seatIds = Set.copyOf(pendingSeatInvalidations);
+        if (!seatIds.isEmpty() && CircuitBreakers.run(circuitBreaker, () -> deleteSeatStatuses(seatIds))) {
+            pendingSeatInvalidations.removeAll(seatIds);
         }
+        logger.info("Redis熔断恢复，补做缓存清除完成，剩余 {} 个键、{} 个座位",
+            pendingInvalidations.size(), pendingSeatInvalidations.size());
     }
-} 
\ No newline at end of file
+}
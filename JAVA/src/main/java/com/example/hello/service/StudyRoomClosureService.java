@@ -0,0 +1,39 @@
+package com.example.hello.service;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * 自习室关闭时段服务接口
+ * 管理自习室和座位的定时关闭、维护时段
+ */
+public interface StudyRoomClosureService {
+    
+    /**
+     * 获取自习室尚未结束的关闭时段
+     * 
+     * @param studyRoomId 自习室ID
+     * @return 关闭时段列表
+     */
+    ResponseEntity<?> getClosures(String studyRoomId);
+    
+    /**
+     * 创建关闭时段，并处理时段内已有的预约
+     * 
+     * @param studyRoomId 自习室ID
+     * @param request 包含座位ID(seatId，可选)、类型(status)、起止时间(startTime/endTime)、
+     *                说明(description)和预约处理方式(reservationAction: RELOCATE/CANCEL)
+     * @return 创建结果，包括迁移和取消的预约数量
+     */
+    ResponseEntity<?> createClosure(String studyRoomId, Map<String, String> request);
+    
+    /**
+     * 删除关闭时段
+     * 
+     * @param studyRoomId 自习室ID
+     * @param closureId 关闭时段ID
+     * @return 删除结果
+     */
+    ResponseEntity<?> deleteClosure(String studyRoomId, String closureId);
+}
@@ -0,0 +1,32 @@
+package com.example.hello.service;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import com.example.hello.model.entity.StudyRoomSchedule;
+
+/**
+ * 自习室开放时间安排服务接口
+ * 管理按星期几和特殊日期（节假日等）设置的开放时间
+ */
+public interface StudyRoomScheduleService {
+    
+    /**
+     * 获取自习室的默认开放时间和全部开放时间安排
+     * 
+     * @param studyRoomId 自习室ID
+     * @return 开放时间安排
+     */
+    ResponseEntity<?> getSchedules(String studyRoomId);
+    
+    /**
+     * 用新的安排整体替换自习室的开放时间安排
+     * 
+     * @param studyRoomId 自习室ID
+     * @param schedules 每条安排指定星期几(dayOfWeek，1-7)或特殊日期(scheduleDate)之一，
+     *                  开放时间(openTime)和关闭时间(closeTime)均为空表示当天不开放
+     * @return 更新后的安排
+     */
+    ResponseEntity<?> updateSchedules(String studyRoomId, List<StudyRoomSchedule> schedules);
+}
@@ -56,6 +56,15 @@ public interface StudyRoomService {
      */
     ResponseEntity<?> updateStudyRoomStatus(String id, Map<String, String> status);
     
+    /**
+     * 关闭自习室，并把尚未结束的预约迁移到其他自习室的空闲座位或取消
+     * 
+     * @param id 自习室ID
+     * @param request 包含关闭后的状态(status)和预约处理方式(reservationAction: RELOCATE/CANCEL)
+     * @return 关闭结果，包括迁移和取消的预约数量
+     */
+    ResponseEntity<?> closeStudyRoom(String id, Map<String, String> request);
+    
     /**
      * 删除自习室
      * 
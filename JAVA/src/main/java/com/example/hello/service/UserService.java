@@ -89,6 +89,15 @@ public interface UserService {
     @CacheEvict(value = "users", key = "#changePasswordRequest.get('userId')")
     ResponseEntity<?> adminChangeUserPassword(Map<String, String> changePasswordRequest);
 
+    /**
+     * 管理员设置用户所属的用户组，用于匹配预约规则
+     * @param userId 用户ID
+     * @param userGroup 用户组，为空表示不属于任何用户组
+     * @return 修改结果
+     */
+    @CacheEvict(value = "users", allEntries = true)
+    ResponseEntity<?> updateUserGroup(String userId, String userGroup);
+
     /**
      * 管理员获取所有用户信息
      * @return 所有用户信息列表
@@ -1,25 +1,52 @@
 package com.example.hello.service.impl;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.hello.dto.AdminReservationDTO;
+import com.example.hello.dto.ReservationSearchCriteria;
 import com.example.hello.exception.ResourceNotFoundException;
 import com.example.hello.model.ReservationStatus;
 import com.example.hello.model.entity.Reservation;
 import com.example.hello.repository.ReservationRepository;
 import com.example.hello.service.AdminReservationService;
+import com.example.hello.service.SeatStatusCacheService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class AdminReservationServiceImpl implements AdminReservationService {
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    private static final long APPROXIMATE_COUNT_LIMIT = 10000;
+    private static final String[] CSV_HEADER = {
+        "id", "userId", "username", "seatId", "seatNumber", "studyRoomId", "studyRoomName",
+        "date", "startTime", "endTime", "status", "deletedBy", "deletedAt", "adjustedBy", "adjustedAt"
+    };
+    
     @Autowired
     private ReservationRepository reservationRepository;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private SeatStatusCacheService seatStatusCacheService;
+    
     @Override
     public Page<AdminReservationDTO> getReservations(
             String userId,
@@ -30,25 +57,134 @@ public class AdminReservationServiceImpl implements AdminReservationService {
             String studyRoomId,
             Pageable pageable) {
                 
-        LocalDate parsedStartDate = null;
-        LocalDate parsedEndDate = null;
+        return reservationRepository.searchPage(
+            toCriteria(userId, startDate, endDate, status, seatId, studyRoomId),
+            pageable);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<AdminReservationDTO> searchReservations(
+            ReservationSearchCriteria criteria,
+            Pageable pageable,
+            String mode) {
         
-        if (startDate != null && !startDate.isEmpty()) {
-            parsedStartDate = LocalDate.parse(startDate);
+        if ("slice".equalsIgnoreCase(mode)) {
+            return reservationRepository.searchSlice(criteria, pageable);
         }
+        if ("approx".equalsIgnoreCase(mode)) {
+            return reservationRepository.searchApproximate(criteria, pageable, APPROXIMATE_COUNT_LIMIT);
+        }
+        return reservationRepository.searchPage(criteria, pageable);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void exportReservations(
+            ReservationSearchCriteria criteria,
+            String format,
+            boolean gzip,
+            OutputStream outputStream) throws IOException {
         
-        if (endDate != null && !endDate.isEmpty()) {
-            parsedEndDate = LocalDate.parse(endDate);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        
+        try (Stream<AdminReservationDTO> rows = reservationRepository.streamSearch(criteria)) {
+            
+            if (csv) {
+                // 写入BOM，便于Excel正确识别中文
+                writer.write('\uFEFF');
+                writer.write(String.join(",", CSV_HEADER));
+                writer.write('\n');
+            }
+            
+            Iterator<AdminReservationDTO> iterator = rows.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                AdminReservationDTO row = iterator.next();
+                if (csv) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                
+                // 定期刷新，让客户端尽早收到数据
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
         }
         
-        return reservationRepository.findByConditions(
-            userId,
-            parsedStartDate,
-            parsedEndDate,
-            status,
-            seatId,
-            studyRoomId,
-            pageable);
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipOutputStream) {
+            gzipOutputStream.finish();
+        }
+        outputStream.flush();
+    }
+    
+    private void writeCsvRow(Writer writer, AdminReservationDTO row) throws IOException {
+        Object[] values = {
+            row.getId(),
+            row.getUserId(),
+            row.getUsername(),
+            row.getSeatId(),
+            row.getSeatNumber(),
+            row.getStudyRoomId(),
+            row.getStudyRoomName(),
+            row.getDate(),
+            row.getStartTime(),
+            row.getEndTime(),
+            row.getStatus(),
+            row.getDeletedBy(),
+            row.getDeletedAt(),
+            row.getAdjustedBy(),
+            row.getAdjustedAt()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write('\n');
+    }
+    
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0
+                && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
+    private ReservationSearchCriteria toCriteria(
+            String userId,
+            String startDate,
+            String endDate,
+            String status,
+            String seatId,
+            String studyRoomId) {
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria();
+        criteria.setUserId(userId);
+        criteria.setStartDate(parseDate(startDate));
+        criteria.setEndDate(parseDate(endDate));
+        criteria.setStatus(status);
+        criteria.setSeatId(seatId);
+        criteria.setStudyRoomId(studyRoomId);
+        return criteria;
+    }
+    
+    private LocalDate parseDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return null;
+        }
+        return LocalDate.parse(date);
     }
     
     @Override
@@ -62,6 +198,7 @@ public class AdminReservationServiceImpl implements AdminReservationService {
         reservation.setDeletedAt(LocalDate.now());
         
         reservationRepository.save(reservation);
+        seatStatusCacheService.invalidateSeatStatus(reservation.getSeatId(), reservation.getDate());
     }
     
     @Override
@@ -75,5 +212,6 @@ public class AdminReservationServiceImpl implements AdminReservationService {
         reservation.setAdjustedAt(LocalDate.now());
         
         reservationRepository.save(reservation);
+        seatStatusCacheService.invalidateSeatStatus(reservation.getSeatId(), reservation.getDate());
     }
 } 
\ No newline at end of file
@@ -4,6 +4,9 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,6 +19,7 @@ import com.example.hello.model.dto.LoginResponse;
 import com.example.hello.model.entity.Admin;
 import com.example.hello.repository.AdminRepository;
 import com.example.hello.service.AdminService;
+import com.example.hello.service.LoginThrottleService;
 import com.example.hello.util.JwtUtil;
 
 /**
@@ -35,6 +39,9 @@ public class AdminServiceImpl implements AdminService {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+    
     @Override
     public AdminDTO convertToDTO(Admin admin) {
         AdminDTO dto = new AdminDTO();
@@ -64,7 +71,7 @@ public class AdminServiceImpl implements AdminService {
             
             Admin savedAdmin = adminRepository.save(admin);
             return ResponseEntity.ok(convertToDTO(savedAdmin));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "注册失败: " + e.getMessage()));
         }
@@ -78,13 +85,24 @@ public class AdminServiceImpl implements AdminService {
             
             System.out.println("管理员登录请求 - 用户名: " + username);
             
+            if (username != null) {
+                long retryAfter = loginThrottleService.acquireForUsername(username);
+                if (retryAfter > 0) {
+                    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                        .body(Map.of("message", "登录尝试过于频繁，请稍后再试"));
+                }
+            }
+            
             Optional<Admin> adminOptional = adminRepository.findByUsername(username);
             if (adminOptional.isPresent()) {
                 Admin admin = adminOptional.get();
                 System.out.println("找到管理员 - ID: " + admin.getId());
-                System.out.println("密码验证: " + passwordEncoder.matches(password, admin.getPassword()));
+                // 只计算一次BCrypt
+                boolean passwordMatches = passwordEncoder.matches(password, admin.getPassword());
+                System.out.println("密码验证: " + passwordMatches);
                 
-                if (passwordEncoder.matches(password, admin.getPassword())) {
+                if (passwordMatches) {
                     // 管理员登录，isAdmin设置为true
                     String token = jwtUtil.generateToken(admin.getId(), admin.getUsername(), true);
                     
@@ -104,7 +122,7 @@ public class AdminServiceImpl implements AdminService {
             System.out.println("管理员登录失败 - 用户名或密码错误");
             return ResponseEntity.badRequest()
                 .body(Map.of("message", "用户名或密码错误"));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             System.err.println("管理员登录异常: " + e.getMessage());
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "登录失败: " + e.getMessage()));
@@ -161,7 +179,7 @@ public class AdminServiceImpl implements AdminService {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404)
                 .body(Map.of("message", "管理员不存在"));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "修改密码失败: " + e.getMessage()));
         }
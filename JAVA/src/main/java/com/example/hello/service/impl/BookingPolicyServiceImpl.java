@@ -0,0 +1,170 @@
+package com.example.hello.service.impl;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import com.example.hello.cache.BookingPolicyRegistry;
+import com.example.hello.cache.BookingRules;
+import com.example.hello.model.entity.BookingPolicy;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.repository.BookingPolicyRepository;
+import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.service.BookingPolicyService;
+
+/**
+ * 预约规则服务实现类
+ * 
+ * 规则保存后在事务提交后重新加载本实例的规则快照，其他实例在定时版本检查时加载
+ */
+@Service
+public class BookingPolicyServiceImpl implements BookingPolicyService {
+    
+    @Autowired
+    private BookingPolicyRepository bookingPolicyRepository;
+    
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+    
+    @Autowired
+    private BookingPolicyRegistry bookingPolicyRegistry;
+    
+    @Override
+    public ResponseEntity<?> getPolicies() {
+        try {
+            return ResponseEntity.ok(bookingPolicyRepository.findAll());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "获取预约规则失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    @Transactional
+    public ResponseEntity<?> createPolicy(BookingPolicy policy) {
+        try {
+            policy.setId(null);
+            String error = validate(policy, null);
+            if (error != null) {
+                return ResponseEntity.badRequest().body(Map.of("message", error));
+            }
+            BookingPolicy saved = bookingPolicyRepository.save(policy);
+            bookingPolicyRegistry.reloadAfterCommit();
+            return ResponseEntity.ok(saved);
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "创建预约规则失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    @Transactional
+    public ResponseEntity<?> updatePolicy(String id, BookingPolicy policy) {
+        try {
+            BookingPolicy existing = bookingPolicyRepository.findById(id).orElse(null);
+            if (existing == null) {
+                return ResponseEntity.notFound().build();
+            }
+            String error = validate(policy, id);
+            if (error != null) {
+                return ResponseEntity.badRequest().body(Map.of("message", error));
+            }
+            existing.setStudyRoomId(policy.getStudyRoomId());
+            existing.setUserGroup(policy.getUserGroup());
+            existing.setMaxAdvanceDays(policy.getMaxAdvanceDays());
+            existing.setMaxDailyReservations(policy.getMaxDailyReservations());
+            existing.setAllowMultipleSeats(policy.getAllowMultipleSeats());
+            existing.setCheckInWindowMinutes(policy.getCheckInWindowMinutes());
+            existing.setNoShowThreshold(policy.getNoShowThreshold());
+            existing.setBlacklistDays(policy.getBlacklistDays());
+            existing.setDescription(policy.getDescription());
+            BookingPolicy saved = bookingPolicyRepository.save(existing);
+            bookingPolicyRegistry.reloadAfterCommit();
+            return ResponseEntity.ok(saved);
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "修改预约规则失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    @Transactional
+    public ResponseEntity<?> deletePolicy(String id) {
+        try {
+            if (!bookingPolicyRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            bookingPolicyRepository.deleteById(id);
+            bookingPolicyRegistry.reloadAfterCommit();
+            return ResponseEntity.ok(Map.of("message", "预约规则删除成功"));
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "删除预约规则失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    public ResponseEntity<?> getEffectiveRules(String studyRoomId, String userGroup) {
+        try {
+            if (studyRoomId == null) {
+                return ResponseEntity.ok(bookingPolicyRegistry.rulesFor(userGroup));
+            }
+            StudyRoom studyRoom = studyRoomRepository.findById(studyRoomId).orElse(null);
+            if (studyRoom == null) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "自习室不存在"));
+            }
+            return ResponseEntity.ok(bookingPolicyRegistry.rulesFor(studyRoom, userGroup));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "获取生效规则失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    public BookingRules resolveRules(String studyRoomId, String userGroup) {
+        return studyRoomRepository.findById(studyRoomId)
+            .map(studyRoom -> bookingPolicyRegistry.rulesFor(studyRoom, userGroup))
+            .orElseGet(() -> bookingPolicyRegistry.rulesFor(userGroup));
+    }
+    
+    /**
+     * 校验规则，返回错误信息，合法时返回 null；空字符串的适用范围按"全部"处理
+     */
+    private String validate(BookingPolicy policy, String excludedId) {
+        if (policy.getStudyRoomId() != null && policy.getStudyRoomId().isBlank()) {
+            policy.setStudyRoomId(null);
+        }
+        if (policy.getUserGroup() != null) {
+            policy.setUserGroup(policy.getUserGroup().isBlank() ? null : policy.getUserGroup().trim());
+        }
+        if (policy.getStudyRoomId() != null && !studyRoomRepository.existsById(policy.getStudyRoomId())) {
+            return "自习室不存在";
+        }
+        if (policy.getUserGroup() != null && policy.getUserGroup().length() > 32) {
+            return "用户组名称不能超过32个字符";
+        }
+        if (isNegative(policy.getMaxAdvanceDays()) || isNegative(policy.getMaxDailyReservations())
+                || isNegative(policy.getCheckInWindowMinutes()) || isNegative(policy.getBlacklistDays())) {
+            return "规则数值不能为负数";
+        }
+        if (policy.getNoShowThreshold() != null && policy.getNoShowThreshold() < 1) {
+            return "加入黑名单的未签到次数至少为1";
+        }
+        if (bookingPolicyRepository.existsByScope(policy.getStudyRoomId(), policy.getUserGroup(), excludedId)) {
+            return "该自习室和用户组已有预约规则";
+        }
+        return null;
+    }
+    
+    private static boolean isNegative(Integer value) {
+        return value != null && value < 0;
+    }
+}
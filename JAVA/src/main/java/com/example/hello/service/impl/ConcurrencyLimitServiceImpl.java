@@ -0,0 +1,121 @@
+package com.example.hello.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.hello.config.ConcurrencyLimitProperties;
+import com.example.hello.service.ConcurrencyLimitService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * ConcurrencyLimitService接口的实现类
+ *
+ * 采用AIMD调整并发上限：分别维护短期和长期的延迟指数平均值，
+ * 短期延迟超过长期基准的 tolerance 倍（说明请求开始在数据库等下游排队）或出现服务端错误时按比例收缩，
+ * 否则在并发使用率较高时每个往返缓慢加一。
+ * 各优先级只能使用上限的一定比例，过载时低优先级请求先被拒绝，签到和预约写操作最后才受影响。
+ */
+@Service
+public class ConcurrencyLimitServiceImpl implements ConcurrencyLimitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitServiceImpl.class);
+
+    /**
+     * 两次收缩之间的最小间隔，避免同一批慢请求连续触发多次收缩
+     */
+    private static final long MIN_BACKOFF_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Autowired
+    private ConcurrencyLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 上限和延迟统计的不可变快照，release 通过CAS整体替换，不加锁
+     */
+    private final AtomicReference<State> state = new AtomicReference<>();
+
+    @PostConstruct
+    public void init() {
+        state.set(new State(properties.getInitialLimit(), 0, 0, 0));
+        meterRegistry.gauge("concurrency_limit.limit", this, service -> service.state.get().limit());
+        meterRegistry.gauge("concurrency_limit.in_flight", inFlight);
+    }
+
+    @Override
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (state.get().limit() * share(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                meterRegistry.counter("concurrency_limit.rejected", "priority", priority.name()).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        while (true) {
+            State previous = state.get();
+            State next = previous.update(latencyNanos, failed, current, System.nanoTime(), properties);
+            if (state.compareAndSet(previous, next)) {
+                if (next.lastBackoffNanos() != previous.lastBackoffNanos()) {
+                    logger.debug("并发上限收缩 {} -> {}，短期延迟 {}ms，基准延迟 {}ms", (int) previous.limit(),
+                        (int) next.limit(), (long) (next.shortLatency() / 1_000_000),
+                        (long) (next.longLatency() / 1_000_000));
+                }
+                return;
+            }
+        }
+    }
+
+    private double share(Priority priority) {
+        switch (priority) {
+            case CRITICAL:
+                return properties.getCriticalShare();
+            case HIGH:
+                return properties.getHighShare();
+            case MEDIUM:
+                return properties.getMediumShare();
+            default:
+                return properties.getLowShare();
+        }
+    }
+
+    private record State(double limit, double shortLatency, double longLatency, long lastBackoffNanos) {
+
+        State update(long latencyNanos, boolean failed, int inFlight, long now, ConcurrencyLimitProperties properties) {
+            double newShort = shortLatency == 0 ? latencyNanos : shortLatency * 0.8 + latencyNanos * 0.2;
+            double newLong = longLatency == 0 ? latencyNanos : longLatency * 0.99 + latencyNanos * 0.01;
+            double newLimit = limit;
+            long newBackoff = lastBackoffNanos;
+            if (failed || newShort > newLong * properties.getTolerance()) {
+                long interval = Math.max(MIN_BACKOFF_INTERVAL_NANOS, (long) newShort);
+                if (now - lastBackoffNanos >= interval) {
+                    newLimit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                    newBackoff = now;
+                }
+            } else if (inFlight >= limit / 2) {
+                // 每完成 limit 个请求（约一个往返）上限加一
+                newLimit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+            }
+            return new State(newLimit, newShort, newLong, newBackoff);
+        }
+    }
+}
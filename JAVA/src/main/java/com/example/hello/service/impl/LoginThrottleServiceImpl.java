@@ -0,0 +1,74 @@
+package com.example.hello.service.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.hello.service.LoginThrottleService;
+
+/**
+ * LoginThrottleService接口的实现类
+ * 使用固定时间窗口计数，计数保存在本机内存中，过期窗口定时清理
+ */
+@Service
+public class LoginThrottleServiceImpl implements LoginThrottleService {
+
+    @Value("${login-throttle.window-seconds:60}")
+    private long windowSeconds;
+
+    /**
+     * 同一IP每个窗口内允许的登录次数，校园网出口共享IP较多，默认值放宽
+     */
+    @Value("${login-throttle.ip-limit:300}")
+    private int ipLimit;
+
+    @Value("${login-throttle.username-limit:10}")
+    private int usernameLimit;
+
+    private final ConcurrentHashMap<String, Window> ipWindows = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> usernameWindows = new ConcurrentHashMap<>();
+
+    @Override
+    public long acquireForIp(String ip) {
+        return acquire(ipWindows, ip, ipLimit);
+    }
+
+    @Override
+    public long acquireForUsername(String username) {
+        return acquire(usernameWindows, username.trim().toLowerCase(), usernameLimit);
+    }
+
+    private long acquire(ConcurrentHashMap<String, Window> windows, String key, int limit) {
+        long now = System.currentTimeMillis();
+        long windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        Window window = windows.compute(key, (k, current) ->
+            current == null || now - current.start >= windowMillis ? new Window(now) : current);
+        if (window.count.incrementAndGet() <= limit) {
+            return 0;
+        }
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(window.start + windowMillis - now + 999));
+    }
+
+    /**
+     * 每分钟清理已过期的窗口，避免大量不同IP或用户名占用内存
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictExpiredWindows() {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(windowSeconds);
+        ipWindows.values().removeIf(window -> window.start < expiredBefore);
+        usernameWindows.values().removeIf(window -> window.start < expiredBefore);
+    }
+
+    private static class Window {
+        private final long start;
+        private final AtomicInteger count = new AtomicInteger();
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+}
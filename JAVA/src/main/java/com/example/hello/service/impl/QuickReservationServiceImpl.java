@@ -11,6 +11,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomClosureIndex;
+import com.example.hello.cache.RoomScheduleCache;
 import com.example.hello.dto.QuickReserveRequest;
 import com.example.hello.exception.BusinessException;
 import com.example.hello.model.dto.ReservationDTO;
@@ -43,6 +46,12 @@ public class QuickReservationServiceImpl implements QuickReservationService {
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private RoomClosureIndex roomClosureIndex;
+
+    @Autowired
+    private RoomScheduleCache roomScheduleCache;
+
     @Override
     @Transactional
     public ReservationDTO quickReserve(QuickReserveRequest request) {
@@ -68,11 +77,14 @@ public class QuickReservationServiceImpl implements QuickReservationService {
             throw new BusinessException("您在该时间段已有预约");
         }
 
+        LocalDate date = LocalDate.parse(request.getDate());
+
         // 4. 获取所有可用的自习室
         List<StudyRoom> availableStudyRooms = studyRoomRepository.findByStatus("AVAILABLE");
         if (availableStudyRooms.isEmpty()) {
             throw new BusinessException("当前没有可用的自习室");
         }
+        Map<String, CompiledSchedule> schedules = roomScheduleCache.getAll(availableStudyRooms);
 
         // 5. 遍历自习室，查找第一个可用座位
         Seat availableSeat = null;
@@ -80,19 +92,25 @@ public class QuickReservationServiceImpl implements QuickReservationService {
         StudyRoom selectedStudyRoom = null;
 
         for (StudyRoom studyRoom : availableStudyRooms) {
-            // 检查自习室开放时间
-            LocalTime openTime = LocalTime.parse(studyRoom.getOpenTime());
-            LocalTime closeTime = LocalTime.parse(studyRoom.getCloseTime());
-            if (startTime.isBefore(openTime) || endTime.isAfter(closeTime)) {
+            // 检查自习室当天的开放时间
+            if (!schedules.get(studyRoom.getId()).hoursOn(date).covers(startTime, endTime)) {
+                continue;
+            }
+            
+            // 跳过处于关闭或维护时段的自习室
+            if (roomClosureIndex.findRoomClosure(studyRoom.getId(), date, startTime, endTime).isPresent()) {
                 continue;
             }
 
-            // 查找空闲座位
-            List<Seat> availableSeats = seatRepository.findByStudyRoomIdAndStatus(
-                studyRoom.getId(), "AVAILABLE");
+            // 查找空闲座位，跳过处于维护时段的座位
+            Seat candidate = seatRepository.findByStudyRoomIdAndStatus(studyRoom.getId(), "AVAILABLE").stream()
+                .filter(seat -> roomClosureIndex.findSeatClosure(
+                    studyRoom.getId(), seat.getId(), date, startTime, endTime).isEmpty())
+                .findFirst()
+                .orElse(null);
             
-            if (!availableSeats.isEmpty()) {
-                availableSeat = availableSeats.get(0);
+            if (candidate != null) {
+                availableSeat = candidate;
                 studyRoomId = studyRoom.getId();
                 selectedStudyRoom = studyRoom;
                 break;
@@ -0,0 +1,199 @@
+package com.example.hello.service.impl;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.hello.config.RateLimitProperties;
+import com.example.hello.service.RateLimitService;
+import com.example.hello.util.CircuitBreakers;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * RateLimitService接口的实现类
+ *
+ * 本地令牌桶用GCRA算法实现：每个桶只有一个"理论到达时间"，通过CAS更新，无锁。
+ * 本地放行后再检查共享额度：每个节点按批从Redis领取额度（INCRBY），用完再领，
+ * 每个调用者每分钟最多访问Redis几次；Redis访问经过熔断器，不可用或熔断打开时只按本地令牌桶放行。
+ */
+@Service
+public class RateLimitServiceImpl implements RateLimitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitServiceImpl.class);
+    private static final String SHARED_KEY_PREFIX = "rate_limit:";
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CircuitBreaker redisCircuitBreaker;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SharedBudget> sharedBudgets = new ConcurrentHashMap<>();
+
+    /**
+     * 当前窗口内被限流过的调用者，用于指标和日志去重
+     */
+    private final Set<String> throttledCallers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gaugeCollectionSize("rate_limit.throttled_callers", Tags.empty(), throttledCallers);
+    }
+
+    @Override
+    public long tryAcquire(RateLimitProperties.Route route, String caller) {
+        String key = route.getName() + ":" + caller;
+
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(route));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            return throttled(route, caller, "local", TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        }
+
+        if (route.getSharedLimitPerMinute() > 0) {
+            long retryAfter = acquireShared(route, key);
+            if (retryAfter > 0) {
+                return throttled(route, caller, "shared", retryAfter);
+            }
+        }
+
+        counter(route, "allowed").increment();
+        return 0;
+    }
+
+    private long acquireShared(RateLimitProperties.Route route, String key) {
+        long now = System.currentTimeMillis();
+        long window = now / WINDOW_MILLIS;
+        SharedBudget budget = sharedBudgets.computeIfAbsent(key, k -> new SharedBudget());
+
+        // 快速路径：本节点领取的额度还有剩余
+        if (budget.window == window && budget.remaining.decrementAndGet() >= 0) {
+            return 0;
+        }
+
+        synchronized (budget) {
+            if (budget.window != window) {
+                budget.window = window;
+                budget.exhausted = false;
+                budget.remaining.set(0);
+            }
+            long retryAfter = TimeUnit.MILLISECONDS.toSeconds((window + 1) * WINDOW_MILLIS - now) + 1;
+            if (budget.exhausted) {
+                return retryAfter;
+            }
+            if (budget.remaining.decrementAndGet() >= 0) {
+                return 0;
+            }
+
+            int lease = Math.max(1, properties.getSharedLeaseSize());
+            String redisKey = SHARED_KEY_PREFIX + key + ":" + window;
+            Long total = CircuitBreakers.call(redisCircuitBreaker, () -> {
+                Long incremented = stringRedisTemplate.opsForValue().increment(redisKey, lease);
+                if (incremented != null && incremented == lease) {
+                    stringRedisTemplate.expire(redisKey, 2, TimeUnit.MINUTES);
+                }
+                return incremented;
+            }, () -> null);
+            if (total == null) {
+                // Redis不可用或熔断打开时不影响正常请求，只依赖本地令牌桶
+                meterRegistry.counter("rate_limit.redis_errors").increment();
+                budget.remaining.set(0);
+                return 0;
+            }
+            long granted = Math.min(lease, route.getSharedLimitPerMinute() - (total - lease));
+            if (granted <= 0) {
+                budget.exhausted = true;
+                return retryAfter;
+            }
+            budget.remaining.set((int) granted - 1);
+            return 0;
+        }
+    }
+
+    private long throttled(RateLimitProperties.Route route, String caller, String reason, long retryAfter) {
+        counter(route, "throttled_" + reason).increment();
+        if (throttledCallers.add(route.getName() + ":" + caller)) {
+            logger.warn("请求被限流 - route: {}, caller: {}, reason: {}", route.getName(), caller, reason);
+        }
+        return Math.max(1, retryAfter);
+    }
+
+    private Counter counter(RateLimitProperties.Route route, String outcome) {
+        return meterRegistry.counter("rate_limit.requests", "route", route.getName(), "outcome", outcome);
+    }
+
+    /**
+     * 每分钟清理已回满的令牌桶、过期的共享额度和限流调用者记录
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictIdleState() {
+        long nowNanos = System.nanoTime();
+        long window = System.currentTimeMillis() / WINDOW_MILLIS;
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+        sharedBudgets.values().removeIf(budget -> budget.window < window);
+        throttledCallers.clear();
+    }
+
+    /**
+     * GCRA令牌桶：理论到达时间(TAT)超出当前时间不超过 capacity 个发放间隔即可放行
+     */
+    private static class TokenBucket {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+        TokenBucket(RateLimitProperties.Route route) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(route.getRefillPerSecond(), 0.001));
+            this.toleranceNanos = intervalNanos * Math.max(route.getCapacity(), 1);
+        }
+
+        /**
+         * @return 0表示放行，否则为需要等待的纳秒数
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - toleranceNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return theoreticalArrival.get() <= now;
+        }
+    }
+
+    private static class SharedBudget {
+        private volatile long window = -1;
+        private volatile boolean exhausted;
+        private final AtomicInteger remaining = new AtomicInteger();
+    }
+}
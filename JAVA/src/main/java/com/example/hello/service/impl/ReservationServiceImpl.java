@@ -3,7 +3,7 @@ package com.example.hello.service.impl;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -17,16 +17,25 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.hello.cache.BookingPolicyRegistry;
+import com.example.hello.cache.BookingRules;
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomClosureIndex;
+import com.example.hello.cache.RoomScheduleCache;
+import com.example.hello.config.ReadYourWritesTracker;
+import com.example.hello.config.ReplicaRoutingDataSource;
 import com.example.hello.model.dto.ReservationDTO;
 import com.example.hello.model.entity.Reservation;
 import com.example.hello.model.entity.Seat;
 import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomStatus;
 import com.example.hello.repository.ReservationRepository;
 import com.example.hello.repository.SeatRepository;
 import com.example.hello.repository.StudyRoomRepository;
 import com.example.hello.repository.UserRepository;
 import com.example.hello.service.ReservationService;
 import com.example.hello.service.SeatStatusCacheService;
+import com.example.hello.util.TimeFormats;
 
 /**
  * 预约服务实现类
@@ -62,6 +71,30 @@ public class ReservationServiceImpl implements ReservationService {
     @Autowired
     private SeatStatusCacheService seatStatusCacheService;
     
+    /**
+     * 关闭和维护时段的内存索引
+     */
+    @Autowired
+    private RoomClosureIndex roomClosureIndex;
+    
+    /**
+     * 编译后的自习室开放时间
+     */
+    @Autowired
+    private RoomScheduleCache roomScheduleCache;
+    
+    /**
+     * 按自习室和用户组配置的预约规则
+     */
+    @Autowired
+    private BookingPolicyRegistry bookingPolicyRegistry;
+    
+    /**
+     * 记录刚写入过预约的用户，读写分离时这些用户的读请求暂时走主库
+     */
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
     /**
      * 将预约实体对象转换为DTO对象
      * 添加用户名、座位号、自习室名称等信息
@@ -121,18 +154,19 @@ public class ReservationServiceImpl implements ReservationService {
         }
         
         // 验证用户是否存在
-        if (!userRepository.existsById(reservation.getUserId())) {
+        var user = userRepository.findById(reservation.getUserId()).orElse(null);
+        if (user == null) {
             return ResponseEntity.badRequest()
                 .body(Map.of("message", "用户不存在"));
         }
         
         // 检查用户是否在黑名单中
-        var user = userRepository.findById(reservation.getUserId()).orElse(null);
-        if (user != null && Boolean.TRUE.equals(user.getIsBlacklisted())) {
+        if (Boolean.TRUE.equals(user.getIsBlacklisted())) {
             // 计算剩余黑名单时间
             long remainingTime = 0;
             if (user.getBlacklistStartTime() != null) {
-                LocalDateTime endTime = user.getBlacklistStartTime().plusDays(2);
+                LocalDateTime endTime = bookingPolicyRegistry.rulesFor(user.getUserGroup())
+                    .blacklistEnd(user.getBlacklistStartTime());
                 remainingTime = java.time.temporal.ChronoUnit.MILLIS.between(
                     LocalDateTime.now(), endTime
                 );
@@ -166,27 +200,31 @@ public class ReservationServiceImpl implements ReservationService {
                 .body(Map.of("message", "该座位当前不可预约，物理状态为：" + seat.getStatus()));
         }
         
-        // 验证预约时间是否在自习室开放时间内
-        LocalTime roomOpenTime = LocalTime.parse(studyRoom.getOpenTime());
-        LocalTime roomCloseTime = LocalTime.parse(studyRoom.getCloseTime());
-        
-        if (reservation.getStartTime().isBefore(roomOpenTime) || 
-            reservation.getEndTime().isAfter(roomCloseTime)) {
+        // 验证预约时间是否在自习室当天的开放时间内
+        CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(reservation.getDate());
+        if (!hours.covers(reservation.getStartTime(), reservation.getEndTime())) {
             return ResponseEntity.badRequest()
                 .body(Map.of("message", 
-                    "预约时间必须在自习室开放时间内（" + 
-                    studyRoom.getOpenTime() + " - " + 
-                    studyRoom.getCloseTime() + "）"));
+                    "预约时间必须在自习室开放时间内（" + hours.describe() + "）"));
         }
         
-        // 验证预约日期是否在允许的提前预约天数范围内（固定7天）
+        // 验证预约日期是否在允许的提前预约天数范围内（按自习室和用户组的规则）
+        BookingRules rules = bookingPolicyRegistry.rulesFor(studyRoom, user.getUserGroup());
         LocalDate today = LocalDate.now();
-        LocalDate maxDate = today.plusDays(7); // 固定为7天
         if (reservation.getDate().isBefore(today) || 
-            reservation.getDate().isAfter(maxDate)) {
+            reservation.getDate().isAfter(rules.latestBookableDate(today))) {
             return ResponseEntity.badRequest()
                 .body(Map.of("message", 
-                    "预约日期必须在当前日期到未来7天内"));
+                    "预约日期必须在当前日期到未来" + rules.maxAdvanceDays() + "天内"));
+        }
+        
+        // 检查关闭和维护时段（内存索引，不查库）
+        Optional<StudyRoomStatus> closure = roomClosureIndex.findSeatClosure(
+            seat.getStudyRoomId(), seat.getId(), reservation.getDate(),
+            reservation.getStartTime(), reservation.getEndTime());
+        if (closure.isPresent()) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", RoomClosureIndex.describe(closure.get())));
         }
         
         // 检查时间段是否已被预约（动态状态检查）
@@ -207,12 +245,13 @@ public class ReservationServiceImpl implements ReservationService {
                 ));
         }
         
-        // 检查用户是否在同一时间段预约了其他座位
-        List<Reservation> userOverlappingReservations = reservationRepository.findUserOverlappingReservations(
-            reservation.getUserId(), 
-            reservation.getDate(),
-            reservation.getStartTime(),
-            reservation.getEndTime());
+        // 检查用户是否在同一时间段预约了其他座位，规则允许多个座位时跳过
+        List<Reservation> userOverlappingReservations = rules.allowMultipleSeats() ? List.of()
+            : reservationRepository.findUserOverlappingReservations(
+                reservation.getUserId(), 
+                reservation.getDate(),
+                reservation.getStartTime(),
+                reservation.getEndTime());
             
         if (!userOverlappingReservations.isEmpty()) {
             return ResponseEntity.badRequest()
@@ -225,13 +264,14 @@ public class ReservationServiceImpl implements ReservationService {
                 ));
         }
         
-        // 检查用户当天预约次数
-        long userReservationsToday = reservationRepository.countByUserIdAndDateAndStatusNot(
-            reservation.getUserId(), reservation.getDate(), "CANCELLED");
-            
-        if (userReservationsToday >= 3) {  // 假设每天最多允许3次预约
-            return ResponseEntity.badRequest()
-                .body(Map.of("message", "您今天的预约次数已达上限"));
+        // 检查用户当天预约次数，规则不限制次数时跳过
+        if (rules.maxDailyReservations() > 0) {
+            long userReservationsToday = reservationRepository.countByUserIdAndDateAndStatusNot(
+                reservation.getUserId(), reservation.getDate(), "CANCELLED");
+            if (rules.dailyQuotaReached(userReservationsToday)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "您今天的预约次数已达上限（" + rules.maxDailyReservations() + "次）"));
+            }
         }
         
         // 设置预约状态为已确认
@@ -239,6 +279,8 @@ public class ReservationServiceImpl implements ReservationService {
         
         // 保存预约
         Reservation savedReservation = reservationRepository.save(reservation);
+        seatStatusCacheService.invalidateSeatStatus(savedReservation.getSeatId(), savedReservation.getDate());
+        readYourWritesTracker.markWrite(savedReservation.getUserId());
         
         return ResponseEntity.ok(convertToDTO(savedReservation));
     }
@@ -371,6 +413,8 @@ public class ReservationServiceImpl implements ReservationService {
                     // 设置状态为"已取消"
                     reservation.setStatus("CANCELLED");
                     Reservation updatedReservation = reservationRepository.save(reservation);
+                    seatStatusCacheService.invalidateSeatStatus(reservation.getSeatId(), reservation.getDate());
+                    readYourWritesTracker.markWrite(reservation.getUserId());
                     
                     return ResponseEntity.ok(convertToDTO(updatedReservation));
                 })
@@ -399,6 +443,7 @@ public class ReservationServiceImpl implements ReservationService {
                     // 设置状态为"已完成"
                     reservation.setStatus("COMPLETED");
                     Reservation updatedReservation = reservationRepository.save(reservation);
+                    seatStatusCacheService.invalidateSeatStatus(reservation.getSeatId(), reservation.getDate());
                     
                     return ResponseEntity.ok(convertToDTO(updatedReservation));
                 })
@@ -433,25 +478,21 @@ public class ReservationServiceImpl implements ReservationService {
                     .body(Map.of("message", "找不到座位对应的自习室"));
             }
             
-            LocalTime roomOpenTime = LocalTime.parse(studyRoom.getOpenTime());
-            LocalTime roomCloseTime = LocalTime.parse(studyRoom.getCloseTime());
-            
-            if (startTime.isBefore(roomOpenTime) || endTime.isAfter(roomCloseTime)) {
+            CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(date);
+            if (!hours.covers(startTime, endTime)) {
                 return ResponseEntity.ok(Map.of(
                     "available", false,
-                    "message", "预约时间必须在自习室开放时间内（" + 
-                        studyRoom.getOpenTime() + " - " + 
-                        studyRoom.getCloseTime() + "）"
+                    "message", "预约时间必须在自习室开放时间内（" + hours.describe() + "）"
                 ));
             }
             
-            // 验证预约日期是否在允许的提前预约天数范围内（固定7天）
+            // 验证预约日期是否在允许的提前预约天数范围内（不区分用户组，按自习室的规则）
+            BookingRules rules = bookingPolicyRegistry.rulesFor(studyRoom, null);
             LocalDate today = LocalDate.now();
-            LocalDate maxDate = today.plusDays(7); // 固定为7天
-            if (date.isBefore(today) || date.isAfter(maxDate)) {
+            if (date.isBefore(today) || date.isAfter(rules.latestBookableDate(today))) {
                 return ResponseEntity.ok(Map.of(
                     "available", false,
-                    "message", "预约日期必须在当前日期到未来7天内"
+                    "message", "预约日期必须在当前日期到未来" + rules.maxAdvanceDays() + "天内"
                 ));
             }
             
@@ -463,6 +504,16 @@ public class ReservationServiceImpl implements ReservationService {
                 ));
             }
             
+            // 检查关闭和维护时段
+            Optional<StudyRoomStatus> closure = roomClosureIndex.findSeatClosure(
+                seat.getStudyRoomId(), seatId, date, startTime, endTime);
+            if (closure.isPresent()) {
+                return ResponseEntity.ok(Map.of(
+                    "available", false,
+                    "message", RoomClosureIndex.describe(closure.get())
+                ));
+            }
+            
             // 检查时间段是否已被预约（动态状态检查）
             List<Reservation> overlappingReservations = reservationRepository.findOverlappingReservations(
                 seatId, date, startTime, endTime);
@@ -505,6 +556,7 @@ public class ReservationServiceImpl implements ReservationService {
      * 获取自习室在特定日期的可用时间段
      */
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getAvailableTimeSlots(String studyRoomId, LocalDate date) {
         try {
             // 验证自习室是否存在
@@ -522,6 +574,20 @@ public class ReservationServiceImpl implements ReservationService {
                 ));
             }
 
+            // 当天不开放时没有可用时间段
+            CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(date);
+            if (!hours.isOpen()) {
+                return ResponseEntity.ok(Map.of(
+                    "studyRoomId", studyRoomId,
+                    "date", date.toString(),
+                    "message", "自习室" + hours.describe(),
+                    "availableSeats", 0,
+                    "timeSlots", List.of()
+                ));
+            }
+            LocalTime openTime = hours.getOpen();
+            LocalTime closeTime = hours.getClose();
+            
             // 获取自习室的所有座位
             List<Seat> seats = seatRepository.findByStudyRoomId(studyRoomId);
             
@@ -530,8 +596,8 @@ public class ReservationServiceImpl implements ReservationService {
                 return ResponseEntity.ok(Map.of(
                     "studyRoomId", studyRoomId,
                     "date", date.toString(),
-                    "openTime", studyRoom.getOpenTime(),
-                    "closeTime", studyRoom.getCloseTime(),
+                    "openTime", hours.getOpenText(),
+                    "closeTime", hours.getCloseText(),
                     "availableSeats", 0,
                     "timeSlots", List.of()
                 ));
@@ -554,8 +620,8 @@ public class ReservationServiceImpl implements ReservationService {
                         // 如果没有预约，整个开放时间段都可用
                         if (seatReservations.isEmpty()) {
                             return List.of(Map.of(
-                                "startTime", studyRoom.getOpenTime(),
-                                "endTime", studyRoom.getCloseTime()
+                                "startTime", hours.getOpenText(),
+                                "endTime", hours.getCloseText()
                             ));
                         }
                         
@@ -566,10 +632,10 @@ public class ReservationServiceImpl implements ReservationService {
                         seatReservations.sort((r1, r2) -> r1.getStartTime().compareTo(r2.getStartTime()));
                         
                         // 检查开放时间到第一个预约之间的间隔
-                        if (seatReservations.get(0).getStartTime().isAfter(LocalTime.parse(studyRoom.getOpenTime()))) {
+                        if (seatReservations.get(0).getStartTime().isAfter(openTime)) {
                             availableSlots.add(Map.of(
-                                "startTime", LocalTime.parse(studyRoom.getOpenTime()).format(DateTimeFormatter.ofPattern("HH:mm")),
-                                "endTime", seatReservations.get(0).getStartTime().format(DateTimeFormatter.ofPattern("HH:mm"))
+                                "startTime", hours.getOpenText(),
+                                "endTime", seatReservations.get(0).getStartTime().format(TimeFormats.HH_MM)
                             ));
                         }
                         
@@ -580,18 +646,18 @@ public class ReservationServiceImpl implements ReservationService {
                             
                             if (currentEndTime.isBefore(nextStartTime)) {
                                 availableSlots.add(Map.of(
-                                    "startTime", currentEndTime.format(DateTimeFormatter.ofPattern("HH:mm")),
-                                    "endTime", nextStartTime.format(DateTimeFormatter.ofPattern("HH:mm"))
+                                    "startTime", currentEndTime.format(TimeFormats.HH_MM),
+                                    "endTime", nextStartTime.format(TimeFormats.HH_MM)
                                 ));
                             }
                         }
                         
                         // 检查最后一个预约到关闭时间之间的间隔
                         LocalTime lastEndTime = seatReservations.get(seatReservations.size() - 1).getEndTime();
-                        if (lastEndTime.isBefore(LocalTime.parse(studyRoom.getCloseTime()))) {
+                        if (lastEndTime.isBefore(closeTime)) {
                             availableSlots.add(Map.of(
-                                "startTime", lastEndTime.format(DateTimeFormatter.ofPattern("HH:mm")),
-                                "endTime", LocalTime.parse(studyRoom.getCloseTime()).format(DateTimeFormatter.ofPattern("HH:mm"))
+                                "startTime", lastEndTime.format(TimeFormats.HH_MM),
+                                "endTime", hours.getCloseText()
                             ));
                         }
                         
@@ -609,8 +675,8 @@ public class ReservationServiceImpl implements ReservationService {
                 "studyRoomId", studyRoomId,
                 "studyRoomName", studyRoom.getName(),
                 "date", date.toString(),
-                "openTime", studyRoom.getOpenTime(),
-                "closeTime", studyRoom.getCloseTime(),
+                "openTime", hours.getOpenText(),
+                "closeTime", hours.getCloseText(),
                 "totalSeats", seats.size(),
                 "availableSeats", availableSeats,
                 "seatAvailability", seatAvailability
@@ -623,6 +689,7 @@ public class ReservationServiceImpl implements ReservationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getStudyRoomStatus(String studyRoomId, LocalDate date, String startTime, String endTime) {
         try {
             // 验证自习室是否存在
@@ -658,6 +725,16 @@ public class ReservationServiceImpl implements ReservationService {
                 LocalTime.parse(endTime) : 
                 queryStartTime.plusHours(1);
 
+            // 检查整个自习室的关闭和维护时段
+            Optional<StudyRoomStatus> closure = roomClosureIndex.findRoomClosure(
+                studyRoomId, date, queryStartTime, queryEndTime);
+            if (closure.isPresent()) {
+                return ResponseEntity.ok(Map.of(
+                    "status", closure.get().getStatus(),
+                    "message", RoomClosureIndex.describe(closure.get())
+                ));
+            }
+
             // 查询该时间段内的预约
             List<Reservation> reservations = reservationRepository.findByStudyRoomIdAndTimeRange(
                 studyRoomId, date, queryStartTime, queryEndTime);
@@ -692,6 +769,7 @@ public class ReservationServiceImpl implements ReservationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getStudyRoomSeatsStatus(String studyRoomId, LocalDate date, String startTime, String endTime) {
         try {
             // 验证自习室是否存在
@@ -714,40 +792,45 @@ public class ReservationServiceImpl implements ReservationService {
             LocalTime now = LocalTime.now();
             LocalTime queryStartTime = startTime != null ? 
                 LocalTime.parse(startTime) : 
-                now.withMinute(0).withSecond(0);
+                now.truncatedTo(ChronoUnit.HOURS);
             LocalTime queryEndTime = endTime != null ? 
                 LocalTime.parse(endTime) : 
                 queryStartTime.plusHours(1);
 
-            // 查询该时间段内的预约
-            List<Reservation> reservations = reservationRepository.findByStudyRoomIdAndTimeRange(
-                studyRoomId, date, queryStartTime, queryEndTime);
+            // 先批量读取缓存的座位状态（一次Redis往返），只有未命中的座位才查询预约
+            List<String> seatIds = seats.stream().map(Seat::getId).collect(Collectors.toList());
+            Map<String, Map<String, Object>> cachedStatuses = seatStatusCacheService.getCachedSeatStatuses(
+                seatIds, date, queryStartTime, queryEndTime);
+
+            Map<String, Map<String, Object>> computedStatuses = new HashMap<>();
+            if (cachedStatuses.size() < seats.size()) {
+                // 查询该时间段内的预约
+                List<Reservation> reservations = reservationRepository.findByStudyRoomIdAndTimeRange(
+                    studyRoomId, date, queryStartTime, queryEndTime);
+                for (Seat seat : seats) {
+                    if (!cachedStatuses.containsKey(seat.getId())) {
+                        computedStatuses.put(seat.getId(), seatStatusCacheService.buildSeatStatus(seat, reservations));
+                    }
+                }
+                // 从库可能落后于主库，预约在主库提交并清除缓存后，从库读到的旧状态不能写回共享缓存
+                if (!ReplicaRoutingDataSource.isCurrentTransactionOnReplica()) {
+                    seatStatusCacheService.cacheSeatStatuses(computedStatuses, date, queryStartTime, queryEndTime);
+                }
+            }
 
-            // 构建座位状态列表
+            // 构建座位状态列表，保持座位原有顺序
+            // 关闭时段不进入缓存，读取后按内存索引覆盖，创建或删除时段时不需要清除座位状态缓存
+            boolean hasClosures = roomClosureIndex.hasClosures(studyRoomId);
             List<Map<String, Object>> seatStatusList = seats.stream()
                 .map(seat -> {
-                    Map<String, Object> seatStatus = new HashMap<>();
-                    seatStatus.put("seatId", seat.getId());
-                    seatStatus.put("seatNumber", seat.getSeatNumber());
-                    
-                    // 首先检查座位物理状态，如果不可用，直接返回物理状态
-                    if (!"AVAILABLE".equals(seat.getStatus())) {
-                        seatStatus.put("status", seat.getStatus());
-                        seatStatus.put("reservationId", null);
+                    Map<String, Object> seatStatus =
+                        cachedStatuses.getOrDefault(seat.getId(), computedStatuses.get(seat.getId()));
+                    if (!hasClosures) {
                         return seatStatus;
                     }
-                    
-                    // 查找该座位的预约
-                    Optional<Reservation> reservation = reservations.stream()
-                        .filter(r -> r.getSeatId().equals(seat.getId()))
-                        .findFirst();
-
-                    String status = reservation.map(Reservation::getStatus)
-                        .orElse("AVAILABLE");
-
-                    seatStatus.put("status", status);
-                    seatStatus.put("reservationId", reservation.map(Reservation::getId).orElse(null));
-                    return seatStatus;
+                    return roomClosureIndex.findSeatClosure(studyRoomId, seat.getId(), date, queryStartTime, queryEndTime)
+                        .map(closure -> withClosure(seatStatus, closure))
+                        .orElse(seatStatus);
                 })
                 .collect(Collectors.toList());
 
@@ -766,6 +849,7 @@ public class ReservationServiceImpl implements ReservationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getStudyRoomsStatus(LocalDate date, String startTime, String endTime) {
         try {
             // 获取所有自习室
@@ -782,13 +866,17 @@ public class ReservationServiceImpl implements ReservationService {
                     .body(Map.of("message", "结束时间不能早于开始时间"));
             }
             
+            // 所有自习室的开放时间一次取出，未缓存的用一条查询加载
+            Map<String, CompiledSchedule> schedules = roomScheduleCache.getAll(studyRooms);
+            
             for (StudyRoom room : studyRooms) {
+                CompiledSchedule.Hours hours = schedules.get(room.getId()).hoursOn(date);
                 Map<String, Object> roomStatus = new HashMap<>();
                 roomStatus.put("id", room.getId());
                 roomStatus.put("name", room.getName());
                 roomStatus.put("location", room.getLocation());
-                roomStatus.put("openTime", room.getOpenTime());
-                roomStatus.put("closeTime", room.getCloseTime());
+                roomStatus.put("openTime", hours.getOpenText());
+                roomStatus.put("closeTime", hours.getCloseText());
                 roomStatus.put("imageUrl", room.getImageUrl());
                 
                 // 首先检查自习室本身的状态，如果不可用，直接返回其状态
@@ -798,17 +886,22 @@ public class ReservationServiceImpl implements ReservationService {
                     continue;
                 }
                 
-                // 检查时间段是否在开放时间内
-                LocalTime openTime = LocalTime.parse(room.getOpenTime());
-                LocalTime closeTime = LocalTime.parse(room.getCloseTime());
-                
-                if (start.isBefore(openTime) || end.isAfter(closeTime)) {
+                // 检查时间段是否在当天的开放时间内
+                if (!hours.covers(start, end)) {
                     // 如果时间段不在开放时间内，设置状态为未开放
                     roomStatus.put("status", "CLOSED");
                     result.add(roomStatus);
                     continue;
                 }
                 
+                // 检查关闭和维护时段
+                Optional<StudyRoomStatus> closure = roomClosureIndex.findRoomClosure(room.getId(), date, start, end);
+                if (closure.isPresent()) {
+                    roomStatus.put("status", closure.get().getStatus());
+                    result.add(roomStatus);
+                    continue;
+                }
+                
                 // 获取该自习室的所有座位
                 List<Seat> seats = seatRepository.findByStudyRoomId(room.getId());
                 
@@ -838,6 +931,7 @@ public class ReservationServiceImpl implements ReservationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getStudyRoomDetail(String studyRoomId, LocalDate date, String startTime, String endTime) {
         try {
             // 获取自习室信息
@@ -851,9 +945,10 @@ public class ReservationServiceImpl implements ReservationService {
             studyRoom.put("location", room.getLocation());
             studyRoom.put("description", room.getDescription());
             studyRoom.put("imageUrl", room.getImageUrl());
-            studyRoom.put("openTime", room.getOpenTime());
-            studyRoom.put("closeTime", room.getCloseTime());
-            studyRoom.put("maxAdvanceDays", room.getMaxAdvanceDays());
+            CompiledSchedule.Hours hours = roomScheduleCache.get(room).hoursOn(date);
+            studyRoom.put("openTime", hours.getOpenText());
+            studyRoom.put("closeTime", hours.getCloseText());
+            studyRoom.put("maxAdvanceDays", bookingPolicyRegistry.rulesFor(room, null).maxAdvanceDays());
             studyRoom.put("physicalStatus", room.getStatus());  // 单独保存物理状态
             
             // 解析时间
@@ -891,10 +986,18 @@ public class ReservationServiceImpl implements ReservationService {
             studyRoom.put("physicallyAvailableSeats", physicallyAvailableSeats);
             
             // 设置状态
+            Optional<StudyRoomStatus> roomClosure = roomClosureIndex.findRoomClosure(
+                studyRoomId, date, queryStartTime, queryEndTime);
             String status;
             if (!"AVAILABLE".equals(room.getStatus())) {
                 // 如果自习室物理状态不可用，直接使用物理状态
                 status = room.getStatus();
+            } else if (!hours.covers(queryStartTime, queryEndTime)) {
+                // 不在当天的开放时间内
+                status = "CLOSED";
+            } else if (roomClosure.isPresent()) {
+                // 处于关闭或维护时段
+                status = roomClosure.get().getStatus();
             } else if (physicallyAvailableSeats == 0) {
                 // 如果没有物理可用的座位
                 status = "NO_AVAILABLE_SEATS";
@@ -925,6 +1028,16 @@ public class ReservationServiceImpl implements ReservationService {
                         return seatInfo;
                     }
                     
+                    // 其次检查关闭和维护时段
+                    Optional<StudyRoomStatus> closure = roomClosureIndex.findSeatClosure(
+                        studyRoomId, seat.getId(), date, queryStartTime, queryEndTime);
+                    if (closure.isPresent()) {
+                        seatInfo.put("status", closure.get().getStatus());
+                        seatInfo.put("closureId", closure.get().getId());
+                        seatInfo.put("reservationId", null);
+                        return seatInfo;
+                    }
+                    
                     // 查找该座位的预约
                     Optional<Reservation> reservation = reservations.stream()
                         .filter(r -> r.getSeatId().equals(seat.getId()) && 
@@ -948,6 +1061,16 @@ public class ReservationServiceImpl implements ReservationService {
         }
     }
 
+    /**
+     * 用关闭时段覆盖座位状态，返回新的Map，不修改缓存中的对象
+     */
+    private Map<String, Object> withClosure(Map<String, Object> seatStatus, StudyRoomStatus closure) {
+        Map<String, Object> result = new HashMap<>(seatStatus);
+        result.put("status", closure.getStatus());
+        result.put("closureId", closure.getId());
+        return result;
+    }
+
     /**
      * 判断两个时间段是否重叠
      * 
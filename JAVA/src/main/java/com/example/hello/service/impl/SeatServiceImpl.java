@@ -2,26 +2,38 @@ package com.example.hello.service.impl;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import com.example.hello.cache.ClusterCacheInvalidator;
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomClosureIndex;
+import com.example.hello.cache.RoomScheduleCache;
 import com.example.hello.model.dto.SeatDTO;
 import com.example.hello.model.entity.Reservation;
 import com.example.hello.model.entity.Seat;
 import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomStatus;
 import com.example.hello.repository.ReservationRepository;
 import com.example.hello.repository.SeatRepository;
 import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.service.ReservationRelocationService;
 import com.example.hello.service.SeatService;
+import com.example.hello.service.SeatStatusCacheService;
+import com.example.hello.util.TimeFormats;
 
 /**
  * 座位服务实现类
@@ -30,6 +42,13 @@ import com.example.hello.service.SeatService;
 @Service
 public class SeatServiceImpl implements SeatService {
 
+    private static final Set<String> VALID_SEAT_STATUSES = Set.of("AVAILABLE", "UNAVAILABLE", "RESERVED");
+    
+    /**
+     * 批量更新座位状态时单次最多处理的座位数量
+     */
+    private static final int MAX_BATCH_SEATS = 1000;
+
     /**
      * 座位数据访问对象
      */
@@ -45,6 +64,21 @@ public class SeatServiceImpl implements SeatService {
     @Autowired
     private ReservationRepository reservationRepository;
     
+    @Autowired
+    private ReservationRelocationService reservationRelocationService;
+    
+    @Autowired
+    private SeatStatusCacheService seatStatusCacheService;
+    
+    @Autowired
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+    
+    @Autowired
+    private RoomClosureIndex roomClosureIndex;
+    
+    @Autowired
+    private RoomScheduleCache roomScheduleCache;
+    
     /**
      * 将座位实体对象转换为DTO对象
      * 
@@ -155,13 +189,16 @@ public class SeatServiceImpl implements SeatService {
                 prefix = ""; // 如果未提供前缀，则使用空字符串
             }
             
+            // 一次查出已有座位号，避免逐个查询
+            Set<String> existingSeatNumbers = new HashSet<>(seatRepository.findSeatNumbersByStudyRoomId(studyRoomId));
+            
             // 批量创建座位
             List<Seat> seats = new ArrayList<>();
             for (int i = 1; i <= count; i++) {
                 String seatNumber = prefix + i;
                 
                 // 检查座位号是否已存在
-                if (seatRepository.findByStudyRoomIdAndSeatNumber(studyRoomId, seatNumber) != null) {
+                if (existingSeatNumbers.contains(seatNumber)) {
                     continue; // 如果座位号已存在，则跳过
                 }
                 
@@ -172,7 +209,7 @@ public class SeatServiceImpl implements SeatService {
                 seats.add(seat);
             }
             
-            // 批量保存座位
+            // 批量保存座位（按 hibernate.jdbc.batch_size 分批执行JDBC批量插入）
             List<Seat> savedSeats = seatRepository.saveAll(seats);
             List<SeatDTO> seatDTOs = savedSeats.stream()
                 .map(this::convertToDTO)
@@ -238,6 +275,91 @@ public class SeatServiceImpl implements SeatService {
         }
     }
     
+    /**
+     * 批量更新座位状态
+     * 所有座位用一条UPDATE修改；座位不再可用时，在同一事务中把这些座位上尚未结束的预约
+     * 迁移到同一自习室的空闲座位（或按请求直接取消），最后一次性清除涉及的缓存
+     * 
+     * @param request 包含座位ID列表、新状态和预约处理方式的请求参数
+     * @return 更新结果的ResponseEntity对象
+     */
+    @Override
+    @Transactional
+    public ResponseEntity<?> updateSeatStatusInBatch(Map<String, Object> request) {
+        try {
+            Object rawSeatIds = request.get("seatIds");
+            String newStatus = (String) request.get("status");
+            String reservationAction = (String) request.getOrDefault("reservationAction", "RELOCATE");
+            
+            if (!(rawSeatIds instanceof List<?> seatIdList) || seatIdList.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "座位ID列表不能为空"));
+            }
+            if (seatIdList.size() > MAX_BATCH_SEATS) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "单次最多更新" + MAX_BATCH_SEATS + "个座位"));
+            }
+            if (!VALID_SEAT_STATUSES.contains(newStatus)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "无效的座位状态"));
+            }
+            if (!"RELOCATE".equals(reservationAction) && !"CANCEL".equals(reservationAction)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "无效的预约处理方式"));
+            }
+            
+            Set<String> seatIds = seatIdList.stream()
+                .map(String::valueOf)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+            List<Seat> seats = seatRepository.findAllById(seatIds);
+            if (seats.size() != seatIds.size()) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "部分座位不存在"));
+            }
+            Set<String> studyRoomIds = seats.stream()
+                .map(Seat::getStudyRoomId)
+                .collect(Collectors.toSet());
+            
+            int updatedSeats = seatRepository.updateSeatStatusByIds(seatIds, newStatus);
+            
+            // 座位不再可用时处理其上尚未结束的预约
+            Set<String> affectedSeatIds = new HashSet<>(seatIds);
+            List<String> movedReservationIds = List.of();
+            List<String> cancelledReservationIds = List.of();
+            if (!"AVAILABLE".equals(newStatus)) {
+                List<Reservation> upcoming = reservationRepository.findUpcomingConfirmedBySeatIds(
+                    seatIds, LocalDate.now(), LocalTime.now());
+                ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+                    upcoming,
+                    "RELOCATE".equals(reservationAction) ? studyRoomIds : Set.of(),
+                    seatIds,
+                    "座位暂停使用");
+                affectedSeatIds.addAll(result.affectedSeatIds());
+                movedReservationIds = result.movedReservationIds();
+                cancelledReservationIds = result.cancelledReservationIds();
+            }
+            
+            // 一次清除所有涉及座位的状态缓存和所属自习室的座位列表缓存
+            seatStatusCacheService.invalidateSeatStatuses(affectedSeatIds);
+            studyRoomIds.forEach(seatStatusCacheService::invalidateStudyRoomSeats);
+            // JPQL批量更新不触发实体事件，需要单独通知其他实例清除座位二级缓存
+            clusterCacheInvalidator.publishRegionEviction(Seat.class);
+            
+            return ResponseEntity.ok(Map.of(
+                "message", "批量更新座位状态成功",
+                "updatedSeats", updatedSeats,
+                "movedReservations", movedReservationIds.size(),
+                "cancelledReservations", cancelledReservationIds.size(),
+                "movedReservationIds", movedReservationIds,
+                "cancelledReservationIds", cancelledReservationIds
+            ));
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "批量更新座位状态失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 删除座位
      * 
@@ -312,13 +434,12 @@ public class SeatServiceImpl implements SeatService {
             // 获取座位所属自习室
             return studyRoomRepository.findById(seat.getStudyRoomId())
                 .map(studyRoom -> {
-                    // 获取自习室营业时间
-                    LocalTime openTime = LocalTime.parse(studyRoom.getOpenTime());
-                    LocalTime closeTime = LocalTime.parse(studyRoom.getCloseTime());
+                    // 获取自习室当天的营业时间
+                    CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(date);
                     
                     // 计算座位状态
                     Map<String, Object> result = calculateSeatStatus(
-                        seat, studyRoom, date, currentTime, openTime, closeTime, true);
+                        seat, studyRoom, date, currentTime, hours, true);
                     
                     return ResponseEntity.ok(result);
                 })
@@ -345,9 +466,8 @@ public class SeatServiceImpl implements SeatService {
             // 获取座位所属自习室
             return studyRoomRepository.findById(seat.getStudyRoomId())
                 .map(studyRoom -> {
-                    // 获取自习室营业时间
-                    LocalTime openTime = LocalTime.parse(studyRoom.getOpenTime());
-                    LocalTime closeTime = LocalTime.parse(studyRoom.getCloseTime());
+                    // 获取自习室当天的营业时间
+                    CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(date);
                     
                     // 首先检查座位的物理状态
                     if (!"AVAILABLE".equals(seat.getStatus())) {
@@ -357,8 +477,8 @@ public class SeatServiceImpl implements SeatService {
                         result.put("studyRoomId", studyRoom.getId());
                         result.put("studyRoomName", studyRoom.getName());
                         result.put("date", date.toString());
-                        result.put("startTime", startTime.format(DateTimeFormatter.ofPattern("HH:mm")));
-                        result.put("endTime", endTime.format(DateTimeFormatter.ofPattern("HH:mm")));
+                        result.put("startTime", startTime.format(TimeFormats.HH_MM));
+                        result.put("endTime", endTime.format(TimeFormats.HH_MM));
                         result.put("physicalStatus", seat.getStatus());
                         result.put("available", false);
                         result.put("currentStatus", "UNAVAILABLE");
@@ -368,21 +488,42 @@ public class SeatServiceImpl implements SeatService {
                     }
                     
                     // 检查请求的时间段是否在自习室开放时间内
-                    if (startTime.isBefore(openTime) || endTime.isAfter(closeTime)) {
+                    if (!hours.covers(startTime, endTime)) {
                         Map<String, Object> result = new HashMap<>();
                         result.put("seatId", seat.getId());
                         result.put("seatNumber", seat.getSeatNumber());
                         result.put("studyRoomId", studyRoom.getId());
                         result.put("studyRoomName", studyRoom.getName());
                         result.put("date", date.toString());
-                        result.put("startTime", startTime.format(DateTimeFormatter.ofPattern("HH:mm")));
-                        result.put("endTime", endTime.format(DateTimeFormatter.ofPattern("HH:mm")));
+                        result.put("startTime", startTime.format(TimeFormats.HH_MM));
+                        result.put("endTime", endTime.format(TimeFormats.HH_MM));
                         result.put("physicalStatus", seat.getStatus());
                         result.put("available", false);
                         result.put("currentStatus", "CLOSED");
-                        result.put("message", "请求的时间段不在自习室开放时间内");
-                        result.put("openTime", studyRoom.getOpenTime());
-                        result.put("closeTime", studyRoom.getCloseTime());
+                        result.put("message", "请求的时间段不在自习室开放时间内（" + hours.describe() + "）");
+                        result.put("openTime", hours.getOpenText());
+                        result.put("closeTime", hours.getCloseText());
+                        
+                        return ResponseEntity.ok(result);
+                    }
+                    
+                    // 检查关闭和维护时段
+                    Optional<StudyRoomStatus> closure = roomClosureIndex.findSeatClosure(
+                        studyRoom.getId(), seatId, date, startTime, endTime);
+                    if (closure.isPresent()) {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("seatId", seat.getId());
+                        result.put("seatNumber", seat.getSeatNumber());
+                        result.put("studyRoomId", studyRoom.getId());
+                        result.put("studyRoomName", studyRoom.getName());
+                        result.put("date", date.toString());
+                        result.put("startTime", startTime.format(TimeFormats.HH_MM));
+                        result.put("endTime", endTime.format(TimeFormats.HH_MM));
+                        result.put("physicalStatus", seat.getStatus());
+                        result.put("available", false);
+                        result.put("currentStatus", closure.get().getStatus());
+                        result.put("closureId", closure.get().getId());
+                        result.put("message", RoomClosureIndex.describe(closure.get()));
                         
                         return ResponseEntity.ok(result);
                     }
@@ -404,8 +545,8 @@ public class SeatServiceImpl implements SeatService {
                             result.put("studyRoomId", studyRoom.getId());
                             result.put("studyRoomName", studyRoom.getName());
                             result.put("date", date.toString());
-                            result.put("startTime", startTime.format(DateTimeFormatter.ofPattern("HH:mm")));
-                            result.put("endTime", endTime.format(DateTimeFormatter.ofPattern("HH:mm")));
+                            result.put("startTime", startTime.format(TimeFormats.HH_MM));
+                            result.put("endTime", endTime.format(TimeFormats.HH_MM));
                             result.put("physicalStatus", seat.getStatus());
                             result.put("available", false);
                             result.put("currentStatus", "RESERVED");
@@ -417,8 +558,8 @@ public class SeatServiceImpl implements SeatService {
                                     Map<String, String> reservation = new HashMap<>();
                                     reservation.put("id", r.getId());
                                     reservation.put("userId", r.getUserId());
-                                    reservation.put("startTime", r.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")));
-                                    reservation.put("endTime", r.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm")));
+                                    reservation.put("startTime", r.getStartTime().format(TimeFormats.HH_MM));
+                                    reservation.put("endTime", r.getEndTime().format(TimeFormats.HH_MM));
                                     reservation.put("status", r.getStatus());
                                     return reservation;
                                 })
@@ -437,8 +578,8 @@ public class SeatServiceImpl implements SeatService {
                     result.put("studyRoomId", studyRoom.getId());
                     result.put("studyRoomName", studyRoom.getName());
                     result.put("date", date.toString());
-                    result.put("startTime", startTime.format(DateTimeFormatter.ofPattern("HH:mm")));
-                    result.put("endTime", endTime.format(DateTimeFormatter.ofPattern("HH:mm")));
+                    result.put("startTime", startTime.format(TimeFormats.HH_MM));
+                    result.put("endTime", endTime.format(TimeFormats.HH_MM));
                     result.put("physicalStatus", seat.getStatus());
                     result.put("available", true);
                     result.put("currentStatus", "AVAILABLE");
@@ -461,14 +602,13 @@ public class SeatServiceImpl implements SeatService {
      * @param studyRoom 自习室对象
      * @param date 日期
      * @param currentTime 当前时间
-     * @param openTime 开放时间
-     * @param closeTime 关闭时间
+     * @param hours 当天的开放时间
      * @param includeTimeSlots 是否包含时间段信息
      * @return 座位状态信息
      */
     private Map<String, Object> calculateSeatStatus(
             Seat seat, StudyRoom studyRoom, LocalDate date, 
-            LocalTime currentTime, LocalTime openTime, LocalTime closeTime,
+            LocalTime currentTime, CompiledSchedule.Hours hours,
             boolean includeTimeSlots) {
         
         Map<String, Object> result = new HashMap<>();
@@ -478,8 +618,8 @@ public class SeatServiceImpl implements SeatService {
         result.put("studyRoomName", studyRoom.getName());
         result.put("date", date.toString());
         result.put("physicalStatus", seat.getStatus());
-        result.put("openTime", studyRoom.getOpenTime());
-        result.put("closeTime", studyRoom.getCloseTime());
+        result.put("openTime", hours.getOpenText());
+        result.put("closeTime", hours.getCloseText());
         
         // 检查物理状态
         if (!"AVAILABLE".equals(seat.getStatus())) {
@@ -489,13 +629,29 @@ public class SeatServiceImpl implements SeatService {
         }
         
         // 检查当前是否在营业时间内
-        boolean withinBusinessHours = !currentTime.isBefore(openTime) && !currentTime.isAfter(closeTime);
+        boolean withinBusinessHours = hours.isOpen()
+            && !currentTime.isBefore(hours.getOpen()) && !currentTime.isAfter(hours.getClose());
         if (!withinBusinessHours && date.isEqual(LocalDate.now())) {
             result.put("currentStatus", "CLOSED");
             result.put("message", "当前不在自习室开放时间内");
             return result;
         }
         
+        // 检查当前是否处于关闭或维护时段
+        if (date.isEqual(LocalDate.now())) {
+            // 23:59之后加一分钟会绕回当天零点，截断到当天结束
+            LocalTime probeEnd = currentTime.isBefore(LocalTime.of(23, 59))
+                ? currentTime.plusMinutes(1) : LocalTime.MAX;
+            Optional<StudyRoomStatus> closure = roomClosureIndex.findSeatClosure(
+                studyRoom.getId(), seat.getId(), date, currentTime, probeEnd);
+            if (closure.isPresent()) {
+                result.put("currentStatus", closure.get().getStatus());
+                result.put("closureId", closure.get().getId());
+                result.put("message", RoomClosureIndex.describe(closure.get()));
+                return result;
+            }
+        }
+        
         // 获取该座位当天的所有预约
         List<Reservation> seatReservations = reservationRepository.findBySeatIdAndDate(seat.getId(), date)
             .stream()
@@ -521,8 +677,8 @@ public class SeatServiceImpl implements SeatService {
             result.put("currentReservation", Map.of(
                 "id", currentReservation.getId(),
                 "userId", currentReservation.getUserId(),
-                "startTime", currentReservation.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")),
-                "endTime", currentReservation.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm"))
+                "startTime", currentReservation.getStartTime().format(TimeFormats.HH_MM),
+                "endTime", currentReservation.getEndTime().format(TimeFormats.HH_MM)
             ));
         } else {
             result.put("currentStatus", "AVAILABLE");
@@ -533,8 +689,8 @@ public class SeatServiceImpl implements SeatService {
         if (includeTimeSlots && !seatReservations.isEmpty()) {
             result.put("reservedSlots", seatReservations.stream()
                 .map(r -> Map.of(
-                    "startTime", r.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")),
-                    "endTime", r.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm")),
+                    "startTime", r.getStartTime().format(TimeFormats.HH_MM),
+                    "endTime", r.getEndTime().format(TimeFormats.HH_MM),
                     "status", r.getStatus(),
                     "userId", r.getUserId()
                 ))
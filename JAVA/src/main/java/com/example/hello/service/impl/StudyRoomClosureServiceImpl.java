@@ -0,0 +1,202 @@
+package com.example.hello.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import com.example.hello.cache.RoomClosureIndex;
+import com.example.hello.model.entity.Reservation;
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomStatus;
+import com.example.hello.repository.ReservationRepository;
+import com.example.hello.repository.SeatRepository;
+import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.repository.StudyRoomStatusRepository;
+import com.example.hello.service.ReservationRelocationService;
+import com.example.hello.service.SeatStatusCacheService;
+import com.example.hello.service.StudyRoomClosureService;
+
+/**
+ * 自习室关闭时段服务实现类
+ * 
+ * 创建时段时，在同一事务中把时段内已有的预约批量迁移（座位时段迁到同一自习室的其他座位，
+ * 整个自习室的时段迁到其他开放的自习室）或取消；事务提交后重建内存中的关闭时段索引
+ */
+@Service
+public class StudyRoomClosureServiceImpl implements StudyRoomClosureService {
+
+    private static final Set<String> VALID_CLOSURE_STATUSES = Set.of("CLOSED", "MAINTENANCE");
+    
+    @Autowired
+    private StudyRoomStatusRepository studyRoomStatusRepository;
+    
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+    
+    @Autowired
+    private SeatRepository seatRepository;
+    
+    @Autowired
+    private ReservationRepository reservationRepository;
+    
+    @Autowired
+    private ReservationRelocationService reservationRelocationService;
+    
+    @Autowired
+    private SeatStatusCacheService seatStatusCacheService;
+    
+    @Autowired
+    private RoomClosureIndex roomClosureIndex;
+    
+    @Override
+    public ResponseEntity<?> getClosures(String studyRoomId) {
+        try {
+            if (!studyRoomRepository.existsById(studyRoomId)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(studyRoomStatusRepository
+                .findByStudyRoomIdAndEndTimeAfterOrderByStartTime(studyRoomId, LocalDateTime.now()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "获取关闭时段失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    @Transactional
+    public ResponseEntity<?> createClosure(String studyRoomId, Map<String, String> request) {
+        try {
+            StudyRoom studyRoom = studyRoomRepository.findById(studyRoomId).orElse(null);
+            if (studyRoom == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            String status = request.getOrDefault("status", "CLOSED");
+            String seatId = request.get("seatId");
+            String reservationAction = request.getOrDefault("reservationAction", "RELOCATE");
+            if (!VALID_CLOSURE_STATUSES.contains(status)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "无效的关闭类型"));
+            }
+            if (!"RELOCATE".equals(reservationAction) && !"CANCEL".equals(reservationAction)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "无效的预约处理方式"));
+            }
+            
+            LocalDateTime startTime;
+            LocalDateTime endTime;
+            try {
+                startTime = LocalDateTime.parse(request.get("startTime"));
+                endTime = LocalDateTime.parse(request.get("endTime"));
+            } catch (DateTimeParseException | NullPointerException e) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "起止时间格式应为 yyyy-MM-ddTHH:mm"));
+            }
+            if (!endTime.isAfter(startTime) || !endTime.isAfter(LocalDateTime.now())) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "结束时间必须晚于开始时间和当前时间"));
+            }
+            
+            if (seatId != null) {
+                Seat seat = seatRepository.findById(seatId).orElse(null);
+                if (seat == null || !studyRoomId.equals(seat.getStudyRoomId())) {
+                    return ResponseEntity.badRequest()
+                        .body(Map.of("message", "座位不属于该自习室"));
+                }
+            }
+            
+            StudyRoomStatus closure = new StudyRoomStatus();
+            closure.setStudyRoomId(studyRoomId);
+            closure.setSeatId(seatId);
+            closure.setStatus(status);
+            closure.setStartTime(startTime);
+            closure.setEndTime(endTime);
+            closure.setDescription(request.get("description"));
+            StudyRoomStatus savedClosure = studyRoomStatusRepository.save(closure);
+            
+            // 处理时段内已有的预约：座位时段迁到同一自习室的其他座位，整个自习室的时段迁到其他开放的自习室
+            List<Reservation> affected = findAffectedReservations(savedClosure);
+            List<String> candidateRoomIds;
+            if (!"RELOCATE".equals(reservationAction)) {
+                candidateRoomIds = List.of();
+            } else if (seatId != null) {
+                candidateRoomIds = List.of(studyRoomId);
+            } else {
+                candidateRoomIds = studyRoomRepository.findByStatus("AVAILABLE").stream()
+                    .map(StudyRoom::getId)
+                    .filter(roomId -> !roomId.equals(studyRoomId))
+                    .collect(Collectors.toList());
+            }
+            ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+                affected, candidateRoomIds, seatId == null ? Set.of() : Set.of(seatId),
+                "MAINTENANCE".equals(status) ? "维护时段" : "关闭时段");
+            seatStatusCacheService.invalidateSeatStatuses(result.affectedSeatIds());
+            roomClosureIndex.refreshAfterCommit(studyRoomId);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "关闭时段创建成功");
+            response.put("closure", savedClosure);
+            response.put("movedReservations", result.movedReservationIds().size());
+            response.put("cancelledReservations", result.cancelledReservationIds().size());
+            response.put("movedReservationIds", result.movedReservationIds());
+            response.put("cancelledReservationIds", result.cancelledReservationIds());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "创建关闭时段失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    @Transactional
+    public ResponseEntity<?> deleteClosure(String studyRoomId, String closureId) {
+        try {
+            return studyRoomStatusRepository.findById(closureId)
+                .filter(closure -> studyRoomId.equals(closure.getStudyRoomId()))
+                .map(closure -> {
+                    studyRoomStatusRepository.delete(closure);
+                    roomClosureIndex.refreshAfterCommit(studyRoomId);
+                    return ResponseEntity.ok(Map.of("message", "关闭时段删除成功"));
+                })
+                .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "删除关闭时段失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 查询与关闭时段重叠且尚未结束的已确认预约
+     * 按日期范围一次加载自习室的预约，时间重叠在内存中判断
+     */
+    private List<Reservation> findAffectedReservations(StudyRoomStatus closure) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate fromDate = closure.getStartTime().toLocalDate();
+        if (fromDate.isBefore(now.toLocalDate())) {
+            fromDate = now.toLocalDate();
+        }
+        return reservationRepository.findActiveByStudyRoomIdAndDateRange(
+                closure.getStudyRoomId(), fromDate, closure.getEndTime().toLocalDate()).stream()
+            .filter(r -> "CONFIRMED".equals(r.getStatus()))
+            .filter(r -> closure.getSeatId() == null || closure.getSeatId().equals(r.getSeatId()))
+            .filter(r -> {
+                LocalDateTime start = LocalDateTime.of(r.getDate(), r.getStartTime());
+                LocalDateTime end = LocalDateTime.of(r.getDate(), r.getEndTime());
+                return end.isAfter(now) && start.isBefore(closure.getEndTime()) && closure.getStartTime().isBefore(end);
+            })
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.hello.service.impl;
+
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomScheduleCache;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomSchedule;
+import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.repository.StudyRoomScheduleRepository;
+import com.example.hello.service.StudyRoomScheduleService;
+
+/**
+ * 自习室开放时间安排服务实现类
+ * 
+ * 安排整体替换，保存后失效该自习室编译后的开放时间，下次查询时重新编译。
+ * 已有预约不受影响，新的安排只约束之后的预约和状态查询。
+ */
+@Service
+public class StudyRoomScheduleServiceImpl implements StudyRoomScheduleService {
+    
+    @Autowired
+    private StudyRoomScheduleRepository studyRoomScheduleRepository;
+    
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+    
+    @Autowired
+    private RoomScheduleCache roomScheduleCache;
+    
+    @Override
+    public ResponseEntity<?> getSchedules(String studyRoomId) {
+        try {
+            StudyRoom studyRoom = studyRoomRepository.findById(studyRoomId).orElse(null);
+            if (studyRoom == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(Map.of(
+                "studyRoomId", studyRoomId,
+                "defaultHours", CompiledSchedule.Hours.parse(studyRoom.getOpenTime(), studyRoom.getCloseTime()).describe(),
+                "schedules", studyRoomScheduleRepository.findByStudyRoomId(studyRoomId)
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "获取开放时间安排失败: " + e.getMessage()));
+        }
+    }
+    
+    @Override
+    @Transactional
+    public ResponseEntity<?> updateSchedules(String studyRoomId, List<StudyRoomSchedule> schedules) {
+        try {
+            if (!studyRoomRepository.existsById(studyRoomId)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Set<Object> seen = new HashSet<>();
+            for (StudyRoomSchedule schedule : schedules) {
+                String error = validate(schedule);
+                if (error != null) {
+                    return ResponseEntity.badRequest().body(Map.of("message", error));
+                }
+                Object key = schedule.getScheduleDate() != null ? schedule.getScheduleDate() : schedule.getDayOfWeek();
+                if (!seen.add(key)) {
+                    return ResponseEntity.badRequest()
+                        .body(Map.of("message", "同一日期或星期只能有一条安排: " + key));
+                }
+                schedule.setId(null);
+                schedule.setStudyRoomId(studyRoomId);
+            }
+            
+            studyRoomScheduleRepository.deleteByStudyRoomId(studyRoomId);
+            List<StudyRoomSchedule> saved = studyRoomScheduleRepository.saveAll(schedules);
+            roomScheduleCache.invalidate(studyRoomId);
+            
+            return ResponseEntity.ok(Map.of(
+                "studyRoomId", studyRoomId,
+                "schedules", saved
+            ));
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "更新开放时间安排失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 校验一条安排，返回错误信息，合法时返回 null
+     */
+    private String validate(StudyRoomSchedule schedule) {
+        if ((schedule.getDayOfWeek() == null) == (schedule.getScheduleDate() == null)) {
+            return "每条安排需要且只能指定星期几或特殊日期之一";
+        }
+        if (schedule.getDayOfWeek() != null && (schedule.getDayOfWeek() < 1 || schedule.getDayOfWeek() > 7)) {
+            return "星期几的取值为1-7";
+        }
+        if (schedule.getOpenTime() == null && schedule.getCloseTime() == null) {
+            return null;
+        }
+        try {
+            if (!CompiledSchedule.Hours.parse(schedule.getOpenTime(), schedule.getCloseTime()).isOpen()) {
+                return "开放时间和关闭时间需同时填写，且关闭时间晚于开放时间";
+            }
+        } catch (DateTimeParseException e) {
+            return "时间格式应为 HH:mm";
+        }
+        return null;
+    }
+}
@@ -2,19 +2,31 @@ package com.example.hello.service.impl;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.hello.cache.BookingPolicyRegistry;
+import com.example.hello.cache.BookingRules;
+import com.example.hello.cache.ClusterCacheInvalidator;
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomScheduleCache;
 import com.example.hello.model.dto.SeatDTO;
 import com.example.hello.model.dto.StudyRoomDTO;
 import com.example.hello.model.entity.Reservation;
@@ -23,8 +35,12 @@ import com.example.hello.model.entity.StudyRoom;
 import com.example.hello.repository.ReservationRepository;
 import com.example.hello.repository.SeatRepository;
 import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.repository.StudyRoomScheduleRepository;
+import com.example.hello.service.ReservationRelocationService;
 import com.example.hello.service.SeatService;
+import com.example.hello.service.SeatStatusCacheService;
 import com.example.hello.service.StudyRoomService;
+import com.example.hello.util.TimeFormats;
 
 /**
  * 自习室服务实现类
@@ -33,6 +49,13 @@ import com.example.hello.service.StudyRoomService;
 @Service
 public class StudyRoomServiceImpl implements StudyRoomService {
 
+    private static final Logger logger = LoggerFactory.getLogger(StudyRoomServiceImpl.class);
+    
+    /**
+     * 清理残留座位的响应中最多返回的座位ID数量，完整列表见日志
+     */
+    private static final int MAX_REPORTED_SEAT_IDS = 1000;
+
     /**
      * 自习室数据访问对象
      */
@@ -48,6 +71,36 @@ public class StudyRoomServiceImpl implements StudyRoomService {
     @Autowired
     private SeatService seatService;
     
+    @Autowired
+    private SeatStatusCacheService seatStatusCacheService;
+    
+    @Autowired
+    private ReservationRelocationService reservationRelocationService;
+    
+    @Autowired
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+    
+    @Autowired
+    private StudyRoomScheduleRepository studyRoomScheduleRepository;
+    
+    /**
+     * 编译后的自习室开放时间
+     */
+    @Autowired
+    private RoomScheduleCache roomScheduleCache;
+    
+    @Autowired
+    private BookingPolicyRegistry bookingPolicyRegistry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    /**
+     * 清理残留座位时每批处理的数量
+     */
+    @Value("${orphan-cleanup.batch-size:500}")
+    private int orphanCleanupBatchSize;
+    
     /**
      * 将自习室实体对象转换为数据传输对象
      * 
@@ -127,6 +180,12 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                     .body(Map.of("message", "开放时间和关闭时间不能为空"));
             }
             
+            String hoursError = validateOpeningHours(room.getOpenTime(), room.getCloseTime());
+            if (hoursError != null) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", hoursError));
+            }
+            
             // 保存自习室信息
             StudyRoom savedRoom = studyRoomRepository.save(room);
             
@@ -207,6 +266,18 @@ public class StudyRoomServiceImpl implements StudyRoomService {
         try {
             return studyRoomRepository.findById(id)
                 .map(existingRoom -> {
+                    // 开放时间变化时先校验，保存后重新编译该自习室的开放时间
+                    if (room.getOpenTime() != null || room.getCloseTime() != null) {
+                        String hoursError = validateOpeningHours(
+                            room.getOpenTime() != null ? room.getOpenTime() : existingRoom.getOpenTime(),
+                            room.getCloseTime() != null ? room.getCloseTime() : existingRoom.getCloseTime());
+                        if (hoursError != null) {
+                            return ResponseEntity.badRequest()
+                                .body(Map.of("message", hoursError));
+                        }
+                        roomScheduleCache.invalidate(id);
+                    }
+                    
                     // 更新基本信息
                     if (room.getName() != null) {
                         existingRoom.setName(room.getName());
@@ -251,21 +322,11 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                             seatRepository.saveAll(newSeats);
                         } else if (newCapacity < oldCapacity) {
                             // 减少座位
-                            // 先检查要删除的座位是否有预约
-                            List<Seat> seatsToDelete = seatRepository.findByStudyRoomIdAndSeatNumberGreaterThan(
-                                id, String.format("%03d", newCapacity));
-                            
-                            // 检查这些座位是否有预约
-                            for (Seat seat : seatsToDelete) {
-                                if (reservationRepository.existsBySeatId(seat.getId())) {
-                                    return ResponseEntity.badRequest()
-                                        .body(Map.of("message", 
-                                            "座位 " + seat.getSeatNumber() + " 有预约记录，无法删除"));
-                                }
+                            ResponseEntity<?> error = deleteUnreservedSeats(
+                                id, String.format("%03d", newCapacity), "无法删除");
+                            if (error != null) {
+                                return error;
                             }
-                            
-                            // 删除座位
-                            seatRepository.deleteAll(seatsToDelete);
                         }
                         
                         existingRoom.setCapacity(newCapacity);
@@ -280,30 +341,147 @@ public class StudyRoomServiceImpl implements StudyRoomService {
         }
     }
     
+    /**
+     * 删除自习室中座位号大于指定值的座位，有预约记录的座位不允许删除
+     * 预约检查和删除各用一条语句完成，不按座位逐个查询；删除后批量清除这些座位的缓存
+     * 
+     * @param studyRoomId 自习室ID
+     * @param seatNumberFloor 座位号下界（不含），空字符串表示全部座位
+     * @param action 失败提示中的操作描述
+     * @return 无法删除时返回错误响应，成功返回null
+     */
+    private ResponseEntity<?> deleteUnreservedSeats(String studyRoomId, String seatNumberFloor, String action) {
+        List<String> reservedSeatNumbers = seatRepository.findReservedSeatNumbers(studyRoomId, seatNumberFloor);
+        if (!reservedSeatNumbers.isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", 
+                    "座位 " + String.join(", ", reservedSeatNumbers) + " 有预约记录，" + action));
+        }
+        
+        List<String> seatIds = seatRepository.findIdsByStudyRoomIdAndSeatNumberGreaterThan(studyRoomId, seatNumberFloor);
+        if (seatIds.isEmpty()) {
+            return null;
+        }
+        int deleted = seatRepository.deleteUnreservedSeats(studyRoomId, seatNumberFloor);
+        if (deleted < seatIds.size()) {
+            // 检查之后有座位产生了新预约，整体回滚
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", "部分座位刚产生了预约记录，" + action + "，请重试"));
+        }
+        
+        // 缓存在事务提交后按座位索引清除，不在持有行锁期间访问Redis
+        seatStatusCacheService.invalidateSeatStatuses(seatIds);
+        seatStatusCacheService.invalidateStudyRoomSeats(studyRoomId);
+        // JPQL批量删除不触发实体事件，需要单独通知其他实例清除座位二级缓存
+        clusterCacheInvalidator.publishRegionEviction(Seat.class);
+        return null;
+    }
+    
     /**
      * 更新自习室状态
+     * 自习室变为不可用时，尚未结束的预约按关闭流程迁移或取消
      * 
      * @param id 自习室ID
-     * @param status 包含状态信息的Map
+     * @param status 包含状态信息的Map，可选reservationAction指定预约处理方式
      * @return 更新结果的ResponseEntity对象
      */
     @Override
+    @Transactional
     public ResponseEntity<?> updateStudyRoomStatus(String id, Map<String, String> status) {
         try {
+            String newStatus = status.get("status");
+            String reservationAction = status.getOrDefault("reservationAction", "RELOCATE");
+            if (newStatus == null) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "自习室状态不能为空"));
+            }
+            if (!"RELOCATE".equals(reservationAction) && !"CANCEL".equals(reservationAction)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "无效的预约处理方式"));
+            }
             // 根据ID查找自习室，并更新其状态
             return studyRoomRepository.findById(id)
                 .map(room -> {
-                    room.setStatus(status.get("status"));
-                    return ResponseEntity.ok(convertToDTO(studyRoomRepository.save(room)));
+                    room.setStatus(newStatus);
+                    StudyRoom savedRoom = studyRoomRepository.save(room);
+                    if (!"AVAILABLE".equals(newStatus)) {
+                        handleClosedRoomReservations(id, "RELOCATE".equals(reservationAction));
+                    }
+                    return ResponseEntity.ok(convertToDTO(savedRoom));
                 })
                 .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             // 发生异常时返回错误信息
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "更新自习室状态失败: " + e.getMessage()));
         }
     }
     
+    /**
+     * 关闭自习室
+     * 在同一事务中修改自习室状态，并把尚未结束的预约迁移到其他开放自习室的空闲座位，
+     * 无法迁移（或请求要求直接取消）的预约批量取消
+     * 
+     * @param id 自习室ID
+     * @param request 包含关闭后的状态和预约处理方式的请求参数
+     * @return 关闭结果的ResponseEntity对象
+     */
+    @Override
+    @Transactional
+    public ResponseEntity<?> closeStudyRoom(String id, Map<String, String> request) {
+        try {
+            String newStatus = request.getOrDefault("status", "UNAVAILABLE");
+            String reservationAction = request.getOrDefault("reservationAction", "RELOCATE");
+            if ("AVAILABLE".equals(newStatus)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "关闭后的状态不能为AVAILABLE"));
+            }
+            if (!"RELOCATE".equals(reservationAction) && !"CANCEL".equals(reservationAction)) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "无效的预约处理方式"));
+            }
+            return studyRoomRepository.findById(id)
+                .map(room -> {
+                    room.setStatus(newStatus);
+                    studyRoomRepository.save(room);
+                    ReservationRelocationService.Result result =
+                        handleClosedRoomReservations(id, "RELOCATE".equals(reservationAction));
+                    return ResponseEntity.ok(Map.of(
+                        "message", "自习室已关闭",
+                        "movedReservations", result.movedReservationIds().size(),
+                        "cancelledReservations", result.cancelledReservationIds().size(),
+                        "movedReservationIds", result.movedReservationIds(),
+                        "cancelledReservationIds", result.cancelledReservationIds()
+                    ));
+                })
+                .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "关闭自习室失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 处理已关闭自习室中尚未结束的预约
+     * 候选为其他开放的自习室，迁移和取消都在调用方的事务中批量完成，最后一次清除涉及座位的状态缓存
+     */
+    private ReservationRelocationService.Result handleClosedRoomReservations(String studyRoomId, boolean relocate) {
+        List<Reservation> upcoming = reservationRepository.findUpcomingConfirmedByStudyRoomId(
+            studyRoomId, LocalDate.now(), LocalTime.now());
+        List<String> candidateRoomIds = !relocate ? List.of()
+            : studyRoomRepository.findByStatus("AVAILABLE").stream()
+                .map(StudyRoom::getId)
+                .filter(roomId -> !roomId.equals(studyRoomId))
+                .collect(Collectors.toList());
+        ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+            upcoming, candidateRoomIds, Set.of(), "自习室关闭");
+        seatStatusCacheService.invalidateSeatStatuses(result.affectedSeatIds());
+        return result;
+    }
+    
     /**
      * 删除自习室
      * 
@@ -316,21 +494,16 @@ public class StudyRoomServiceImpl implements StudyRoomService {
         try {
             return studyRoomRepository.findById(id)
                 .map(room -> {
-                    // 检查该自习室的座位是否有预约
-                    List<Seat> seats = seatRepository.findByStudyRoomId(id);
-                    for (Seat seat : seats) {
-                        if (reservationRepository.existsBySeatId(seat.getId())) {
-                            return ResponseEntity.badRequest()
-                                .body(Map.of("message", 
-                                    "座位 " + seat.getSeatNumber() + " 有预约记录，无法删除自习室"));
-                        }
+                    // 检查预约并删除所有座位
+                    ResponseEntity<?> error = deleteUnreservedSeats(id, "", "无法删除自习室");
+                    if (error != null) {
+                        return error;
                     }
                     
-                    // 删除所有座位
-                    seatRepository.deleteAll(seats);
-                    
-                    // 删除自习室
+                    // 删除开放时间安排和自习室
+                    studyRoomScheduleRepository.deleteByStudyRoomId(id);
                     studyRoomRepository.delete(room);
+                    roomScheduleCache.invalidate(id);
                     
                     return ResponseEntity.ok(Map.of("message", "自习室删除成功"));
                 })
@@ -341,6 +514,20 @@ public class StudyRoomServiceImpl implements StudyRoomService {
         }
     }
     
+    /**
+     * 校验开放时间和关闭时间，返回错误信息，合法时返回 null
+     */
+    private String validateOpeningHours(String openTime, String closeTime) {
+        try {
+            if (!CompiledSchedule.Hours.parse(openTime, closeTime).isOpen()) {
+                return "关闭时间必须晚于开放时间";
+            }
+            return null;
+        } catch (DateTimeParseException e) {
+            return "开放时间和关闭时间格式应为 HH:mm";
+        }
+    }
+    
     /**
      * 获取自习室所有座位在指定日期的实时状态
      */
@@ -356,9 +543,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
             // 获取当前时间
             LocalTime currentTime = LocalTime.now();
             
-            // 获取自习室营业时间
-            LocalTime openTime = LocalTime.parse(studyRoom.getOpenTime());
-            LocalTime closeTime = LocalTime.parse(studyRoom.getCloseTime());
+            // 获取自习室当天的营业时间
+            CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(date);
             
             // 获取自习室所有座位
             List<Seat> seats = seatRepository.findByStudyRoomId(studyRoomId);
@@ -369,7 +555,7 @@ public class StudyRoomServiceImpl implements StudyRoomService {
             
             // 计算每个座位的状态
             List<Map<String, Object>> seatsStatus = calculateSeatsStatus(
-                seats, studyRoom, studyRoomReservations, date, currentTime, openTime, closeTime);
+                seats, studyRoom, studyRoomReservations, date, currentTime, hours);
             
             // 统计可用座位数
             long availableSeats = seatsStatus.stream()
@@ -381,8 +567,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
             result.put("studyRoomId", studyRoom.getId());
             result.put("studyRoomName", studyRoom.getName());
             result.put("date", date.toString());
-            result.put("openTime", studyRoom.getOpenTime());
-            result.put("closeTime", studyRoom.getCloseTime());
+            result.put("openTime", hours.getOpenText());
+            result.put("closeTime", hours.getCloseText());
             result.put("totalSeats", seats.size());
             result.put("availableSeats", availableSeats);
             result.put("seatsStatus", seatsStatus);
@@ -407,16 +593,11 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                 return ResponseEntity.notFound().build();
             }
             
-            // 获取自习室营业时间
-            LocalTime openTime = LocalTime.parse(studyRoom.getOpenTime());
-            LocalTime closeTime = LocalTime.parse(studyRoom.getCloseTime());
-            
-            // 检查请求的时间段是否在自习室开放时间内
-            if (startTime.isBefore(openTime) || endTime.isAfter(closeTime)) {
+            // 检查请求的时间段是否在自习室当天的开放时间内
+            CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(date);
+            if (!hours.covers(startTime, endTime)) {
                 return ResponseEntity.badRequest().body(Map.of(
-                    "message", "请求的时间段不在自习室开放时间内",
-                    "openTime", studyRoom.getOpenTime(),
-                    "closeTime", studyRoom.getCloseTime()
+                    "message", "请求的时间段不在自习室开放时间内（" + hours.describe() + "）"
                 ));
             }
             
@@ -475,8 +656,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                             .map(r -> Map.of(
                                 "id", r.getId(),
                                 "userId", r.getUserId(),
-                                "startTime", r.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")),
-                                "endTime", r.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm")),
+                                "startTime", r.getStartTime().format(TimeFormats.HH_MM),
+                                "endTime", r.getEndTime().format(TimeFormats.HH_MM),
                                 "status", r.getStatus()
                             ))
                             .collect(Collectors.toList()));
@@ -499,10 +680,10 @@ public class StudyRoomServiceImpl implements StudyRoomService {
             result.put("studyRoomId", studyRoom.getId());
             result.put("studyRoomName", studyRoom.getName());
             result.put("date", date.toString());
-            result.put("startTime", startTime.format(DateTimeFormatter.ofPattern("HH:mm")));
-            result.put("endTime", endTime.format(DateTimeFormatter.ofPattern("HH:mm")));
-            result.put("openTime", studyRoom.getOpenTime());
-            result.put("closeTime", studyRoom.getCloseTime());
+            result.put("startTime", startTime.format(TimeFormats.HH_MM));
+            result.put("endTime", endTime.format(TimeFormats.HH_MM));
+            result.put("openTime", hours.getOpenText());
+            result.put("closeTime", hours.getCloseText());
             result.put("totalSeats", seats.size());
             result.put("availableSeats", availableSeats);
             result.put("seatsStatus", seatsStatus);
@@ -520,7 +701,7 @@ public class StudyRoomServiceImpl implements StudyRoomService {
      */
     private List<Map<String, Object>> calculateSeatsStatus(
             List<Seat> seats, StudyRoom studyRoom, List<Reservation> studyRoomReservations,
-            LocalDate date, LocalTime currentTime, LocalTime openTime, LocalTime closeTime) {
+            LocalDate date, LocalTime currentTime, CompiledSchedule.Hours hours) {
         
         return seats.stream()
             .map(seat -> {
@@ -537,7 +718,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                 }
                 
                 // 检查当前是否在营业时间内
-                boolean withinBusinessHours = !currentTime.isBefore(openTime) && !currentTime.isAfter(closeTime);
+                boolean withinBusinessHours = hours.isOpen()
+                    && !currentTime.isBefore(hours.getOpen()) && !currentTime.isAfter(hours.getClose());
                 if (!withinBusinessHours && date.isEqual(LocalDate.now())) {
                     seatStatus.put("currentStatus", "CLOSED");
                     seatStatus.put("message", "当前不在自习室开放时间内");
@@ -568,8 +750,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                     Map<String, String> reservationInfo = new HashMap<>();
                     reservationInfo.put("id", currentReservation.getId());
                     reservationInfo.put("userId", currentReservation.getUserId());
-                    reservationInfo.put("startTime", currentReservation.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")));
-                    reservationInfo.put("endTime", currentReservation.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm")));
+                    reservationInfo.put("startTime", currentReservation.getStartTime().format(TimeFormats.HH_MM));
+                    reservationInfo.put("endTime", currentReservation.getEndTime().format(TimeFormats.HH_MM));
                     seatStatus.put("currentReservation", reservationInfo);
                 } else {
                     seatStatus.put("currentStatus", "AVAILABLE");
@@ -598,17 +780,27 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                     .body(Map.of("message", "自习室不存在"));
             }
             
-            // 验证预约日期是否在允许的提前预约天数范围内
+            // 验证预约日期是否在允许的提前预约天数范围内（按自习室的规则）
+            BookingRules rules = bookingPolicyRegistry.rulesFor(studyRoom, null);
             LocalDate today = LocalDate.now();
-            LocalDate maxDate = today.plusDays(studyRoom.getMaxAdvanceDays());
-            if (date.isBefore(today) || date.isAfter(maxDate)) {
+            if (date.isBefore(today) || date.isAfter(rules.latestBookableDate(today))) {
                 return ResponseEntity.badRequest()
-                    .body(Map.of("message", "查询日期必须在当前日期到未来" + studyRoom.getMaxAdvanceDays() + "天内"));
+                    .body(Map.of("message", "查询日期必须在当前日期到未来" + rules.maxAdvanceDays() + "天内"));
             }
             
-            // 获取自习室开放时间
-            LocalTime openTime = LocalTime.parse(studyRoom.getOpenTime());
-            LocalTime closeTime = LocalTime.parse(studyRoom.getCloseTime());
+            // 获取自习室当天的开放时间，不开放时没有可用时间段
+            CompiledSchedule.Hours hours = roomScheduleCache.get(studyRoom).hoursOn(date);
+            if (!hours.isOpen()) {
+                return ResponseEntity.ok(Map.of(
+                    "studyRoomId", studyRoomId,
+                    "date", date.toString(),
+                    "message", "自习室" + hours.describe(),
+                    "availableSeats", 0,
+                    "timeSlots", List.of()
+                ));
+            }
+            LocalTime openTime = hours.getOpen();
+            LocalTime closeTime = hours.getClose();
             
             // 获取自习室内所有座位
             List<Seat> seats = seatRepository.findByStudyRoomId(studyRoomId);
@@ -618,8 +810,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                 return ResponseEntity.ok(Map.of(
                     "studyRoomId", studyRoomId,
                     "date", date.toString(),
-                    "openTime", studyRoom.getOpenTime(),
-                    "closeTime", studyRoom.getCloseTime(),
+                    "openTime", hours.getOpenText(),
+                    "closeTime", hours.getCloseText(),
                     "availableSeats", 0,
                     "timeSlots", List.of()
                 ));
@@ -642,8 +834,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                         // 如果没有预约，整个开放时间段都可用
                         if (seatReservations.isEmpty()) {
                             return List.of(Map.of(
-                                "startTime", studyRoom.getOpenTime(),
-                                "endTime", studyRoom.getCloseTime()
+                                "startTime", hours.getOpenText(),
+                                "endTime", hours.getCloseText()
                             ));
                         }
                         
@@ -656,8 +848,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                         // 检查开放时间到第一个预约之间的间隔
                         if (seatReservations.get(0).getStartTime().isAfter(openTime)) {
                             availableSlots.add(Map.of(
-                                "startTime", openTime.format(DateTimeFormatter.ofPattern("HH:mm")),
-                                "endTime", seatReservations.get(0).getStartTime().format(DateTimeFormatter.ofPattern("HH:mm"))
+                                "startTime", hours.getOpenText(),
+                                "endTime", seatReservations.get(0).getStartTime().format(TimeFormats.HH_MM)
                             ));
                         }
                         
@@ -668,8 +860,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                             
                             if (currentEndTime.isBefore(nextStartTime)) {
                                 availableSlots.add(Map.of(
-                                    "startTime", currentEndTime.format(DateTimeFormatter.ofPattern("HH:mm")),
-                                    "endTime", nextStartTime.format(DateTimeFormatter.ofPattern("HH:mm"))
+                                    "startTime", currentEndTime.format(TimeFormats.HH_MM),
+                                    "endTime", nextStartTime.format(TimeFormats.HH_MM)
                                 ));
                             }
                         }
@@ -678,8 +870,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                         LocalTime lastEndTime = seatReservations.get(seatReservations.size() - 1).getEndTime();
                         if (lastEndTime.isBefore(closeTime)) {
                             availableSlots.add(Map.of(
-                                "startTime", lastEndTime.format(DateTimeFormatter.ofPattern("HH:mm")),
-                                "endTime", closeTime.format(DateTimeFormatter.ofPattern("HH:mm"))
+                                "startTime", lastEndTime.format(TimeFormats.HH_MM),
+                                "endTime", hours.getCloseText()
                             ));
                         }
                         
@@ -697,8 +889,8 @@ public class StudyRoomServiceImpl implements StudyRoomService {
                 "studyRoomId", studyRoomId,
                 "studyRoomName", studyRoom.getName(),
                 "date", date.toString(),
-                "openTime", studyRoom.getOpenTime(),
-                "closeTime", studyRoom.getCloseTime(),
+                "openTime", hours.getOpenText(),
+                "closeTime", hours.getCloseText(),
                 "totalSeats", seats.size(),
                 "availableSeats", availableSeats,
                 "seatAvailability", seatAvailability
@@ -713,40 +905,56 @@ public class StudyRoomServiceImpl implements StudyRoomService {
     /**
      * 清理残留的座位数据
      * 删除所有没有对应自习室的座位
+     * 
+     * 按座位ID分批处理，每批在独立的短事务中完成反连接查询和删除，
+     * 内存占用和锁持有时间只与批大小有关；每批完成后记录进度和删除的座位ID。
      */
-    @Transactional
     public ResponseEntity<?> cleanOrphanedSeats() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> deletedSeatIds = new ArrayList<>();
+        String lastId = "";
+        int batches = 0;
+        long deletedSeats = 0;
         try {
-            // 获取所有自习室ID
-            List<String> studyRoomIds = studyRoomRepository.findAll().stream()
-                .map(StudyRoom::getId)
-                .collect(Collectors.toList());
-            
-            // 获取所有座位
-            List<Seat> allSeats = seatRepository.findAll();
-            
-            // 找出没有对应自习室的座位
-            List<Seat> orphanedSeats = allSeats.stream()
-                .filter(seat -> !studyRoomIds.contains(seat.getStudyRoomId()))
-                .collect(Collectors.toList());
-            
-            if (orphanedSeats.isEmpty()) {
-                return ResponseEntity.ok(Map.of("message", "没有发现残留的座位数据"));
+            while (true) {
+                List<String> batchIds = seatRepository.findOrphanedSeatIds(lastId, Limit.of(orphanCleanupBatchSize));
+                if (batchIds.isEmpty()) {
+                    break;
+                }
+                Integer deleted = transactionTemplate.execute(status -> seatRepository.deleteOrphanedSeats(batchIds));
+                lastId = batchIds.get(batchIds.size() - 1);
+                batches++;
+                deletedSeats += deleted == null ? 0 : deleted;
+                // 残留座位没有所属自习室，不会出现在任何自习室的状态查询中，无需清除座位状态缓存，
+                // 残留的状态键在存活时间到期后自行过期
+                if (deletedSeatIds.size() < MAX_REPORTED_SEAT_IDS) {
+                    deletedSeatIds.addAll(batchIds.subList(0,
+                        Math.min(batchIds.size(), MAX_REPORTED_SEAT_IDS - deletedSeatIds.size())));
+                }
+                logger.info("清理残留座位: 第{}批删除{}个，累计{}个，座位ID: {}", batches, deleted, deletedSeats, batchIds);
             }
-            
-            // 删除这些座位
-            seatRepository.deleteAll(orphanedSeats);
-            
-            return ResponseEntity.ok(Map.of(
-                "message", "成功清理残留座位数据",
-                "deletedSeats", orphanedSeats.size(),
-                "deletedSeatIds", orphanedSeats.stream()
-                    .map(Seat::getId)
-                    .collect(Collectors.toList())
-            ));
         } catch (Exception e) {
+            // 已完成的批次不会回滚，再次执行会从剩余的残留座位继续
+            logger.error("清理残留座位数据失败，已删除{}个", deletedSeats, e);
             return ResponseEntity.internalServerError()
-                .body(Map.of("message", "清理残留座位数据失败: " + e.getMessage()));
+                .body(Map.of(
+                    "message", "清理残留座位数据失败: " + e.getMessage(),
+                    "deletedSeats", deletedSeats
+                ));
         }
+        
+        if (deletedSeats == 0) {
+            return ResponseEntity.ok(Map.of("message", "没有发现残留的座位数据"));
+        }
+        // JPQL批量删除不触发实体事件，需要单独通知其他实例清除座位二级缓存
+        clusterCacheInvalidator.publishRegionEviction(Seat.class);
+        
+        return ResponseEntity.ok(Map.of(
+            "message", "成功清理残留座位数据",
+            "batches", batches,
+            "deletedSeats", deletedSeats,
+            "deletedSeatIds", deletedSeatIds,
+            "deletedSeatIdsTruncated", deletedSeats > deletedSeatIds.size()
+        ));
     }
-} 
\ No newline at end of file
+}
@@ -9,16 +9,22 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.hello.cache.BookingPolicyRegistry;
+import com.example.hello.cache.BookingRules;
 import com.example.hello.exception.ResourceNotFoundException;
 import com.example.hello.model.dto.LoginResponse;
 import com.example.hello.model.dto.UserDTO;
 import com.example.hello.model.entity.User;
 import com.example.hello.repository.UserRepository;
+import com.example.hello.service.LoginThrottleService;
 import com.example.hello.service.UserService;
 import com.example.hello.util.JwtUtil;
 
@@ -37,6 +43,12 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+    
+    @Autowired
+    private BookingPolicyRegistry bookingPolicyRegistry;
+    
     @Override
     public UserDTO convertToDTO(User user) {
         UserDTO dto = new UserDTO();
@@ -61,7 +73,7 @@ public class UserServiceImpl implements UserService {
             user.setNoShowCount(0);
             User savedUser = userRepository.save(user);
             return ResponseEntity.ok(convertToDTO(savedUser));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError().body(Map.of("message", "创建用户失败: " + e.getMessage()));
         }
     }
@@ -106,7 +118,7 @@ public class UserServiceImpl implements UserService {
                     return ResponseEntity.ok(convertToDTO(userRepository.save(existingUser)));
                 })
                 .orElse(ResponseEntity.notFound().build());
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "更新用户信息失败: " + e.getMessage()));
         }
@@ -155,6 +167,14 @@ public class UserServiceImpl implements UserService {
                     .body(Map.of("message", "用户名和密码不能为空"));
             }
             
+            // 同一用户名短时间内登录次数过多时直接拒绝，不进行密码校验
+            long retryAfter = loginThrottleService.acquireForUsername(username);
+            if (retryAfter > 0) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(Map.of("message", "登录尝试过于频繁，请稍后再试"));
+            }
+            
             User user = userRepository.findByUsername(username);
             if (user == null || !passwordEncoder.matches(password, user.getPassword())) {
                 return ResponseEntity.badRequest()
@@ -172,7 +192,7 @@ public class UserServiceImpl implements UserService {
             response.setToken(token);
             
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "登录失败: " + e.getMessage()));
         }
@@ -193,7 +213,7 @@ public class UserServiceImpl implements UserService {
             // 保存用户
             User savedUser = userRepository.save(user);
             return ResponseEntity.ok(convertToDTO(savedUser));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "注册失败: " + e.getMessage()));
         }
@@ -233,7 +253,7 @@ public class UserServiceImpl implements UserService {
                 "message", "注册成功",
                 "user", convertToDTO(savedUser)
             ));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "注册失败: " + e.getMessage()));
         }
@@ -252,11 +272,14 @@ public class UserServiceImpl implements UserService {
         // 如果为null，说明不在黑名单中
         status.put("isBlacklisted", Boolean.TRUE.equals(user.getIsBlacklisted()));
         
+        // 用户组，调用方据此匹配预约规则，不必再次查询用户
+        status.put("userGroup", user.getUserGroup());
+        
         // 如果在黑名单中且有开始时间，计算剩余时间
         if (Boolean.TRUE.equals(user.getIsBlacklisted()) && user.getBlacklistStartTime() != null) {
             long remainingTime = ChronoUnit.MILLIS.between(
                 LocalDateTime.now(),
-                user.getBlacklistStartTime().plusDays(2)
+                bookingPolicyRegistry.rulesFor(user.getUserGroup()).blacklistEnd(user.getBlacklistStartTime())
             );
             status.put("remainingTime", Math.max(0, remainingTime));
         }
@@ -274,8 +297,8 @@ public class UserServiceImpl implements UserService {
         int currentCount = user.getNoShowCount() != null ? user.getNoShowCount() : 0;
         user.setNoShowCount(currentCount + 1);
         
-        // 如果达到3次，加入黑名单
-        if (currentCount + 1 >= 3) {
+        // 达到用户组规则的未签到次数，加入黑名单
+        if (bookingPolicyRegistry.rulesFor(user.getUserGroup()).noShowThresholdReached(currentCount + 1)) {
             user.setIsBlacklisted(true);
             user.setBlacklistStartTime(LocalDateTime.now());
         }
@@ -309,7 +332,8 @@ public class UserServiceImpl implements UserService {
             return 0;
         }
         
-        LocalDateTime endTime = user.getBlacklistStartTime().plusDays(2);
+        LocalDateTime endTime = bookingPolicyRegistry.rulesFor(user.getUserGroup())
+                .blacklistEnd(user.getBlacklistStartTime());
         long remainingTime = ChronoUnit.MILLIS.between(LocalDateTime.now(), endTime);
         return Math.max(0, remainingTime);
     }
@@ -387,12 +411,13 @@ public class UserServiceImpl implements UserService {
             user.setIsBlacklisted(true);
             user.setBlacklistStartTime(LocalDateTime.now());
             
-            // 默认黑名单期限为2天
+            // 黑名单期限由用户组的预约规则决定
             userRepository.save(user);
+            BookingRules rules = bookingPolicyRegistry.rulesFor(user.getUserGroup());
             
             return ResponseEntity.ok(Map.of(
                 "code", 200,
-                "message", "用户已添加到黑名单，期限2天",
+                "message", "用户已添加到黑名单，期限" + rules.blacklistDays() + "天",
                 "data", Map.of(
                     "userId", user.getId(),
                     "username", user.getUsername(),
@@ -452,7 +477,7 @@ public class UserServiceImpl implements UserService {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404)
                 .body(Map.of("message", "用户不存在"));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "修改密码失败: " + e.getMessage()));
         }
@@ -489,9 +514,37 @@ public class UserServiceImpl implements UserService {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(404)
                 .body(Map.of("message", "用户不存在"));
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("message", "修改密码失败: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    @Override
+    @Transactional
+    public ResponseEntity<?> updateUserGroup(String userId, String userGroup) {
+        try {
+            User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
+            
+            String group = userGroup == null || userGroup.trim().isEmpty() ? null : userGroup.trim();
+            if (group != null && group.length() > 32) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "用户组名称不能超过32个字符"));
+            }
+            user.setUserGroup(group);
+            userRepository.save(user);
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("userId", user.getId());
+            result.put("userGroup", group);
+            return ResponseEntity.ok(result);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404)
+                .body(Map.of("message", "用户不存在"));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("message", "修改用户组失败: " + e.getMessage()));
+        }
+    }
+}
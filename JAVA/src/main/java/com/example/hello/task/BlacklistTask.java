@@ -1,5 +1,6 @@
 package com.example.hello.task;
 
+import com.example.hello.cache.BookingPolicyRegistry;
 import com.example.hello.model.entity.User;
 import com.example.hello.repository.UserRepository;
 import com.example.hello.service.UserService;
@@ -18,6 +19,9 @@ public class BlacklistTask {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private BookingPolicyRegistry bookingPolicyRegistry;
+    
     @Scheduled(fixedRate = 3600000) // 每小时执行一次
     public void checkBlacklist() {
         List<User> blacklistedUsers = userRepository.findByIsBlacklistedTrue();
@@ -25,7 +29,8 @@ public class BlacklistTask {
         
         for (User user : blacklistedUsers) {
             if (user.getBlacklistStartTime() != null) {
-                LocalDateTime releaseTime = user.getBlacklistStartTime().plusDays(2);
+                LocalDateTime releaseTime = bookingPolicyRegistry.rulesFor(user.getUserGroup())
+                    .blacklistEnd(user.getBlacklistStartTime());
                 if (now.isAfter(releaseTime)) {
                     userService.removeFromBlacklist(user.getId());
                 }
@@ -0,0 +1,197 @@
+package com.example.hello.task;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.example.hello.cache.BookingPolicyRegistry;
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomScheduleCache;
+import com.example.hello.config.CacheWarmUpProperties;
+import com.example.hello.model.entity.Reservation;
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.repository.ReservationRepository;
+import com.example.hello.repository.SeatRepository;
+import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.service.SeatStatusCacheService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 启动缓存预热
+ *
+ * 在 ApplicationRunner 中同步执行：Spring Boot 在所有 runner 结束后才把就绪状态置为 ACCEPTING_TRAFFIC，
+ * 因此预热完成前 /actuator/health/readiness 不会返回 UP，负载均衡不会把流量转到冷实例上。
+ * 每个自习室并行预热：一次查询座位、一次查询整个预约周期内的预约，
+ * 然后在内存中计算今天起到可提前预约天数内各整点时间段的座位状态，按时间段批量写入缓存。
+ */
+@Component
+public class CacheWarmUpTask implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmUpTask.class);
+
+    @Autowired
+    private CacheWarmUpProperties properties;
+
+    @Autowired
+    private StudyRoomRepository studyRoomRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SeatStatusCacheService seatStatusCacheService;
+
+    @Autowired
+    private RoomScheduleCache roomScheduleCache;
+
+    @Autowired
+    private BookingPolicyRegistry bookingPolicyRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 预热写入的座位状态条数
+     */
+    private final AtomicInteger statusEntries = new AtomicInteger();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        meterRegistry.gauge("cache.warmup.status_entries", statusEntries);
+
+        List<StudyRoom> rooms = studyRoomRepository.findAll();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()));
+        int warmedRooms = 0;
+        String outcome = "completed";
+        try {
+            List<Callable<Void>> tasks = rooms.stream()
+                .map(room -> (Callable<Void>) () -> {
+                    warmUpRoom(room);
+                    return null;
+                })
+                .collect(Collectors.toList());
+            List<Future<Void>> futures = executor.invokeAll(tasks, properties.getTimeoutSeconds(), TimeUnit.SECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Void> future = futures.get(i);
+                if (future.isCancelled()) {
+                    outcome = "timeout";
+                    continue;
+                }
+                try {
+                    future.get();
+                    warmedRooms++;
+                } catch (Exception e) {
+                    outcome = "partial";
+                    logger.warn("自习室缓存预热失败: {}, {}", rooms.get(i).getId(), e.toString());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("cache.warmup.duration")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("缓存预热{}: 自习室 {}/{}，座位状态 {} 条，耗时 {} ms",
+            "completed".equals(outcome) ? "完成" : "未全部完成(" + outcome + ")",
+            warmedRooms, rooms.size(), statusEntries.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void warmUpRoom(StudyRoom room) {
+        List<Seat> seats = seatRepository.findByStudyRoomId(room.getId());
+        seatStatusCacheService.cacheStudyRoomSeats(room.getId(), seats);
+        if (seats.isEmpty() || !"AVAILABLE".equals(room.getStatus())) {
+            return;
+        }
+
+        CompiledSchedule schedule = roomScheduleCache.get(room);
+        int advanceDays = bookingPolicyRegistry.rulesFor(room, null).maxAdvanceDays();
+        LocalDate today = LocalDate.now();
+        LocalDate lastDate = today.plusDays(Math.min(advanceDays, properties.getMaxDays()));
+
+        Map<LocalDate, List<Reservation>> reservationsByDate = reservationRepository
+            .findActiveByStudyRoomIdAndDateRange(room.getId(), today, lastDate)
+            .stream()
+            .collect(Collectors.groupingBy(Reservation::getDate));
+
+        long windowMinutes = Math.max(1, properties.getWindowMinutes());
+        LocalTime now = LocalTime.now();
+        for (LocalDate date = today; !date.isAfter(lastDate); date = date.plusDays(1)) {
+            CompiledSchedule.Hours hours = schedule.hoursOn(date);
+            if (!hours.isOpen()) {
+                continue;
+            }
+            LocalTime openTime = hours.getOpen();
+            LocalTime closeTime = hours.getClose();
+            List<Reservation> dayReservations = reservationsByDate.getOrDefault(date, List.of());
+            // 今天只预热当前整点之后的时间段
+            LocalTime windowStart = date.equals(today) && now.isAfter(openTime)
+                ? now.truncatedTo(ChronoUnit.HOURS)
+                : ceilToHour(openTime);
+            if (windowStart.isBefore(openTime.truncatedTo(ChronoUnit.HOURS))) {
+                // 开放时间在最后一个整点之后，向上取整跨过了午夜
+                continue;
+            }
+            while (windowStart.isBefore(closeTime)) {
+                LocalTime windowEnd = windowStart.plusMinutes(windowMinutes);
+                if (windowEnd.isBefore(windowStart) || windowEnd.isAfter(closeTime)) {
+                    // 跨过午夜或超出关闭时间的时间段不预热
+                    break;
+                }
+                LocalTime from = windowStart;
+                List<Reservation> windowReservations = new ArrayList<>();
+                for (Reservation reservation : dayReservations) {
+                    if (reservation.getStartTime().isBefore(windowEnd) && reservation.getEndTime().isAfter(from)) {
+                        windowReservations.add(reservation);
+                    }
+                }
+                Map<String, Map<String, Object>> statuses = new HashMap<>(seats.size() * 4 / 3 + 1);
+                for (Seat seat : seats) {
+                    statuses.put(seat.getId(), seatStatusCacheService.buildSeatStatus(seat, windowReservations));
+                }
+                seatStatusCacheService.cacheSeatStatuses(statuses, date, windowStart, windowEnd,
+                    properties.getStatusTtlSeconds());
+                statusEntries.addAndGet(statuses.size());
+                windowStart = windowEnd;
+            }
+        }
+    }
+
+    private static LocalTime ceilToHour(LocalTime time) {
+        LocalTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+}
@@ -10,12 +10,16 @@ import org.springframework.stereotype.Component;
 import com.example.hello.model.ReservationStatus;
 import com.example.hello.model.entity.Reservation;
 import com.example.hello.repository.ReservationRepository;
+import com.example.hello.service.SeatStatusCacheService;
 
 @Component
 public class ReservationStatusTask {
     @Autowired
     private ReservationRepository reservationRepository;
     
+    @Autowired
+    private SeatStatusCacheService seatStatusCacheService;
+    
     @Scheduled(fixedRate = 60000) // 每分钟执行一次
     public void updateReservationStatus() {
         System.out.println("doing task refresh reservation status");
@@ -37,6 +41,9 @@ public class ReservationStatusTask {
         }
         
         reservationRepository.saveAll(expiredReservations);
+        for (Reservation reservation : expiredReservations) {
+            seatStatusCacheService.invalidateSeatStatus(reservation.getSeatId(), reservation.getDate());
+        }
     }
 
 } 
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.hello.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+/**
+ * 熔断器调用工具
+ * 熔断器打开或调用失败时返回兜底结果而不是抛出异常，调用耗时计入慢调用统计
+ */
+public final class CircuitBreakers {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakers.class);
+
+    private CircuitBreakers() {
+    }
+
+    public static <T> T call(CircuitBreaker circuitBreaker, Supplier<T> action, Supplier<T> fallback) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return fallback.get();
+        }
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            logger.warn("{} 调用失败，使用兜底结果: {}", circuitBreaker.getName(), e.toString());
+            return fallback.get();
+        }
+    }
+
+    /**
+     * 执行无返回值的操作
+     * @return 操作是否成功执行（熔断打开或执行失败返回false）
+     */
+    public static boolean run(CircuitBreaker circuitBreaker, Runnable action) {
+        return call(circuitBreaker, () -> {
+            action.run();
+            return Boolean.TRUE;
+        }, () -> Boolean.FALSE);
+    }
+}
@@ -2,13 +2,25 @@ package com.example.hello.util;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.spec.SecretKeySpec;
 
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
@@ -22,6 +34,45 @@ public class JwtUtil {
     );
     private static final long EXPIRATION_TIME = 86400000; // 24小时
 
+    /**
+     * 请求属性名：JwtAuthFilter 解析出的 Claims 存放在该属性中，同一请求内后续环节直接读取，不再重复验签
+     */
+    public static final String CLAIMS_ATTRIBUTE = "jwtClaims";
+
+    /**
+     * 已验证令牌缓存的最大条目数
+     */
+    private static final int VERIFIED_CACHE_SIZE = 10000;
+
+    // 解析器线程安全，只构建一次
+    private static final JwtParser parser = Jwts.parserBuilder()
+        .setSigningKey(key)
+        .build();
+
+    /**
+     * 最近验证通过的令牌（按令牌的SHA-256摘要索引），每个条目在令牌过期时失效，超出容量时淘汰
+     * 缓存中保存不可变的声明副本，每次命中都返回新的 Claims，调用方修改不会影响缓存
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+        .maximumSize(VERIFIED_CACHE_SIZE)
+        .expireAfter(new Expiry<String, VerifiedToken>() {
+            @Override
+            public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()));
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        })
+        .build();
+
     public String generateToken(String userId, String username, boolean isAdmin) {
         System.out.println("生成token - userId: " + userId);
         System.out.println("生成token - username: " + username);
@@ -43,11 +94,7 @@ public class JwtUtil {
     public void validateToken(String token) {
         try {
             System.out.println("验证token: " + token);
-            Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+            Claims claims = getClaimsFromToken(token);
             System.out.println("Token验证成功");
             System.out.println("Token信息 - subject: " + claims.getSubject());
             System.out.println("Token信息 - role: " + claims.get("role"));
@@ -59,11 +106,40 @@ public class JwtUtil {
         }
     }
     
+    /**
+     * 验证令牌并返回其中的Claims
+     * 最近验证过且未过期的令牌直接从缓存返回副本，避免重复的签名计算；
+     * 缓存条目在令牌过期时失效，之后重新解析，由解析器抛出 ExpiredJwtException
+     */
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(key)
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        String cacheKey = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            return Jwts.claims(cached.claims());
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            // 没有过期时间的令牌不缓存，每次都完整验证
+            return claims;
+        }
+        verifiedTokens.put(cacheKey,
+            new VerifiedToken(Collections.unmodifiableMap(new LinkedHashMap<>(claims)), claims.getExpiration().getTime()));
+        return claims;
+    }
+
+    /**
+     * 计算令牌的SHA-256摘要作为缓存键，缓存中不保留令牌原文
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private record VerifiedToken(Map<String, Object> claims, long expiresAtMillis) {
     }
 } 
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.hello.util;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 共享的时间格式
+ * DateTimeFormatter 不可变且线程安全，全局复用一个实例，避免在循环中反复创建
+ */
+public final class TimeFormats {
+
+    /**
+     * 时:分，例如 08:30
+     */
+    public static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
+
+    private TimeFormats() {
+    }
+}
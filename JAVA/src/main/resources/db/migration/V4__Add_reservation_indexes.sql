@@ -0,0 +1,46 @@
+-- 预约表访问路径索引
+-- 软删除标记改为 NOT NULL，查询条件可直接写 is_deleted = 0 并参与索引匹配
+
+UPDATE `reservations` SET `is_deleted` = b'0' WHERE `is_deleted` IS NULL;
+
+ALTER TABLE `reservations`
+  MODIFY `is_deleted` bit(1) NOT NULL DEFAULT b'0';
+
+-- 座位 + 日期：冲突检测、座位状态查询
+CREATE INDEX `idx_reservations_seat_date`
+  ON `reservations` (`seat_id`, `date`, `is_deleted`, `status`, `start_time`, `end_time`);
+
+-- 自习室 + 日期：自习室状态、时间段查询
+CREATE INDEX `idx_reservations_room_date`
+  ON `reservations` (`study_room_id`, `date`, `is_deleted`, `status`, `start_time`, `end_time`);
+
+-- 用户 + 日期：用户时间冲突、每日预约次数
+CREATE INDEX `idx_reservations_user_date`
+  ON `reservations` (`user_id`, `date`, `is_deleted`, `status`, `start_time`, `end_time`);
+
+-- 日期 + 结束时间 + 状态：定时任务扫描已结束的预约
+CREATE INDEX `idx_reservations_date_end_status`
+  ON `reservations` (`date`, `end_time`, `status`);
+
+-- 状态 + 日期：过期预约扫描只读取进行中的预约
+CREATE INDEX `idx_reservations_status_date`
+  ON `reservations` (`status`, `is_deleted`, `date`, `end_time`);
+
+-- 软删除清理
+CREATE INDEX `idx_reservations_deleted_at`
+  ON `reservations` (`is_deleted`, `deleted_at`);
+
+-- 座位按自习室查询
+CREATE INDEX `idx_seats_room_number`
+  ON `seats` (`study_room_id`, `seat_number`);
+
+CREATE INDEX `idx_seats_room_status`
+  ON `seats` (`study_room_id`, `status`);
+
+-- 登录按用户名查询
+CREATE INDEX `idx_users_username`
+  ON `users` (`username`);
+
+-- 黑名单定时任务
+CREATE INDEX `idx_users_blacklisted`
+  ON `users` (`is_blacklisted`, `blacklist_start_time`);
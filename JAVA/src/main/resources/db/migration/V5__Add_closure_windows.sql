@@ -0,0 +1,16 @@
+-- 自习室和座位的定时关闭、维护时段
+-- 沿用此前未使用的 study_room_status 表：起止时间改为 DATETIME，seat_id 为空表示整个自习室关闭
+
+ALTER TABLE `study_room_status`
+  MODIFY `start_time` datetime NOT NULL,
+  MODIFY `end_time` datetime NOT NULL,
+  MODIFY `status` varchar(20) NOT NULL,
+  ADD COLUMN `seat_id` varchar(32) DEFAULT NULL AFTER `study_room_id`;
+
+-- 启动和刷新时只加载尚未结束的时段
+CREATE INDEX `idx_study_room_status_end_time`
+  ON `study_room_status` (`end_time`);
+
+-- 按自习室加载时段
+CREATE INDEX `idx_study_room_status_room_end_time`
+  ON `study_room_status` (`study_room_id`, `end_time`);
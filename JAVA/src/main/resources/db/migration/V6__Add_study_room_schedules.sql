@@ -0,0 +1,17 @@
+-- 自习室按星期和特殊日期的开放时间
+-- day_of_week 与 schedule_date 二选一：前者为每周固定安排（1=周一 ... 7=周日），后者为节假日等特殊日期，特殊日期优先
+-- open_time、close_time 均为空表示当天不开放；没有安排的日期沿用 study_rooms 的 open_time、close_time
+
+CREATE TABLE IF NOT EXISTS `study_room_schedules` (
+  `id` varchar(32) NOT NULL,
+  `study_room_id` varchar(32) NOT NULL,
+  `day_of_week` tinyint DEFAULT NULL,
+  `schedule_date` date DEFAULT NULL,
+  `open_time` varchar(5) DEFAULT NULL,
+  `close_time` varchar(5) DEFAULT NULL,
+  `description` varchar(255) DEFAULT NULL,
+  `created_at` bigint DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_study_room_schedules_room` (`study_room_id`),
+  CONSTRAINT `FK_study_room_schedules_study_room` FOREIGN KEY (`study_room_id`) REFERENCES `study_rooms` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,29 @@
+-- 预约规则：按自习室和用户组配置，替代代码中写死的限制
+-- study_room_id、user_group 为空表示适用于所有自习室、所有用户组；规则字段为空表示沿用更通用一级的配置
+-- 匹配顺序：自习室+用户组 > 自习室 > study_rooms.max_advance_days（仅提前预约天数） > 用户组 > 全局 > 代码默认值，各字段分别取第一个有值的配置
+
+ALTER TABLE `users`
+  ADD COLUMN `user_group` varchar(32) DEFAULT NULL;
+
+CREATE TABLE IF NOT EXISTS `booking_policies` (
+  `id` varchar(32) NOT NULL,
+  `study_room_id` varchar(32) DEFAULT NULL,
+  `user_group` varchar(32) DEFAULT NULL,
+  `max_advance_days` int DEFAULT NULL,
+  `max_daily_reservations` int DEFAULT NULL,
+  `allow_multiple_seats` bit(1) DEFAULT NULL,
+  `check_in_window_minutes` int DEFAULT NULL,
+  `no_show_threshold` int DEFAULT NULL,
+  `blacklist_days` int DEFAULT NULL,
+  `description` varchar(255) DEFAULT NULL,
+  `updated_at` bigint DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  CONSTRAINT `FK_booking_policies_study_room` FOREIGN KEY (`study_room_id`) REFERENCES `study_rooms` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 全局规则，与原来写死的限制一致
+INSERT INTO `booking_policies`
+  (`id`, `max_advance_days`, `max_daily_reservations`, `allow_multiple_seats`,
+   `check_in_window_minutes`, `no_show_threshold`, `blacklist_days`, `description`, `updated_at`)
+VALUES
+  ('default', 7, 3, b'0', 15, 3, 2, '全局默认规则', UNIX_TIMESTAMP() * 1000);
@@ -0,0 +1,168 @@
+package com.example.hello.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.example.hello.model.entity.BookingPolicy;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.repository.BookingPolicyRepository;
+
+public class BookingPolicyRegistryTest {
+
+    @Mock
+    private BookingPolicyRepository bookingPolicyRepository;
+
+    @InjectMocks
+    private BookingPolicyRegistry bookingPolicyRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testDefaultsWithoutPolicies() {
+        load();
+
+        assertEquals(BookingRules.DEFAULTS, bookingPolicyRegistry.rulesFor(room(null), "student"));
+        assertEquals(BookingRules.DEFAULTS, bookingPolicyRegistry.rulesFor((String) null));
+    }
+
+    @Test
+    void testPrecedenceChainForMaxAdvanceDays() {
+        BookingPolicy global = policy("p1", null, null);
+        global.setMaxAdvanceDays(5);
+        BookingPolicy group = policy("p2", null, "student");
+        group.setMaxAdvanceDays(4);
+        BookingPolicy roomWide = policy("p3", "room-1", null);
+        roomWide.setMaxAdvanceDays(2);
+        BookingPolicy roomGroup = policy("p4", "room-1", "student");
+        roomGroup.setMaxAdvanceDays(1);
+
+        // 自习室+用户组 > 自习室 > 自习室表 > 用户组 > 全局 > 默认值，逐层去掉最具体的一层
+        load(global, group, roomWide, roomGroup);
+        assertEquals(1, bookingPolicyRegistry.rulesFor(room(3), "student").maxAdvanceDays());
+
+        load(global, group, roomWide);
+        assertEquals(2, bookingPolicyRegistry.rulesFor(room(3), "student").maxAdvanceDays());
+
+        load(global, group);
+        assertEquals(3, bookingPolicyRegistry.rulesFor(room(3), "student").maxAdvanceDays());
+        assertEquals(4, bookingPolicyRegistry.rulesFor(room(null), "student").maxAdvanceDays());
+        assertEquals(5, bookingPolicyRegistry.rulesFor(room(null), "teacher").maxAdvanceDays());
+
+        load();
+        assertEquals(BookingRules.DEFAULTS.maxAdvanceDays(),
+            bookingPolicyRegistry.rulesFor(room(null), "student").maxAdvanceDays());
+    }
+
+    @Test
+    void testNullFieldsFallThroughPerField() {
+        BookingPolicy global = policy("p1", null, null);
+        global.setMaxDailyReservations(5);
+        global.setBlacklistDays(7);
+        BookingPolicy group = policy("p2", null, "student");
+        group.setCheckInWindowMinutes(30);
+        BookingPolicy roomGroup = policy("p3", "room-1", "student");
+        roomGroup.setAllowMultipleSeats(true);
+        roomGroup.setMaxDailyReservations(1);
+        load(global, group, roomGroup);
+
+        BookingRules rules = bookingPolicyRegistry.rulesFor(room(10), "student");
+
+        assertEquals(10, rules.maxAdvanceDays());
+        assertEquals(1, rules.maxDailyReservations());
+        assertTrue(rules.allowMultipleSeats());
+        assertEquals(30, rules.checkInWindowMinutes());
+        assertEquals(BookingRules.DEFAULTS.noShowThreshold(), rules.noShowThreshold());
+        assertEquals(7, rules.blacklistDays());
+
+        // 其他自习室不受 room-1 规则影响
+        StudyRoom other = room(null);
+        other.setId("room-2");
+        BookingRules otherRules = bookingPolicyRegistry.rulesFor(other, "student");
+        assertEquals(BookingRules.DEFAULTS.maxAdvanceDays(), otherRules.maxAdvanceDays());
+        assertEquals(5, otherRules.maxDailyReservations());
+        assertFalse(otherRules.allowMultipleSeats());
+    }
+
+    @Test
+    void testRoomIndependentRulesIgnoreRoomPolicies() {
+        BookingPolicy global = policy("p1", null, null);
+        global.setNoShowThreshold(5);
+        BookingPolicy group = policy("p2", null, "student");
+        group.setCheckInWindowMinutes(30);
+        BookingPolicy roomWide = policy("p3", "room-1", null);
+        roomWide.setNoShowThreshold(1);
+        load(global, group, roomWide);
+
+        BookingRules student = bookingPolicyRegistry.rulesFor("student");
+        assertEquals(5, student.noShowThreshold());
+        assertEquals(30, student.checkInWindowMinutes());
+
+        BookingRules noGroup = bookingPolicyRegistry.rulesFor((String) null);
+        assertEquals(5, noGroup.noShowThreshold());
+        assertEquals(BookingRules.DEFAULTS.checkInWindowMinutes(), noGroup.checkInWindowMinutes());
+    }
+
+    @Test
+    void testFailedReloadKeepsCurrentRules() {
+        BookingPolicy global = policy("p1", null, null);
+        global.setMaxDailyReservations(5);
+        load(global);
+
+        when(bookingPolicyRepository.findAll()).thenThrow(new DataAccessResourceFailureException("数据库不可用"));
+        bookingPolicyRegistry.reload();
+
+        assertEquals(5, bookingPolicyRegistry.rulesFor((String) null).maxDailyReservations());
+    }
+
+    @Test
+    void testReloadIfChangedComparesCountAndUpdatedAt() {
+        load();
+        clearInvocations(bookingPolicyRepository);
+
+        bookingPolicyRegistry.reloadIfChanged();
+        verify(bookingPolicyRepository, never()).findAll();
+
+        BookingPolicy global = policy("p1", null, null);
+        global.setMaxDailyReservations(5);
+        when(bookingPolicyRepository.findAll()).thenReturn(List.of(global));
+        when(bookingPolicyRepository.count()).thenReturn(1L);
+        when(bookingPolicyRepository.findLatestUpdatedAt()).thenReturn(1000L);
+        bookingPolicyRegistry.reloadIfChanged();
+
+        assertEquals(5, bookingPolicyRegistry.rulesFor((String) null).maxDailyReservations());
+    }
+
+    private void load(BookingPolicy... policies) {
+        when(bookingPolicyRepository.findAll()).thenReturn(List.of(policies));
+        when(bookingPolicyRepository.count()).thenReturn((long) policies.length);
+        when(bookingPolicyRepository.findLatestUpdatedAt()).thenReturn(policies.length == 0 ? null : 1000L);
+        bookingPolicyRegistry.reload();
+    }
+
+    private static BookingPolicy policy(String id, String studyRoomId, String userGroup) {
+        BookingPolicy policy = new BookingPolicy();
+        policy.setId(id);
+        policy.setStudyRoomId(studyRoomId);
+        policy.setUserGroup(userGroup);
+        return policy;
+    }
+
+    private static StudyRoom room(Integer maxAdvanceDays) {
+        StudyRoom room = new StudyRoom();
+        room.setId("room-1");
+        room.setMaxAdvanceDays(maxAdvanceDays);
+        return room;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.hello.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+public class ClusterCacheInvalidatorTest {
+
+    private static final String SEAT = Seat.class.getName();
+    private static final String STUDY_ROOM = StudyRoom.class.getName();
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private SessionFactoryImplementor sessionFactory;
+
+    @Mock
+    private CacheImplementor cache;
+
+    @InjectMocks
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(clusterCacheInvalidator, "redisCircuitBreaker", CircuitBreaker.ofDefaults("redis"));
+        ReflectionTestUtils.setField(clusterCacheInvalidator, "sessionFactory", sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testTransactionPublishesOneMessageAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        clusterCacheInvalidator.onPostUpdate(update(SEAT, "seat-1"));
+        clusterCacheInvalidator.onPostDelete(delete(SEAT, "seat-2"));
+        clusterCacheInvalidator.onPostUpdate(update(SEAT, "seat-1"));
+        clusterCacheInvalidator.onPostInsert(insert(STUDY_ROOM));
+        // 提交前不发布
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        commit();
+
+        String message = publishedMessage();
+        assertTrue(message.endsWith("|" + SEAT + ":seat-1,seat-2|" + STUDY_ROOM + ":"));
+        // 批次已解绑，下一个事务重新收集
+        TransactionSynchronizationManager.initSynchronization();
+        clusterCacheInvalidator.onPostUpdate(update(SEAT, "seat-3"));
+        commit();
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq(ClusterCacheInvalidator.CHANNEL), anyString());
+    }
+
+    @Test
+    void testBulkInsertOnlyEvictsQueryRegionsOnce() {
+        TransactionSynchronizationManager.initSynchronization();
+        for (int i = 0; i < 2000; i++) {
+            clusterCacheInvalidator.onPostInsert(insert(SEAT));
+        }
+        commit();
+
+        String message = publishedMessage();
+        assertTrue(message.endsWith("|" + SEAT + ":"));
+
+        receive("other-instance" + message.substring(message.indexOf('|')));
+        verify(cache, never()).evictEntityData(anyString(), any());
+        verify(cache, never()).evictEntityData(anyString());
+        verify(cache, times(1)).evictQueryRegions();
+    }
+
+    @Test
+    void testTooManyIdsFallBackToRegionEviction() {
+        TransactionSynchronizationManager.initSynchronization();
+        for (int i = 0; i < 1500; i++) {
+            clusterCacheInvalidator.onPostUpdate(update(SEAT, "seat-" + i));
+        }
+        commit();
+
+        assertTrue(publishedMessage().endsWith("|" + SEAT + ":*"));
+    }
+
+    @Test
+    void testRollbackPublishesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        clusterCacheInvalidator.publishRegionEviction(Seat.class);
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void testWithoutTransactionPublishesImmediately() {
+        clusterCacheInvalidator.onPostDelete(delete(SEAT, "seat-1"));
+
+        assertTrue(publishedMessage().endsWith("|" + SEAT + ":seat-1"));
+    }
+
+    @Test
+    void testReceiverEvictsEachIdAndQueryRegionsOnce() {
+        receive("other-instance|" + SEAT + ":seat-1,seat-2|" + STUDY_ROOM + ":*");
+
+        verify(cache).evictEntityData(SEAT, "seat-1");
+        verify(cache).evictEntityData(SEAT, "seat-2");
+        verify(cache).evictEntityData(STUDY_ROOM);
+        verify(cache, times(1)).evictQueryRegions();
+    }
+
+    @Test
+    void testOwnMessagesAreIgnored() {
+        clusterCacheInvalidator.onPostDelete(delete(SEAT, "seat-1"));
+
+        receive(publishedMessage());
+
+        verifyNoInteractions(cache);
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private String publishedMessage() {
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate, atLeastOnce()).convertAndSend(eq(ClusterCacheInvalidator.CHANNEL), message.capture());
+        return message.getAllValues().get(0);
+    }
+
+    private void receive(String body) {
+        clusterCacheInvalidator.onMessage(
+            new DefaultMessage(ClusterCacheInvalidator.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private static EntityPersister persister(String entityName) {
+        EntityPersister persister = mock(EntityPersister.class);
+        when(persister.getEntityName()).thenReturn(entityName);
+        return persister;
+    }
+
+    private static PostInsertEvent insert(String entityName) {
+        PostInsertEvent event = mock(PostInsertEvent.class);
+        EntityPersister persister = persister(entityName);
+        when(event.getPersister()).thenReturn(persister);
+        return event;
+    }
+
+    private static PostUpdateEvent update(String entityName, String id) {
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        EntityPersister persister = persister(entityName);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getId()).thenReturn(id);
+        return event;
+    }
+
+    private static PostDeleteEvent delete(String entityName, String id) {
+        PostDeleteEvent event = mock(PostDeleteEvent.class);
+        EntityPersister persister = persister(entityName);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getId()).thenReturn(id);
+        return event;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.hello.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.example.hello.config.RedisConfig;
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+
+public class CompactRedisSerializerTest {
+
+    private static final int THRESHOLD = 512;
+
+    private final RedisSerializer<Object> json = RedisConfig.valueSerializer();
+    private final CompactRedisSerializer serializer = CompactRedisSerializer.withDefaultCodecs(json, THRESHOLD);
+
+    @Test
+    void testNullRoundTrip() {
+        assertEquals(0, serializer.serialize(null).length);
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void testSmallSeatListIsNotCompressed() {
+        List<Seat> seats = seats(3);
+
+        byte[] bytes = serializer.serialize(seats);
+
+        assertTrue(bytes.length <= THRESHOLD + 4);
+        assertHeader(bytes, SeatListCodec.TAG, 0);
+        assertEquals(seats, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testLargeSeatListIsCompressed() {
+        List<Seat> seats = seats(500);
+
+        byte[] bytes = serializer.serialize(seats);
+
+        assertHeader(bytes, SeatListCodec.TAG, CompactRedisSerializer.FLAG_LZ4);
+        assertEquals(seats, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testCompressionDisabled() {
+        CompactRedisSerializer uncompressed = CompactRedisSerializer.withDefaultCodecs(json, 0);
+        List<Seat> seats = seats(500);
+
+        byte[] bytes = uncompressed.serialize(seats);
+
+        assertHeader(bytes, SeatListCodec.TAG, 0);
+        assertEquals(seats, uncompressed.deserialize(bytes));
+    }
+
+    @Test
+    void testSeatStatusMapRoundTrip() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("seatId", "0123456789abcdef0123456789abcdef");
+        status.put("seatNumber", "001");
+        status.put("status", "OCCUPIED");
+        status.put("reservationId", null);
+        status.put("available", false);
+        status.put("count", 3);
+        status.put("createdAt", 1_700_000_000_000L);
+        status.put("ratio", 0.5);
+        status.put("date", LocalDate.of(2024, 3, 1));
+        status.put("startTime", LocalTime.of(8, 30));
+        status.put("updatedAt", LocalDateTime.of(2024, 3, 1, 8, 30, 15));
+        status.put("slots", new ArrayList<>(List.of("08:00", "09:00")));
+        status.put("seat", seats(1).get(0));
+
+        byte[] bytes = serializer.serialize(status);
+
+        assertHeader(bytes, TaggedValueCodec.TAG, 0);
+        assertEquals(status, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testLargeStatusListIsCompressed() {
+        List<Object> statuses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("seatId", String.format("seat%028d", i));
+            status.put("status", "AVAILABLE");
+            statuses.add(status);
+        }
+
+        byte[] bytes = serializer.serialize(statuses);
+
+        assertHeader(bytes, TaggedValueCodec.TAG, CompactRedisSerializer.FLAG_LZ4);
+        assertEquals(statuses, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testBitSetRoundTrip() {
+        BitSet slots = new BitSet(288);
+        for (int i = 0; i < 288; i += 3) {
+            slots.set(i);
+        }
+
+        byte[] bytes = serializer.serialize(slots);
+
+        assertHeader(bytes, BitSetCodec.TAG, 0);
+        assertEquals(slots, serializer.deserialize(bytes));
+        assertEquals(new BitSet(), serializer.deserialize(serializer.serialize(new BitSet())));
+    }
+
+    @Test
+    void testUnsupportedValueFallsBackToJson() {
+        StudyRoom room = new StudyRoom();
+        room.setId("room-1");
+        room.setName("测试自习室");
+        room.setCapacity(10);
+
+        byte[] bytes = serializer.serialize(room);
+
+        assertHeader(bytes, CompactRedisSerializer.JSON_TAG, 0);
+        assertEquals(room, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testLegacyJsonIsReadable() {
+        List<Seat> seats = new ArrayList<>(seats(3));
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("seatId", "seat-1");
+        status.put("status", "AVAILABLE");
+
+        // 切换序列化器前写入Redis的旧格式数据
+        assertEquals(seats, serializer.deserialize(json.serialize(seats)));
+        assertEquals(status, serializer.deserialize(json.serialize(status)));
+    }
+
+    @Test
+    void testUnknownVersionIsRejected() {
+        byte[] bytes = serializer.serialize(seats(1));
+        bytes[1] = (byte) (CompactRedisSerializer.VERSION + 1);
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+
+    private static void assertHeader(byte[] bytes, int tag, int flags) {
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0] & 0xFF);
+        assertEquals(CompactRedisSerializer.VERSION, bytes[1] & 0xFF);
+        assertEquals(tag, bytes[2] & 0xFF);
+        assertEquals(flags, bytes[3] & 0xFF);
+    }
+
+    private static List<Seat> seats(int count) {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Seat seat = new Seat();
+            seat.setId(String.format("%032x", i + 1));
+            seat.setSeatNumber(String.format("%03d", i + 1));
+            seat.setStudyRoomId("0123456789abcdef0123456789abcdef");
+            seat.setStatus(i % 7 == 0 ? "UNAVAILABLE" : "AVAILABLE");
+            seat.setCreatedAt(1_700_000_000_000L + i);
+            seats.add(seat);
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.hello.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomSchedule;
+
+public class CompiledScheduleTest {
+
+    /**
+     * 下周一，保证特殊日期不会因为已过去而被丢弃
+     */
+    private static final LocalDate MONDAY = LocalDate.now().plusWeeks(1)
+        .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+    @Test
+    void testDefaultHoursApplyToEveryDay() {
+        CompiledSchedule schedule = CompiledSchedule.compile(room("08:00", "22:00"), List.of());
+
+        for (int i = 0; i < 7; i++) {
+            CompiledSchedule.Hours hours = schedule.hoursOn(MONDAY.plusDays(i));
+            assertTrue(hours.isOpen());
+            assertEquals(LocalTime.of(8, 0), hours.getOpen());
+            assertEquals(LocalTime.of(22, 0), hours.getClose());
+            assertEquals("08:00 - 22:00", hours.describe());
+        }
+    }
+
+    @Test
+    void testWeekdayScheduleOverridesDefaults() {
+        CompiledSchedule schedule = CompiledSchedule.compile(room("08:00", "22:00"), List.of(
+            weekly(6, "09:00", "17:00"),
+            weekly(7, null, null)));
+
+        assertEquals("08:00 - 22:00", schedule.hoursOn(MONDAY).describe());
+        assertEquals("09:00", schedule.hoursOn(MONDAY.plusDays(5)).getOpenText());
+        assertEquals("17:00", schedule.hoursOn(DayOfWeek.SATURDAY).getCloseText());
+        assertFalse(schedule.hoursOn(MONDAY.plusDays(6)).isOpen());
+        assertEquals("当天不开放", schedule.hoursOn(DayOfWeek.SUNDAY).describe());
+    }
+
+    @Test
+    void testHolidayTakesPrecedenceOverWeeklySchedule() {
+        LocalDate holiday = MONDAY.plusDays(2);
+        LocalDate shortDay = MONDAY.plusDays(3);
+        CompiledSchedule schedule = CompiledSchedule.compile(room("08:00", "22:00"), List.of(
+            weekly(3, "07:00", "23:00"),
+            special(holiday, null, null),
+            special(shortDay, "10:00", "14:00")));
+
+        assertFalse(schedule.hoursOn(holiday).isOpen());
+        assertEquals("10:00 - 14:00", schedule.hoursOn(shortDay).describe());
+        // 下一周同一天不受特殊日期影响
+        assertEquals("07:00 - 23:00", schedule.hoursOn(holiday.plusWeeks(1)).describe());
+        assertEquals("07:00 - 23:00", schedule.hoursOn(DayOfWeek.WEDNESDAY).describe());
+    }
+
+    @Test
+    void testPastSpecialDatesAreDropped() {
+        LocalDate lastWeek = LocalDate.now().minusWeeks(1);
+        CompiledSchedule schedule = CompiledSchedule.compile(room("08:00", "22:00"), List.of(
+            special(lastWeek, null, null)));
+
+        assertTrue(schedule.hoursOn(lastWeek).isOpen());
+    }
+
+    @Test
+    void testOvernightOrEmptyHoursAreClosed() {
+        // 关闭时间不晚于开放时间（跨午夜或首尾相同）视为当天不开放
+        assertSame(CompiledSchedule.Hours.CLOSED, CompiledSchedule.Hours.parse("22:00", "06:00"));
+        assertSame(CompiledSchedule.Hours.CLOSED, CompiledSchedule.Hours.parse("08:00", "08:00"));
+        assertSame(CompiledSchedule.Hours.CLOSED, CompiledSchedule.Hours.parse("08:00", null));
+
+        CompiledSchedule schedule = CompiledSchedule.compile(room("22:00", "06:00"), List.of(
+            weekly(1, "08:00", "12:00")));
+        assertTrue(schedule.hoursOn(MONDAY).isOpen());
+        assertFalse(schedule.hoursOn(MONDAY.plusDays(1)).isOpen());
+        assertNull(schedule.hoursOn(MONDAY.plusDays(1)).getOpenText());
+    }
+
+    @Test
+    void testCovers() {
+        CompiledSchedule.Hours hours = CompiledSchedule.Hours.parse("08:00", "22:00");
+
+        assertTrue(hours.covers(LocalTime.of(8, 0), LocalTime.of(22, 0)));
+        assertFalse(hours.covers(LocalTime.of(7, 59), LocalTime.of(9, 0)));
+        assertFalse(hours.covers(LocalTime.of(21, 0), LocalTime.of(22, 1)));
+        assertFalse(CompiledSchedule.Hours.CLOSED.covers(LocalTime.of(9, 0), LocalTime.of(10, 0)));
+    }
+
+    @Test
+    void testMatchesDetectsChangedRoomHours() {
+        StudyRoom room = room("08:00", "22:00");
+        CompiledSchedule schedule = CompiledSchedule.compile(room, List.of());
+
+        assertTrue(schedule.matches(room("08:00", "22:00")));
+        assertFalse(schedule.matches(room("08:00", "23:00")));
+        assertFalse(schedule.matches(room("07:00", "22:00")));
+    }
+
+    static StudyRoom room(String openTime, String closeTime) {
+        StudyRoom room = new StudyRoom();
+        room.setId("room-1");
+        room.setOpenTime(openTime);
+        room.setCloseTime(closeTime);
+        return room;
+    }
+
+    static StudyRoomSchedule weekly(int dayOfWeek, String openTime, String closeTime) {
+        StudyRoomSchedule schedule = new StudyRoomSchedule();
+        schedule.setStudyRoomId("room-1");
+        schedule.setDayOfWeek(dayOfWeek);
+        schedule.setOpenTime(openTime);
+        schedule.setCloseTime(closeTime);
+        return schedule;
+    }
+
+    static StudyRoomSchedule special(LocalDate date, String openTime, String closeTime) {
+        StudyRoomSchedule schedule = new StudyRoomSchedule();
+        schedule.setStudyRoomId("room-1");
+        schedule.setScheduleDate(date);
+        schedule.setOpenTime(openTime);
+        schedule.setCloseTime(closeTime);
+        return schedule;
+    }
+}
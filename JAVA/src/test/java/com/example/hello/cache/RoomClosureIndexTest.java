@@ -0,0 +1,164 @@
+package com.example.hello.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.example.hello.model.entity.StudyRoomStatus;
+import com.example.hello.repository.StudyRoomStatusRepository;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+public class RoomClosureIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 1);
+
+    @Mock
+    private StudyRoomStatusRepository studyRoomStatusRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private CircuitBreaker redisCircuitBreaker;
+
+    @InjectMocks
+    private RoomClosureIndex roomClosureIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testEmptyIntervalsFindNothing() {
+        RoomClosureIndex.Intervals intervals = new RoomClosureIndex.Intervals(List.of());
+
+        assertTrue(intervals.findOverlap(at(0, 0), at(23, 59)).isEmpty());
+    }
+
+    @Test
+    void testBoundariesAreHalfOpen() {
+        StudyRoomStatus closure = window("w1", null, 10, 12);
+        RoomClosureIndex.Intervals intervals = new RoomClosureIndex.Intervals(List.of(closure));
+
+        // 只在边界相接不算重叠
+        assertTrue(intervals.findOverlap(at(8, 0), at(10, 0)).isEmpty());
+        assertTrue(intervals.findOverlap(at(12, 0), at(13, 0)).isEmpty());
+        // 越过边界一分钟即重叠
+        assertEquals(Optional.of(closure), intervals.findOverlap(at(8, 0), at(10, 1)));
+        assertEquals(Optional.of(closure), intervals.findOverlap(at(11, 59), at(13, 0)));
+        assertEquals(Optional.of(closure), intervals.findOverlap(at(10, 30), at(11, 0)));
+    }
+
+    @Test
+    void testTouchingIntervals() {
+        StudyRoomStatus morning = window("w1", null, 8, 10);
+        StudyRoomStatus noon = window("w2", null, 10, 12);
+        RoomClosureIndex.Intervals intervals = new RoomClosureIndex.Intervals(List.of(noon, morning));
+
+        assertEquals(Optional.of(morning), intervals.findOverlap(at(9, 0), at(10, 0)));
+        assertEquals(Optional.of(noon), intervals.findOverlap(at(10, 0), at(11, 0)));
+        assertTrue(intervals.findOverlap(at(12, 0), at(14, 0)).isEmpty());
+        assertTrue(intervals.findOverlap(at(6, 0), at(8, 0)).isEmpty());
+    }
+
+    @Test
+    void testNestedWindows() {
+        StudyRoomStatus allDay = window("w1", null, 8, 18);
+        StudyRoomStatus inner = window("w2", null, 10, 11);
+        StudyRoomStatus later = window("w3", null, 12, 13);
+        RoomClosureIndex.Intervals intervals = new RoomClosureIndex.Intervals(List.of(later, inner, allDay));
+
+        // 被包含的短时段都已结束时，仍能找到外层的长时段
+        assertEquals(Optional.of(allDay), intervals.findOverlap(at(14, 0), at(15, 0)));
+        assertEquals(Optional.of(allDay), intervals.findOverlap(at(10, 15), at(10, 45)));
+        assertTrue(intervals.findOverlap(at(18, 0), at(19, 0)).isEmpty());
+    }
+
+    @Test
+    void testRoomWideClosureTakesPrecedenceOverSeatClosure() {
+        StudyRoomStatus seatClosure = window("w1", "seat-1", 9, 11);
+        StudyRoomStatus roomClosure = window("w2", null, 10, 12);
+        when(studyRoomStatusRepository.findByEndTimeAfter(any(LocalDateTime.class)))
+            .thenReturn(List.of(seatClosure, roomClosure));
+
+        roomClosureIndex.reloadAll();
+
+        assertTrue(roomClosureIndex.hasClosures("room-1"));
+        assertEquals(Optional.of(seatClosure),
+            roomClosureIndex.findSeatClosure("room-1", "seat-1", DAY, LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        assertEquals(Optional.of(roomClosure),
+            roomClosureIndex.findSeatClosure("room-1", "seat-1", DAY, LocalTime.of(10, 0), LocalTime.of(10, 30)));
+        assertTrue(roomClosureIndex.findSeatClosure("room-1", "seat-2", DAY,
+            LocalTime.of(9, 0), LocalTime.of(9, 30)).isEmpty());
+        assertTrue(roomClosureIndex.findRoomClosure("room-1", DAY, LocalTime.of(9, 0), LocalTime.of(9, 30)).isEmpty());
+    }
+
+    @Test
+    void testReloadReplacesOneRoom() {
+        when(studyRoomStatusRepository.findByEndTimeAfter(any(LocalDateTime.class)))
+            .thenReturn(List.of(window("w1", null, 8, 10), window("w2", null, 8, 10, "room-2")));
+        roomClosureIndex.reloadAll();
+
+        when(studyRoomStatusRepository.findByStudyRoomIdAndEndTimeAfterOrderByStartTime(eq("room-1"), any()))
+            .thenReturn(List.of());
+        roomClosureIndex.reload("room-1");
+
+        assertFalse(roomClosureIndex.hasClosures("room-1"));
+        assertTrue(roomClosureIndex.hasClosures("room-2"));
+    }
+
+    @Test
+    void testReloadAllDropsFinishedRoomsAndKeepsIndexOnFailure() {
+        when(studyRoomStatusRepository.findByEndTimeAfter(any(LocalDateTime.class)))
+            .thenReturn(List.of(window("w1", null, 8, 10)))
+            .thenReturn(List.of(window("w2", null, 8, 10, "room-2")))
+            .thenThrow(new DataAccessResourceFailureException("数据库不可用"));
+
+        roomClosureIndex.reloadAll();
+        assertTrue(roomClosureIndex.hasClosures("room-1"));
+
+        roomClosureIndex.reloadAll();
+        assertFalse(roomClosureIndex.hasClosures("room-1"));
+        assertTrue(roomClosureIndex.hasClosures("room-2"));
+
+        // 查询失败时沿用当前索引
+        roomClosureIndex.reloadAll();
+        assertTrue(roomClosureIndex.hasClosures("room-2"));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(DAY, LocalTime.of(hour, minute));
+    }
+
+    private static StudyRoomStatus window(String id, String seatId, int startHour, int endHour) {
+        return window(id, seatId, startHour, endHour, "room-1");
+    }
+
+    private static StudyRoomStatus window(String id, String seatId, int startHour, int endHour, String studyRoomId) {
+        StudyRoomStatus window = new StudyRoomStatus();
+        window.setId(id);
+        window.setStudyRoomId(studyRoomId);
+        window.setSeatId(seatId);
+        window.setStatus("CLOSED");
+        window.setStartTime(at(startHour, 0));
+        window.setEndTime(at(endHour, 0));
+        return window;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.hello.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.time.DayOfWeek;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomSchedule;
+import com.example.hello.repository.StudyRoomScheduleRepository;
+
+public class RoomScheduleCacheTest {
+
+    @Mock
+    private StudyRoomScheduleRepository studyRoomScheduleRepository;
+
+    @InjectMocks
+    private RoomScheduleCache roomScheduleCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testGetCompilesOnceAndReuses() {
+        StudyRoom room = CompiledScheduleTest.room("08:00", "22:00");
+        when(studyRoomScheduleRepository.findByStudyRoomId("room-1"))
+            .thenReturn(List.of(CompiledScheduleTest.weekly(6, "09:00", "17:00")));
+
+        CompiledSchedule first = roomScheduleCache.get(room);
+        CompiledSchedule second = roomScheduleCache.get(room);
+
+        assertSame(first, second);
+        assertEquals("09:00 - 17:00", first.hoursOn(DayOfWeek.SATURDAY).describe());
+        verify(studyRoomScheduleRepository, times(1)).findByStudyRoomId("room-1");
+    }
+
+    @Test
+    void testChangedRoomHoursRecompile() {
+        when(studyRoomScheduleRepository.findByStudyRoomId("room-1")).thenReturn(List.of());
+
+        CompiledSchedule before = roomScheduleCache.get(CompiledScheduleTest.room("08:00", "22:00"));
+        CompiledSchedule after = roomScheduleCache.get(CompiledScheduleTest.room("08:00", "20:00"));
+
+        assertNotSame(before, after);
+        assertEquals("08:00 - 20:00", after.hoursOn(DayOfWeek.MONDAY).describe());
+        verify(studyRoomScheduleRepository, times(2)).findByStudyRoomId("room-1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAllLoadsOnlyMissingRoomsInOneQuery() {
+        StudyRoom cached = CompiledScheduleTest.room("08:00", "22:00");
+        StudyRoom other = CompiledScheduleTest.room("09:00", "21:00");
+        other.setId("room-2");
+        StudyRoomSchedule otherSunday = CompiledScheduleTest.weekly(7, null, null);
+        otherSunday.setStudyRoomId("room-2");
+        when(studyRoomScheduleRepository.findByStudyRoomId("room-1")).thenReturn(List.of());
+        when(studyRoomScheduleRepository.findByStudyRoomIdIn(anyCollection())).thenReturn(List.of(otherSunday));
+
+        CompiledSchedule first = roomScheduleCache.get(cached);
+        Map<String, CompiledSchedule> all = roomScheduleCache.getAll(List.of(cached, other));
+
+        assertSame(first, all.get("room-1"));
+        assertFalse(all.get("room-2").hoursOn(DayOfWeek.SUNDAY).isOpen());
+        assertEquals("09:00 - 21:00", all.get("room-2").hoursOn(DayOfWeek.MONDAY).describe());
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(studyRoomScheduleRepository).findByStudyRoomIdIn(ids.capture());
+        assertEquals(Set.of("room-2"), Set.copyOf(ids.getValue()));
+
+        // 再次批量获取全部命中缓存
+        roomScheduleCache.getAll(List.of(cached, other));
+        verify(studyRoomScheduleRepository, times(1)).findByStudyRoomIdIn(anyCollection());
+    }
+
+    @Test
+    void testInvalidateOutsideTransaction() {
+        StudyRoom room = CompiledScheduleTest.room("08:00", "22:00");
+        when(studyRoomScheduleRepository.findByStudyRoomId("room-1")).thenReturn(List.of());
+
+        CompiledSchedule before = roomScheduleCache.get(room);
+        roomScheduleCache.invalidate("room-1");
+
+        assertNotSame(before, roomScheduleCache.get(room));
+        verify(studyRoomScheduleRepository, times(2)).findByStudyRoomId("room-1");
+    }
+
+    @Test
+    void testInvalidateAgainAfterTransactionCompletes() {
+        StudyRoom room = CompiledScheduleTest.room("08:00", "22:00");
+        when(studyRoomScheduleRepository.findByStudyRoomId("room-1"))
+            .thenReturn(List.of())
+            .thenReturn(List.of())
+            .thenReturn(List.of(CompiledScheduleTest.weekly(1, null, null)));
+        roomScheduleCache.get(room);
+
+        TransactionSynchronizationManager.initSynchronization();
+        roomScheduleCache.invalidate("room-1");
+        // 事务提交前其他请求用旧数据重新加载
+        assertTrue(roomScheduleCache.get(room).hoursOn(DayOfWeek.MONDAY).isOpen());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertFalse(roomScheduleCache.get(room).hoursOn(DayOfWeek.MONDAY).isOpen());
+        verify(studyRoomScheduleRepository, times(3)).findByStudyRoomId("room-1");
+    }
+}
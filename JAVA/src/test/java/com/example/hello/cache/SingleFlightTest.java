@@ -0,0 +1,163 @@
+package com.example.hello.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private SingleFlight<String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (singleFlight != null) {
+            singleFlight.close();
+        }
+    }
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        singleFlight = new SingleFlight<>("test", 0, 0, 100, value -> true, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> futures = submitAll(() -> singleFlight.get("room-1", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "result";
+        }));
+        // 等所有调用者都进入合并等待后再放行
+        waitUntil(() -> count("coalesced") == CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            assertEquals("result", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1.0, count("loaded"));
+    }
+
+    @Test
+    void testFailurePropagatesToAllWaitersAndClearsSlot() throws Exception {
+        singleFlight = new SingleFlight<>("test", 1000, 0, 100, value -> true, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> futures = submitAll(() -> singleFlight.get("room-1", () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("数据库不可用");
+        }));
+        waitUntil(() -> count("coalesced") == CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals("数据库不可用", e.getCause().getMessage());
+        }
+        assertEquals(1, loads.get());
+
+        // 失败的结果不缓存，下一次调用重新计算
+        assertEquals("recovered", singleFlight.get("room-1", () -> {
+            loads.incrementAndGet();
+            return "recovered";
+        }));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testFreshResultIsReused() {
+        singleFlight = new SingleFlight<>("test", 60000, 0, 100, value -> true, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", singleFlight.get("room-1", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", singleFlight.get("room-1", () -> "v" + loads.incrementAndGet()));
+        // 不同的键分别计算
+        assertEquals("v2", singleFlight.get("room-2", () -> "v" + loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+        assertEquals(1.0, count("fresh"));
+    }
+
+    @Test
+    void testNonCacheableResultIsNotReused() {
+        singleFlight = new SingleFlight<>("test", 60000, 0, 100, value -> !value.startsWith("error"), meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("error1", singleFlight.get("room-1", () -> "error" + loads.incrementAndGet()));
+        assertEquals("error2", singleFlight.get("room-1", () -> "error" + loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testStaleResultIsReturnedWhileRefreshingInBackground() throws Exception {
+        singleFlight = new SingleFlight<>("test", 50, 60000, 100, value -> true, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", singleFlight.get("room-1", () -> "v" + loads.incrementAndGet()));
+        Thread.sleep(80);
+
+        // 过期后先返回旧结果，后台刷新一次
+        assertEquals("v1", singleFlight.get("room-1", () -> "v" + loads.incrementAndGet()));
+        waitUntil(() -> loads.get() == 2);
+        waitUntil(() -> "v2".equals(singleFlight.get("room-1", () -> "v" + loads.incrementAndGet())));
+        assertEquals(2, loads.get());
+    }
+
+    private List<Future<String>> submitAll(Callable<String> task) {
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(task));
+        }
+        return futures;
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("single_flight.requests", "name", "test", "outcome", outcome).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "等待超时");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.hello.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica1;
+    private HikariDataSource replica2;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private ReplicaRoutingProperties properties;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(HikariDataSource.class);
+        replica1 = mock(HikariDataSource.class);
+        replica2 = mock(HikariDataSource.class);
+        readYourWritesTracker = mock(ReadYourWritesTracker.class);
+        properties = new ReplicaRoutingProperties();
+        properties.setMaxLagSeconds(5);
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, properties, readYourWritesTracker,
+            new SimpleMeterRegistry());
+        routingDataSource.afterPropertiesSet();
+
+        lag(replica1, 0L);
+        lag(replica2, 1L);
+        routingDataSource.checkReplicationLag();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 与事务管理器一样在事务结束时回调，解绑从库标记
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testWriteTransactionUsesPrimary() {
+        beginTransaction(false);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertFalse(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+    }
+
+    @Test
+    void testNoTransactionUsesPrimary() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadOnlyTransactionsRoundRobinOverReplicas() {
+        beginTransaction(true);
+
+        Set<Object> targets = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            targets.add(routingDataSource.determineCurrentLookupKey());
+        }
+
+        assertEquals(Set.of("replica-1", "replica-2"), targets);
+        assertTrue(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+    }
+
+    @Test
+    void testReplicaMarkerIsClearedWhenTransactionCompletes() {
+        beginTransaction(true);
+        routingDataSource.determineCurrentLookupKey();
+        assertTrue(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertFalse(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+    }
+
+    @Test
+    void testRecentWriterReadsFromPrimary() {
+        beginTransaction(true);
+        when(readYourWritesTracker.isCurrentUserRecentWriter()).thenReturn(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertFalse(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+    }
+
+    @Test
+    void testLaggingReplicaIsExcluded() throws SQLException {
+        lag(replica1, 30L);
+        routingDataSource.checkReplicationLag();
+        beginTransaction(true);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-2", routingDataSource.determineCurrentLookupKey());
+        }
+    }
+
+    @Test
+    void testUnknownLagExcludesReplica() throws SQLException {
+        // 复制中断时 Seconds_Behind_Source 为 NULL
+        lag(replica1, null);
+        // 连接失败
+        when(replica2.getConnection()).thenThrow(new SQLException("连接被拒绝"));
+        routingDataSource.checkReplicationLag();
+        beginTransaction(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertFalse(ReplicaRoutingDataSource.isCurrentTransactionOnReplica());
+    }
+
+    @Test
+    void testReplicaWithoutReplicationStatusIsExcludedUnlessAllowed() throws SQLException {
+        noReplicationStatus(replica1);
+        noReplicationStatus(replica2);
+        routingDataSource.checkReplicationLag();
+        beginTransaction(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+        // 本地测试用的独立实例
+        properties.setAllowStandaloneReplicas(true);
+        routingDataSource.checkReplicationLag();
+        assertNotEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testRecoveredReplicaRejoins() throws SQLException {
+        lag(replica1, 30L);
+        lag(replica2, 30L);
+        routingDataSource.checkReplicationLag();
+        beginTransaction(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+        lag(replica2, 2L);
+        routingDataSource.checkReplicationLag();
+        assertEquals("replica-2", routingDataSource.determineCurrentLookupKey());
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void lag(HikariDataSource dataSource, Long seconds) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong("Seconds_Behind_Source")).thenReturn(seconds == null ? 0L : seconds);
+        when(rs.wasNull()).thenReturn(seconds == null);
+        stubStatus(dataSource, rs);
+    }
+
+    private static void noReplicationStatus(HikariDataSource dataSource) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(false);
+        stubStatus(dataSource, rs);
+    }
+
+    private static void stubStatus(HikariDataSource dataSource, ResultSet rs) throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        reset(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+    }
+}
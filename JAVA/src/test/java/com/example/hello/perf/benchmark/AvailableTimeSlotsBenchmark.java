@@ -0,0 +1,59 @@
+package com.example.hello.perf.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.hello.service.impl.ReservationServiceImpl;
+
+/**
+ * 可用时间段计算基准
+ * 对单个自习室计算每个座位在开放时间内的空闲区间
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailableTimeSlotsBenchmark {
+
+    @Param({"50", "200", "1000"})
+    private int seatsPerRoom;
+
+    @Param({"1", "4", "7"})
+    private int reservationsPerSeat;
+
+    private ReservationServiceImpl reservationService;
+    private LocalDate date;
+    private String studyRoomId;
+
+    @Setup
+    public void setUp() {
+        date = LocalDate.now();
+        InMemoryRepositories repositories = BenchmarkFixtures.build(1, seatsPerRoom, reservationsPerSeat, date);
+        reservationService = BenchmarkFixtures.reservationService(repositories);
+        studyRoomId = BenchmarkFixtures.id("room", 0);
+    }
+
+    @Benchmark
+    public Object availableTimeSlots() {
+        return reservationService.getAvailableTimeSlots(studyRoomId, date);
+    }
+
+    @Benchmark
+    public Object studyRoomDetail() {
+        return reservationService.getStudyRoomDetail(studyRoomId, date, "12:00", "13:00");
+    }
+}
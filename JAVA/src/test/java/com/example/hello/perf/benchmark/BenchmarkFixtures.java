@@ -0,0 +1,159 @@
+package com.example.hello.perf.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.hello.cache.BookingPolicyRegistry;
+import com.example.hello.cache.RoomClosureIndex;
+import com.example.hello.cache.RoomScheduleCache;
+import com.example.hello.config.ReadYourWritesTracker;
+import com.example.hello.config.ReplicaRoutingProperties;
+import com.example.hello.model.entity.Reservation;
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.User;
+import com.example.hello.service.SeatStatusCacheService;
+import com.example.hello.service.impl.ReservationServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+/**
+ * 基准测试数据
+ * 按固定种子生成自习室、座位和预约，同一座位当天的预约互不重叠
+ */
+public final class BenchmarkFixtures {
+
+    public static final String OPEN_TIME = "08:00";
+    public static final String CLOSE_TIME = "22:00";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @param roomCount 自习室数量
+     * @param seatsPerRoom 每个自习室的座位数
+     * @param reservationsPerSeat 每个座位当天的预约数（最多7个）
+     * @param date 预约日期
+     */
+    public static InMemoryRepositories build(int roomCount, int seatsPerRoom, int reservationsPerSeat, LocalDate date) {
+        SplittableRandom random = new SplittableRandom(42L);
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        int userCount = Math.max(1, roomCount * seatsPerRoom / 2);
+        for (int u = 0; u < userCount; u++) {
+            User user = new User();
+            user.setId(id("user", u));
+            user.setUsername("bench_user_" + u);
+            user.setIsBlacklisted(false);
+            user.setNoShowCount(0);
+            repositories.addUser(user);
+        }
+
+        long reservationIndex = 0;
+        for (int r = 0; r < roomCount; r++) {
+            StudyRoom room = new StudyRoom();
+            room.setId(id("room", r));
+            room.setName("基准测试自习室" + r);
+            room.setLocation("基准测试楼");
+            room.setCapacity(seatsPerRoom);
+            room.setOpenTime(OPEN_TIME);
+            room.setCloseTime(CLOSE_TIME);
+            room.setMaxAdvanceDays(7);
+            room.setStatus("AVAILABLE");
+            repositories.addRoom(room);
+
+            for (int s = 0; s < seatsPerRoom; s++) {
+                Seat seat = new Seat();
+                seat.setId(id("seat", (long) r * seatsPerRoom + s));
+                seat.setSeatNumber(String.format("%03d", s + 1));
+                seat.setStudyRoomId(room.getId());
+                seat.setStatus(random.nextInt(50) == 0 ? "UNAVAILABLE" : "AVAILABLE");
+                seat.setCreatedAt(0L);
+                repositories.addSeat(seat);
+
+                // 每两小时一个时间格，随机选取互不重叠的时间格作为预约
+                int slots = Math.min(reservationsPerSeat, 7);
+                int firstSlot = random.nextInt(8 - slots);
+                for (int k = 0; k < slots; k++) {
+                    LocalTime start = LocalTime.of(8 + 2 * (firstSlot + k), 0);
+                    Reservation reservation = new Reservation();
+                    reservation.setId(id("res", reservationIndex++));
+                    reservation.setUserId(id("user", random.nextInt(userCount)));
+                    reservation.setSeatId(seat.getId());
+                    reservation.setStudyRoomId(room.getId());
+                    reservation.setDate(date);
+                    reservation.setStartTime(start);
+                    reservation.setEndTime(start.plusHours(1 + random.nextInt(2)));
+                    reservation.setStatus(random.nextInt(10) == 0 ? "CANCELLED" : "CONFIRMED");
+                    reservation.setCreatedAt(LocalDateTime.of(date.minusDays(1), start));
+                    reservation.setIsDeleted(false);
+                    repositories.addReservation(reservation);
+                }
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * 创建使用内存仓库的预约服务
+     */
+    public static ReservationServiceImpl reservationService(InMemoryRepositories repositories) {
+        ReservationServiceImpl service = new ReservationServiceImpl();
+        ReflectionTestUtils.setField(service, "reservationRepository", repositories.reservationRepository());
+        ReflectionTestUtils.setField(service, "seatRepository", repositories.seatRepository());
+        ReflectionTestUtils.setField(service, "studyRoomRepository", repositories.studyRoomRepository());
+        ReflectionTestUtils.setField(service, "userRepository", repositories.userRepository());
+        ReflectionTestUtils.setField(service, "seatStatusCacheService", seatStatusCacheService(repositories));
+        ReflectionTestUtils.setField(service, "readYourWritesTracker", readYourWritesTracker());
+        ReflectionTestUtils.setField(service, "roomClosureIndex", roomClosureIndex(repositories));
+        ReflectionTestUtils.setField(service, "roomScheduleCache", roomScheduleCache(repositories));
+        ReflectionTestUtils.setField(service, "bookingPolicyRegistry", bookingPolicyRegistry(repositories));
+        return service;
+    }
+
+    /**
+     * 不连接Redis的座位状态缓存：熔断器强制打开，读写都走本地缓存
+     */
+    private static SeatStatusCacheService seatStatusCacheService(InMemoryRepositories repositories) {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("benchmark");
+        circuitBreaker.transitionToForcedOpenState();
+        return new SeatStatusCacheService(null, repositories.seatRepository(), new ObjectMapper(),
+            circuitBreaker, Caffeine.newBuilder().maximumSize(100000).build(), 60);
+    }
+
+    private static RoomClosureIndex roomClosureIndex(InMemoryRepositories repositories) {
+        RoomClosureIndex index = new RoomClosureIndex();
+        ReflectionTestUtils.setField(index, "studyRoomStatusRepository", repositories.studyRoomStatusRepository());
+        index.reloadAll();
+        return index;
+    }
+
+    private static RoomScheduleCache roomScheduleCache(InMemoryRepositories repositories) {
+        RoomScheduleCache cache = new RoomScheduleCache();
+        ReflectionTestUtils.setField(cache, "studyRoomScheduleRepository", repositories.studyRoomScheduleRepository());
+        return cache;
+    }
+
+    private static BookingPolicyRegistry bookingPolicyRegistry(InMemoryRepositories repositories) {
+        BookingPolicyRegistry registry = new BookingPolicyRegistry();
+        ReflectionTestUtils.setField(registry, "bookingPolicyRepository", repositories.bookingPolicyRepository());
+        registry.reload();
+        return registry;
+    }
+
+    private static ReadYourWritesTracker readYourWritesTracker() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker();
+        ReflectionTestUtils.setField(tracker, "properties", new ReplicaRoutingProperties());
+        tracker.init();
+        return tracker;
+    }
+
+    public static String id(String prefix, long index) {
+        return String.format("%s%0" + (32 - prefix.length()) + "d", prefix, index);
+    }
+}
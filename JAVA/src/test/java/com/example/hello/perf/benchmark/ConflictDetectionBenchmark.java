@@ -0,0 +1,62 @@
+package com.example.hello.perf.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.hello.service.impl.ReservationServiceImpl;
+
+/**
+ * 冲突检测基准
+ * 单座位可用性检查，以及全部自习室状态汇总（逐座位检查时间冲突）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConflictDetectionBenchmark {
+
+    @Param({"10", "50"})
+    private int rooms;
+
+    @Param({"50", "200"})
+    private int seatsPerRoom;
+
+    @Param({"2", "6"})
+    private int reservationsPerSeat;
+
+    private ReservationServiceImpl reservationService;
+    private LocalDate date;
+    private String seatId;
+
+    @Setup
+    public void setUp() {
+        date = LocalDate.now();
+        InMemoryRepositories repositories = BenchmarkFixtures.build(rooms, seatsPerRoom, reservationsPerSeat, date);
+        reservationService = BenchmarkFixtures.reservationService(repositories);
+        seatId = BenchmarkFixtures.id("seat", seatsPerRoom / 2);
+    }
+
+    @Benchmark
+    public Object checkSeatAvailability() {
+        return reservationService.checkSeatAvailability(seatId, date, "12:00", "13:00");
+    }
+
+    @Benchmark
+    public Object studyRoomsStatus() {
+        return reservationService.getStudyRoomsStatus(date, "12:00", "13:00");
+    }
+}
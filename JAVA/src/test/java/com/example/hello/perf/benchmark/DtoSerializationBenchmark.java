@@ -0,0 +1,81 @@
+package com.example.hello.perf.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.hello.model.dto.ReservationDTO;
+import com.example.hello.model.entity.Reservation;
+import com.example.hello.service.impl.ReservationServiceImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 预约DTO转换与JSON序列化基准
+ * ObjectMapper使用与Spring MVC相同的默认配置
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int reservationCount;
+
+    private ReservationServiceImpl reservationService;
+    private List<Reservation> reservations;
+    private List<ReservationDTO> dtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        LocalDate date = LocalDate.now();
+        int seats = Math.max(1, reservationCount / 4);
+        InMemoryRepositories repositories = BenchmarkFixtures.build(1, seats, 4, date);
+        reservationService = BenchmarkFixtures.reservationService(repositories);
+        reservations = new ArrayList<>(repositories.getReservations().values())
+            .subList(0, Math.min(reservationCount, repositories.getReservations().size()));
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        dtos = convert();
+    }
+
+    @Benchmark
+    public List<ReservationDTO> convertToDto() {
+        return convert();
+    }
+
+    @Benchmark
+    public byte[] serializeDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(convert());
+    }
+
+    private List<ReservationDTO> convert() {
+        List<ReservationDTO> result = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            result.add(reservationService.convertToDTO(reservation));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.hello.perf.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.example.hello.model.entity.Reservation;
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.User;
+import com.example.hello.repository.BookingPolicyRepository;
+import com.example.hello.repository.ReservationRepository;
+import com.example.hello.repository.SeatRepository;
+import com.example.hello.repository.StudyRoomRepository;
+import com.example.hello.repository.StudyRoomScheduleRepository;
+import com.example.hello.repository.StudyRoomStatusRepository;
+import com.example.hello.repository.UserRepository;
+
+/**
+ * 基准测试使用的内存仓库
+ *
+ * 通过动态代理实现仓库接口，只实现被测代码用到的方法，查询语义与JPQL保持一致，
+ * 数据按主键和常用查询条件预先建好索引，避免把线性扫描的开销算进被测代码。
+ * 未实现的方法调用时抛出 UnsupportedOperationException。
+ */
+public class InMemoryRepositories {
+
+    private final Map<String, StudyRoom> rooms = new HashMap<>();
+    private final Map<String, Seat> seats = new HashMap<>();
+    private final Map<String, User> users = new HashMap<>();
+    private final Map<String, Reservation> reservations = new HashMap<>();
+
+    private final Map<String, List<Seat>> seatsByRoom = new HashMap<>();
+    private final Map<String, List<Reservation>> reservationsBySeatDate = new HashMap<>();
+    private final Map<String, List<Reservation>> reservationsByRoomDate = new HashMap<>();
+
+    public void addRoom(StudyRoom room) {
+        rooms.put(room.getId(), room);
+    }
+
+    public void addSeat(Seat seat) {
+        seats.put(seat.getId(), seat);
+        seatsByRoom.computeIfAbsent(seat.getStudyRoomId(), key -> new ArrayList<>()).add(seat);
+    }
+
+    public void addUser(User user) {
+        users.put(user.getId(), user);
+    }
+
+    public void addReservation(Reservation reservation) {
+        reservations.put(reservation.getId(), reservation);
+        reservationsBySeatDate.computeIfAbsent(reservation.getSeatId() + "|" + reservation.getDate(),
+            key -> new ArrayList<>()).add(reservation);
+        reservationsByRoomDate.computeIfAbsent(reservation.getStudyRoomId() + "|" + reservation.getDate(),
+            key -> new ArrayList<>()).add(reservation);
+    }
+
+    public Map<String, Reservation> getReservations() {
+        return reservations;
+    }
+
+    public StudyRoomRepository studyRoomRepository() {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findById", args -> Optional.ofNullable(rooms.get((String) args[0])));
+        handlers.put("existsById", args -> rooms.containsKey((String) args[0]));
+        handlers.put("findAll", args -> new ArrayList<>(rooms.values()));
+        return proxy(StudyRoomRepository.class, handlers);
+    }
+
+    public SeatRepository seatRepository() {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findById", args -> Optional.ofNullable(seats.get((String) args[0])));
+        handlers.put("existsById", args -> seats.containsKey((String) args[0]));
+        handlers.put("findByStudyRoomId", args ->
+            new ArrayList<>(seatsByRoom.getOrDefault((String) args[0], Collections.emptyList())));
+        return proxy(SeatRepository.class, handlers);
+    }
+
+    public UserRepository userRepository() {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findById", args -> Optional.ofNullable(users.get((String) args[0])));
+        handlers.put("existsById", args -> users.containsKey((String) args[0]));
+        return proxy(UserRepository.class, handlers);
+    }
+
+    /**
+     * 基准数据没有关闭时段
+     */
+    public StudyRoomStatusRepository studyRoomStatusRepository() {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findByEndTimeAfter", args -> new ArrayList<>());
+        handlers.put("findByStudyRoomIdAndEndTimeAfterOrderByStartTime", args -> new ArrayList<>());
+        return proxy(StudyRoomStatusRepository.class, handlers);
+    }
+
+    /**
+     * 基准数据没有每周和特殊日期安排，自习室按默认开放时间开放
+     */
+    public StudyRoomScheduleRepository studyRoomScheduleRepository() {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findByStudyRoomId", args -> new ArrayList<>());
+        handlers.put("findByStudyRoomIdIn", args -> new ArrayList<>());
+        return proxy(StudyRoomScheduleRepository.class, handlers);
+    }
+
+    /**
+     * 基准数据没有预约规则记录，使用自习室的提前预约天数和默认规则
+     */
+    public BookingPolicyRepository bookingPolicyRepository() {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findAll", args -> new ArrayList<>());
+        handlers.put("count", args -> 0L);
+        handlers.put("findLatestUpdatedAt", args -> null);
+        return proxy(BookingPolicyRepository.class, handlers);
+    }
+
+    public ReservationRepository reservationRepository() {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findById", args -> Optional.ofNullable(reservations.get((String) args[0])));
+        handlers.put("findByStudyRoomIdAndDate", args -> active(byRoomDate(args[0], args[1])));
+        handlers.put("findByStudyRoomIdAndTimeRange", args -> {
+            LocalTime start = (LocalTime) args[2];
+            LocalTime end = (LocalTime) args[3];
+            List<Reservation> result = new ArrayList<>();
+            for (Reservation r : byRoomDate(args[0], args[1])) {
+                if (!"CANCELLED".equals(r.getStatus()) && !Boolean.TRUE.equals(r.getIsDeleted())
+                        && r.getStartTime().isBefore(end) && r.getEndTime().isAfter(start)) {
+                    result.add(r);
+                }
+            }
+            return result;
+        });
+        handlers.put("findOverlappingReservations", args -> {
+            List<Reservation> result = new ArrayList<>();
+            for (Reservation r : bySeatDate(args[0], args[1])) {
+                if (confirmedOverlap(r, (LocalTime) args[2], (LocalTime) args[3])) {
+                    result.add(r);
+                }
+            }
+            return result;
+        });
+        handlers.put("existsBySeatIdAndDateAndTimeRange", args -> {
+            for (Reservation r : bySeatDate(args[0], args[1])) {
+                if (confirmedOverlap(r, (LocalTime) args[2], (LocalTime) args[3])) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        return proxy(ReservationRepository.class, handlers);
+    }
+
+    private List<Reservation> bySeatDate(Object seatId, Object date) {
+        return reservationsBySeatDate.getOrDefault(seatId + "|" + (LocalDate) date, Collections.emptyList());
+    }
+
+    private List<Reservation> byRoomDate(Object roomId, Object date) {
+        return reservationsByRoomDate.getOrDefault(roomId + "|" + (LocalDate) date, Collections.emptyList());
+    }
+
+    private static List<Reservation> active(List<Reservation> source) {
+        List<Reservation> result = new ArrayList<>(source.size());
+        for (Reservation r : source) {
+            if (!Boolean.TRUE.equals(r.getIsDeleted())) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 与仓库中冲突检测JPQL相同的判断条件
+     */
+    private static boolean confirmedOverlap(Reservation r, LocalTime startTime, LocalTime endTime) {
+        if (!"CONFIRMED".equals(r.getStatus()) || Boolean.TRUE.equals(r.getIsDeleted())) {
+            return false;
+        }
+        return (!r.getStartTime().isAfter(startTime) && r.getEndTime().isAfter(startTime))
+            || (r.getStartTime().isBefore(endTime) && !r.getEndTime().isBefore(endTime))
+            || (!r.getStartTime().isBefore(startTime) && !r.getEndTime().isAfter(endTime));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    break;
+            }
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return handler.apply(args);
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.hello.perf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.hello.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * JWT解析与验签基准
+ * getClaimsFromToken 反复使用同一令牌，命中已验证令牌缓存；
+ * getClaimsFromDistinctTokens 轮流使用超过缓存容量的不同令牌，每次都完整验签
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String[] distinctTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        token = jwtUtil.generateToken(BenchmarkFixtures.id("user", 1), "bench_user_1", false);
+        distinctTokens = new String[20000];
+        for (int i = 0; i < distinctTokens.length; i++) {
+            distinctTokens[i] = jwtUtil.generateToken(BenchmarkFixtures.id("user", i), "bench_user_" + i, false);
+        }
+    }
+
+    @Benchmark
+    public Claims getClaimsFromToken() {
+        return jwtUtil.getClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Claims getClaimsFromDistinctTokens() {
+        String current = distinctTokens[next];
+        next = (next + 1) % distinctTokens.length;
+        return jwtUtil.getClaimsFromToken(current);
+    }
+}
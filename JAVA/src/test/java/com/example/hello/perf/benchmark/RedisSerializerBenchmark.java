@@ -0,0 +1,118 @@
+package com.example.hello.perf.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.example.hello.config.RedisConfig;
+import com.example.hello.model.entity.Seat;
+
+/**
+ * Redis value序列化基准
+ * 使用 RedisConfig 中线上配置的序列化器，覆盖座位列表、座位状态和时段位图三类缓存值，
+ * 对比Jackson JSON与紧凑二进制格式，序列化后的字节数在初始化时打印
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"50", "200", "1000"})
+    private int seatsPerRoom;
+
+    @Param({"json", "compact"})
+    private String format;
+
+    private RedisSerializer<Object> serializer;
+    private List<Seat> seats;
+    private Map<String, Object> seatStatus;
+    private byte[] serializedSeats;
+    private byte[] serializedStatus;
+    private Object slots;
+    private byte[] serializedSlots;
+
+    @Setup
+    public void setUp() {
+        serializer = "json".equals(format)
+            ? RedisConfig.valueSerializer()
+            : RedisConfig.compactValueSerializer(512);
+        InMemoryRepositories repositories = BenchmarkFixtures.build(1, seatsPerRoom, 0, LocalDate.now());
+        seats = new ArrayList<>(repositories.seatRepository().findByStudyRoomId(BenchmarkFixtures.id("room", 0)));
+
+        seatStatus = new HashMap<>();
+        seatStatus.put("seatId", seats.get(0).getId());
+        seatStatus.put("seatNumber", seats.get(0).getSeatNumber());
+        seatStatus.put("status", "AVAILABLE");
+        seatStatus.put("reservationId", null);
+
+        serializedSeats = serializer.serialize(seats);
+        serializedStatus = serializer.serialize(seatStatus);
+
+        // 一天按5分钟划分的288个时段，约三分之一已被占用
+        BitSet bitmap = new BitSet(288);
+        for (int i = 0; i < 288; i++) {
+            if (i % 3 == 0) {
+                bitmap.set(i);
+            }
+        }
+        // Jackson无法反序列化 BitSet，JSON格式按 long 列表存储
+        slots = "json".equals(format)
+            ? new ArrayList<>(Arrays.stream(bitmap.toLongArray()).boxed().toList())
+            : bitmap;
+        serializedSlots = serializer.serialize(slots);
+
+        System.out.printf("%n[%s] seats=%d bytes: seatList=%d, seatStatus=%d, slots=%d%n",
+            format, seatsPerRoom, serializedSeats.length, serializedStatus.length, serializedSlots.length);
+    }
+
+    @Benchmark
+    public byte[] serializeSeatList() {
+        return serializer.serialize(seats);
+    }
+
+    @Benchmark
+    public Object deserializeSeatList() {
+        return serializer.deserialize(serializedSeats);
+    }
+
+    @Benchmark
+    public byte[] serializeSeatStatus() {
+        return serializer.serialize(seatStatus);
+    }
+
+    @Benchmark
+    public Object deserializeSeatStatus() {
+        return serializer.deserialize(serializedStatus);
+    }
+
+    @Benchmark
+    public byte[] serializeSlots() {
+        return serializer.serialize(slots);
+    }
+
+    @Benchmark
+    public Object deserializeSlots() {
+        return serializer.deserialize(serializedSlots);
+    }
+}
@@ -0,0 +1,541 @@
+package com.example.hello.perf.datagen;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * 性能测试数据生成器
+ *
+ * 按固定随机种子生成自习室、座位、用户和预约数据，相同参数每次生成的数据完全一致。
+ * 预约按星期和小时的权重分布，同一座位、同一用户在同一天内不会出现时间重叠，
+ * 用户每天最多3个预约，过去/当天/未来的预约使用不同的状态比例。
+ *
+ * 既可在测试中作为数据夹具调用，也可通过 main 方法从命令行运行：
+ * mvn -Pdatagen test-compile exec:java -Ddatagen.args="--url=jdbc:mysql://localhost:3306/lib_seat_perf?rewriteBatchedStatements=true --username=root --password=xxx --reservations=20000000"
+ */
+public class DatasetGenerator {
+
+    /**
+     * 生成用户的统一明文密码，压测脚本使用该密码登录
+     */
+    public static final String DEFAULT_PASSWORD = "Perf@123456";
+
+    public static final String USERNAME_PREFIX = "perf_user_";
+
+    private static final int OPEN_HOUR = 8;
+    private static final int CLOSE_HOUR = 22;
+    private static final int MAX_RESERVATIONS_PER_USER_PER_DAY = 3;
+
+    /**
+     * 开始时间（8点到21点）的权重：上午开馆和下午、晚上各有一个高峰
+     */
+    private static final int[] START_HOUR_WEIGHTS = {14, 12, 9, 6, 4, 8, 11, 10, 7, 5, 7, 9, 6, 2};
+
+    /**
+     * 预约时长（1到4小时）的权重
+     */
+    private static final int[] DURATION_WEIGHTS = {35, 35, 20, 10};
+
+    /**
+     * 用户未签到次数（0、1、2次）的权重
+     */
+    private static final int[] NO_SHOW_WEIGHTS = {80, 12, 8};
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final LocalDateTime now;
+    private final long nowMillis;
+
+    private long generatedReservations;
+
+    public DatasetGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed);
+        this.now = options.now != null ? options.now : LocalDateTime.now();
+        this.nowMillis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 生成数据并写入指定连接
+     */
+    public void generate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long start = System.currentTimeMillis();
+        try {
+            if (options.truncate) {
+                truncate(connection);
+            }
+            String[] roomIds = insertStudyRooms(connection);
+            String[] seatIds = new String[options.seats];
+            int[] seatRooms = new int[options.seats];
+            insertSeats(connection, roomIds, seatIds, seatRooms);
+            String[] userIds = insertUsers(connection);
+            insertReservations(connection, roomIds, seatIds, seatRooms, userIds);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        log("数据生成完成: 自习室=%d, 座位=%d, 用户=%d, 预约=%d, 耗时=%ds",
+            options.rooms, options.seats, options.users, generatedReservations,
+            (System.currentTimeMillis() - start) / 1000);
+    }
+
+    public long getGeneratedReservations() {
+        return generatedReservations;
+    }
+
+    private String[] insertStudyRooms(Connection connection) throws SQLException {
+        String[] roomIds = new String[options.rooms];
+        int seatsPerRoom = Math.max(1, options.seats / options.rooms);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO study_rooms (id, capacity, close_time, created_at, description, location, " +
+                "max_advance_days, name, open_time, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < options.rooms; i++) {
+                roomIds[i] = nextId();
+                statement.setString(1, roomIds[i]);
+                statement.setInt(2, seatsPerRoom + (i < options.seats % options.rooms ? 1 : 0));
+                statement.setString(3, String.format("%02d:00", CLOSE_HOUR));
+                statement.setLong(4, nowMillis - 365L * 24 * 3600 * 1000);
+                statement.setString(5, "性能测试数据");
+                statement.setString(6, "性能测试楼" + (i / 20 + 1) + "层");
+                statement.setInt(7, 7);
+                statement.setString(8, "性能测试自习室" + (i + 1));
+                statement.setString(9, String.format("%02d:00", OPEN_HOUR));
+                statement.setString(10, random.nextInt(50) == 0 ? "MAINTENANCE" : "AVAILABLE");
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        log("已写入自习室 %d 个", options.rooms);
+        return roomIds;
+    }
+
+    private void insertSeats(Connection connection, String[] roomIds, String[] seatIds, int[] seatRooms)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO seats (id, created_at, seat_number, status, study_room_id) VALUES (?, ?, ?, ?, ?)")) {
+            int[] numberInRoom = new int[roomIds.length];
+            for (int i = 0; i < options.seats; i++) {
+                int room = i % roomIds.length;
+                seatIds[i] = nextId();
+                seatRooms[i] = room;
+                statement.setString(1, seatIds[i]);
+                statement.setLong(2, nowMillis - random.nextLong(300L * 24 * 3600 * 1000));
+                statement.setString(3, String.format("%03d", ++numberInRoom[room]));
+                statement.setString(4, random.nextInt(100) == 0 ? "UNAVAILABLE" : "AVAILABLE");
+                statement.setString(5, roomIds[room]);
+                statement.addBatch();
+                flushIfNeeded(connection, statement, i + 1);
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        log("已写入座位 %d 个", options.seats);
+    }
+
+    private String[] insertUsers(Connection connection) throws SQLException {
+        String[] userIds = new String[options.users];
+        // BCrypt计算较慢，所有用户共用同一个密码哈希
+        String passwordHash = new BCryptPasswordEncoder().encode(DEFAULT_PASSWORD);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO users (id, created_at, password, username, blacklist_start_time, is_blacklisted, no_show_count) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < options.users; i++) {
+                userIds[i] = nextId();
+                boolean blacklisted = random.nextInt(200) == 0;
+                statement.setString(1, userIds[i]);
+                statement.setLong(2, nowMillis - random.nextLong(300L * 24 * 3600 * 1000));
+                statement.setString(3, passwordHash);
+                statement.setString(4, USERNAME_PREFIX + i);
+                statement.setTimestamp(5, blacklisted
+                    ? Timestamp.valueOf(now.minusHours(random.nextInt(48)))
+                    : null);
+                statement.setBoolean(6, blacklisted);
+                statement.setInt(7, blacklisted ? 3 : weighted(NO_SHOW_WEIGHTS));
+                statement.addBatch();
+                flushIfNeeded(connection, statement, i + 1);
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        log("已写入用户 %d 个", options.users);
+        return userIds;
+    }
+
+    /**
+     * 按天生成预约，每天的数量按星期权重分配
+     */
+    private void insertReservations(Connection connection, String[] roomIds, String[] seatIds,
+            int[] seatRooms, String[] userIds) throws SQLException {
+        LocalDate today = now.toLocalDate();
+        LocalDate firstDay = today.minusDays(options.pastDays);
+        int totalDays = options.pastDays + options.futureDays + 1;
+
+        double[] dayWeights = new double[totalDays];
+        double weightSum = 0;
+        for (int d = 0; d < totalDays; d++) {
+            LocalDate date = firstDay.plusDays(d);
+            // 越靠近未来的日期预约越少，未来第7天只有少量提前预约
+            double horizon = date.isAfter(today) ? 1.0 / (1 + date.toEpochDay() - today.toEpochDay()) : 1.0;
+            dayWeights[d] = dayOfWeekWeight(date.getDayOfWeek()) * horizon;
+            weightSum += dayWeights[d];
+        }
+
+        // 每个座位、每个用户当天已占用的小时（按位记录）
+        short[] seatHours = new short[seatIds.length];
+        short[] userHours = new short[userIds.length];
+        byte[] userCounts = new byte[userIds.length];
+        Map<String, Long> statusCounts = new HashMap<>();
+
+        long remaining = options.reservations;
+        double remainingWeight = weightSum;
+        long lastLog = System.currentTimeMillis();
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO reservations (id, created_at, date, end_time, remarks, seat_id, start_time, status, " +
+                "study_room_id, updated_at, user_id, is_deleted, deleted_by, deleted_at) " +
+                "VALUES (?, ?, ?, ?, NULL, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int d = 0; d < totalDays && remaining > 0; d++) {
+                LocalDate date = firstDay.plusDays(d);
+                long quota = Math.round(remaining * dayWeights[d] / remainingWeight);
+                remainingWeight -= dayWeights[d];
+                if (d == totalDays - 1) {
+                    quota = remaining;
+                }
+
+                Arrays.fill(seatHours, (short) 0);
+                Arrays.fill(userHours, (short) 0);
+                Arrays.fill(userCounts, (byte) 0);
+
+                long produced = 0;
+                long attempts = 0;
+                long maxAttempts = quota * 8 + 100;
+                while (produced < quota && attempts++ < maxAttempts) {
+                    int seat = random.nextInt(seatIds.length);
+                    int user = skewedUser(userIds.length);
+                    int startOffset = weighted(START_HOUR_WEIGHTS);
+                    int duration = 1 + weighted(DURATION_WEIGHTS);
+                    if (startOffset + duration > CLOSE_HOUR - OPEN_HOUR) {
+                        duration = CLOSE_HOUR - OPEN_HOUR - startOffset;
+                    }
+                    short mask = (short) (((1 << duration) - 1) << startOffset);
+                    if ((seatHours[seat] & mask) != 0 || (userHours[user] & mask) != 0
+                            || userCounts[user] >= MAX_RESERVATIONS_PER_USER_PER_DAY) {
+                        continue;
+                    }
+                    seatHours[seat] |= mask;
+                    userHours[user] |= mask;
+                    userCounts[user]++;
+
+                    LocalTime startTime = LocalTime.of(OPEN_HOUR + startOffset, 0);
+                    LocalTime endTime = startTime.plusHours(duration);
+                    String status = status(date, today, endTime);
+                    boolean deleted = random.nextInt(1000) < 5;
+                    LocalDateTime createdAt = date.atTime(startTime)
+                        .minusMinutes(30 + random.nextInt(60 * 24 * 3));
+
+                    statement.setString(1, nextId());
+                    statement.setTimestamp(2, Timestamp.valueOf(createdAt));
+                    statement.setDate(3, Date.valueOf(date));
+                    statement.setTime(4, Time.valueOf(endTime));
+                    statement.setString(5, seatIds[seat]);
+                    statement.setTime(6, Time.valueOf(startTime));
+                    statement.setString(7, status);
+                    statement.setString(8, roomIds[seatRooms[seat]]);
+                    statement.setTimestamp(9, Timestamp.valueOf(createdAt));
+                    statement.setString(10, userIds[user]);
+                    statement.setBoolean(11, deleted);
+                    statement.setString(12, deleted ? "perf-admin" : null);
+                    statement.setDate(13, deleted ? Date.valueOf(date) : null);
+                    statement.addBatch();
+
+                    statusCounts.merge(status, 1L, Long::sum);
+                    produced++;
+                    generatedReservations++;
+                    flushIfNeeded(connection, statement, generatedReservations);
+                }
+                remaining -= produced;
+
+                if (System.currentTimeMillis() - lastLog > 10_000) {
+                    lastLog = System.currentTimeMillis();
+                    log("预约生成进度: %d / %d (%s)", generatedReservations, options.reservations, date);
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        log("预约状态分布: %s", statusCounts);
+    }
+
+    /**
+     * 过去的预约以已结束为主，当天的预约根据结束时间区分，未来的预约为已确认
+     */
+    private String status(LocalDate date, LocalDate today, LocalTime endTime) {
+        int roll = random.nextInt(100);
+        boolean finished = date.isBefore(today) || (date.isEqual(today) && endTime.isBefore(now.toLocalTime()));
+        if (finished) {
+            return roll < 72 ? "COMPLETED" : roll < 87 ? "CANCELLED" : "NO_SHOW";
+        }
+        if (date.isEqual(today)) {
+            return roll < 55 ? "CONFIRMED" : roll < 90 ? "CHECKED_IN" : "CANCELLED";
+        }
+        return roll < 90 ? "CONFIRMED" : "CANCELLED";
+    }
+
+    private double dayOfWeekWeight(DayOfWeek dayOfWeek) {
+        switch (dayOfWeek) {
+            case SATURDAY:
+                return 0.6;
+            case SUNDAY:
+                return 0.5;
+            case FRIDAY:
+                return 0.85;
+            default:
+                return 1.0;
+        }
+    }
+
+    /**
+     * 少数活跃用户贡献大部分预约
+     */
+    private int skewedUser(int users) {
+        double u = random.nextDouble();
+        return Math.min(users - 1, (int) (users * u * u));
+    }
+
+    private int weighted(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private String nextId() {
+        return String.format("%016x%016x", random.nextLong(), random.nextLong());
+    }
+
+    private void flushIfNeeded(Connection connection, PreparedStatement statement, long rows) throws SQLException {
+        if (rows % options.batchSize == 0) {
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private void truncate(Connection connection) throws SQLException {
+        boolean h2 = isH2(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(h2 ? "SET REFERENTIAL_INTEGRITY FALSE" : "SET FOREIGN_KEY_CHECKS = 0");
+            for (String table : new String[] {"reservations", "seats", "study_rooms", "users"}) {
+                statement.execute("TRUNCATE TABLE " + table);
+            }
+            statement.execute(h2 ? "SET REFERENTIAL_INTEGRITY TRUE" : "SET FOREIGN_KEY_CHECKS = 1");
+        }
+        connection.commit();
+        log("已清空 reservations / seats / study_rooms / users");
+    }
+
+    /**
+     * 为H2（MySQL模式）创建与迁移脚本等价的表结构和索引
+     * MySQL请使用Flyway迁移
+     */
+    public static void createH2Schema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS study_rooms (" +
+                "id VARCHAR(36) NOT NULL PRIMARY KEY, capacity INT NOT NULL, close_time VARCHAR(255), " +
+                "created_at BIGINT, description VARCHAR(255), image_url VARCHAR(255), location VARCHAR(255) NOT NULL, " +
+                "max_advance_days INT, name VARCHAR(255) NOT NULL, open_time VARCHAR(255) NOT NULL, status VARCHAR(255))");
+            statement.execute("CREATE TABLE IF NOT EXISTS seats (" +
+                "id VARCHAR(32) NOT NULL PRIMARY KEY, created_at BIGINT, seat_number VARCHAR(255) NOT NULL, " +
+                "status VARCHAR(255) NOT NULL, study_room_id VARCHAR(255) NOT NULL)");
+            statement.execute("CREATE TABLE IF NOT EXISTS users (" +
+                "id VARCHAR(32) NOT NULL PRIMARY KEY, created_at BIGINT, password VARCHAR(255), username VARCHAR(255), " +
+                "blacklist_start_time TIMESTAMP(6), is_blacklisted BOOLEAN, no_show_count INT)");
+            statement.execute("CREATE TABLE IF NOT EXISTS reservations (" +
+                "id VARCHAR(32) NOT NULL PRIMARY KEY, created_at TIMESTAMP(6), `date` DATE NOT NULL, " +
+                "end_time TIME(6) NOT NULL, remarks VARCHAR(255), seat_id VARCHAR(255) NOT NULL, " +
+                "start_time TIME(6) NOT NULL, status VARCHAR(255) NOT NULL, study_room_id VARCHAR(255) NOT NULL, " +
+                "updated_at TIMESTAMP(6), user_id VARCHAR(255) NOT NULL, adjusted_at DATE, adjusted_by VARCHAR(255), " +
+                "deleted_at DATE, deleted_by VARCHAR(255), is_deleted BOOLEAN DEFAULT FALSE NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_reservations_seat_date " +
+                "ON reservations (seat_id, `date`, is_deleted, status, start_time, end_time)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_reservations_room_date " +
+                "ON reservations (study_room_id, `date`, is_deleted, status, start_time, end_time)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_reservations_user_date " +
+                "ON reservations (user_id, `date`, is_deleted, status, start_time, end_time)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_reservations_date_end_status " +
+                "ON reservations (`date`, end_time, status)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_reservations_status_date " +
+                "ON reservations (status, is_deleted, `date`, end_time)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_seats_room_number ON seats (study_room_id, seat_number)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_users_username ON users (username)");
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    private static boolean isH2(Connection connection) throws SQLException {
+        return connection.getMetaData().getURL().startsWith("jdbc:h2:");
+    }
+
+    private void log(String format, Object... args) {
+        if (!options.quiet) {
+            System.out.println("[datagen] " + String.format(format, args));
+        }
+    }
+
+    /**
+     * 命令行入口
+     * 参数：--url --username --password --rooms --seats --users --reservations --past-days
+     *      --future-days --seed --batch-size --now(yyyy-MM-ddTHH:mm) --truncate --skip-migrate
+     */
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            arguments.put(eq > 0 ? arg.substring(2, eq) : arg.substring(2), eq > 0 ? arg.substring(eq + 1) : "true");
+        }
+
+        String url = arguments.getOrDefault("url", "jdbc:h2:file:./target/perf-data;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        String username = arguments.getOrDefault("username", url.startsWith("jdbc:h2:") ? "sa" : "root");
+        String password = arguments.getOrDefault("password", "");
+
+        Options options = Options.defaults()
+            .rooms(Integer.parseInt(arguments.getOrDefault("rooms", "500")))
+            .seats(Integer.parseInt(arguments.getOrDefault("seats", "100000")))
+            .users(Integer.parseInt(arguments.getOrDefault("users", "50000")))
+            .reservations(Long.parseLong(arguments.getOrDefault("reservations", "20000000")))
+            .pastDays(Integer.parseInt(arguments.getOrDefault("past-days", "365")))
+            .futureDays(Integer.parseInt(arguments.getOrDefault("future-days", "7")))
+            .seed(Long.parseLong(arguments.getOrDefault("seed", "20240401")))
+            .batchSize(Integer.parseInt(arguments.getOrDefault("batch-size", "5000")))
+            .truncate(Boolean.parseBoolean(arguments.getOrDefault("truncate", "false")))
+            .now(arguments.containsKey("now") ? LocalDateTime.parse(arguments.get("now")) : null);
+
+        if (url.startsWith("jdbc:h2:")) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                createH2Schema(connection);
+            }
+        } else if (!Boolean.parseBoolean(arguments.getOrDefault("skip-migrate", "false"))) {
+            Flyway.configure()
+                .dataSource(url, username, password)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+        }
+
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            new DatasetGenerator(options).generate(connection);
+        }
+    }
+
+    /**
+     * 生成参数，默认值对应生产规模
+     */
+    public static class Options {
+        private int rooms = 500;
+        private int seats = 100_000;
+        private int users = 50_000;
+        private long reservations = 20_000_000L;
+        private int pastDays = 365;
+        private int futureDays = 7;
+        private long seed = 20240401L;
+        private int batchSize = 5000;
+        private boolean truncate;
+        private boolean quiet;
+        private LocalDateTime now;
+
+        public static Options defaults() {
+            return new Options();
+        }
+
+        public Options rooms(int rooms) {
+            this.rooms = rooms;
+            return this;
+        }
+
+        public Options seats(int seats) {
+            this.seats = seats;
+            return this;
+        }
+
+        public Options users(int users) {
+            this.users = users;
+            return this;
+        }
+
+        public Options reservations(long reservations) {
+            this.reservations = reservations;
+            return this;
+        }
+
+        public Options pastDays(int pastDays) {
+            this.pastDays = pastDays;
+            return this;
+        }
+
+        public Options futureDays(int futureDays) {
+            this.futureDays = futureDays;
+            return this;
+        }
+
+        public Options seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Options batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Options truncate(boolean truncate) {
+            this.truncate = truncate;
+            return this;
+        }
+
+        /**
+         * 生成数据时视为“当前”的时间，固定后生成结果与运行日期无关
+         */
+        public Options now(LocalDateTime now) {
+            this.now = now;
+            return this;
+        }
+
+        public Options quiet(boolean quiet) {
+            this.quiet = quiet;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.hello.perf.loadtest;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 重复预约检测
+ *
+ * 压测过程中记录每一个创建成功且未被取消的预约，同一座位或同一用户出现时间重叠即视为重复预约，
+ * 这类问题通常来自"先查询可用、再插入"之间的并发竞争。
+ * 客户端只能看到本次压测创建的预约，如需覆盖库中已有数据，可在压测结束后调用 {@link #countInDatabase}。
+ */
+public class DoubleBookingDetector {
+
+    private final Map<String, List<Booking>> bySeat = new HashMap<>();
+    private final Map<String, List<Booking>> byUser = new HashMap<>();
+    private final List<String> violations = new ArrayList<>();
+
+    /**
+     * 登记一个创建成功的预约，返回是否与已登记的预约冲突
+     */
+    public synchronized boolean register(String reservationId, String userId, String seatId,
+                                         LocalDate date, LocalTime startTime, LocalTime endTime) {
+        Booking booking = new Booking(reservationId, userId, seatId, date, startTime, endTime);
+        boolean conflict = false;
+        for (Booking other : bySeat.getOrDefault(seatId + "|" + date, List.of())) {
+            if (other.overlaps(booking)) {
+                violations.add("座位 " + seatId + " " + date + " 重复预约: " + other + " / " + booking);
+                conflict = true;
+            }
+        }
+        for (Booking other : byUser.getOrDefault(userId + "|" + date, List.of())) {
+            if (other.overlaps(booking)) {
+                violations.add("用户 " + userId + " " + date + " 同时段预约多个座位: " + other + " / " + booking);
+                conflict = true;
+            }
+        }
+        bySeat.computeIfAbsent(seatId + "|" + date, key -> new ArrayList<>()).add(booking);
+        byUser.computeIfAbsent(userId + "|" + date, key -> new ArrayList<>()).add(booking);
+        return conflict;
+    }
+
+    /**
+     * 预约取消成功后移除，取消的预约不再参与冲突判断
+     */
+    public synchronized void cancelled(String reservationId, String userId, String seatId, LocalDate date) {
+        List<Booking> seatBookings = bySeat.get(seatId + "|" + date);
+        if (seatBookings != null) {
+            seatBookings.removeIf(booking -> booking.reservationId.equals(reservationId));
+        }
+        List<Booking> userBookings = byUser.get(userId + "|" + date);
+        if (userBookings != null) {
+            userBookings.removeIf(booking -> booking.reservationId.equals(reservationId));
+        }
+    }
+
+    public synchronized List<String> getViolations() {
+        return new ArrayList<>(violations);
+    }
+
+    /**
+     * 在数据库中统计指定日期同一座位时间重叠的有效预约对数
+     */
+    public static long countInDatabase(String url, String username, String password, LocalDate date)
+            throws SQLException {
+        String sql = "SELECT COUNT(*) FROM reservations a JOIN reservations b " +
+            "ON a.seat_id = b.seat_id AND a.date = b.date AND a.id < b.id " +
+            "AND a.start_time < b.end_time AND b.start_time < a.end_time " +
+            "WHERE a.date = ? AND a.is_deleted = false AND b.is_deleted = false " +
+            "AND a.status <> 'CANCELLED' AND b.status <> 'CANCELLED'";
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setDate(1, Date.valueOf(date));
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private record Booking(String reservationId, String userId, String seatId,
+                           LocalDate date, LocalTime startTime, LocalTime endTime) {
+
+        boolean overlaps(Booking other) {
+            return startTime.isBefore(other.endTime) && other.startTime.isBefore(endTime);
+        }
+
+        @Override
+        public String toString() {
+            return reservationId + "[" + startTime + "-" + endTime + "]";
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.hello.perf.loadtest;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 单个接口的压测统计
+ *
+ * 延迟以微秒记录到 HdrHistogram，起点是请求的计划发出时间而不是实际发出时间，
+ * 因此客户端排队等待的时间也会计入延迟（避免协调遗漏）。
+ * 响应按 2xx、4xx（业务拒绝，例如座位已被抢）和错误（5xx、超时、连接失败）分别计数。
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 记录一次请求结果
+     * @param intendedStartNanos 计划发出时间（System.nanoTime）
+     * @param status HTTP状态码，请求未得到响应时传 -1
+     */
+    public void record(long intendedStartNanos, int status) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+        histogram.recordValue(Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE_MICROS));
+        if (status >= 200 && status < 300) {
+            success.increment();
+        } else if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTotal() {
+        return histogram.getTotalCount();
+    }
+
+    public long getSuccess() {
+        return success.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * 输出一行汇总：请求数、吞吐量、各类结果占比和延迟分位（毫秒）
+     */
+    public String summaryLine(double elapsedSeconds) {
+        long total = getTotal();
+        return String.format("%-20s %9d %10.1f %8.2f%% %8.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f",
+            name,
+            total,
+            total / elapsedSeconds,
+            percent(getRejected(), total),
+            percent(getErrors(), total),
+            millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(90)),
+            millis(histogram.getValueAtPercentile(99)),
+            millis(histogram.getValueAtPercentile(99.9)),
+            millis(histogram.getMaxValue()));
+    }
+
+    public static String headerLine() {
+        return String.format("%-20s %9s %10s %9s %9s %9s %9s %9s %9s %9s",
+            "endpoint", "requests", "req/s", "4xx", "errors", "p50(ms)", "p90(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+    }
+
+    /**
+     * 将完整的分位分布写入 .hgrm 文件，可用 HdrHistogram 的在线工具绘图
+     */
+    public void writeDistribution(Path directory) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(directory.resolve(name + ".hgrm").toFile())) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double percent(long count, long total) {
+        return total == 0 ? 0 : count * 100.0 / total;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,493 @@
+package com.example.hello.perf.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.example.hello.perf.datagen.DatasetGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 开放模型压测：模拟新一天预约开放时学生集中涌入
+ *
+ * 到达过程与系统响应快慢无关（开放模型），每个到达的学生依次执行：
+ * 登录 → 浏览自习室状态 → 查看自习室座位 → 检查座位可用性 → 创建预约 → 签到（时间窗口内）→ 取消（按比例）。
+ * 每个接口的延迟从计划发出时间开始计算，服务端变慢时排队时间会体现在分位数里。
+ *
+ * 自习室和座位的选择有意偏向少数热门自习室和靠前座位，以制造真实的抢座竞争；
+ * 所有创建成功的预约都会交给 {@link DoubleBookingDetector} 检查是否出现重复预约。
+ *
+ * 使用步骤：
+ * 1. 用 {@link DatasetGenerator} 准备数据（用户名 perf_user_N，密码 {@link DatasetGenerator#DEFAULT_PASSWORD}）
+ * 2. 本地启动服务，连接同一个 MySQL 或 H2 文件库
+ * 3. mvn -Ploadtest test-compile exec:java -Dloadtest.args="--base-url=http://localhost:8080 --rate=200 --duration=120"
+ */
+public class LoadTestRunner {
+
+    private static final String LOGIN = "login";
+    private static final String ROOMS_STATUS = "rooms-status";
+    private static final String ROOM_DETAIL = "room-detail";
+    private static final String CHECK_AVAILABILITY = "check-availability";
+    private static final String CREATE = "create";
+    private static final String CHECK_IN = "check-in";
+    private static final String CANCEL = "cancel";
+    private static final String SESSION = "session";
+
+    private final Options options;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final DoubleBookingDetector detector = new DoubleBookingDetector();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+    private final LocalDate targetDate;
+
+    public LoadTestRunner(Options options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(options.timeoutMillis))
+            .build();
+        this.targetDate = LocalDate.now().plusDays(options.dateOffset);
+        for (String name : List.of(LOGIN, ROOMS_STATUS, ROOM_DETAIL, CHECK_AVAILABILITY, CREATE, CHECK_IN, CANCEL, SESSION)) {
+            stats.put(name, new EndpointStats(name));
+        }
+    }
+
+    /**
+     * 按计划的到达时间派发会话，直到压测时长结束并等待所有会话完成
+     */
+    public void run() throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Semaphore inFlight = new Semaphore(options.maxInFlight);
+        SplittableRandom random = new SplittableRandom(options.seed);
+
+        long startNanos = System.nanoTime();
+        long warmupEndNanos = startNanos + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long endNanos = warmupEndNanos + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        long burstEndNanos = startNanos + TimeUnit.SECONDS.toNanos(options.burstSeconds);
+
+        log("目标日期 %s，预热 %ds，压测 %ds，到达速率 %.1f/s（前 %ds 为 %.1f/s）",
+            targetDate, options.warmupSeconds, options.durationSeconds,
+            options.rate, options.burstSeconds, options.burstRate);
+
+        long intendedNanos = startNanos;
+        long sessionIndex = 0;
+        while (intendedNanos < endNanos) {
+            double rate = intendedNanos < burstEndNanos ? options.burstRate : options.rate;
+            double intervalSeconds = options.poisson
+                ? -Math.log(1 - random.nextDouble()) / rate
+                : 1 / rate;
+            intendedNanos += (long) (intervalSeconds * 1_000_000_000L);
+
+            long waitNanos = intendedNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            boolean recorded = intendedNanos >= warmupEndNanos;
+            if (!inFlight.tryAcquire()) {
+                // 在途会话超过上限时直接丢弃，避免压测机自身资源耗尽，丢弃数单独报告
+                if (recorded) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            long sessionIntendedNanos = intendedNanos;
+            SplittableRandom sessionRandom = random.split();
+            long index = sessionIndex++;
+            executor.execute(() -> {
+                try {
+                    runSession(index, sessionIntendedNanos, sessionRandom, recorded);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(options.timeoutMillis * 10L, TimeUnit.MILLISECONDS)) {
+            log("仍有会话未完成，强制结束");
+            executor.shutdownNow();
+        }
+    }
+
+    private void runSession(long index, long intendedNanos, SplittableRandom random, boolean recorded) {
+        int userIndex = (int) ((options.userOffset + index) % options.users);
+        Session session = new Session(DatasetGenerator.USERNAME_PREFIX + userIndex, random, recorded);
+        int status = -1;
+        try {
+            status = session.execute(intendedNanos);
+        } catch (IOException e) {
+            // 超时或连接失败，会话按错误记录
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (recorded) {
+                stats.get(SESSION).record(intendedNanos, status);
+            }
+        }
+    }
+
+    /**
+     * 单个学生的一次完整操作流程
+     */
+    private class Session {
+        private final String username;
+        private final SplittableRandom random;
+        private final boolean recorded;
+
+        private String token;
+        private String userId;
+
+        Session(String username, SplittableRandom random, boolean recorded) {
+            this.username = username;
+            this.random = random;
+            this.recorded = recorded;
+        }
+
+        /**
+         * 执行流程，返回会话的最终状态码（任一步骤失败即结束）
+         */
+        int execute(long intendedNanos) throws IOException, InterruptedException {
+            Response login = send(LOGIN, post("/api/users/login",
+                Map.of("username", username, "password", options.password)), intendedNanos);
+            if (!login.ok()) {
+                return login.status;
+            }
+            token = login.body.path("token").asText();
+            userId = login.body.path("userId").asText();
+
+            Response rooms = send(ROOMS_STATUS, get("/api/reservations/study-rooms/status?dateStr=" + targetDate), System.nanoTime());
+            if (!rooms.ok() || !rooms.body.isArray() || rooms.body.size() == 0) {
+                return rooms.status;
+            }
+            JsonNode room = pickRoom(rooms.body);
+            String roomId = room.path("id").asText();
+
+            LocalTime[] slot = pickSlot(room);
+            String slotQuery = "dateStr=" + targetDate + "&startTime=" + encode(slot[0]) + "&endTime=" + encode(slot[1]);
+
+            Response detail = send(ROOM_DETAIL, get("/api/reservations/study-rooms/" + roomId + "/detail?" + slotQuery), System.nanoTime());
+            if (!detail.ok()) {
+                return detail.status;
+            }
+            String seatId = pickSeat(detail.body.path("seats"));
+            if (seatId == null) {
+                if (recorded) {
+                    unavailable.increment();
+                }
+                return detail.status;
+            }
+
+            Response availability = send(CHECK_AVAILABILITY,
+                get("/api/reservations/check-availability?seatId=" + seatId + "&" + slotQuery), System.nanoTime());
+            if (!availability.ok()) {
+                return availability.status;
+            }
+            if (!availability.body.path("available").asBoolean(false)) {
+                if (recorded) {
+                    unavailable.increment();
+                }
+                return availability.status;
+            }
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("userId", userId);
+            body.put("seatId", seatId);
+            body.put("studyRoomId", roomId);
+            body.put("date", targetDate.toString());
+            body.put("startTime", slot[0].toString());
+            body.put("endTime", slot[1].toString());
+            Response created = send(CREATE, post("/api/reservations", body), System.nanoTime());
+            if (!created.ok()) {
+                return created.status;
+            }
+            String reservationId = created.body.path("id").asText();
+            detector.register(reservationId, userId, seatId, targetDate, slot[0], slot[1]);
+
+            if (checkInWindowOpen(slot)) {
+                Response checkIn = send(CHECK_IN, HttpRequest.newBuilder(uri("/api/reservations/" + reservationId + "/check-in"))
+                    .header("X-User-ID", userId)
+                    .POST(HttpRequest.BodyPublishers.noBody()), System.nanoTime());
+                return checkIn.status;
+            }
+
+            if (random.nextDouble() < options.cancelRatio) {
+                Response cancel = send(CANCEL, HttpRequest.newBuilder(uri("/api/reservations/" + reservationId + "/cancel"))
+                    .PUT(HttpRequest.BodyPublishers.noBody()), System.nanoTime());
+                if (cancel.ok()) {
+                    detector.cancelled(reservationId, userId, seatId, targetDate);
+                }
+                return cancel.status;
+            }
+            return created.status;
+        }
+
+        /**
+         * 按 u^skew 偏向列表前部，模拟少数热门自习室
+         */
+        private JsonNode pickRoom(JsonNode rooms) {
+            List<JsonNode> open = new ArrayList<>();
+            for (JsonNode room : rooms) {
+                if (!"CLOSED".equals(room.path("status").asText())) {
+                    open.add(room);
+                }
+            }
+            List<JsonNode> candidates = open.isEmpty() ? toList(rooms) : open;
+            int index = (int) (candidates.size() * Math.pow(random.nextDouble(), options.roomSkew));
+            return candidates.get(Math.min(index, candidates.size() - 1));
+        }
+
+        /**
+         * 在自习室开放时间内选择整点开始、1到3小时的时段；目标日期为当天时优先选择可签到的时段
+         */
+        private LocalTime[] pickSlot(JsonNode room) {
+            int openHour = parseHour(room.path("openTime").asText(), 8);
+            int closeHour = parseHour(room.path("closeTime").asText(), 22);
+            if (closeHour <= openHour) {
+                closeHour = openHour + 1;
+            }
+            int startHour = openHour + random.nextInt(closeHour - openHour);
+            if (options.dateOffset == 0) {
+                int nextHour = LocalTime.now().plusMinutes(15).getHour();
+                if (nextHour >= openHour && nextHour < closeHour) {
+                    startHour = nextHour;
+                }
+            }
+            int duration = 1 + random.nextInt(Math.min(3, closeHour - startHour));
+            LocalTime start = LocalTime.of(startHour, 0);
+            LocalTime end = startHour + duration >= 24 ? LocalTime.of(23, 59) : LocalTime.of(startHour + duration, 0);
+            return new LocalTime[] {start, end};
+        }
+
+        /**
+         * 在前 seatChoices 个可用座位中随机选择，越靠前的座位被越多学生同时争抢
+         */
+        private String pickSeat(JsonNode seats) {
+            List<String> available = new ArrayList<>();
+            for (JsonNode seat : seats) {
+                if ("AVAILABLE".equals(seat.path("status").asText())) {
+                    available.add(seat.path("id").asText());
+                    if (available.size() >= options.seatChoices) {
+                        break;
+                    }
+                }
+            }
+            return available.isEmpty() ? null : available.get(random.nextInt(available.size()));
+        }
+
+        private boolean checkInWindowOpen(LocalTime[] slot) {
+            if (!targetDate.equals(LocalDate.now())) {
+                return false;
+            }
+            LocalTime now = LocalTime.now();
+            return !now.isBefore(slot[0].minusMinutes(15)) && now.isBefore(slot[1]);
+        }
+
+        private HttpRequest.Builder get(String path) {
+            return HttpRequest.newBuilder(uri(path)).GET();
+        }
+
+        private HttpRequest.Builder post(String path, Object body) throws IOException {
+            return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        }
+
+        private Response send(String endpoint, HttpRequest.Builder builder, long intendedNanos)
+                throws IOException, InterruptedException {
+            builder.timeout(Duration.ofMillis(options.timeoutMillis));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            int status = -1;
+            try {
+                HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+                status = response.statusCode();
+                JsonNode body = response.body().length == 0
+                    ? objectMapper.nullNode()
+                    : objectMapper.readTree(response.body());
+                return new Response(status, body);
+            } finally {
+                if (recorded) {
+                    stats.get(endpoint).record(intendedNanos, status);
+                }
+            }
+        }
+    }
+
+    private record Response(int status, JsonNode body) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    /**
+     * 输出汇总报告，返回是否检测到重复预约
+     */
+    public boolean report() throws IOException {
+        double elapsedSeconds = options.durationSeconds;
+        System.out.println();
+        System.out.println(EndpointStats.headerLine());
+        for (EndpointStats endpoint : stats.values()) {
+            System.out.println(endpoint.summaryLine(elapsedSeconds));
+        }
+        System.out.println();
+
+        EndpointStats create = stats.get(CREATE);
+        log("预约成功 %d 次，被拒绝 %d 次，选座时座位已不可用 %d 次，压测机过载丢弃会话 %d 个",
+            create.getSuccess(), create.getRejected(), unavailable.sum(), dropped.sum());
+
+        List<String> violations = detector.getViolations();
+        log("客户端检测到重复预约 %d 次", violations.size());
+        violations.stream().limit(20).forEach(violation -> log("  %s", violation));
+
+        long databaseViolations = 0;
+        if (options.jdbcUrl != null) {
+            try {
+                databaseViolations = DoubleBookingDetector.countInDatabase(
+                    options.jdbcUrl, options.jdbcUsername, options.jdbcPassword, targetDate);
+                log("数据库中 %s 同一座位时间重叠的有效预约 %d 对", targetDate, databaseViolations);
+            } catch (java.sql.SQLException e) {
+                log("数据库重复预约检查失败: %s", e.getMessage());
+            }
+        }
+
+        if (options.histogramDirectory != null) {
+            Path directory = Path.of(options.histogramDirectory);
+            Files.createDirectories(directory);
+            for (EndpointStats endpoint : stats.values()) {
+                endpoint.writeDistribution(directory);
+            }
+            log("延迟分布已写入 %s", directory.toAbsolutePath());
+        }
+        return !violations.isEmpty() || databaseViolations > 0;
+    }
+
+    private URI uri(String path) {
+        return URI.create(options.baseUrl + path);
+    }
+
+    private static String encode(LocalTime time) {
+        return URLEncoder.encode(time.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static int parseHour(String time, int defaultHour) {
+        try {
+            return LocalTime.parse(time).getHour();
+        } catch (RuntimeException e) {
+            return defaultHour;
+        }
+    }
+
+    private static List<JsonNode> toList(JsonNode array) {
+        List<JsonNode> list = new ArrayList<>();
+        array.forEach(list::add);
+        return list;
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println("[loadtest] " + String.format(format, args));
+    }
+
+    /**
+     * 命令行入口
+     * 参数：--base-url --rate --burst-rate --burst-seconds --duration --warmup --users --user-offset
+     *      --password --date-offset --cancel-ratio --room-skew --seat-choices --max-in-flight --timeout-ms
+     *      --seed --uniform --hdr-dir --jdbc-url --jdbc-username --jdbc-password
+     * 检测到重复预约时以退出码 2 结束，便于在流水线中作为门禁
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            arguments.put(eq > 0 ? arg.substring(2, eq) : arg.substring(2), eq > 0 ? arg.substring(eq + 1) : "true");
+        }
+
+        Options options = new Options();
+        options.baseUrl = arguments.getOrDefault("base-url", options.baseUrl).replaceAll("/+$", "");
+        options.rate = Double.parseDouble(arguments.getOrDefault("rate", String.valueOf(options.rate)));
+        options.burstRate = Double.parseDouble(arguments.getOrDefault("burst-rate", String.valueOf(options.rate)));
+        options.burstSeconds = Integer.parseInt(arguments.getOrDefault("burst-seconds", "0"));
+        options.durationSeconds = Integer.parseInt(arguments.getOrDefault("duration", String.valueOf(options.durationSeconds)));
+        options.warmupSeconds = Integer.parseInt(arguments.getOrDefault("warmup", String.valueOf(options.warmupSeconds)));
+        options.users = Integer.parseInt(arguments.getOrDefault("users", String.valueOf(options.users)));
+        options.userOffset = Integer.parseInt(arguments.getOrDefault("user-offset", "0"));
+        options.password = arguments.getOrDefault("password", options.password);
+        options.dateOffset = Integer.parseInt(arguments.getOrDefault("date-offset", String.valueOf(options.dateOffset)));
+        options.cancelRatio = Double.parseDouble(arguments.getOrDefault("cancel-ratio", String.valueOf(options.cancelRatio)));
+        options.roomSkew = Double.parseDouble(arguments.getOrDefault("room-skew", String.valueOf(options.roomSkew)));
+        options.seatChoices = Integer.parseInt(arguments.getOrDefault("seat-choices", String.valueOf(options.seatChoices)));
+        options.maxInFlight = Integer.parseInt(arguments.getOrDefault("max-in-flight", String.valueOf(options.maxInFlight)));
+        options.timeoutMillis = Integer.parseInt(arguments.getOrDefault("timeout-ms", String.valueOf(options.timeoutMillis)));
+        options.seed = Long.parseLong(arguments.getOrDefault("seed", String.valueOf(options.seed)));
+        options.poisson = !Boolean.parseBoolean(arguments.getOrDefault("uniform", "false"));
+        options.histogramDirectory = arguments.get("hdr-dir");
+        options.jdbcUrl = arguments.get("jdbc-url");
+        options.jdbcUsername = arguments.getOrDefault("jdbc-username",
+            options.jdbcUrl != null && options.jdbcUrl.startsWith("jdbc:h2:") ? "sa" : "root");
+        options.jdbcPassword = arguments.getOrDefault("jdbc-password", "");
+
+        LoadTestRunner runner = new LoadTestRunner(options);
+        runner.run();
+        if (runner.report()) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * 压测参数，默认值对应一次中等规模的本地压测
+     */
+    public static class Options {
+        private String baseUrl = "http://localhost:8080";
+        /** 稳定阶段每秒到达的学生数 */
+        private double rate = 100;
+        /** 开放瞬间的峰值到达速率 */
+        private double burstRate = 100;
+        private int burstSeconds = 0;
+        private int durationSeconds = 60;
+        private int warmupSeconds = 10;
+        private int users = 50_000;
+        private int userOffset = 0;
+        private String password = DatasetGenerator.DEFAULT_PASSWORD;
+        /** 目标预约日期相对今天的天数，默认模拟第7天的预约刚刚开放 */
+        private int dateOffset = 7;
+        private double cancelRatio = 0.2;
+        private double roomSkew = 3;
+        private int seatChoices = 5;
+        private int maxInFlight = 2000;
+        private int timeoutMillis = 10_000;
+        private long seed = 20240401L;
+        private boolean poisson = true;
+        private String histogramDirectory;
+        private String jdbcUrl;
+        private String jdbcUsername;
+        private String jdbcPassword;
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.hello.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.example.hello.perf.datagen.DatasetGenerator;
+
+/**
+ * 仓库查询执行计划回归测试
+ *
+ * 每个仓库查询方法在 PLANS 中登记一条与Hibernate生成SQL等价的语句，
+ * 对生成的数据集执行 EXPLAIN，出现全表扫描（type=ALL）即失败。
+ *
+ * 需要一个可随意写入的MySQL库（数据量不足时会清空并用 DatasetGenerator 重新生成四张业务表），通过系统属性指定：
+ * mvn test -Dtest=ReservationQueryPlanTest -Dqueryplan.jdbc.url=jdbc:mysql://localhost:3306/lib_seat_plan
+ *     -Dqueryplan.jdbc.username=root -Dqueryplan.jdbc.password=xxx
+ * 未指定时只执行登记完整性检查。
+ */
+public class ReservationQueryPlanTest {
+
+    private static final String URL_PROPERTY = "queryplan.jdbc.url";
+
+    /**
+     * 允许全表扫描的小表（字典表，行数与自习室数量相当）
+     */
+    private static final Set<String> SMALL_TABLES = Set.of("study_rooms");
+
+    /**
+     * 不需要检查执行计划的方法及原因
+     */
+    private static final Map<String, String> EXCLUDED = Map.of(
+        "SeatRepository.findAvailableSeats", "未被调用，按中文状态值全表筛选座位",
+        "ReservationRepositoryCustom.streamSearch", "与 searchPage 使用相同的谓词，已由 searchPage 覆盖",
+        "ReservationRepositoryCustom.searchSlice", "与 searchPage 使用相同的谓词，已由 searchPage 覆盖",
+        "ReservationRepositoryCustom.searchApproximate", "与 searchPage 使用相同的谓词，计数已由 searchPage:count 覆盖"
+    );
+
+    private static final String OVERLAP =
+        "((r.start_time<=? and r.end_time>?) or (r.start_time<? and r.end_time>=?) " +
+        "or (r.start_time>=? and r.end_time<=?))";
+
+    private static final String ADMIN_SELECT =
+        "select r.id,r.user_id,u.username,r.seat_id,s.seat_number,r.study_room_id,sr.name," +
+        "r.date,r.start_time,r.end_time,r.status,r.is_deleted,r.deleted_by,r.deleted_at," +
+        "r.adjusted_by,r.adjusted_at from reservations r " +
+        "left join users u on r.user_id=u.id " +
+        "left join seats s on r.seat_id=s.id " +
+        "left join study_rooms sr on r.study_room_id=sr.id ";
+
+    private static final Map<String, Plan> PLANS = new LinkedHashMap<>();
+
+    private static Sample sample;
+
+    static {
+        // ReservationRepository
+        plan("ReservationRepository.findByUserId", "select * from reservations r where r.user_id=? and r.is_deleted=0",
+            s -> List.of(s.userId));
+        plan("ReservationRepository.findBySeatId", "select * from reservations r where r.seat_id=? and r.is_deleted=0",
+            s -> List.of(s.seatId));
+        plan("ReservationRepository.findByStudyRoomId", "select * from reservations r where r.study_room_id=? and r.is_deleted=0",
+            s -> List.of(s.studyRoomId));
+        plan("ReservationRepository.findByUserIdAndStatus",
+            "select * from reservations r where r.user_id=? and r.status=? and r.is_deleted=0",
+            s -> List.of(s.userId, "CONFIRMED"));
+        plan("ReservationRepository.findByDate", "select * from reservations r where r.date=? and r.is_deleted=0",
+            s -> List.of(s.date));
+        plan("ReservationRepository.findBySeatIdAndDate",
+            "select * from reservations r where r.seat_id=? and r.date=? and r.is_deleted=0",
+            s -> List.of(s.seatId, s.date));
+        plan("ReservationRepository.findOverlappingReservations",
+            "select * from reservations r where r.seat_id=? and r.date=? and r.status='CONFIRMED' " +
+            "and r.is_deleted=0 and " + OVERLAP,
+            s -> overlapParams(List.of(s.seatId, s.date)));
+        plan("ReservationRepository.countByUserIdAndDateAndStatusNot",
+            "select count(r.id) from reservations r where r.user_id=? and r.date=? and r.status<>? and r.is_deleted=0",
+            s -> List.of(s.userId, s.date, "CANCELLED"));
+        plan("ReservationRepository.findByStudyRoomIdAndDate",
+            "select * from reservations r where r.study_room_id=? and r.date=? and r.is_deleted=0",
+            s -> List.of(s.studyRoomId, s.date));
+        plan("ReservationRepository.findByStudyRoomIdAndTimeRange",
+            "select * from reservations r where r.study_room_id=? and r.date=? and r.status<>'CANCELLED' " +
+            "and r.is_deleted=0 and r.start_time<? and r.end_time>?",
+            s -> List.of(s.studyRoomId, s.date, Time.valueOf("12:00:00"), Time.valueOf("10:00:00")));
+        plan("ReservationRepository.existsBySeatId", "select r.id from reservations r where r.seat_id=? limit 1",
+            s -> List.of(s.seatId));
+        plan("ReservationRepository.existsBySeatIdAndDateAndTimeRange",
+            "select count(r.id)>0 from reservations r where r.seat_id=? and r.date=? and r.status='CONFIRMED' " +
+            "and r.is_deleted=0 and " + OVERLAP,
+            s -> overlapParams(List.of(s.seatId, s.date)));
+        plan("ReservationRepository.findByDateAndEndTimeBeforeAndStatusIn",
+            "select * from reservations r where r.date=? and r.end_time<? and r.status in (?,?)",
+            s -> List.of(s.date, Time.valueOf("12:00:00"), "PENDING", "CHECKED_IN"));
+        plan("ReservationRepository.deleteByIsDeletedTrueAndDeletedAtBefore",
+            "delete from reservations where is_deleted=1 and deleted_at<?",
+            s -> List.of(Date.valueOf(s.date.minusDays(30))));
+        plan("ReservationRepository.findUserOverlappingReservations",
+            "select * from reservations r where r.user_id=? and r.date=? and r.status='CONFIRMED' " +
+            "and r.is_deleted=0 and " + OVERLAP,
+            s -> overlapParams(List.of(s.userId, s.date)));
+        plan("ReservationRepository.findByUserIdAndDate",
+            "select * from reservations r where r.user_id=? and r.date=? and r.is_deleted=0",
+            s -> List.of(s.userId, s.date));
+        plan("ReservationRepository.findExpiredReservations",
+            "select * from reservations r where (r.date<? or (r.date=? and r.end_time<=?)) " +
+            "and r.status in (?,?) and r.is_deleted=0",
+            s -> List.of(s.today, s.today, Time.valueOf("12:00:00"), "PENDING", "CHECKED_IN"));
+        plan("ReservationRepository.findActiveByStudyRoomIdAndDateRange",
+            "select * from reservations r where r.study_room_id=? and r.date between ? and ? " +
+            "and r.status<>'CANCELLED' and r.is_deleted=0",
+            s -> List.of(s.studyRoomId, s.date, s.date.plusDays(7)));
+        plan("ReservationRepository.findUpcomingConfirmedBySeatIds",
+            "select * from reservations r where r.seat_id in (?,?) and (r.date>? or (r.date=? and r.end_time>?)) " +
+            "and r.status='CONFIRMED' and r.is_deleted=0 order by r.date,r.start_time",
+            s -> List.of(s.seatId, s.seatId, s.date, s.date, Time.valueOf("12:00:00")));
+        plan("ReservationRepository.findUpcomingConfirmedByStudyRoomId",
+            "select * from reservations r where r.study_room_id=? and (r.date>? or (r.date=? and r.end_time>?)) " +
+            "and r.status='CONFIRMED' and r.is_deleted=0 order by r.date,r.start_time",
+            s -> List.of(s.studyRoomId, s.date, s.date, Time.valueOf("12:00:00")));
+        plan("ReservationRepository.findOccupyingByStudyRoomIdsAndDates",
+            "select * from reservations r where r.study_room_id in (?,?) and r.date in (?,?) " +
+            "and r.status in ('CONFIRMED','CHECKED_IN') and r.is_deleted=0",
+            s -> List.of(s.studyRoomId, s.studyRoomId, s.date, s.date.plusDays(1)));
+        plan("ReservationRepository.cancelConfirmedByIds",
+            "update reservations set status='CANCELLED',remarks=?,updated_at=? where id in (?,?) and status='CONFIRMED'",
+            s -> List.of("座位停用", Timestamp.valueOf(s.date.atStartOfDay()), s.seatId, s.userId));
+
+        // ReservationRepositoryCustom
+        plan("ReservationRepositoryCustom.searchPage",
+            ADMIN_SELECT + "where r.is_deleted=0 and r.study_room_id=? and r.date>=? and r.date<=? " +
+            "order by r.date desc,r.start_time desc,r.id desc limit 10",
+            s -> List.of(s.studyRoomId, s.date, s.date.plusDays(7)));
+        plan("ReservationRepositoryCustom.searchPage:dateRange",
+            ADMIN_SELECT + "where r.is_deleted=0 and r.date>=? and r.date<=? " +
+            "order by r.date desc,r.start_time desc,r.id desc limit 10",
+            s -> List.of(s.date, s.date.plusDays(7)));
+        plan("ReservationRepositoryCustom.searchPage:user",
+            ADMIN_SELECT + "where r.is_deleted=0 and r.user_id=? " +
+            "order by r.date desc,r.start_time desc,r.id desc limit 10",
+            s -> List.of(s.userId));
+        plan("ReservationRepositoryCustom.searchPage:count",
+            "select count(r.id) from reservations r where r.is_deleted=0 and r.study_room_id=? and r.date>=? and r.date<=?",
+            s -> List.of(s.studyRoomId, s.date, s.date.plusDays(7)));
+
+        // SeatRepository
+        plan("SeatRepository.findByStudyRoomId", "select * from seats s where s.study_room_id=?",
+            s -> List.of(s.studyRoomId));
+        plan("SeatRepository.findByStudyRoomIdAndSeatNumber",
+            "select * from seats s where s.study_room_id=? and s.seat_number=?",
+            s -> List.of(s.studyRoomId, "001"));
+        plan("SeatRepository.findByStudyRoomIdAndSeatNumberGreaterThan",
+            "select * from seats s where s.study_room_id=? and s.seat_number>?",
+            s -> List.of(s.studyRoomId, "010"));
+        plan("SeatRepository.findByStudyRoomIdAndStatus",
+            "select * from seats s where s.study_room_id=? and s.status=?",
+            s -> List.of(s.studyRoomId, "AVAILABLE"));
+        plan("SeatRepository.countByStudyRoomIdAndStatus",
+            "select count(s.id) from seats s where s.study_room_id=? and s.status=?",
+            s -> List.of(s.studyRoomId, "AVAILABLE"));
+        plan("SeatRepository.updateSeatStatus", "update seats set status=? where id=?",
+            s -> List.of("AVAILABLE", s.seatId));
+        plan("SeatRepository.updateAllSeatStatusByStudyRoom", "update seats set status=? where study_room_id=?",
+            s -> List.of("AVAILABLE", s.studyRoomId));
+        plan("SeatRepository.findSeatNumbersByStudyRoomId", "select s.seat_number from seats s where s.study_room_id=?",
+            s -> List.of(s.studyRoomId));
+        plan("SeatRepository.findIdsByStudyRoomIdAndSeatNumberGreaterThan",
+            "select s.id from seats s where s.study_room_id=? and s.seat_number>?",
+            s -> List.of(s.studyRoomId, "010"));
+        plan("SeatRepository.findReservedSeatNumbers",
+            "select s.seat_number from seats s where s.study_room_id=? and s.seat_number>? " +
+            "and exists (select 1 from reservations r where r.seat_id=s.id) order by s.seat_number",
+            s -> List.of(s.studyRoomId, "010"));
+        plan("SeatRepository.deleteUnreservedSeats",
+            "delete from seats where study_room_id=? and seat_number>? " +
+            "and not exists (select 1 from reservations r where r.seat_id=seats.id)",
+            s -> List.of(s.studyRoomId, "010"));
+        plan("SeatRepository.findOrphanedSeatIds",
+            "select s.id from seats s where s.id>? " +
+            "and not exists (select 1 from study_rooms r where r.id=s.study_room_id) order by s.id limit 1000",
+            s -> List.of(""));
+        plan("SeatRepository.deleteOrphanedSeats",
+            "delete from seats where id in (?,?) " +
+            "and not exists (select 1 from study_rooms r where r.id=seats.study_room_id)",
+            s -> List.of(s.seatId, s.seatId));
+        plan("SeatRepository.updateSeatStatusByIds", "update seats set status=? where id in (?,?)",
+            s -> List.of("AVAILABLE", s.seatId, s.seatId));
+        plan("SeatRepository.findByStudyRoomIdsAndStatus",
+            "select * from seats s where s.study_room_id in (?,?) and s.status=? order by s.study_room_id,s.seat_number",
+            s -> List.of(s.studyRoomId, s.studyRoomId, "AVAILABLE"));
+
+        // UserRepository
+        plan("UserRepository.findByUsername", "select * from users u where u.username=?",
+            s -> List.of(DatasetGenerator.USERNAME_PREFIX + "1"));
+        plan("UserRepository.existsByUsername", "select u.id from users u where u.username=? limit 1",
+            s -> List.of(DatasetGenerator.USERNAME_PREFIX + "1"));
+        plan("UserRepository.findByIsBlacklistedTrue", "select * from users u where u.is_blacklisted=1",
+            s -> List.of());
+    }
+
+    @BeforeAll
+    static void prepareDatabase() throws SQLException {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+
+        Flyway.configure()
+            .dataSource(url, username(), password())
+            .locations("classpath:db/migration")
+            .baselineOnMigrate(true)
+            .load()
+            .migrate();
+
+        try (Connection connection = connect()) {
+            long target = Long.getLong("queryplan.reservations", 200_000L);
+            if (countRows(connection, "reservations") < target) {
+                new DatasetGenerator(DatasetGenerator.Options.defaults()
+                    .rooms(50)
+                    .seats(2000)
+                    .users(2000)
+                    .reservations(target)
+                    .truncate(true))
+                    .generate(connection);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE reservations, seats, users, study_rooms");
+            }
+            sample = Sample.load(connection);
+        }
+    }
+
+    /**
+     * 所有仓库查询方法都必须登记执行计划或说明排除原因
+     */
+    @Test
+    void testEveryRepositoryQueryIsRegistered() {
+        Set<String> registered = new HashSet<>();
+        PLANS.keySet().forEach(key -> registered.add(key.split(":")[0]));
+
+        Set<String> missing = new TreeSet<>();
+        for (Class<?> repository : List.of(ReservationRepository.class, ReservationRepositoryCustom.class,
+                SeatRepository.class, UserRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (method.isDefault() || method.isSynthetic()) {
+                    continue;
+                }
+                String name = repository.getSimpleName() + "." + method.getName();
+                if (!registered.contains(name) && !EXCLUDED.containsKey(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+
+        assertTrue(missing.isEmpty(), "以下查询方法未登记执行计划: " + missing);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = URL_PROPERTY, matches = ".+")
+    void testNoRepositoryQueryUsesFullTableScan() throws SQLException {
+        List<String> failures = new ArrayList<>();
+
+        try (Connection connection = connect()) {
+            for (Map.Entry<String, Plan> entry : PLANS.entrySet()) {
+                Plan plan = entry.getValue();
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + plan.sql)) {
+                    List<Object> params = plan.params.apply(sample);
+                    for (int i = 0; i < params.size(); i++) {
+                        statement.setObject(i + 1, params.get(i));
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            String table = rs.getString("table");
+                            String type = rs.getString("type");
+                            if ("ALL".equalsIgnoreCase(type) && !SMALL_TABLES.contains(table)) {
+                                failures.add(entry.getKey() + " -> 全表扫描 " + table
+                                    + " (rows=" + rs.getLong("rows") + ", key=" + rs.getString("key") + ")");
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        assertTrue(failures.isEmpty(), "执行计划退化为全表扫描:\n" + String.join("\n", failures));
+    }
+
+    private static void plan(String name, String sql, ParamsFactory params) {
+        PLANS.put(name, new Plan(sql, params));
+    }
+
+    private static List<Object> overlapParams(List<Object> prefix) {
+        Time start = Time.valueOf("10:00:00");
+        Time end = Time.valueOf("12:00:00");
+        List<Object> params = new ArrayList<>(prefix);
+        params.addAll(List.of(start, start, end, end, start, end));
+        return params;
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(System.getProperty(URL_PROPERTY), username(), password());
+    }
+
+    private static String username() {
+        return System.getProperty("queryplan.jdbc.username", "root");
+    }
+
+    private static String password() {
+        return System.getProperty("queryplan.jdbc.password", "");
+    }
+
+    private static long countRows(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParamsFactory {
+        List<Object> apply(Sample sample);
+    }
+
+    private record Plan(String sql, ParamsFactory params) {
+    }
+
+    /**
+     * 从数据集中选取的查询参数
+     */
+    private record Sample(String userId, String seatId, String studyRoomId, LocalDate date, LocalDate today) {
+
+        static Sample load(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                     "SELECT user_id, seat_id, study_room_id, date FROM reservations " +
+                     "WHERE is_deleted = 0 ORDER BY id LIMIT 1")) {
+                assertTrue(rs.next(), "测试数据集中没有预约记录");
+                return new Sample(rs.getString(1), rs.getString(2), rs.getString(3),
+                    rs.getDate(4).toLocalDate(), LocalDate.now());
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.hello.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.hello.config.ConcurrencyLimitProperties;
+import com.example.hello.service.ConcurrencyLimitService.Priority;
+import com.example.hello.service.impl.ConcurrencyLimitServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConcurrencyLimitServiceTest {
+
+    private static final long TEN_MILLIS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private ConcurrencyLimitServiceImpl concurrencyLimitService;
+    private ConcurrencyLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(5);
+        properties.setMaxLimit(20);
+        meterRegistry = new SimpleMeterRegistry();
+
+        concurrencyLimitService = new ConcurrencyLimitServiceImpl();
+        ReflectionTestUtils.setField(concurrencyLimitService, "properties", properties);
+        ReflectionTestUtils.setField(concurrencyLimitService, "meterRegistry", meterRegistry);
+        concurrencyLimitService.init();
+    }
+
+    @Test
+    void testLowerPrioritiesAreRejectedFirst() {
+        // 上限10：LOW 最多4个，MEDIUM 6个，HIGH 8个，CRITICAL 10个
+        for (int i = 0; i < 4; i++) {
+            assertTrue(concurrencyLimitService.tryAcquire(Priority.LOW));
+        }
+        assertFalse(concurrencyLimitService.tryAcquire(Priority.LOW));
+
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.MEDIUM));
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.MEDIUM));
+        assertFalse(concurrencyLimitService.tryAcquire(Priority.MEDIUM));
+
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.HIGH));
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.HIGH));
+        assertFalse(concurrencyLimitService.tryAcquire(Priority.HIGH));
+
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+        assertFalse(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+
+        assertEquals(10.0, meterRegistry.get("concurrency_limit.in_flight").gauge().value());
+        assertEquals(1.0, meterRegistry.get("concurrency_limit.rejected").tag("priority", "LOW").counter().count());
+        assertEquals(1.0, meterRegistry.get("concurrency_limit.rejected").tag("priority", "CRITICAL").counter().count());
+    }
+
+    @Test
+    void testReleaseReturnsSlot() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(concurrencyLimitService.tryAcquire(Priority.LOW));
+        }
+        assertFalse(concurrencyLimitService.tryAcquire(Priority.LOW));
+
+        concurrencyLimitService.release(TEN_MILLIS, false);
+
+        assertEquals(3.0, meterRegistry.get("concurrency_limit.in_flight").gauge().value());
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.LOW));
+    }
+
+    @Test
+    void testFailureShrinksLimitOncePerInterval() {
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+        concurrencyLimitService.release(TEN_MILLIS, true);
+        assertEquals(9.0, limit(), 0.001);
+
+        // 同一批失败请求不会连续收缩
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+        concurrencyLimitService.release(TEN_MILLIS, true);
+        assertEquals(9.0, limit(), 0.001);
+    }
+
+    @Test
+    void testLimitNeverDropsBelowMinimum() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+            concurrencyLimitService.release(TEN_MILLIS, true);
+            Thread.sleep(110);
+        }
+        assertEquals(properties.getMinLimit(), limit(), 0.001);
+
+        // 收缩后低优先级至少保留一个名额
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.LOW));
+        assertTrue(concurrencyLimitService.tryAcquire(Priority.LOW));
+        assertFalse(concurrencyLimitService.tryAcquire(Priority.LOW));
+    }
+
+    @Test
+    void testLimitGrowsUnderSteadyLatencyAndHighUtilization() {
+        for (int i = 0; i < 8; i++) {
+            assertTrue(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+        }
+        // 并发使用率超过一半且延迟平稳，每完成约 limit 个请求上限加一
+        for (int i = 0; i < 30; i++) {
+            concurrencyLimitService.release(TEN_MILLIS, false);
+            assertTrue(concurrencyLimitService.tryAcquire(Priority.CRITICAL));
+        }
+        assertTrue(limit() > 12, "limit=" + limit());
+        assertTrue(limit() <= properties.getMaxLimit());
+    }
+
+    @Test
+    void testConcurrentReleasesKeepStateConsistent() throws InterruptedException {
+        properties.setMaxLimit(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    if (concurrencyLimitService.tryAcquire(Priority.CRITICAL)) {
+                        concurrencyLimitService.release(TEN_MILLIS, false);
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // 并发释放不丢失名额，上限保持在范围内
+        assertEquals(0.0, meterRegistry.get("concurrency_limit.in_flight").gauge().value());
+        assertTrue(limit() >= properties.getMinLimit() && limit() <= properties.getMaxLimit(), "limit=" + limit());
+    }
+
+    private double limit() {
+        return meterRegistry.get("concurrency_limit.limit").gauge().value();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.hello.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.hello.config.RateLimitProperties;
+import com.example.hello.service.impl.RateLimitServiceImpl;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private RateLimitServiceImpl rateLimitService;
+
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker redisCircuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new RateLimitProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(rateLimitService, "properties", properties);
+        ReflectionTestUtils.setField(rateLimitService, "meterRegistry", meterRegistry);
+        redisCircuitBreaker = CircuitBreaker.ofDefaults("redis");
+        ReflectionTestUtils.setField(rateLimitService, "redisCircuitBreaker", redisCircuitBreaker);
+        rateLimitService.registerMetrics();
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testLocalBucketAllowsBurstThenRejects() {
+        RateLimitProperties.Route route = route("login", 3, 0.5, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+        }
+
+        // 突发额度用完，每2秒补充一个令牌，建议至少等待1秒
+        long retryAfter = rateLimitService.tryAcquire(route, "user-1");
+        assertTrue(retryAfter >= 1 && retryAfter <= 3, "retryAfter=" + retryAfter);
+
+        // 不同调用者、不同路由各自独立计数
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-2"));
+        assertEquals(0, rateLimitService.tryAcquire(route("search", 3, 0.5, 0), "user-1"));
+
+        assertEquals(1.0, meterRegistry.counter("rate_limit.requests",
+            "route", "login", "outcome", "throttled_local").count());
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    void testLocalBucketRefills() throws InterruptedException {
+        // 每200毫秒补充一个令牌
+        RateLimitProperties.Route route = route("reserve", 2, 5, 0);
+
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+        assertTrue(rateLimitService.tryAcquire(route, "user-1") > 0);
+
+        Thread.sleep(300);
+
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+    }
+
+    @Test
+    void testSharedBudgetIsLeasedInBatchesUntilExhausted() {
+        properties.setSharedLeaseSize(5);
+        RateLimitProperties.Route route = route("reserve", 100, 100, 7);
+        // 本节点依次领取：第一批5个，第二批只剩2个，第三次额度已用完
+        when(valueOperations.increment(anyString(), eq(5L))).thenReturn(5L, 10L, 15L);
+
+        int allowed = 0;
+        long retryAfter = 0;
+        for (int i = 0; i < 10 && retryAfter == 0; i++) {
+            retryAfter = rateLimitService.tryAcquire(route, "user-1");
+            if (retryAfter == 0) {
+                allowed++;
+            }
+        }
+
+        assertEquals(7, allowed);
+        assertTrue(retryAfter >= 1 && retryAfter <= 61, "retryAfter=" + retryAfter);
+        verify(valueOperations, times(3)).increment(anyString(), eq(5L));
+        verify(stringRedisTemplate, times(1)).expire(anyString(), anyLong(), any());
+
+        // 额度耗尽后本窗口内不再访问Redis
+        assertTrue(rateLimitService.tryAcquire(route, "user-1") > 0);
+        verify(valueOperations, times(3)).increment(anyString(), eq(5L));
+    }
+
+    @Test
+    void testRedisFailureFallsBackToLocalBucket() {
+        RateLimitProperties.Route route = route("reserve", 2, 0.5, 100);
+        when(valueOperations.increment(anyString(), anyLong()))
+            .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+        // 本地令牌桶仍然生效
+        assertTrue(rateLimitService.tryAcquire(route, "user-1") > 0);
+
+        assertEquals(2.0, meterRegistry.counter("rate_limit.redis_errors").count());
+        assertEquals(2, redisCircuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void testOpenCircuitSkipsRedis() {
+        RateLimitProperties.Route route = route("reserve", 2, 0.5, 100);
+        redisCircuitBreaker.transitionToOpenState();
+
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+        assertEquals(0, rateLimitService.tryAcquire(route, "user-1"));
+        assertTrue(rateLimitService.tryAcquire(route, "user-1") > 0);
+
+        // 熔断打开期间不访问Redis，只按本地令牌桶放行
+        verifyNoInteractions(valueOperations);
+        assertEquals(2.0, meterRegistry.counter("rate_limit.redis_errors").count());
+    }
+
+    private static RateLimitProperties.Route route(String name, int capacity, double refillPerSecond,
+                                                   int sharedLimitPerMinute) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName(name);
+        route.setPatterns(List.of("/api/**"));
+        route.setCapacity(capacity);
+        route.setRefillPerSecond(refillPerSecond);
+        route.setSharedLimitPerMinute(sharedLimitPerMinute);
+        return route;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.hello.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.example.hello.cache.CompiledSchedule;
+import com.example.hello.cache.RoomClosureIndex;
+import com.example.hello.cache.RoomScheduleCache;
+import com.example.hello.model.entity.Reservation;
+import com.example.hello.model.entity.Seat;
+import com.example.hello.model.entity.StudyRoom;
+import com.example.hello.model.entity.StudyRoomStatus;
+import com.example.hello.repository.ReservationRepository;
+import com.example.hello.repository.SeatRepository;
+import com.example.hello.repository.StudyRoomRepository;
+
+public class ReservationRelocationServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 1);
+    private static final String REASON = "座位暂停使用";
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @Mock
+    private StudyRoomRepository studyRoomRepository;
+
+    @Mock
+    private RoomClosureIndex roomClosureIndex;
+
+    @Mock
+    private RoomScheduleCache roomScheduleCache;
+
+    @InjectMocks
+    private ReservationRelocationService reservationRelocationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(roomScheduleCache.getAll(anyCollection())).thenAnswer(invocation -> {
+            Map<String, CompiledSchedule> schedules = new HashMap<>();
+            for (Object room : (Collection<?>) invocation.getArgument(0)) {
+                schedules.put(((StudyRoom) room).getId(), CompiledSchedule.compile((StudyRoom) room, List.of()));
+            }
+            return schedules;
+        });
+        when(reservationRepository.cancelConfirmedByIds(anyCollection(), anyString(), any(LocalDateTime.class)))
+            .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @Test
+    void testOverlappingBookingBlocksSeatButAdjacentDoesNot() {
+        rooms(room("room-1", "AVAILABLE"));
+        seats(seat("seat-1", "room-1"), seat("seat-2", "room-1"));
+        // seat-1 已有 10:00-12:00 的预约
+        occupying(reservation("existing", "seat-1", "room-1", 10, 12));
+
+        Reservation overlapping = reservation("r1", "seat-old", "room-1", 11, 13);
+        Reservation adjacent = reservation("r2", "seat-old", "room-1", 12, 14);
+        ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+            List.of(adjacent, overlapping), Set.of("room-1"), Set.of("seat-old"), REASON);
+
+        // 与已有预约重叠只能迁到 seat-2；只在边界相接可以迁到 seat-1
+        assertEquals("seat-2", overlapping.getSeatId());
+        assertEquals("seat-1", adjacent.getSeatId());
+        assertEquals(List.of("r1", "r2"), result.movedReservationIds());
+        assertTrue(result.cancelledReservationIds().isEmpty());
+        assertEquals(Set.of("seat-old", "seat-1", "seat-2"), result.affectedSeatIds());
+        verify(reservationRepository).saveAll(List.of(overlapping, adjacent));
+        verify(reservationRepository, never()).cancelConfirmedByIds(anyCollection(), anyString(), any());
+    }
+
+    @Test
+    void testTwoRelocationsCompeteForOneSeat() {
+        rooms(room("room-1", "AVAILABLE"));
+        seats(seat("seat-1", "room-1"));
+        occupying();
+
+        Reservation first = reservation("r1", "seat-old", "room-1", 9, 11);
+        Reservation second = reservation("r2", "seat-old-2", "room-1", 10, 12);
+        ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+            List.of(second, first), Set.of("room-1"), Set.of("seat-old", "seat-old-2"), REASON);
+
+        // 先开始的预约占用唯一的空闲座位，后一个与之重叠只能取消
+        assertEquals("seat-1", first.getSeatId());
+        assertEquals("seat-old-2", second.getSeatId());
+        assertEquals(List.of("r1"), result.movedReservationIds());
+        assertEquals(List.of("r2"), result.cancelledReservationIds());
+        verify(reservationRepository).cancelConfirmedByIds(eq(List.of("r2")), eq(REASON + "，预约已取消"),
+            any(LocalDateTime.class));
+    }
+
+    @Test
+    void testFallsBackToOtherCandidateRoom() {
+        rooms(room("room-1", "AVAILABLE"), room("room-2", "AVAILABLE"));
+        seats(seat("seat-1", "room-1"), seat("seat-9", "room-2"));
+        occupying(reservation("existing", "seat-1", "room-1", 8, 18));
+
+        Reservation reservation = reservation("r1", "seat-old", "room-1", 10, 12);
+        ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+            List.of(reservation), Set.of("room-1", "room-2"), Set.of("seat-old"), REASON);
+
+        assertEquals("seat-9", reservation.getSeatId());
+        assertEquals("room-2", reservation.getStudyRoomId());
+        assertEquals(REASON + "，已调整至座位 seat-9", reservation.getRemarks());
+        assertEquals(List.of("r1"), result.movedReservationIds());
+    }
+
+    @Test
+    void testAllCandidatesClosedCancelsEverything() {
+        // room-1 已关闭，room-2 当天有整段关闭时段
+        rooms(room("room-1", "CLOSED"), room("room-2", "AVAILABLE"));
+        seats(seat("seat-9", "room-2"));
+        occupying();
+        when(roomClosureIndex.findRoomClosure(eq("room-2"), eq(DAY), any(), any()))
+            .thenReturn(Optional.of(new StudyRoomStatus()));
+
+        Reservation r1 = reservation("r1", "seat-old", "room-1", 9, 11);
+        Reservation r2 = reservation("r2", "seat-old", "room-1", 13, 15);
+        ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+            List.of(r1, r2), Set.of("room-1", "room-2"), Set.of("seat-old"), REASON);
+
+        assertTrue(result.movedReservationIds().isEmpty());
+        assertEquals(List.of("r1", "r2"), result.cancelledReservationIds());
+        assertEquals(Set.of("seat-old"), result.affectedSeatIds());
+        verify(seatRepository).findByStudyRoomIdsAndStatus(Set.of("room-2"), "AVAILABLE");
+        verify(reservationRepository, never()).saveAll(any());
+        verify(reservationRepository).cancelConfirmedByIds(eq(List.of("r1", "r2")), anyString(),
+            any(LocalDateTime.class));
+    }
+
+    @Test
+    void testCancelActionCancelsWithoutLoadingCandidates() {
+        Reservation r1 = reservation("r1", "seat-1", "room-1", 9, 11);
+        Reservation r2 = reservation("r2", "seat-2", "room-1", 9, 11);
+
+        ReservationRelocationService.Result result = reservationRelocationService.relocateOrCancel(
+            List.of(r1, r2), Set.of(), Set.of("seat-1", "seat-2"), REASON);
+
+        assertEquals(List.of("r1", "r2"), result.cancelledReservationIds());
+        assertEquals(Set.of("seat-1", "seat-2"), result.affectedSeatIds());
+        verifyNoInteractions(studyRoomRepository, seatRepository, roomScheduleCache, roomClosureIndex);
+        verify(reservationRepository, never()).findOccupyingByStudyRoomIdsAndDates(anyCollection(), anyCollection());
+        verify(reservationRepository, never()).saveAll(any());
+    }
+
+    private void rooms(StudyRoom... rooms) {
+        when(studyRoomRepository.findAllById(anyCollection())).thenReturn(List.of(rooms));
+    }
+
+    private void seats(Seat... seats) {
+        when(seatRepository.findByStudyRoomIdsAndStatus(anyCollection(), eq("AVAILABLE"))).thenReturn(List.of(seats));
+    }
+
+    private void occupying(Reservation... reservations) {
+        when(reservationRepository.findOccupyingByStudyRoomIdsAndDates(anyCollection(), anyCollection()))
+            .thenReturn(List.of(reservations));
+    }
+
+    private static StudyRoom room(String id, String status) {
+        StudyRoom room = new StudyRoom();
+        room.setId(id);
+        room.setStatus(status);
+        room.setOpenTime("08:00");
+        room.setCloseTime("22:00");
+        return room;
+    }
+
+    private static Seat seat(String id, String studyRoomId) {
+        Seat seat = new Seat();
+        seat.setId(id);
+        seat.setStudyRoomId(studyRoomId);
+        seat.setSeatNumber(id);
+        return seat;
+    }
+
+    private static Reservation reservation(String id, String seatId, String studyRoomId, int startHour, int endHour) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setSeatId(seatId);
+        reservation.setStudyRoomId(studyRoomId);
+        reservation.setDate(DAY);
+        reservation.setStartTime(LocalTime.of(startHour, 0));
+        reservation.setEndTime(LocalTime.of(endHour, 0));
+        return reservation;
+    }
+}
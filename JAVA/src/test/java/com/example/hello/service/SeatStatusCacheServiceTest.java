@@ -0,0 +1,309 @@
+package com.example.hello.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+public class SeatStatusCacheServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 3, 1);
+    private static final long WARM_UP_TTL_SECONDS = 600;
+
+    private FakeRedis redis;
+    private CircuitBreaker circuitBreaker;
+    private SeatStatusCacheService seatStatusCacheService;
+
+    @BeforeEach
+    void setUp() {
+        redis = new FakeRedis();
+        circuitBreaker = CircuitBreaker.ofDefaults("test");
+        seatStatusCacheService = new SeatStatusCacheService(redis.template, null, new ObjectMapper(),
+            circuitBreaker, Caffeine.newBuilder().build(), 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 熔断器会吞掉异常，确认所有Redis操作都被模拟实现支持
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void testShortWriteDoesNotShortenIndexOfWarmUpKeys() {
+        // 预热写入长存活时间的状态，随后普通写入同一座位当天另一个时间段
+        seatStatusCacheService.cacheSeatStatuses(Map.of("seat-1", status("AVAILABLE")), DATE,
+            LocalTime.of(8, 0), LocalTime.of(9, 0), WARM_UP_TTL_SECONDS);
+        seatStatusCacheService.cacheSeatStatus("seat-1", DATE, LocalTime.of(9, 0), LocalTime.of(10, 0),
+            status("AVAILABLE"));
+
+        // 普通写入的状态已过期，预热写入的状态仍然有效
+        redis.advance(120);
+        assertNull(redis.values.get(key("seat-1", 9, 10)));
+        assertNotNull(redis.values.get(key("seat-1", 8, 9)));
+
+        // 座位被预约后清除状态，预热写入的状态也必须被清除
+        seatStatusCacheService.invalidateSeatStatus("seat-1", DATE);
+
+        assertFalse(redis.values.containsKey(key("seat-1", 8, 9)));
+        assertNull(seatStatusCacheService.getCachedSeatStatus("seat-1", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0)));
+    }
+
+    @Test
+    void testIndexOutlivesEveryIndexedStatus() {
+        // 超过索引上限的存活时间被截断
+        seatStatusCacheService.cacheSeatStatuses(Map.of("seat-1", status("AVAILABLE")), DATE,
+            LocalTime.of(10, 0), LocalTime.of(11, 0), TimeUnit.DAYS.toSeconds(7));
+        seatStatusCacheService.cacheSeatStatuses(Map.of("seat-1", status("AVAILABLE")), DATE,
+            LocalTime.of(8, 0), LocalTime.of(9, 0), WARM_UP_TTL_SECONDS);
+        seatStatusCacheService.cacheSeatStatus("seat-1", DATE, LocalTime.of(9, 0), LocalTime.of(10, 0),
+            status("AVAILABLE"));
+
+        String indexKey = "seat:status_index:seat-1:" + DATE;
+        for (Object member : redis.sets.get(indexKey)) {
+            assertTrue(redis.expiresAt.get(indexKey) >= redis.expiresAt.get((String) member),
+                "索引先于状态键过期: " + member);
+        }
+    }
+
+    @Test
+    void testInvalidateClearsOnlyThatSeatAndDate() {
+        seatStatusCacheService.cacheSeatStatuses(Map.of(
+                "seat-1", status("AVAILABLE"),
+                "seat-2", status("AVAILABLE")),
+            DATE, LocalTime.of(8, 0), LocalTime.of(9, 0));
+        seatStatusCacheService.cacheSeatStatus("seat-1", DATE.plusDays(1), LocalTime.of(8, 0), LocalTime.of(9, 0),
+            status("AVAILABLE"));
+
+        seatStatusCacheService.invalidateSeatStatus("seat-1", DATE);
+
+        assertNull(seatStatusCacheService.getCachedSeatStatus("seat-1", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0)));
+        assertNotNull(seatStatusCacheService.getCachedSeatStatus("seat-2", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0)));
+        assertNotNull(seatStatusCacheService.getCachedSeatStatus("seat-1", DATE.plusDays(1),
+            LocalTime.of(8, 0), LocalTime.of(9, 0)));
+    }
+
+    @Test
+    void testInvalidateSeatClearsEveryDateThroughIndex() {
+        seatStatusCacheService.cacheSeatStatuses(Map.of(
+                "seat-1", status("AVAILABLE"),
+                "seat-2", status("AVAILABLE")),
+            DATE, LocalTime.of(8, 0), LocalTime.of(9, 0));
+        seatStatusCacheService.cacheSeatStatuses(Map.of("seat-1", status("AVAILABLE")), DATE.plusDays(1),
+            LocalTime.of(8, 0), LocalTime.of(9, 0), WARM_UP_TTL_SECONDS);
+
+        seatStatusCacheService.invalidateSeatStatus("seat-1");
+
+        assertTrue(redis.values.keySet().stream().noneMatch(key -> key.startsWith("seat:status:seat-1:")));
+        assertTrue(redis.sets.keySet().stream().noneMatch(key -> key.contains("seat-1")));
+        assertTrue(redis.values.containsKey(key("seat-2", 8, 9)));
+    }
+
+    @Test
+    void testBulkInvalidateClearsOnlyGivenSeats() {
+        Map<String, Map<String, Object>> statuses = new HashMap<>();
+        for (int i = 0; i < 1200; i++) {
+            statuses.put("seat-" + i, status("AVAILABLE"));
+        }
+        seatStatusCacheService.cacheSeatStatuses(statuses, DATE, LocalTime.of(8, 0), LocalTime.of(9, 0));
+        seatStatusCacheService.cacheSeatStatuses(statuses, DATE.plusDays(1), LocalTime.of(8, 0), LocalTime.of(9, 0));
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            removed.add("seat-" + i);
+        }
+
+        seatStatusCacheService.invalidateSeatStatuses(removed);
+
+        assertFalse(redis.values.containsKey(key("seat-0", 8, 9)));
+        assertFalse(redis.values.containsKey(key("seat-1099", 8, 9)));
+        assertNull(seatStatusCacheService.getCachedSeatStatus("seat-550", DATE.plusDays(1),
+            LocalTime.of(8, 0), LocalTime.of(9, 0)));
+        assertTrue(redis.values.containsKey(key("seat-1100", 8, 9)));
+        // 剩余100个座位各两个日期的状态键、日期索引，以及各自的座位索引
+        assertEquals(200, redis.values.size());
+        assertEquals(300, redis.sets.size());
+    }
+
+    @Test
+    void testInvalidationsMissedWhileOpenAreReplayedOnClose() {
+        seatStatusCacheService.cacheSeatStatus("seat-1", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0),
+            status("AVAILABLE"));
+        seatStatusCacheService.cacheSeatStatus("seat-2", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0),
+            status("AVAILABLE"));
+        seatStatusCacheService.cacheStudyRoomSeats("room-1", List.of());
+
+        circuitBreaker.transitionToForcedOpenState();
+        seatStatusCacheService.invalidateSeatStatus("seat-1");
+        seatStatusCacheService.invalidateSeatStatus("seat-2", DATE);
+        seatStatusCacheService.invalidateStudyRoomSeats("room-1");
+        assertTrue(redis.values.containsKey(key("seat-1", 8, 9)));
+
+        circuitBreaker.transitionToClosedState();
+
+        assertFalse(redis.values.containsKey(key("seat-1", 8, 9)));
+        assertFalse(redis.values.containsKey(key("seat-2", 8, 9)));
+        assertFalse(redis.values.containsKey("study_room:seats:room-1"));
+    }
+
+    @Test
+    void testInvalidationInTransactionRunsAfterCommit() {
+        seatStatusCacheService.cacheSeatStatus("seat-1", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0),
+            status("AVAILABLE"));
+        seatStatusCacheService.cacheStudyRoomSeats("room-1", List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            seatStatusCacheService.invalidateSeatStatus("seat-1", DATE);
+            seatStatusCacheService.invalidateSeatStatuses(List.of("seat-1"));
+            seatStatusCacheService.invalidateStudyRoomSeats("room-1");
+
+            // 提交前不清除，避免并发查询把旧数据立即写回
+            assertTrue(redis.values.containsKey(key("seat-1", 8, 9)));
+            assertTrue(redis.values.containsKey("study_room:seats:room-1"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(redis.values.containsKey(key("seat-1", 8, 9)));
+        assertFalse(redis.values.containsKey("study_room:seats:room-1"));
+        assertNull(seatStatusCacheService.getCachedSeatStatus("seat-1", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0)));
+    }
+
+    @Test
+    void testInvalidationIsDroppedOnRollback() {
+        seatStatusCacheService.cacheSeatStatus("seat-1", DATE, LocalTime.of(8, 0), LocalTime.of(9, 0),
+            status("AVAILABLE"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            seatStatusCacheService.invalidateSeatStatus("seat-1", DATE);
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(redis.values.containsKey(key("seat-1", 8, 9)));
+    }
+
+    private static String key(String seatId, int startHour, int endHour) {
+        return "seat:status:" + seatId + ":" + DATE + ":" + LocalTime.of(startHour, 0) + ":" + LocalTime.of(endHour, 0);
+    }
+
+    private static Map<String, Object> status(String status) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", status);
+        return result;
+    }
+
+    /**
+     * 用内存模拟Redis的键值、集合和过期时间，时间由测试推进
+     */
+    static final class FakeRedis {
+        final Map<String, Object> values = new HashMap<>();
+        final Map<String, Set<Object>> sets = new HashMap<>();
+        final Map<String, Long> expiresAt = new HashMap<>();
+        private long now;
+
+        @SuppressWarnings("unchecked")
+        final RedisTemplate<String, Object> template = mock(RedisTemplate.class, this::answer);
+        @SuppressWarnings("unchecked")
+        final ValueOperations<String, Object> valueOps = mock(ValueOperations.class, this::answer);
+        @SuppressWarnings("unchecked")
+        final SetOperations<String, Object> setOps = mock(SetOperations.class, this::answer);
+
+        void advance(long seconds) {
+            now += seconds;
+            List<String> expired = new ArrayList<>();
+            expiresAt.forEach((key, at) -> {
+                if (at <= now) {
+                    expired.add(key);
+                }
+            });
+            expired.forEach(this::remove);
+        }
+
+        private boolean remove(String key) {
+            expiresAt.remove(key);
+            return values.remove(key) != null | sets.remove(key) != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object answer(InvocationOnMock invocation) throws Throwable {
+            Object[] args = invocation.getArguments();
+            switch (invocation.getMethod().getName()) {
+                case "opsForValue":
+                    return valueOps;
+                case "opsForSet":
+                    return setOps;
+                case "executePipelined":
+                    ((SessionCallback<?>) args[0]).execute(template);
+                    return List.of();
+                case "set":
+                    values.put((String) args[0], args[1]);
+                    expiresAt.put((String) args[0], now + ((TimeUnit) args[3]).toSeconds((Long) args[2]));
+                    return null;
+                case "get":
+                    return values.get(args[0]);
+                case "multiGet":
+                    List<Object> result = new ArrayList<>();
+                    ((Collection<String>) args[0]).forEach(key -> result.add(values.get(key)));
+                    return result;
+                case "add":
+                    Set<Object> set = sets.computeIfAbsent((String) args[0], key -> new HashSet<>());
+                    // Mockito 展开了可变参数
+                    return (long) (set.addAll(Arrays.asList(args).subList(1, args.length)) ? 1 : 0);
+                case "members":
+                    return sets.containsKey(args[0]) ? new HashSet<>(sets.get(args[0])) : Set.of();
+                case "union":
+                    Set<Object> union = new HashSet<>();
+                    ((Collection<String>) args[0]).forEach(key -> union.addAll(sets.getOrDefault(key, Set.of())));
+                    return union;
+                case "expire":
+                    if (!values.containsKey(args[0]) && !sets.containsKey(args[0])) {
+                        return false;
+                    }
+                    expiresAt.put((String) args[0], now + ((TimeUnit) args[2]).toSeconds((Long) args[1]));
+                    return true;
+                case "delete":
+                    if (args[0] instanceof Collection<?> keys) {
+                        long deleted = 0;
+                        for (Object key : keys) {
+                            deleted += remove((String) key) ? 1 : 0;
+                        }
+                        return deleted;
+                    }
+                    return remove((String) args[0]);
+                default:
+                    throw new UnsupportedOperationException(invocation.getMethod().toString());
+            }
+        }
+    }
+}